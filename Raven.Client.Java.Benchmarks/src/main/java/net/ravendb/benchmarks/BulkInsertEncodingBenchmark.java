@@ -0,0 +1,57 @@
+package net.ravendb.benchmarks;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import net.ravendb.abstractions.data.Constants;
+import net.ravendb.abstractions.json.linq.RavenJObject;
+import net.ravendb.benchmarks.model.Company;
+import net.ravendb.client.document.BulkInsertBatchEncoder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Encoding of single bulk insert batch (gzipped BSON) by encoder used by RemoteBulkInsertOperation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class BulkInsertEncodingBenchmark {
+
+  @Param({ "512", "2048" })
+  private int batchSize;
+
+  private final BulkInsertBatchEncoder encoder = new BulkInsertBatchEncoder();
+  private List<RavenJObject> batch;
+
+  @Setup
+  public void setup() {
+    batch = new ArrayList<>();
+    for (int i = 0; i < batchSize; i++) {
+      RavenJObject doc = RavenJObject.fromObject(Company.create(i));
+      RavenJObject metadata = new RavenJObject();
+      metadata.add("@id", "companies/" + i);
+      metadata.add(Constants.RAVEN_ENTITY_NAME, "Companies");
+      doc.add(Constants.METADATA, metadata);
+      batch.add(doc);
+    }
+  }
+
+  @Benchmark
+  public int encodeBatch() throws IOException {
+    encoder.startBatch();
+    for (RavenJObject doc : batch) {
+      encoder.write(doc);
+    }
+    return encoder.finishBatch().size();
+  }
+}
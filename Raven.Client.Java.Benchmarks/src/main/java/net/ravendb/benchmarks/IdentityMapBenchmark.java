@@ -0,0 +1,87 @@
+package net.ravendb.benchmarks;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import net.ravendb.client.util.CaseInsensitiveHashMap;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Session identity map: case insensitive TreeMap (previous implementation) compared to CaseInsensitiveHashMap.
+ * Every benchmark invocation looks up all ids of the session (using different case than stored).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class IdentityMapBenchmark {
+
+  @Param({ "50000" })
+  private int size;
+
+  private String[] lookupIds;
+  private Map<String, Object> treeMap;
+  private CaseInsensitiveHashMap<Object> hashMap;
+
+  @Setup
+  public void setup() {
+    treeMap = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    hashMap = new CaseInsensitiveHashMap<>();
+    lookupIds = new String[size];
+    for (int i = 0; i < size; i++) {
+      String id = "companies/" + i;
+      Object entity = new Object();
+      treeMap.put(id, entity);
+      hashMap.put(id, entity);
+      lookupIds[i] = "Companies/" + i;
+    }
+  }
+
+  @Benchmark
+  public int treeMapContainsAndGet() {
+    int found = 0;
+    for (String id : lookupIds) {
+      if (treeMap.containsKey(id) && treeMap.get(id) != null) {
+        found++;
+      }
+    }
+    return found;
+  }
+
+  @Benchmark
+  public int hashMapGetOrNull() {
+    int found = 0;
+    for (String id : lookupIds) {
+      if (hashMap.getOrNull(id) != null) {
+        found++;
+      }
+    }
+    return found;
+  }
+
+  @Benchmark
+  public int treeMapPopulate() {
+    Map<String, Object> map = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    for (String id : lookupIds) {
+      map.put(id, id);
+    }
+    return map.size();
+  }
+
+  @Benchmark
+  public int hashMapPopulate() {
+    CaseInsensitiveHashMap<Object> map = new CaseInsensitiveHashMap<>();
+    for (String id : lookupIds) {
+      map.put(id, id);
+    }
+    return map.size();
+  }
+}
@@ -0,0 +1,58 @@
+package net.ravendb.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import net.ravendb.abstractions.json.linq.RavenJObject;
+import net.ravendb.benchmarks.model.Company;
+import net.ravendb.client.document.DocumentConvention;
+import net.ravendb.client.document.JsonSerializer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Entity to RavenJObject conversions, as done by session when storing and loading entities.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class JsonSerializerBenchmark {
+
+  private JsonSerializer serializer;
+  private Company company;
+  private RavenJObject document;
+  private String json;
+
+  @Setup
+  public void setup() {
+    serializer = new DocumentConvention().createSerializer();
+    company = Company.create(1);
+    document = RavenJObject.fromObject(company, serializer);
+    json = document.toString();
+  }
+
+  @Benchmark
+  public RavenJObject toRavenJObject() {
+    return RavenJObject.fromObject(company, serializer);
+  }
+
+  @Benchmark
+  public Company fromRavenJObject() {
+    return serializer.deserialize(document, Company.class);
+  }
+
+  @Benchmark
+  public Company fromString() {
+    return serializer.deserialize(json, Company.class);
+  }
+
+  @Benchmark
+  public Company roundTrip() {
+    return serializer.deserialize(RavenJObject.fromObject(company, serializer), Company.class);
+  }
+}
@@ -0,0 +1,40 @@
+package net.ravendb.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import net.ravendb.abstractions.data.IndexQuery;
+import net.ravendb.abstractions.data.SortedField;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Building of query URL sent to /indexes endpoint.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class QueryUrlBenchmark {
+
+  private IndexQuery query;
+
+  @Setup
+  public void setup() {
+    query = new IndexQuery();
+    query.setQuery("Name:Company* AND Address_City:Springfield AND Employees_Range:{Ix10 TO NULL}");
+    query.setSortedFields(new SortedField[] { new SortedField("Name"), new SortedField("-Employees_Range") });
+    query.setFieldsToFetch(new String[] { "Name", "Address.City", "Employees" });
+    query.setStart(100);
+    query.setPageSize(25);
+  }
+
+  @Benchmark
+  public String indexQueryUrl() {
+    return query.getIndexQueryUrl("http://localhost:8080/databases/Northwind", "Companies/ByNameAndCity", "indexes");
+  }
+}
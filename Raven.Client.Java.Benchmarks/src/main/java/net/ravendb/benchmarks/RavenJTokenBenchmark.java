@@ -0,0 +1,47 @@
+package net.ravendb.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import net.ravendb.abstractions.json.linq.RavenJObject;
+import net.ravendb.benchmarks.model.Company;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Parsing, serializing and cloning of RavenJObject.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class RavenJTokenBenchmark {
+
+  private String json;
+  private RavenJObject document;
+
+  @Setup
+  public void setup() {
+    document = RavenJObject.fromObject(Company.create(1));
+    json = document.toString();
+  }
+
+  @Benchmark
+  public RavenJObject parse() {
+    return RavenJObject.parse(json);
+  }
+
+  @Benchmark
+  public String serialize() {
+    return document.toString();
+  }
+
+  @Benchmark
+  public RavenJObject cloneToken() {
+    return document.cloneToken();
+  }
+}
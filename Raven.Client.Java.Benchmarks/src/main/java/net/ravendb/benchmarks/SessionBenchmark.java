@@ -0,0 +1,142 @@
+package net.ravendb.benchmarks;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import net.ravendb.abstractions.data.Constants;
+import net.ravendb.abstractions.data.Etag;
+import net.ravendb.abstractions.json.linq.RavenJObject;
+import net.ravendb.benchmarks.model.Company;
+import net.ravendb.benchmarks.model.Product;
+import net.ravendb.benchmarks.stub.CannedRavenResponses;
+import net.ravendb.benchmarks.stub.RavenStubServer;
+import net.ravendb.client.IDocumentSession;
+import net.ravendb.client.IDocumentStore;
+import net.ravendb.client.document.DocumentStore;
+import net.ravendb.client.document.FailoverBehavior;
+import net.ravendb.client.document.FailoverBehaviorSet;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * End-to-end session operations against in-process stub server.
+ * Run with "-prof gc" to see allocation rate per operation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SessionBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class StoreState {
+    RavenStubServer server;
+    IDocumentStore store;
+
+    @Setup
+    public void setup() throws IOException {
+      RavenJObject document = RavenJObject.fromObject(Company.create(1));
+      Map<String, String> metadata = new HashMap<>();
+      metadata.put(Constants.RAVEN_ENTITY_NAME, "Companies");
+      metadata.put(Constants.RAVEN_JAVA_CLASS, Company.class.getName());
+      server = new RavenStubServer()
+        .on("/docs", CannedRavenResponses.documentById(document, metadata, Etag.empty().incrementBy(1)))
+        .on("/bulk_docs", CannedRavenResponses.bulkDocs())
+        .start();
+
+      DocumentStore documentStore = new DocumentStore(server.getUrl());
+      documentStore.getConventions().setFailoverBehavior(FailoverBehaviorSet.of(FailoverBehavior.FAIL_IMMEDIATELY));
+      store = documentStore.initialize();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+      store.close();
+      server.close();
+    }
+  }
+
+  /**
+   * Session with entities already loaded - measures dirty checking without network.
+   */
+  @State(Scope.Thread)
+  public static class LoadedSessionState {
+    @Param({ "100", "1000" })
+    int entities;
+
+    IDocumentSession session;
+
+    @Setup(Level.Iteration)
+    public void setup(StoreState storeState) {
+      session = storeState.store.openSession();
+      session.advanced().setMaxNumberOfRequestsPerSession(Integer.MAX_VALUE);
+      for (int i = 0; i < entities; i++) {
+        session.load(Company.class, "companies/" + i);
+      }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+      session.close();
+    }
+  }
+
+  @Benchmark
+  public Company loadSingle(StoreState state) {
+    try (IDocumentSession session = state.store.openSession()) {
+      return session.load(Company.class, "companies/1");
+    }
+  }
+
+  @Benchmark
+  public void storeAndSaveChanges(StoreState state) {
+    try (IDocumentSession session = state.store.openSession()) {
+      for (int i = 0; i < 10; i++) {
+        session.store(Company.create(i));
+      }
+      session.saveChanges();
+    }
+  }
+
+  /**
+   * Large unit of work - dominated by per entity overhead (identity access, type tag, metadata).
+   */
+  @Benchmark
+  @OutputTimeUnit(TimeUnit.MILLISECONDS)
+  public void storeAndSaveChangesManySmallEntities(StoreState state) {
+    try (IDocumentSession session = state.store.openSession()) {
+      for (int i = 0; i < 10000; i++) {
+        Product product = new Product();
+        product.setId("products/" + i);
+        product.setName("Product #" + i);
+        product.setPrice(i % 100);
+        session.store(product);
+      }
+      session.saveChanges();
+    }
+  }
+
+  @Benchmark
+  public void loadModifyAndSaveChanges(StoreState state) {
+    try (IDocumentSession session = state.store.openSession()) {
+      Company company = session.load(Company.class, "companies/1");
+      company.setEmployees(company.getEmployees() + 1);
+      session.saveChanges();
+    }
+  }
+
+  @Benchmark
+  public boolean dirtyCheck(LoadedSessionState state) {
+    return state.session.advanced().hasChanges();
+  }
+
+}
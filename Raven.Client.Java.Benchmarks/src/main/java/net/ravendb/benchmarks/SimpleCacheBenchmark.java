@@ -0,0 +1,70 @@
+package net.ravendb.benchmarks;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import net.ravendb.abstractions.json.linq.RavenJObject;
+import net.ravendb.client.connection.CachedRequest;
+import net.ravendb.client.util.SimpleCache;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+/**
+ * Contention on HTTP cache shared by all requests of document store.
+ * Key space is twice the cache size, so cache keeps evicting entries.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Threads(8)
+public class SimpleCacheBenchmark {
+
+  private static final int CACHE_SIZE = 2048;
+
+  private SimpleCache cache;
+  private String[] keys;
+  private CachedRequest request;
+
+  @Setup
+  public void setup() {
+    cache = new SimpleCache(CACHE_SIZE);
+    keys = new String[CACHE_SIZE * 2];
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = "http://localhost:8080/databases/Northwind/docs?id=companies%2F" + i;
+    }
+    request = new CachedRequest(new RavenJObject(), new Date(), Collections.<String, String> emptyMap(), "Northwind", false);
+    for (int i = 0; i < CACHE_SIZE; i++) {
+      cache.set(keys[i], request);
+    }
+  }
+
+  @TearDown
+  public void tearDown() {
+    cache.close();
+  }
+
+  @Benchmark
+  public CachedRequest get() {
+    return cache.get(keys[ThreadLocalRandom.current().nextInt(keys.length)]);
+  }
+
+  @Benchmark
+  public CachedRequest getOrSet() {
+    String key = keys[ThreadLocalRandom.current().nextInt(keys.length)];
+    CachedRequest cached = cache.get(key);
+    if (cached == null) {
+      cache.set(key, request);
+    }
+    return cached;
+  }
+}
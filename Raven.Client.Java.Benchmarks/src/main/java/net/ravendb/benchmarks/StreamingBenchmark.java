@@ -0,0 +1,69 @@
+package net.ravendb.benchmarks;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import net.ravendb.abstractions.basic.CloseableIterator;
+import net.ravendb.abstractions.json.linq.RavenJObject;
+import net.ravendb.benchmarks.model.Company;
+import net.ravendb.benchmarks.stub.CannedRavenResponses;
+import net.ravendb.benchmarks.stub.RavenStubServer;
+import net.ravendb.client.document.DocumentStore;
+import net.ravendb.client.document.FailoverBehavior;
+import net.ravendb.client.document.FailoverBehaviorSet;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Streaming of documents (RavenJObjectIterator) from in-process stub server.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Benchmark)
+public class StreamingBenchmark {
+
+  @Param({ "1000", "10000" })
+  private int documents;
+
+  private RavenStubServer server;
+  private DocumentStore store;
+
+  @Setup
+  public void setup() throws IOException {
+    RavenJObject document = RavenJObject.fromObject(Company.create(1));
+    server = new RavenStubServer()
+      .on("/singleAuthToken", CannedRavenResponses.singleAuthToken())
+      .on("/streams/docs", CannedRavenResponses.streamDocs(document, "companies/", documents))
+      .start();
+
+    store = new DocumentStore(server.getUrl());
+    store.getConventions().setFailoverBehavior(FailoverBehaviorSet.of(FailoverBehavior.FAIL_IMMEDIATELY));
+    store.initialize();
+  }
+
+  @TearDown
+  public void tearDown() {
+    store.close();
+    server.close();
+  }
+
+  @Benchmark
+  public int streamDocs() throws Exception {
+    int count = 0;
+    try (CloseableIterator<RavenJObject> iterator = store.getDatabaseCommands().streamDocs(null, "companies/")) {
+      while (iterator.hasNext()) {
+        iterator.next();
+        count++;
+      }
+    }
+    return count;
+  }
+}
@@ -0,0 +1,105 @@
+package net.ravendb.benchmarks.model;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+public class Company {
+  private String id;
+  private String name;
+  private String description;
+  private Address address;
+  private List<String> phones;
+  private int employees;
+  private double revenue;
+  private Date createdAt;
+
+  /**
+   * Creates sample company used by benchmarks.
+   * @param i
+   */
+  public static Company create(int i) {
+    Company company = new Company();
+    company.setId("companies/" + i);
+    company.setName("Company #" + i);
+    company.setDescription("Sample company used to measure client overhead, it has a few properties of different types.");
+    Address address = new Address();
+    address.setStreet(i + " Main Street");
+    address.setCity("Springfield");
+    address.setPostalCode("12-345");
+    address.setCountry("USA");
+    company.setAddress(address);
+    List<String> phones = new ArrayList<>();
+    phones.add("+1 555 0100");
+    phones.add("+1 555 0101");
+    company.setPhones(phones);
+    company.setEmployees(10 + i % 1000);
+    company.setRevenue(12345.67 * (i % 10));
+    company.setCreatedAt(new Date(1420070400000L));
+    return company;
+  }
+
+  public String getId() {
+    return id;
+  }
+
+  public void setId(String id) {
+    this.id = id;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  public void setName(String name) {
+    this.name = name;
+  }
+
+  public String getDescription() {
+    return description;
+  }
+
+  public void setDescription(String description) {
+    this.description = description;
+  }
+
+  public Address getAddress() {
+    return address;
+  }
+
+  public void setAddress(Address address) {
+    this.address = address;
+  }
+
+  public List<String> getPhones() {
+    return phones;
+  }
+
+  public void setPhones(List<String> phones) {
+    this.phones = phones;
+  }
+
+  public int getEmployees() {
+    return employees;
+  }
+
+  public void setEmployees(int employees) {
+    this.employees = employees;
+  }
+
+  public double getRevenue() {
+    return revenue;
+  }
+
+  public void setRevenue(double revenue) {
+    this.revenue = revenue;
+  }
+
+  public Date getCreatedAt() {
+    return createdAt;
+  }
+
+  public void setCreatedAt(Date createdAt) {
+    this.createdAt = createdAt;
+  }
+}
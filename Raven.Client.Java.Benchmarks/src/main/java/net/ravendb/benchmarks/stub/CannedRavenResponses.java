@@ -0,0 +1,134 @@
+package net.ravendb.benchmarks.stub;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLDecoder;
+import java.util.HashMap;
+import java.util.Map;
+
+import net.ravendb.abstractions.data.Constants;
+import net.ravendb.abstractions.data.Etag;
+import net.ravendb.abstractions.json.linq.RavenJArray;
+import net.ravendb.abstractions.json.linq.RavenJObject;
+import net.ravendb.abstractions.json.linq.RavenJToken;
+import net.ravendb.abstractions.json.linq.RavenJValue;
+
+/**
+ * Responders emulating the RavenDB endpoints used by benchmarks.
+ */
+public class CannedRavenResponses {
+
+  private static final String LAST_MODIFIED = "2015-01-01T00:00:00.0000000";
+
+  private CannedRavenResponses() {
+    // static utility class
+  }
+
+  /**
+   * GET /docs?id=... - returns copy of given document for every id (with "Id" property set to requested id).
+   * @param document
+   * @param metadata metadata returned as response headers
+   * @param etag
+   */
+  public static RavenStubServer.Responder documentById(final RavenJObject document, final Map<String, String> metadata, final Etag etag) {
+    return new RavenStubServer.Responder() {
+      @Override
+      public StubResponse respond(String method, URI uri, byte[] requestBody) throws IOException {
+        String id = queryParameter(uri, "id");
+        if (id == null) {
+          return StubResponse.NOT_FOUND;
+        }
+        Map<String, String> headers = new HashMap<>(metadata);
+        headers.put(Constants.METADATA_ETAG_FIELD, "\"" + etag + "\"");
+        headers.put(Constants.DOCUMENT_ID_FIELD_NAME, id);
+        headers.put(Constants.RAVEN_LAST_MODIFIED, LAST_MODIFIED);
+        RavenJObject doc = document.cloneToken();
+        if (doc.containsKey("Id")) {
+          doc.set("Id", new RavenJValue(id));
+        }
+        return new StubResponse(200, headers, doc.toString().getBytes(StubResponse.UTF8));
+      }
+    };
+  }
+
+  /**
+   * POST /bulk_docs - acknowledges every command of the batch.
+   */
+  public static RavenStubServer.Responder bulkDocs() {
+    return new RavenStubServer.Responder() {
+      private Etag etag = Etag.empty();
+
+      @Override
+      public StubResponse respond(String method, URI uri, byte[] requestBody) {
+        RavenJArray commands = RavenJArray.parse(new String(requestBody, StubResponse.UTF8));
+        RavenJArray results = new RavenJArray();
+        for (RavenJToken command : commands) {
+          RavenJObject commandObject = (RavenJObject) command;
+          RavenJObject result = new RavenJObject();
+          result.add("Key", commandObject.get("Key"));
+          result.add("Method", commandObject.get("Method"));
+          result.add("Etag", nextEtag().toString());
+          result.add("Metadata", commandObject.containsKey("Metadata") ? commandObject.get("Metadata") : new RavenJObject());
+          results.add(result);
+        }
+        return StubResponse.json(results.toString());
+      }
+
+      private synchronized Etag nextEtag() {
+        etag = etag.incrementBy(1);
+        return etag;
+      }
+    };
+  }
+
+  /**
+   * GET /streams/docs - streams given number of copies of document.
+   * @param document
+   * @param idPrefix
+   * @param count
+   */
+  public static StubResponse streamDocs(RavenJObject document, String idPrefix, int count) {
+    StringBuilder sb = new StringBuilder("{\"Results\":[");
+    Etag etag = Etag.empty();
+    for (int i = 0; i < count; i++) {
+      RavenJObject doc = document.cloneToken();
+      if (doc.containsKey("Id")) {
+        doc.set("Id", new RavenJValue(idPrefix + i));
+      }
+      RavenJObject metadata = new RavenJObject();
+      etag = etag.incrementBy(1);
+      metadata.add("@id", idPrefix + i);
+      metadata.add("@etag", etag.toString());
+      metadata.add(Constants.RAVEN_LAST_MODIFIED, LAST_MODIFIED);
+      doc.add(Constants.METADATA, metadata);
+      if (i > 0) {
+        sb.append(',');
+      }
+      sb.append(doc.toString());
+    }
+    sb.append("]}");
+    return StubResponse.json(sb.toString());
+  }
+
+  /**
+   * GET /singleAuthToken - token requested by client before streaming.
+   */
+  public static StubResponse singleAuthToken() {
+    return StubResponse.json("{\"Token\":\"benchmark\"}");
+  }
+
+  private static String queryParameter(URI uri, String name) throws IOException {
+    String query = uri.getRawQuery();
+    if (query == null) {
+      return null;
+    }
+    for (String pair : query.split("&")) {
+      int idx = pair.indexOf('=');
+      if (idx > 0 && name.equals(pair.substring(0, idx))) {
+        return URLDecoder.decode(pair.substring(idx + 1), "UTF-8");
+      }
+    }
+    return null;
+  }
+
+}
@@ -0,0 +1,300 @@
+package net.ravendb.benchmarks.stub;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+
+import net.ravendb.abstractions.logging.ILog;
+import net.ravendb.abstractions.logging.LogManager;
+
+/**
+ * Lightweight in-process HTTP/1.1 server which replays canned RavenDB responses.
+ * Requests are dispatched to responder registered for the longest matching path prefix,
+ * unmatched requests get 404 (what client expects for missing documents).
+ *
+ * It is intentionally minimal (keep-alive, chunked request bodies, gzipped request bodies),
+ * but unlike com.sun.net.httpserver it preserves case of response header names (client relies on e.g. "ETag").
+ */
+public class RavenStubServer implements Closeable {
+
+  private static final ILog log = LogManager.getCurrentClassLogger();
+
+  private static final Charset ASCII = Charset.forName("ISO-8859-1");
+
+  public interface Responder {
+    StubResponse respond(String method, URI uri, byte[] body) throws IOException;
+  }
+
+  private final ServerSocket serverSocket;
+  private final ExecutorService executor;
+  private final ConcurrentSkipListMap<String, Responder> responders = new ConcurrentSkipListMap<>();
+  private final AtomicLong requestCount = new AtomicLong();
+  private volatile boolean closed;
+
+  public RavenStubServer() throws IOException {
+    serverSocket = new ServerSocket(0, 512, InetAddress.getLoopbackAddress());
+    executor = Executors.newCachedThreadPool(new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, "RavenDB stub server");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+  }
+
+  public RavenStubServer start() {
+    executor.execute(new Runnable() {
+      @Override
+      public void run() {
+        acceptConnections();
+      }
+    });
+    return this;
+  }
+
+  public String getUrl() {
+    return "http://" + serverSocket.getInetAddress().getHostAddress() + ":" + serverSocket.getLocalPort();
+  }
+
+  /**
+   * Registers responder for all requests which path starts with given prefix.
+   * @param pathPrefix
+   * @param responder
+   */
+  public RavenStubServer on(String pathPrefix, Responder responder) {
+    responders.put(pathPrefix, responder);
+    return this;
+  }
+
+  /**
+   * Registers fixed response for all requests which path starts with given prefix.
+   * @param pathPrefix
+   * @param response
+   */
+  public RavenStubServer on(String pathPrefix, final StubResponse response) {
+    return on(pathPrefix, new Responder() {
+      @Override
+      public StubResponse respond(String method, URI uri, byte[] body) {
+        return response;
+      }
+    });
+  }
+
+  public long getRequestCount() {
+    return requestCount.get();
+  }
+
+  private void acceptConnections() {
+    while (!closed) {
+      try {
+        final Socket socket = serverSocket.accept();
+        socket.setTcpNoDelay(true);
+        executor.execute(new Runnable() {
+          @Override
+          public void run() {
+            serveConnection(socket);
+          }
+        });
+      } catch (IOException e) {
+        if (!closed) {
+          log.warnException("Unable to accept stub server connection", e);
+        }
+      }
+    }
+  }
+
+  private void serveConnection(Socket socket) {
+    try (Socket s = socket) {
+      InputStream input = new BufferedInputStream(s.getInputStream());
+      OutputStream output = new BufferedOutputStream(s.getOutputStream());
+      while (!closed && serveRequest(input, output)) {
+        output.flush();
+      }
+      output.flush();
+    } catch (EOFException | SocketException e) {
+      // client closed connection
+    } catch (IOException e) {
+      if (!closed) {
+        log.warnException("Unable to serve stub server request", e);
+      }
+    }
+  }
+
+  /**
+   * @return true if connection should be kept open
+   */
+  private boolean serveRequest(InputStream input, OutputStream output) throws IOException {
+    String requestLine = readLine(input);
+    if (requestLine == null) {
+      return false;
+    }
+    if (requestLine.isEmpty()) {
+      return true;
+    }
+    String[] parts = requestLine.split(" ");
+    String method = parts[0];
+    URI uri = URI.create(parts[1]);
+
+    Map<String, String> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    String line;
+    while ((line = readLine(input)) != null && !line.isEmpty()) {
+      int idx = line.indexOf(':');
+      headers.put(line.substring(0, idx).trim(), line.substring(idx + 1).trim());
+    }
+
+    byte[] body = readBody(input, headers);
+    requestCount.incrementAndGet();
+
+    Responder responder = findResponder(uri.getPath());
+    StubResponse response = responder != null ? responder.respond(method, uri, body) : StubResponse.NOT_FOUND;
+
+    boolean keepAlive = !"close".equalsIgnoreCase(headers.get("Connection"));
+    writeResponse(output, response, keepAlive);
+    return keepAlive;
+  }
+
+  private Responder findResponder(String path) {
+    // keys are sorted, so first prefix found going down from path is the longest one
+    for (Map.Entry<String, Responder> entry : responders.headMap(path, true).descendingMap().entrySet()) {
+      if (path.startsWith(entry.getKey())) {
+        return entry.getValue();
+      }
+    }
+    return null;
+  }
+
+  private static byte[] readBody(InputStream input, Map<String, String> headers) throws IOException {
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    if ("chunked".equalsIgnoreCase(headers.get("Transfer-Encoding"))) {
+      while (true) {
+        String sizeLine = readLine(input);
+        if (sizeLine == null) {
+          throw new EOFException();
+        }
+        int extension = sizeLine.indexOf(';');
+        int size = Integer.parseInt((extension >= 0 ? sizeLine.substring(0, extension) : sizeLine).trim(), 16);
+        if (size == 0) {
+          // skip trailers
+          String trailer;
+          while ((trailer = readLine(input)) != null && !trailer.isEmpty()) {
+            // ignore
+          }
+          break;
+        }
+        copy(input, body, size);
+        readLine(input);
+      }
+    } else if (headers.containsKey("Content-Length")) {
+      copy(input, body, Integer.parseInt(headers.get("Content-Length")));
+    }
+
+    if (body.size() > 0 && "gzip".equalsIgnoreCase(headers.get("Content-Encoding"))) {
+      try (InputStream gzip = new GZIPInputStream(new ByteArrayInputStream(body.toByteArray()))) {
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int read;
+        while ((read = gzip.read(buffer)) != -1) {
+          decoded.write(buffer, 0, read);
+        }
+        return decoded.toByteArray();
+      }
+    }
+    return body.toByteArray();
+  }
+
+  private static void copy(InputStream input, OutputStream output, int length) throws IOException {
+    byte[] buffer = new byte[8192];
+    int remaining = length;
+    while (remaining > 0) {
+      int read = input.read(buffer, 0, Math.min(buffer.length, remaining));
+      if (read == -1) {
+        throw new EOFException();
+      }
+      output.write(buffer, 0, read);
+      remaining -= read;
+    }
+  }
+
+  private static String readLine(InputStream input) throws IOException {
+    StringBuilder sb = new StringBuilder();
+    int c;
+    while ((c = input.read()) != -1) {
+      if (c == '\n') {
+        int length = sb.length();
+        if (length > 0 && sb.charAt(length - 1) == '\r') {
+          sb.setLength(length - 1);
+        }
+        return sb.toString();
+      }
+      sb.append((char) c);
+    }
+    return sb.length() > 0 ? sb.toString() : null;
+  }
+
+  private static void writeResponse(OutputStream output, StubResponse response, boolean keepAlive) throws IOException {
+    byte[] body = response.getBody();
+    StringBuilder head = new StringBuilder();
+    head.append("HTTP/1.1 ").append(response.getStatus()).append(' ').append(reasonPhrase(response.getStatus())).append("\r\n");
+    for (Map.Entry<String, String> header : response.getHeaders().entrySet()) {
+      head.append(header.getKey()).append(": ").append(header.getValue()).append("\r\n");
+    }
+    if (body.length > 0) {
+      head.append("Content-Type: application/json; charset=utf-8\r\n");
+    }
+    head.append("Content-Length: ").append(body.length).append("\r\n");
+    if (!keepAlive) {
+      head.append("Connection: close\r\n");
+    }
+    head.append("\r\n");
+    output.write(head.toString().getBytes(ASCII));
+    output.write(body);
+  }
+
+  private static String reasonPhrase(int status) {
+    switch (status) {
+      case 200:
+        return "OK";
+      case 201:
+        return "Created";
+      case 304:
+        return "Not Modified";
+      case 404:
+        return "Not Found";
+      default:
+        return "Status";
+    }
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    try {
+      serverSocket.close();
+    } catch (IOException e) {
+      // ignore
+    }
+    executor.shutdownNow();
+  }
+
+}
@@ -0,0 +1,47 @@
+package net.ravendb.benchmarks.stub;
+
+import java.nio.charset.Charset;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Canned HTTP response. Body is kept encoded, so replaying response doesn't allocate.
+ */
+public class StubResponse {
+
+  public static final Charset UTF8 = Charset.forName("UTF-8");
+
+  public static final StubResponse NOT_FOUND = new StubResponse(404, Collections.<String, String> emptyMap(), new byte[0]);
+
+  private final int status;
+  private final Map<String, String> headers;
+  private final byte[] body;
+
+  public StubResponse(int status, Map<String, String> headers, byte[] body) {
+    this.status = status;
+    this.headers = headers;
+    this.body = body;
+  }
+
+  public static StubResponse json(String json) {
+    return new StubResponse(200, Collections.<String, String> emptyMap(), json.getBytes(UTF8));
+  }
+
+  public static StubResponse json(String json, Map<String, String> headers) {
+    return new StubResponse(200, new HashMap<>(headers), json.getBytes(UTF8));
+  }
+
+  public int getStatus() {
+    return status;
+  }
+
+  public Map<String, String> getHeaders() {
+    return headers;
+  }
+
+  public byte[] getBody() {
+    return body;
+  }
+
+}
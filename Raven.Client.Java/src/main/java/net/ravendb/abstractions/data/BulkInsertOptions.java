@@ -7,15 +7,17 @@ public class BulkInsertOptions {
   private boolean overwriteExisting;
   private boolean checkReferencesInIndexes;
   private int batchSize;
+  private int maxBatchSizeInBytes;
   private int writeTimeoutMiliseconds;
   private boolean skipOverwriteIfUnchanged;
   private ChunkedBulkInsertOptions chunkedBulkInsertOptions;
 
   public BulkInsertOptions() {
-    batchSize = 512;
+    batchSize = 64 * 1024;
+    maxBatchSizeInBytes = 4 * 1024 * 1024;
     writeTimeoutMiliseconds = 15 * 1000;
     chunkedBulkInsertOptions = new ChunkedBulkInsertOptions();
-    chunkedBulkInsertOptions.setMaxDocumentsPerChunk(batchSize * 4);
+    chunkedBulkInsertOptions.setMaxDocumentsPerChunk(2048);
     chunkedBulkInsertOptions.setMaxChunkVolumeInBytes(8 * 1024 * 1024);
   }
 
@@ -83,26 +85,51 @@ public class BulkInsertOptions {
   }
 
   /**
-   * Number of documents to send in each bulk insert batch.
+   * Maximum number of documents to send in each bulk insert batch. Batches are sized by serialized bytes
+   * (see {@link #getMaxBatchSizeInBytes()}), this is only safety limit for very small documents.
    * Value:
-   * 512 by default
-   * {@value 512 by default}
+   * 65536 by default
+   * {@value 65536 by default}
    */
   public int getBatchSize() {
     return batchSize;
   }
 
   /**
-   * Number of documents to send in each bulk insert batch.
+   * Maximum number of documents to send in each bulk insert batch. Batches are sized by serialized bytes
+   * (see {@link #getMaxBatchSizeInBytes()}), this is only safety limit for very small documents.
    * Value:
-   * 512 by default
-   * {@value 512 by default}
+   * 65536 by default
+   * {@value 65536 by default}
    * @param batchSize
    */
   public void setBatchSize(int batchSize) {
     this.batchSize = batchSize;
   }
 
+  /**
+   * Upper bound of serialized size of bulk insert batch. Actual size is adjusted between 16 kb and this value
+   * using measured throughput of written batches.
+   * Value:
+   * 4 MB by default
+   * {@value 4 MB by default}
+   */
+  public int getMaxBatchSizeInBytes() {
+    return maxBatchSizeInBytes;
+  }
+
+  /**
+   * Upper bound of serialized size of bulk insert batch. Actual size is adjusted between 16 kb and this value
+   * using measured throughput of written batches.
+   * Value:
+   * 4 MB by default
+   * {@value 4 MB by default}
+   * @param maxBatchSizeInBytes
+   */
+  public void setMaxBatchSizeInBytes(int maxBatchSizeInBytes) {
+    this.maxBatchSizeInBytes = maxBatchSizeInBytes;
+  }
+
   /**
    * Maximum timeout in milliseconds to wait for document write. Exception will be thrown when timeout is elapsed.
    * Value:
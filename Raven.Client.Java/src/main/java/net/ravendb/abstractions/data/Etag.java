@@ -161,6 +161,10 @@ public class Etag implements Comparable<Etag> {
   }
 
   public Etag incrementBy(int amount) {
+    return incrementBy((long) amount);
+  }
+
+  public Etag incrementBy(long amount) {
     return new Etag(restarts, changes + amount);
   }
 
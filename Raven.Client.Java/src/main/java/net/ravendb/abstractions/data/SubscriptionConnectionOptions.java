@@ -19,6 +19,8 @@ public class SubscriptionConnectionOptions {
     timeToWaitBeforeConnectionRetry = 15 * 1000;
     strategy = SubscriptionOpeningStrategy.OPEN_IF_FREE;
     pullingRequestTimeout = 5 * 60 * 1000L;
+    processingThreads = 1;
+    preserveDocumentOrder = true;
   }
 
   public SubscriptionConnectionOptions(SubscriptionBatchOptions batchOptions) {
@@ -40,6 +42,10 @@ public class SubscriptionConnectionOptions {
 
   private SubscriptionOpeningStrategy strategy;
 
+  private int processingThreads;
+
+  private boolean preserveDocumentOrder;
+
   public Integer getTimeToWaitBeforeConnectionRetry() {
     return timeToWaitBeforeConnectionRetry;
   }
@@ -96,6 +102,40 @@ public class SubscriptionConnectionOptions {
     this.pullingRequestTimeout = pullingRequestTimeout;
   }
 
+  /**
+   * Number of threads used to deserialize documents and pass them to subscribers (default: 1).
+   * When greater than 1 subscribers are called concurrently.
+   */
+  public int getProcessingThreads() {
+    return processingThreads;
+  }
+
+  /**
+   * Number of threads used to deserialize documents and pass them to subscribers (default: 1).
+   * When greater than 1 subscribers are called concurrently.
+   * @param processingThreads
+   */
+  public void setProcessingThreads(int processingThreads) {
+    this.processingThreads = processingThreads;
+  }
+
+  /**
+   * Determines if documents with the same key are always processed by the same thread,
+   * so they are passed to subscribers in order they were received (default: true).
+   */
+  public boolean isPreserveDocumentOrder() {
+    return preserveDocumentOrder;
+  }
+
+  /**
+   * Determines if documents with the same key are always processed by the same thread,
+   * so they are passed to subscribers in order they were received (default: true).
+   * @param preserveDocumentOrder
+   */
+  public void setPreserveDocumentOrder(boolean preserveDocumentOrder) {
+    this.preserveDocumentOrder = preserveDocumentOrder;
+  }
+
   @SuppressWarnings("boxing")
   public RavenJObject toRavenObject() {
     RavenJObject result = new RavenJObject();
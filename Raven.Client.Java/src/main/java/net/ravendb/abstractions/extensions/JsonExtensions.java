@@ -19,6 +19,7 @@ import net.ravendb.abstractions.data.IndexChangeTypes;
 import net.ravendb.abstractions.data.ReplicationConflictTypes;
 import net.ravendb.abstractions.data.ReplicationOperationTypes;
 import net.ravendb.abstractions.indexing.SortOptions;
+import net.ravendb.abstractions.json.JsonCodecs;
 import net.ravendb.abstractions.json.linq.RavenJArray;
 import net.ravendb.abstractions.json.linq.RavenJObject;
 import net.ravendb.abstractions.json.linq.RavenJToken;
@@ -68,6 +69,7 @@ public class JsonExtensions {
     objectMapper.setDeserializationConfig(objectMapper.getDeserializationConfig().withDateFormat(new NetDateFormat()));
 
     objectMapper.registerModule(createCustomSerializeModule());
+    objectMapper.registerModule(JsonCodecs.createModule());
     objectMapper.setAnnotationIntrospector(new SharpAwareJacksonAnnotationIntrospector());
     return objectMapper;
   }
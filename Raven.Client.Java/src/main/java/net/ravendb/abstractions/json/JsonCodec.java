@@ -0,0 +1,286 @@
+package net.ravendb.abstractions.json;
+
+import java.io.IOException;
+
+import org.codehaus.jackson.JsonGenerationException;
+import org.codehaus.jackson.JsonGenerator;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonProcessingException;
+import org.codehaus.jackson.JsonToken;
+import org.codehaus.jackson.map.DeserializationConfig;
+import org.codehaus.jackson.map.DeserializationContext;
+import org.codehaus.jackson.map.DeserializerProvider;
+import org.codehaus.jackson.map.JsonDeserializer;
+import org.codehaus.jackson.map.JsonMappingException;
+import org.codehaus.jackson.map.JsonSerializer;
+import org.codehaus.jackson.map.ResolvableDeserializer;
+import org.codehaus.jackson.map.SerializerProvider;
+import org.codehaus.jackson.map.deser.std.StdDeserializer;
+import org.codehaus.jackson.map.ser.std.SerializerBase;
+import org.codehaus.jackson.map.type.TypeFactory;
+import org.codehaus.jackson.type.TypeReference;
+
+/**
+ * Serializer and deserializer of single entity type, which reads and writes properties directly
+ * instead of using bean introspection. Implementations are generated by RavenDBAnnotationProcessor
+ * (when ravendb.jsonCodecs option is enabled) and registered with ObjectMapper by {@link JsonCodecs}.
+ *
+ * Properties of types other than strings and primitives are (de)serialized by Jackson.
+ * @param <T> entity type
+ */
+public abstract class JsonCodec<T> {
+
+  private final Class<T> type;
+
+  protected JsonCodec(Class<T> type) {
+    this.type = type;
+  }
+
+  public Class<T> getType() {
+    return type;
+  }
+
+  /**
+   * Writes entity as json object.
+   * @param value
+   * @param jgen
+   * @param provider
+   */
+  public void write(T value, JsonGenerator jgen, SerializerProvider provider) throws IOException {
+    jgen.writeStartObject();
+    writeProperties(value, jgen, provider);
+    jgen.writeEndObject();
+  }
+
+  /**
+   * Reads entity from json object, parser is positioned at START_OBJECT or first FIELD_NAME token.
+   * @param jp
+   * @param ctxt
+   */
+  public T read(JsonParser jp, DeserializationContext ctxt) throws IOException {
+    T bean = newInstance();
+    JsonToken token = jp.getCurrentToken();
+    if (token == JsonToken.START_OBJECT) {
+      token = jp.nextToken();
+    }
+    for (; token == JsonToken.FIELD_NAME; token = jp.nextToken()) {
+      String propertyName = jp.getCurrentName();
+      jp.nextToken();
+      if (!readProperty(bean, propertyName, jp, ctxt)) {
+        handleUnknownProperty(jp, ctxt, bean, propertyName);
+      }
+    }
+    return bean;
+  }
+
+  protected abstract T newInstance();
+
+  protected abstract void writeProperties(T value, JsonGenerator jgen, SerializerProvider provider) throws IOException;
+
+  /**
+   * Reads value of given property, parser is positioned at property value.
+   * @return false if property is unknown
+   */
+  protected abstract boolean readProperty(T bean, String propertyName, JsonParser jp, DeserializationContext ctxt) throws IOException;
+
+  /**
+   * Finds deserializers of properties which are read by Jackson. Called once, before first read.
+   * @param config
+   * @param provider
+   * @throws JsonMappingException
+   */
+  protected void resolve(DeserializationConfig config, DeserializerProvider provider) throws JsonMappingException {
+    // no properties deserialized by Jackson
+  }
+
+  public JsonSerializer<T> createSerializer() {
+    return new CodecSerializer<>(this);
+  }
+
+  public JsonDeserializer<T> createDeserializer() {
+    return new CodecDeserializer<>(this);
+  }
+
+  protected static JsonDeserializer<Object> findDeserializer(DeserializationConfig config, DeserializerProvider provider, TypeReference<?> type) throws JsonMappingException {
+    return provider.findValueDeserializer(config, TypeFactory.defaultInstance().constructType(type), null);
+  }
+
+  protected static Object readValue(JsonParser jp, DeserializationContext ctxt, JsonDeserializer<Object> deserializer) throws IOException {
+    if (jp.getCurrentToken() == JsonToken.VALUE_NULL) {
+      return deserializer.getNullValue();
+    }
+    return deserializer.deserialize(jp, ctxt);
+  }
+
+  /**
+   * Passes unknown property to deserialization problem handlers (e.g. to preserve properties not found on model),
+   * skips its value if it wasn't handled.
+   * @param jp
+   * @param ctxt
+   * @param bean
+   * @param propertyName
+   */
+  private void handleUnknownProperty(JsonParser jp, DeserializationContext ctxt, Object bean, String propertyName) throws IOException {
+    if (ctxt.handleUnknownProperty(jp, null, bean, propertyName)) {
+      return;
+    }
+    if (ctxt.isEnabled(DeserializationConfig.Feature.FAIL_ON_UNKNOWN_PROPERTIES)) {
+      throw ctxt.unknownFieldException(bean, propertyName);
+    }
+    jp.skipChildren();
+  }
+
+  protected static void writeString(JsonGenerator jgen, String value) throws IOException {
+    if (value == null) {
+      jgen.writeNull();
+    } else {
+      jgen.writeString(value);
+    }
+  }
+
+  protected static String readString(JsonParser jp, DeserializationContext ctxt) throws IOException {
+    JsonToken token = jp.getCurrentToken();
+    if (token == JsonToken.VALUE_STRING) {
+      return jp.getText();
+    }
+    if (token == JsonToken.VALUE_NULL) {
+      return null;
+    }
+    if (token.isScalarValue()) {
+      return jp.getText();
+    }
+    throw ctxt.mappingException(String.class, token);
+  }
+
+  protected static boolean readBoolean(JsonParser jp, DeserializationContext ctxt) throws IOException {
+    JsonToken token = jp.getCurrentToken();
+    if (token == JsonToken.VALUE_TRUE) {
+      return true;
+    }
+    if (token == JsonToken.VALUE_FALSE || token == JsonToken.VALUE_NULL) {
+      return false;
+    }
+    if (token == JsonToken.VALUE_NUMBER_INT) {
+      return jp.getIntValue() != 0;
+    }
+    if (token == JsonToken.VALUE_STRING) {
+      String text = jp.getText().trim();
+      if ("true".equals(text)) {
+        return true;
+      }
+      if ("false".equals(text) || text.length() == 0) {
+        return false;
+      }
+      throw ctxt.weirdStringException(Boolean.TYPE, "only \"true\" or \"false\" recognized");
+    }
+    throw ctxt.mappingException(Boolean.TYPE, token);
+  }
+
+  protected static int readInt(JsonParser jp, DeserializationContext ctxt, Class<?> targetType) throws IOException {
+    JsonToken token = jp.getCurrentToken();
+    if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+      return jp.getIntValue();
+    }
+    if (token == JsonToken.VALUE_NULL) {
+      return 0;
+    }
+    if (token == JsonToken.VALUE_STRING) {
+      String text = jp.getText().trim();
+      if (text.length() == 0) {
+        return 0;
+      }
+      try {
+        return Integer.parseInt(text);
+      } catch (NumberFormatException e) {
+        throw ctxt.weirdStringException(targetType, "not a valid number");
+      }
+    }
+    throw ctxt.mappingException(targetType, token);
+  }
+
+  protected static long readLong(JsonParser jp, DeserializationContext ctxt, Class<?> targetType) throws IOException {
+    JsonToken token = jp.getCurrentToken();
+    if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+      return jp.getLongValue();
+    }
+    if (token == JsonToken.VALUE_NULL) {
+      return 0;
+    }
+    if (token == JsonToken.VALUE_STRING) {
+      String text = jp.getText().trim();
+      if (text.length() == 0) {
+        return 0;
+      }
+      try {
+        return Long.parseLong(text);
+      } catch (NumberFormatException e) {
+        throw ctxt.weirdStringException(targetType, "not a valid number");
+      }
+    }
+    throw ctxt.mappingException(targetType, token);
+  }
+
+  protected static double readDouble(JsonParser jp, DeserializationContext ctxt, Class<?> targetType) throws IOException {
+    JsonToken token = jp.getCurrentToken();
+    if (token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+      return jp.getDoubleValue();
+    }
+    if (token == JsonToken.VALUE_NULL) {
+      return 0;
+    }
+    if (token == JsonToken.VALUE_STRING) {
+      String text = jp.getText().trim();
+      if (text.length() == 0) {
+        return 0;
+      }
+      try {
+        return Double.parseDouble(text);
+      } catch (NumberFormatException e) {
+        throw ctxt.weirdStringException(targetType, "not a valid number");
+      }
+    }
+    throw ctxt.mappingException(targetType, token);
+  }
+
+  protected static boolean isNull(JsonParser jp) {
+    return jp.getCurrentToken() == JsonToken.VALUE_NULL;
+  }
+
+  private static class CodecSerializer<T> extends SerializerBase<T> {
+    private final JsonCodec<T> codec;
+
+    public CodecSerializer(JsonCodec<T> codec) {
+      super(codec.getType());
+      this.codec = codec;
+    }
+
+    @Override
+    public void serialize(T value, JsonGenerator jgen, SerializerProvider provider) throws IOException, JsonGenerationException {
+      codec.write(value, jgen, provider);
+    }
+  }
+
+  private static class CodecDeserializer<T> extends StdDeserializer<T> implements ResolvableDeserializer {
+    private final JsonCodec<T> codec;
+
+    public CodecDeserializer(JsonCodec<T> codec) {
+      super(codec.getType());
+      this.codec = codec;
+    }
+
+    @Override
+    public void resolve(DeserializationConfig config, DeserializerProvider provider) throws JsonMappingException {
+      codec.resolve(config, provider);
+    }
+
+    @Override
+    public T deserialize(JsonParser jp, DeserializationContext ctxt) throws IOException, JsonProcessingException {
+      JsonToken token = jp.getCurrentToken();
+      if (token != JsonToken.START_OBJECT && token != JsonToken.FIELD_NAME && token != JsonToken.END_OBJECT) {
+        throw ctxt.mappingException(codec.getType(), token);
+      }
+      return codec.read(jp, ctxt);
+    }
+  }
+
+}
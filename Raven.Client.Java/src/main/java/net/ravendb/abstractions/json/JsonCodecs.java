@@ -0,0 +1,136 @@
+package net.ravendb.abstractions.json;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.ServiceLoader;
+import java.util.concurrent.ConcurrentMap;
+
+import net.ravendb.abstractions.logging.ILog;
+import net.ravendb.abstractions.logging.LogManager;
+
+import org.codehaus.jackson.Version;
+import org.codehaus.jackson.map.BeanDescription;
+import org.codehaus.jackson.map.BeanProperty;
+import org.codehaus.jackson.map.JsonSerializer;
+import org.codehaus.jackson.map.Module;
+import org.codehaus.jackson.map.SerializationConfig;
+import org.codehaus.jackson.map.Serializers;
+import org.codehaus.jackson.map.module.SimpleDeserializers;
+import org.codehaus.jackson.map.type.ClassKey;
+import org.codehaus.jackson.type.JavaType;
+
+import com.google.common.collect.MapMaker;
+
+/**
+ * Registers generated {@link JsonCodec}s found on classpath (listed in META-INF/services/net.ravendb.abstractions.json.JsonCodec).
+ */
+public final class JsonCodecs {
+
+  private static final ILog log = LogManager.getCurrentClassLogger();
+
+  /**
+   * Names of codec classes found by class loader - classpath is scanned once per class loader.
+   * Names (not classes) are kept, so cached entry doesn't prevent class loader from being collected.
+   */
+  private static final ConcurrentMap<ClassLoader, List<String>> codecClassNames = new MapMaker().weakKeys().makeMap();
+
+  private JsonCodecs() {
+    // utility class
+  }
+
+  /**
+   * Creates module with serializers and deserializers of all generated codecs.
+   * Codecs are used only for exact entity types - subclasses are still (de)serialized by Jackson,
+   * as codec doesn't know their properties.
+   */
+  @SuppressWarnings({ "rawtypes", "unchecked" })
+  public static Module createModule() {
+    ClassLoader classLoader = Thread.currentThread().getContextClassLoader();
+    if (classLoader == null) {
+      classLoader = JsonCodecs.class.getClassLoader();
+    }
+    final Map<ClassKey, JsonSerializer<?>> serializers = new HashMap<>();
+    final SimpleDeserializers deserializers = new SimpleDeserializers();
+    for (JsonCodec codec : loadCodecs(classLoader)) {
+      serializers.put(new ClassKey(codec.getType()), codec.createSerializer());
+      deserializers.addDeserializer(codec.getType(), codec.createDeserializer());
+    }
+    return new CodecModule(new ExactTypeSerializers(serializers), deserializers);
+  }
+
+  /**
+   * Returns new instances of codecs (codec holds deserializers resolved by mapper it is registered with).
+   */
+  @SuppressWarnings("rawtypes")
+  private static List<JsonCodec> loadCodecs(ClassLoader classLoader) {
+    List<String> classNames = codecClassNames.get(classLoader);
+    if (classNames == null) {
+      List<JsonCodec> codecs = new ArrayList<>();
+      List<String> names = new ArrayList<>();
+      for (JsonCodec codec : ServiceLoader.load(JsonCodec.class, classLoader)) {
+        codecs.add(codec);
+        names.add(codec.getClass().getName());
+        if (log.isDebugEnabled()) {
+          log.debug("Found generated json codec for " + codec.getType().getName());
+        }
+      }
+      codecClassNames.putIfAbsent(classLoader, Collections.unmodifiableList(names));
+      return codecs;
+    }
+
+    List<JsonCodec> codecs = new ArrayList<>(classNames.size());
+    for (String className : classNames) {
+      try {
+        codecs.add((JsonCodec) Class.forName(className, true, classLoader).newInstance());
+      } catch (ReflectiveOperationException e) {
+        throw new IllegalStateException("Unable to create json codec " + className, e);
+      }
+    }
+    return codecs;
+  }
+
+  private static class CodecModule extends Module {
+    private final Serializers serializers;
+    private final SimpleDeserializers deserializers;
+
+    public CodecModule(Serializers serializers, SimpleDeserializers deserializers) {
+      this.serializers = serializers;
+      this.deserializers = deserializers;
+    }
+
+    @Override
+    public String getModuleName() {
+      return "ravenJsonCodecs";
+    }
+
+    @Override
+    public Version version() {
+      return new Version(1, 0, 0, null);
+    }
+
+    @Override
+    public void setupModule(SetupContext context) {
+      context.addSerializers(serializers);
+      context.addDeserializers(deserializers);
+    }
+  }
+
+  /**
+   * Unlike SimpleSerializers, doesn't match subclasses of registered types.
+   */
+  private static class ExactTypeSerializers extends Serializers.Base {
+    private final Map<ClassKey, JsonSerializer<?>> serializers;
+
+    public ExactTypeSerializers(Map<ClassKey, JsonSerializer<?>> serializers) {
+      this.serializers = serializers;
+    }
+
+    @Override
+    public JsonSerializer<?> findSerializer(SerializationConfig config, JavaType type, BeanDescription beanDesc, BeanProperty property) {
+      return serializers.get(new ClassKey(type.getRawClass()));
+    }
+  }
+}
@@ -5,48 +5,110 @@ import java.util.List;
 
 import net.ravendb.abstractions.exceptions.RavenJPathEvaluationException;
 
-
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Parsed path expression (i.e. Order.Lines[0].Product).
+ * Instances are immutable, so they can be shared between threads - use {@link #compile(String)}
+ * to get cached instance instead of parsing the same expression again.
+ */
 public class RavenJPath {
 
-  private String expression;
-  private List<Object> parts;
-  private int currentIndex;
+  private static final int MAX_CACHED_PATHS = 1024;
+
+  private static final Cache<String, RavenJPath> CACHE = CacheBuilder.newBuilder().maximumSize(MAX_CACHED_PATHS).build();
+  private static final Cache<String, RavenJPath[]> RAVEN_SYNTAX_CACHE = CacheBuilder.newBuilder().maximumSize(MAX_CACHED_PATHS).build();
+
+  private final String expression;
+
+  /**
+   * Property names, null when part at given position is indexer.
+   */
+  private final String[] names;
+  private final int[] indexes;
+
+  /**
+   * Returns parsed path for given expression. Parsed paths are cached.
+   * @param expression
+   */
+  public static RavenJPath compile(String expression) {
+    RavenJPath path = CACHE.getIfPresent(expression);
+    if (path == null) {
+      path = new RavenJPath(expression);
+      CACHE.put(expression, path);
+    }
+    return path;
+  }
+
+  /**
+   * Returns parsed parts of path written in raven syntax (collection paths are separated by ','
+   * i.e. Lines,Product). Empty parts are skipped. Parsed paths are cached.
+   * @param path
+   */
+  public static RavenJPath[] compileRavenSyntax(String path) {
+    RavenJPath[] parts = RAVEN_SYNTAX_CACHE.getIfPresent(path);
+    if (parts == null) {
+      List<RavenJPath> notEmptyParts = new ArrayList<>();
+      for (String pathPart : path.split(",")) {
+        if (!pathPart.isEmpty()) {
+          notEmptyParts.add(compile(pathPart));
+        }
+      }
+      parts = notEmptyParts.toArray(new RavenJPath[0]);
+      RAVEN_SYNTAX_CACHE.put(path, parts);
+    }
+    return parts;
+  }
 
   public RavenJPath(String expression) {
     this.expression = expression;
-    this.parts = new ArrayList<>();
-    parseMain();
+    List<Object> parts = new ArrayList<>();
+    parseMain(parts);
+    names = new String[parts.size()];
+    indexes = new int[parts.size()];
+    for (int i = 0; i < parts.size(); i++) {
+      Object part = parts.get(i);
+      if (part instanceof String) {
+        names[i] = (String) part;
+      } else {
+        indexes[i] = (Integer) part;
+      }
+    }
   }
 
-  private void parseMain() {
+  public String getExpression() {
+    return expression;
+  }
+
+  private void parseMain(List<Object> parts) {
     try {
-      int currentPartStartIndex = this.currentIndex;
+      int currentIndex = 0;
+      int currentPartStartIndex = 0;
       boolean followingIndexer = false;
 
-      while (this.currentIndex < this.expression.length()) {
-        char currentChar = this.expression.charAt(this.currentIndex);
+      while (currentIndex < expression.length()) {
+        char currentChar = expression.charAt(currentIndex);
 
         switch (currentChar) {
         case '[':
         case '(':
-          if (this.currentIndex > currentPartStartIndex) {
-            String member = this.expression.substring(currentPartStartIndex, this.currentIndex - currentPartStartIndex);
-            this.parts.add(member);
+          if (currentIndex > currentPartStartIndex) {
+            parts.add(expression.substring(currentPartStartIndex, currentIndex));
           }
 
-          parseIndexer(currentChar);
-          currentPartStartIndex = this.currentIndex + 1;
+          currentIndex = parseIndexer(parts, currentIndex, currentChar);
+          currentPartStartIndex = currentIndex + 1;
           followingIndexer = true;
           break;
         case ']':
         case ')':
           throw new Exception("Unexpected character while parsing path: " + currentChar);
         case '.':
-          if (this.currentIndex > currentPartStartIndex) {
-            String member = this.expression.substring(currentPartStartIndex, this.currentIndex - currentPartStartIndex);
-            parts.add(member);
+          if (currentIndex > currentPartStartIndex) {
+            parts.add(expression.substring(currentPartStartIndex, currentIndex));
           }
-          currentPartStartIndex = this.currentIndex + 1;
+          currentPartStartIndex = currentIndex + 1;
           followingIndexer = false;
           break;
         default:
@@ -54,62 +116,60 @@ public class RavenJPath {
           break;
         }
 
-        this.currentIndex++;
+        currentIndex++;
       }
 
-      if (this.currentIndex > currentPartStartIndex) {
-        String member = this.expression.substring(currentPartStartIndex, this.currentIndex);
-        parts.add(member);
+      if (currentIndex > currentPartStartIndex) {
+        parts.add(expression.substring(currentPartStartIndex, currentIndex));
       }
     } catch (Exception e) {
       throw new RuntimeException("Unable to evaluate path:" + expression, e);
     }
   }
 
+  /**
+   * @return index of indexer close char
+   */
   @SuppressWarnings("boxing")
-  private void parseIndexer(char indexerOpenChar) throws Exception {
-    this.currentIndex++;
+  private int parseIndexer(List<Object> parts, int currentIndex, char indexerOpenChar) throws Exception {
+    currentIndex++;
 
     char indexerCloseChar = (indexerOpenChar == '[') ? ']' : ')';
-    int indexerStart = this.currentIndex;
-    int indexerLength = 0;
+    int indexerStart = currentIndex;
     boolean indexerClosed = false;
 
-    while (this.currentIndex < this.expression.length()) {
-      char currentCharacter = this.expression.charAt(this.currentIndex);
-      if (Character.isDigit(currentCharacter)) {
-        indexerLength++;
-      } else if (currentCharacter == indexerCloseChar) {
+    while (currentIndex < expression.length()) {
+      char currentCharacter = expression.charAt(currentIndex);
+      if (currentCharacter == indexerCloseChar) {
         indexerClosed = true;
         break;
-      } else {
+      } else if (!Character.isDigit(currentCharacter)) {
         throw new Exception("Unexpected character while parsing path indexer: " + currentCharacter);
       }
 
-      this.currentIndex++;
+      currentIndex++;
     }
 
     if (!indexerClosed) throw new Exception("Path ended with open indexer. Expected " + indexerCloseChar);
 
-    if (indexerLength == 0) throw new Exception("Empty path indexer.");
+    if (currentIndex == indexerStart) throw new Exception("Empty path indexer.");
 
-    String indexer = this.expression.substring(indexerStart, indexerLength);
-    this.parts.add(Integer.parseInt(indexer));
+    parts.add(Integer.parseInt(expression.substring(indexerStart, currentIndex)));
+    return currentIndex;
   }
 
   public RavenJToken evaluate(RavenJToken root, boolean errorWhenNoMatch) {
     return evaluate(root, errorWhenNoMatch, false);
   }
 
-  @SuppressWarnings({"null", "boxing"})
   public RavenJToken evaluate(RavenJToken root, boolean errorWhenNoMatch, boolean createSnapshots) {
     RavenJToken current = root;
 
-    for (Object part : parts) {
-      String propertyName = (String) part;
+    for (int i = 0; i < names.length; i++) {
+      String propertyName = names[i];
       if (propertyName != null) {
-        RavenJObject o = (RavenJObject) current;
-        if (o != null) {
+        if (current instanceof RavenJObject) {
+          RavenJObject o = (RavenJObject) current;
           if (createSnapshots) {
             RavenJToken newProp = o.get(propertyName);
             if (newProp != null) {
@@ -127,8 +187,8 @@ public class RavenJPath {
           if (current == null && errorWhenNoMatch)
             throw new RavenJPathEvaluationException("Property '" + propertyName + "' does not exist on RavenJObject.");
         } else {
-          RavenJArray array = (RavenJArray) current;
-          if (array != null) {
+          if (current instanceof RavenJArray) {
+            RavenJArray array = (RavenJArray) current;
             switch (propertyName) {
             case "Count":
             case "count":
@@ -147,16 +207,15 @@ public class RavenJPath {
             continue;
           }
           if (errorWhenNoMatch)
-            throw new RavenJPathEvaluationException("Property '" + propertyName + "' not valid on " + current.getType().name() + ".");
+            throw new RavenJPathEvaluationException("Property '" + propertyName + "' not valid on " + typeName(current) + ".");
 
           return null;
         }
       } else {
-        int index = (int) part;
+        int index = indexes[i];
 
-        RavenJArray a = (RavenJArray) current;
-
-        if (a != null) {
+        if (current instanceof RavenJArray) {
+          RavenJArray a = (RavenJArray) current;
           if (a.size() <= index) {
             if (errorWhenNoMatch)
               throw new IndexOutOfBoundsException("Index " + index + " outside the bounds of RavenJArray.");
@@ -167,7 +226,7 @@ public class RavenJPath {
           current = a.get(index);
         } else {
           if (errorWhenNoMatch)
-            throw new RavenJPathEvaluationException("Index " + index + " not valid on " + current.getType().name() + ".");
+            throw new RavenJPathEvaluationException("Index " + index + " not valid on " + typeName(current) + ".");
 
           return null;
         }
@@ -176,4 +235,13 @@ public class RavenJPath {
 
     return current;
   }
+
+  private static String typeName(RavenJToken token) {
+    return token != null ? token.getType().name() : "null";
+  }
+
+  @Override
+  public String toString() {
+    return expression;
+  }
 }
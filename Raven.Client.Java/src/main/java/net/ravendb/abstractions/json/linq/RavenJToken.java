@@ -4,7 +4,6 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.StringWriter;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Stack;
 
@@ -14,7 +13,6 @@ import net.ravendb.abstractions.exceptions.JsonReaderException;
 import net.ravendb.abstractions.exceptions.JsonWriterException;
 import net.ravendb.client.document.JsonSerializer;
 
-import org.apache.commons.lang.StringUtils;
 import org.codehaus.jackson.FormatSchema;
 import org.codehaus.jackson.JsonFactory;
 import org.codehaus.jackson.JsonGenerator;
@@ -424,8 +422,7 @@ public abstract class RavenJToken {
   }
 
   public RavenJToken selectToken(String path, boolean errorWhenNoMatch, boolean createSnapshots) {
-    RavenJPath p = new RavenJPath(path);
-    return p.evaluate(this, errorWhenNoMatch, createSnapshots);
+    return RavenJPath.compile(path).evaluate(this, errorWhenNoMatch, createSnapshots);
   }
 
   public RavenJToken selectToken(RavenJPath path) {
@@ -475,16 +472,41 @@ public abstract class RavenJToken {
     return tupleList.size() == 0 ? null : tupleList.get(0).getItem1();
   }
 
+  public RavenJToken selectTokenWithRavenSyntaxReturningSingleValue(RavenJPath[] pathParts) {
+    List<Tuple<RavenJToken, RavenJToken>> tupleList = this.selectTokenWithRavenSyntaxReturningFlatStructure(pathParts, false);
+    return tupleList.size() == 0 ? null : tupleList.get(0).getItem1();
+  }
+
   public List<Tuple<RavenJToken, RavenJToken>> selectTokenWithRavenSyntaxReturningFlatStructure(String path) {
-    boolean createSnapshots = false;
-    String[] pathParts = path.split(",");
-    RavenJToken result = selectToken(pathParts[0], false, createSnapshots);
+    return selectTokenWithRavenSyntaxReturningFlatStructure(RavenJPath.compileRavenSyntax(path), false);
+  }
 
-    if (pathParts.length == 1) {
-      return Arrays.asList(Tuple.create(result, this));
+  /**
+   * Selects tokens using already compiled raven syntax path (see {@link RavenJPath#compileRavenSyntax(String)}).
+   * @param pathParts
+   * @param createSnapshots
+   */
+  public List<Tuple<RavenJToken, RavenJToken>> selectTokenWithRavenSyntaxReturningFlatStructure(RavenJPath[] pathParts, boolean createSnapshots) {
+    List<Tuple<RavenJToken, RavenJToken>> outcome = new ArrayList<>();
+    selectTokenWithRavenSyntaxReturningFlatStructure(pathParts, 0, createSnapshots, outcome);
+    return outcome;
+  }
+
+  private void selectTokenWithRavenSyntaxReturningFlatStructure(RavenJPath[] pathParts, int partIndex, boolean createSnapshots,
+    List<Tuple<RavenJToken, RavenJToken>> outcome) {
+    if (partIndex >= pathParts.length) {
+      // empty path selects token itself
+      outcome.add(Tuple.create(this, this));
+      return;
+    }
+    RavenJToken result = pathParts[partIndex].evaluate(this, false, createSnapshots);
+
+    if (partIndex == pathParts.length - 1) {
+      outcome.add(Tuple.create(result, this));
+      return;
     }
     if (result == null || result.getType() == JTokenType.NULL) {
-      return Arrays.asList();
+      return;
     }
 
     if (result.getType() == JTokenType.OBJECT) {
@@ -494,16 +516,9 @@ public abstract class RavenJToken {
       }
     }
 
-    List<Tuple<RavenJToken, RavenJToken>> outcome = new ArrayList<>();
-
     for (RavenJToken item : result.values(RavenJToken.class)) {
-      String[] pathWOFirstElement = Arrays.copyOfRange(pathParts, 1, pathParts.length);
-      String innerPath = StringUtils.join(pathWOFirstElement, ",");
-      outcome.addAll(item.selectTokenWithRavenSyntaxReturningFlatStructure(innerPath));
+      item.selectTokenWithRavenSyntaxReturningFlatStructure(pathParts, partIndex + 1, createSnapshots, outcome);
     }
-
-    return outcome;
-
   }
 
 }
@@ -5,35 +5,51 @@ import java.util.regex.Pattern;
 
 import net.ravendb.abstractions.basic.Tuple;
 import net.ravendb.abstractions.closure.Action1;
-import net.ravendb.abstractions.closure.Action2;
-import net.ravendb.abstractions.json.JTokenExtensions;
 import net.ravendb.abstractions.json.linq.RavenJArray;
 import net.ravendb.abstractions.json.linq.RavenJObject;
+import net.ravendb.abstractions.json.linq.RavenJPath;
 import net.ravendb.abstractions.json.linq.RavenJToken;
 
 import org.apache.commons.lang.StringUtils;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 
 public class IncludesUtil {
 
   private final static Pattern INCLUDE_PREFIX_REGEX = Pattern.compile("[^(]*(\\([^(]+\\))");
 
-  @SuppressWarnings("synthetic-access")
+  private final static Cache<String, IncludePath> INCLUDE_PATHS_CACHE = CacheBuilder.newBuilder().maximumSize(1024).build();
+
+  /**
+   * Returns parsed include path (i.e. "Lines,Product(products/)"). Parsed paths are cached.
+   * @param include
+   */
+  public static IncludePath compile(String include) {
+    IncludePath result = INCLUDE_PATHS_CACHE.getIfPresent(include);
+    if (result == null) {
+      result = getIncludePath(include);
+      INCLUDE_PATHS_CACHE.put(include, result);
+    }
+    return result;
+  }
+
   private static IncludePath getIncludePath(String include) {
-    IncludePath result = new IncludePath();
-    result.setPath(include);
+    String path = include;
+    String prefix = null;
     Matcher matcher = INCLUDE_PREFIX_REGEX.matcher(include);
     if (matcher.matches() && matcher.groupCount() >= 1) {
-      result.setPrefix(matcher.group(1));
-      result.setPath(result.getPath().replace(result.getPrefix(), ""));
-      result.setPrefix(result.getPrefix().substring(1, result.getPrefix().length() - 1));
+      prefix = matcher.group(1);
+      path = path.replace(prefix, "");
+      prefix = prefix.substring(1, prefix.length() - 1);
     }
-    return result;
+    return new IncludePath(include, RavenJPath.compileRavenSyntax(path), prefix);
   }
 
 
   @SuppressWarnings("incomplete-switch")
-  private static void executeInternal(RavenJToken token, String prefix, Action2<String, String> loadId) {
+  private static void executeInternal(RavenJToken token, String prefix, Action1<String> loadId) {
     if (token == null) {
       return; // nothing to do
     }
@@ -45,13 +61,15 @@ public class IncludesUtil {
       }
       break;
     case STRING:
-      loadId.apply(token.value(String.class), prefix);
+      String value = token.value(String.class);
       if (prefix != null) {
-        loadId.apply(token.value(String.class), null);
+        loadId.apply(prefix + value);
       }
+      loadId.apply(value);
       break;
     case INTEGER:
-      loadId.apply(token.value(Long.class).toString(), prefix);
+      String number = token.value(Long.class).toString();
+      loadId.apply(prefix != null ? prefix + number : number);
       break;
       // here we ignore everything else
       // if it ain't a string or array, it is invalid
@@ -59,41 +77,63 @@ public class IncludesUtil {
     }
   }
 
-  private static class IncludePath  {
-    private String path;
-    private String prefix;
+  /**
+   * Parsed include path, can be shared between threads.
+   */
+  public static final class IncludePath  {
+    private final String include;
+    private final RavenJPath[] path;
+    private final String prefix;
 
-    public String getPath() {
-      return path;
-    }
-    public void setPath(String path) {
+    private IncludePath(String include, RavenJPath[] path, String prefix) {
+      this.include = include;
       this.path = path;
+      this.prefix = prefix;
+    }
+
+    public String getInclude() {
+      return include;
     }
+
+    public RavenJPath[] getPath() {
+      return path;
+    }
+
     public String getPrefix() {
       return prefix;
     }
-    public void setPrefix(String prefix) {
-      this.prefix = prefix;
-    }
 
   }
 
-  public static void include(RavenJObject document, String include, final Action1<String> loadId) {
+  public static void include(RavenJObject document, String include, Action1<String> loadId) {
     if (StringUtils.isEmpty(include) || document == null) {
       return ;
     }
+    include(document, compile(include), loadId);
+  }
 
-    IncludePath path = getIncludePath(include);
-
-    for (Tuple<RavenJToken, RavenJToken> token : JTokenExtensions.selectTokenWithRavenSyntaxReturningFlatStructure(document, path.getPath())) {
-      executeInternal(token.getItem1(), path.getPrefix(), new Action2<String, String>() {
+  /**
+   * Extracts ids referenced by given include from all documents.
+   * @param documents
+   * @param include
+   * @param loadId
+   */
+  public static void include(Iterable<RavenJObject> documents, String include, Action1<String> loadId) {
+    if (StringUtils.isEmpty(include) || documents == null) {
+      return ;
+    }
+    IncludePath path = compile(include);
+    for (RavenJObject document : documents) {
+      include(document, path, loadId);
+    }
+  }
 
-        @Override
-        public void apply(String value, String prefix) {
-          value = (prefix != null ? prefix + value : value);
-          loadId.apply(value);
-        }
-      });
+  public static void include(RavenJObject document, IncludePath include, Action1<String> loadId) {
+    if (document == null) {
+      return ;
+    }
+    for (Tuple<RavenJToken, RavenJToken> token : document.selectTokenWithRavenSyntaxReturningFlatStructure(include.getPath(), false)) {
+      executeInternal(token.getItem1(), include.getPrefix(), loadId);
     }
   }
 }
@@ -46,6 +46,7 @@ public abstract class DocumentStoreBase implements IDocumentStore {
   private ILastEtagHolder lastEtagHolder;
   private ITransactionRecoveryStorage transactionRecoveryStorage;
   private List<Action1<InMemoryDocumentSessionOperations>> sessionCreatedInternal = new ArrayList<>();
+  private final SecondLevelCache secondLevelCache = new SecondLevelCache();
   protected FailoverServers failoverServers;
 
   @Override
@@ -66,6 +67,13 @@ public abstract class DocumentStoreBase implements IDocumentStore {
     this.failoverServers = failoverServers;
   }
 
+  /**
+   * Store wide cache of documents loaded by id (used when {@link DocumentConvention#isUseSecondLevelCache()} is enabled).
+   */
+  public SecondLevelCache getSecondLevelCache() {
+    return secondLevelCache;
+  }
+
   public void addSessionCreatedInternal(Action1<InMemoryDocumentSessionOperations> action) {
     sessionCreatedInternal.add(action);
   }
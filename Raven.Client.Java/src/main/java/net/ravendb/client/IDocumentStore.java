@@ -66,6 +66,14 @@ public interface IDocumentStore extends IDisposalNotification {
    */
   CleanCloseable setRequestsTimeoutFor(long timeout);
 
+  /**
+   * Setup the deadline for all operations (including retries and failover) executed by current thread.
+   * Requests are sent with timeout limited to remaining time, operations which run out of time fail with DeadlineExceededException.
+   * @param budget Specify the time (in milliseconds) available for operations
+   * @return Sets the deadline for operations.  Scoped to the Current Thread.
+   */
+  CleanCloseable setDeadlineFor(long budget);
+
   /**
    * Gets the shared operations headers.
    */
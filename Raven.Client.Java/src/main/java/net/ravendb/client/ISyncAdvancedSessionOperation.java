@@ -1,5 +1,7 @@
 package net.ravendb.client;
 
+import java.util.List;
+
 import net.ravendb.abstractions.basic.CloseableIterator;
 import net.ravendb.abstractions.basic.Reference;
 import net.ravendb.abstractions.data.Etag;
@@ -13,6 +15,10 @@ import net.ravendb.client.document.batches.ILazySessionOperations;
 import net.ravendb.client.indexes.AbstractIndexCreationTask;
 import net.ravendb.client.indexes.AbstractTransformerCreationTask;
 import net.ravendb.client.linq.IRavenQueryable;
+import net.ravendb.client.streaming.PartitionedStreamIterator;
+import net.ravendb.client.streaming.Publisher;
+import net.ravendb.client.streaming.StreamPartition;
+import net.ravendb.client.streaming.StreamingOptions;
 
 
 /**
@@ -368,6 +374,50 @@ public interface ISyncAdvancedSessionOperation extends IAdvancedDocumentSessionO
    */
   public <T> CloseableIterator<StreamResult<T>> stream(Class<T> entityClass, Etag fromEtag, String startsWith, String matches, int start, int pageSize, RavenPagingInformation pagingInformation, String skipAfter);
 
+  /**
+   * Stream the results on the query to the subscriber, converting them to
+   * Java types along the way. Results are read ahead of subscriber demand (up to buffer size) and converted in parallel,
+   * but they are delivered in order returned by server. Request is sent when subscriber subscribes.
+   * Does NOT track the entities in the session, and will not includes changes there when saveChanges() is called
+   * @param query Query to stream results for
+   * @param options Read ahead and conversion options (null for defaults)
+   */
+  public <T> Publisher<StreamResult<T>> streamPublisher(IRavenQueryable<T> query, StreamingOptions options);
+
+  /**
+   * Stream the results on the query to the subscriber, converting them to
+   * Java types along the way. Results are read ahead of subscriber demand (up to buffer size) and converted in parallel,
+   * but they are delivered in order returned by server. Request is sent when subscriber subscribes.
+   * Does NOT track the entities in the session, and will not includes changes there when saveChanges() is called
+   * @param query Query to stream results for
+   * @param options Read ahead and conversion options (null for defaults)
+   */
+  public <T> Publisher<StreamResult<T>> streamPublisher(IDocumentQuery<T> query, StreamingOptions options);
+
+  /**
+   * Stream the documents to the subscriber, converting them to
+   * Java types along the way. Documents are read ahead of subscriber demand (up to buffer size) and converted in parallel,
+   * but they are delivered in order returned by server. Request is sent when subscriber subscribes.
+   * Does NOT track the entities in the session, and will not includes changes there when saveChanges() is called
+   * @param entityClass
+   * @param fromEtag ETag of a document from which stream should start
+   * @param startsWith Prefix for which documents should be returned e.g. "products/"
+   * @param options Read ahead and conversion options (null for defaults)
+   */
+  public <T> Publisher<StreamResult<T>> streamPublisher(Class<T> entityClass, Etag fromEtag, String startsWith, StreamingOptions options);
+
+  /**
+   * Stream the documents of given partitions concurrently, converting them to
+   * Java types along the way. Each partition is streamed over separate connection, optionally from replica
+   * (see {@link StreamingOptions#isReadFromReplicas()}). Returned iterator exposes progress of each partition,
+   * which can be used to resume interrupted stream.
+   * Does NOT track the entities in the session, and will not includes changes there when saveChanges() is called
+   * @param entityClass
+   * @param partitions Partitions to stream, see {@link StreamPartition#splitByKeyPrefix(String, String...)} and {@link StreamPartition#splitByEtagRange(Etag, Etag, int)}
+   * @param options Concurrency, buffering and ordering options (null for defaults)
+   */
+  public <T> PartitionedStreamIterator<T> streamPartitioned(Class<T> entityClass, List<StreamPartition> partitions, StreamingOptions options);
+
   /**
    * Sends a multiple faceted queries in a single request and calculates the facet results for each of them
    * @param queries Array of the faceted queries that will be executed on the server-side
@@ -252,7 +252,9 @@ public abstract class RemoteChangesClientBase<TChangesApi extends IConnectableCh
 
   @Override
   public void onNext(String dataFromConnection) {
-    lastHeartbeat = new Date();
+    Date now = new Date();
+    jsonRequestFactory.getMetrics().changesMessageReceived(now.getTime() - lastHeartbeat.getTime());
+    lastHeartbeat = now;
     RavenJObject ravenJObject = RavenJObject.parse(dataFromConnection);
     RavenJObject value = ravenJObject.value(RavenJObject.class, "Value");
     String type = ravenJObject.value(String.class, "Type");
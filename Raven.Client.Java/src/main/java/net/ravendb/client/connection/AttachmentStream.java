@@ -0,0 +1,195 @@
+package net.ravendb.client.connection;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
+import net.ravendb.abstractions.basic.CleanCloseable;
+import net.ravendb.abstractions.data.Etag;
+import net.ravendb.abstractions.json.linq.RavenJObject;
+
+import org.apache.http.HttpEntity;
+import org.apache.http.client.methods.CloseableHttpResponse;
+
+/**
+ * Attachment which content is read directly from server response, so it is never buffered in memory.
+ * Content can be consumed only once, attachment stream has to be closed to release connection.
+ * @deprecated Use RavenFS instead.
+ */
+@Deprecated
+public class AttachmentStream implements CleanCloseable {
+
+  private static final int TRANSFER_BUFFER_SIZE = 64 * 1024;
+
+  private final CloseableHttpResponse response;
+  private final String key;
+  private final RavenJObject metadata;
+  private final Etag etag;
+  private final long size;
+  private final long skip;
+  private final boolean ranged;
+  private InputStream inputStream;
+
+  /**
+   * @param response
+   * @param key
+   * @param metadata
+   * @param etag
+   * @param size number of bytes which will be returned by stream (-1 if unknown)
+   * @param skip number of bytes of response to skip (when server returned whole attachment instead of requested range)
+   * @param ranged true if range of attachment was requested - stream is limited to size bytes (when size is known)
+   */
+  public AttachmentStream(CloseableHttpResponse response, String key, RavenJObject metadata, Etag etag, long size, long skip, boolean ranged) {
+    this.response = response;
+    this.key = key;
+    this.metadata = metadata;
+    this.etag = etag;
+    this.size = size;
+    this.skip = skip;
+    this.ranged = ranged;
+  }
+
+  public String getKey() {
+    return key;
+  }
+
+  /**
+   * RavenJObject representing attachment's metadata.
+   */
+  public RavenJObject getMetadata() {
+    return metadata;
+  }
+
+  /**
+   * Current attachment etag.
+   */
+  public Etag getEtag() {
+    return etag;
+  }
+
+  /**
+   * Number of bytes which will be returned by stream (-1 if unknown).
+   */
+  public long getSize() {
+    return size;
+  }
+
+  /**
+   * Returns stream of attachment content. Content is read from the network as the stream is consumed.
+   */
+  public synchronized InputStream getInputStream() throws IOException {
+    if (inputStream == null) {
+      HttpEntity entity = response.getEntity();
+      InputStream content = entity != null ? entity.getContent() : new EmptyInputStream();
+      long toSkip = skip;
+      while (toSkip > 0) {
+        long skipped = content.skip(toSkip);
+        if (skipped <= 0) {
+          if (content.read() < 0) {
+            break;
+          }
+          skipped = 1;
+        }
+        toSkip -= skipped;
+      }
+      inputStream = ranged && size >= 0 ? new LimitedInputStream(content, size) : content;
+    }
+    return inputStream;
+  }
+
+  /**
+   * Returns channel reading attachment content.
+   */
+  public ReadableByteChannel getChannel() throws IOException {
+    return Channels.newChannel(getInputStream());
+  }
+
+  /**
+   * Copies attachment content to given channel (e.g. socket or file channel) using single transfer buffer.
+   * @param target
+   * @return number of transferred bytes
+   */
+  public long transferTo(WritableByteChannel target) throws IOException {
+    ReadableByteChannel source = getChannel();
+    ByteBuffer buffer = ByteBuffer.allocateDirect(TRANSFER_BUFFER_SIZE);
+    long total = 0;
+    while (source.read(buffer) >= 0 || buffer.position() > 0) {
+      buffer.flip();
+      total += target.write(buffer);
+      buffer.compact();
+    }
+    return total;
+  }
+
+  @Override
+  public void close() {
+    try {
+      // rest of the content is not read - connection is closed instead of being reused
+      response.close();
+    } catch (IOException e) {
+      // connection is released anyway
+    }
+  }
+
+  private static class EmptyInputStream extends InputStream {
+    @Override
+    public int read() {
+      return -1;
+    }
+  }
+
+  private static class LimitedInputStream extends FilterInputStream {
+    private long remaining;
+
+    public LimitedInputStream(InputStream in, long limit) {
+      super(in);
+      this.remaining = limit;
+    }
+
+    @Override
+    public int read() throws IOException {
+      if (remaining <= 0) {
+        return -1;
+      }
+      int result = super.read();
+      if (result >= 0) {
+        remaining--;
+      }
+      return result;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      if (remaining <= 0) {
+        return -1;
+      }
+      int result = super.read(b, off, (int) Math.min(len, remaining));
+      if (result > 0) {
+        remaining -= result;
+      }
+      return result;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      long skipped = super.skip(Math.min(n, remaining));
+      remaining -= skipped;
+      return skipped;
+    }
+
+    @Override
+    public int available() throws IOException {
+      return (int) Math.min(super.available(), remaining);
+    }
+
+    @Override
+    public boolean markSupported() {
+      return false;
+    }
+  }
+
+}
@@ -0,0 +1,288 @@
+package net.ravendb.client.connection;
+
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import net.ravendb.client.exceptions.ConcurrencyLimitExceededException;
+import net.ravendb.client.metrics.MetricsRegistry;
+
+/**
+ * Limits number of concurrent requests sent to each node (server).
+ *
+ * Limit of node is adjusted using AIMD: it grows by one after (roughly) limit requests completed successfully
+ * and it is multiplied by 0.75 (at most once per recent latency of node) when node gets slow or fails:
+ * <ul>
+ * <li>recent latency (short window average) is more than twice the long term latency (long window average),
+ * e.g. because of GC pause or indexing storm on server. Both averages are computed from the same mix of operations
+ * (loads, queries...), so latency gradient doesn't depend on what kind of operations are sent to node,</li>
+ * <li>request times out, server is unavailable or responds with 503.</li>
+ * </ul>
+ * Requests above the limit wait for free slot (up to wait timeout) or fail immediately, when wait timeout is 0.
+ */
+public class ConcurrencyLimiters {
+
+  private static final int INITIAL_LIMIT = 20;
+  private static final double DECREASE_FACTOR = 0.75;
+  // roughly last 20 requests - shorter window mistakes burst of slow operations in mixed traffic for slowdown of node
+  private static final double SHORT_LATENCY_SMOOTHING = 0.05;
+  private static final double LONG_LATENCY_SMOOTHING = 0.01;
+  private static final double LATENCY_TOLERANCE = 2.0;
+  private static final int MIN_LATENCY_SAMPLES = 20;
+
+  private static final Permit NO_PERMIT = new Permit(null);
+
+  private final ConcurrentMap<String, NodeLimiter> limiters = new ConcurrentHashMap<>();
+  private final int maxLimit;
+  private final long waitTimeoutMillis;
+  private final MetricsRegistry metrics;
+
+  /**
+   * Nodes for which current thread holds permit (nested operations don't take another slot,
+   * otherwise operations waiting for nested requests could take all slots).
+   */
+  private final ThreadLocal<Set<String>> heldNodes = new ThreadLocal<Set<String>>() {
+    @Override
+    protected Set<String> initialValue() {
+      return new HashSet<>();
+    }
+  };
+
+  /**
+   * @param maxConcurrentRequestsPerNode upper bound of limit, value &lt;= 0 disables limiting
+   * @param waitTimeoutMillis max time to wait for free slot, 0 means requests above limit fail immediately
+   * @param metrics
+   */
+  public ConcurrencyLimiters(int maxConcurrentRequestsPerNode, long waitTimeoutMillis, MetricsRegistry metrics) {
+    this.maxLimit = maxConcurrentRequestsPerNode;
+    this.waitTimeoutMillis = Math.max(0, waitTimeoutMillis);
+    this.metrics = metrics;
+  }
+
+  public boolean isEnabled() {
+    return maxLimit > 0;
+  }
+
+  /**
+   * Takes slot for request to node of given url, waiting for it if needed.
+   * @param url
+   * @return permit which has to be released when request completes
+   * @throws ConcurrencyLimitExceededException when there is no free slot in wait timeout
+   */
+  public Permit acquire(String url) {
+    return acquire(url, waitTimeoutMillis);
+  }
+
+  /**
+   * Takes slot for request to node of given url, waiting for it at most min(wait timeout, maxWaitMillis).
+   * @param url
+   * @param maxWaitMillis
+   * @return permit which has to be released when request completes
+   * @throws ConcurrencyLimitExceededException when there is no free slot in time
+   */
+  public Permit acquire(String url, long maxWaitMillis) {
+    if (!isEnabled()) {
+      return NO_PERMIT;
+    }
+    String node = MetricsRegistry.node(url);
+    Set<String> held = heldNodes.get();
+    if (held.contains(node)) {
+      return NO_PERMIT;
+    }
+    NodeLimiter limiter = getLimiter(node);
+    boolean acquired;
+    try {
+      acquired = limiter.tryAcquire(Math.min(waitTimeoutMillis, maxWaitMillis));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      acquired = false;
+    }
+    if (!acquired) {
+      if (metrics != null) {
+        metrics.requestRejected();
+      }
+      throw new ConcurrencyLimitExceededException(node, limiter.getLimit());
+    }
+    held.add(node);
+    return new Permit(limiter);
+  }
+
+  /**
+   * Returns true if node of given url has no free slot.
+   * @param url
+   */
+  public boolean isSaturated(String url) {
+    if (!isEnabled()) {
+      return false;
+    }
+    NodeLimiter limiter = limiters.get(MetricsRegistry.node(url));
+    return limiter != null && limiter.isSaturated();
+  }
+
+  /**
+   * Current limits of nodes.
+   */
+  public Map<String, Integer> getLimits() {
+    Map<String, Integer> result = new TreeMap<>();
+    for (Map.Entry<String, NodeLimiter> entry : limiters.entrySet()) {
+      result.put(entry.getKey(), entry.getValue().getLimit());
+    }
+    return result;
+  }
+
+  /**
+   * Number of requests currently sent to nodes.
+   */
+  public Map<String, Integer> getInFlightRequests() {
+    Map<String, Integer> result = new TreeMap<>();
+    for (Map.Entry<String, NodeLimiter> entry : limiters.entrySet()) {
+      result.put(entry.getKey(), entry.getValue().getInFlight());
+    }
+    return result;
+  }
+
+  private NodeLimiter getLimiter(String node) {
+    NodeLimiter limiter = limiters.get(node);
+    if (limiter == null) {
+      NodeLimiter newLimiter = new NodeLimiter(node, maxLimit);
+      limiter = limiters.putIfAbsent(node, newLimiter);
+      if (limiter == null) {
+        limiter = newLimiter;
+      }
+    }
+    return limiter;
+  }
+
+  /**
+   * Slot taken by single request. It has to be released by thread which acquired it.
+   */
+  public static class Permit {
+    private final NodeLimiter limiter;
+    private final long start = System.nanoTime();
+    private boolean released;
+
+    Permit(NodeLimiter limiter) {
+      this.limiter = limiter;
+    }
+
+    /**
+     * Releases slot and records latency of request.
+     * @param overloaded true if request failed because node is overloaded or unavailable
+     */
+    public void release(boolean overloaded) {
+      if (limiter == null || released) {
+        return;
+      }
+      released = true;
+      limiter.release(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), overloaded);
+    }
+  }
+
+  class NodeLimiter {
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition slotReleased = lock.newCondition();
+    private final String node;
+    private final int max;
+
+    private double limit;
+    private int inFlight;
+    private double shortLatency;
+    private double longLatency;
+    private int latencySamples;
+    private long lastDecrease;
+
+    NodeLimiter(String node, int max) {
+      this.node = node;
+      this.max = max;
+      this.limit = Math.min(INITIAL_LIMIT, max);
+    }
+
+    boolean tryAcquire(long timeoutMillis) throws InterruptedException {
+      long nanos = TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+      lock.lock();
+      try {
+        while (inFlight >= (int) limit) {
+          if (nanos <= 0) {
+            return false;
+          }
+          nanos = slotReleased.awaitNanos(nanos);
+        }
+        inFlight++;
+        return true;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    void release(long latencyMillis, boolean overloaded) {
+      heldNodes.get().remove(node);
+      lock.lock();
+      try {
+        if (!overloaded) {
+          recordLatency(Math.max(1, latencyMillis));
+        }
+        boolean slow = latencySamples >= MIN_LATENCY_SAMPLES && shortLatency > longLatency * LATENCY_TOLERANCE;
+        if (overloaded || slow) {
+          // decrease at most once per recent latency - requests sent before previous decrease will be slow as well
+          long now = System.nanoTime();
+          if (lastDecrease == 0 || now - lastDecrease > TimeUnit.MILLISECONDS.toNanos((long) shortLatency)) {
+            limit = Math.max(1, limit * DECREASE_FACTOR);
+            lastDecrease = now;
+          }
+        } else if (inFlight * 2 >= limit) {
+          // increase only when limit is actually used
+          limit = Math.min(max, limit + 1 / limit);
+        }
+        inFlight--;
+        slotReleased.signal();
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    private void recordLatency(long latencyMillis) {
+      if (latencySamples < Integer.MAX_VALUE) {
+        latencySamples++;
+      }
+      // plain averages until windows are filled, so first (e.g. connection setup) samples don't dominate
+      double shortSmoothing = Math.max(SHORT_LATENCY_SMOOTHING, 1.0 / latencySamples);
+      double longSmoothing = Math.max(LONG_LATENCY_SMOOTHING, 1.0 / latencySamples);
+      shortLatency = shortLatency * (1 - shortSmoothing) + latencyMillis * shortSmoothing;
+      longLatency = longLatency * (1 - longSmoothing) + latencyMillis * longSmoothing;
+    }
+
+    boolean isSaturated() {
+      lock.lock();
+      try {
+        return inFlight >= (int) limit;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    int getLimit() {
+      lock.lock();
+      try {
+        return (int) limit;
+      } finally {
+        lock.unlock();
+      }
+    }
+
+    int getInFlight() {
+      lock.lock();
+      try {
+        return inFlight;
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+}
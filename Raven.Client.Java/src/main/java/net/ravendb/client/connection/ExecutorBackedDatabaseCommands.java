@@ -0,0 +1,154 @@
+package net.ravendb.client.connection;
+
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+
+import net.ravendb.abstractions.basic.CleanCloseable;
+import net.ravendb.abstractions.closure.Action2;
+import net.ravendb.abstractions.closure.Function0;
+import net.ravendb.abstractions.commands.ICommandData;
+import net.ravendb.abstractions.data.BatchResult;
+import net.ravendb.abstractions.data.Etag;
+import net.ravendb.abstractions.data.GetRequest;
+import net.ravendb.abstractions.data.GetResponse;
+import net.ravendb.abstractions.data.IndexQuery;
+import net.ravendb.abstractions.data.JsonDocument;
+import net.ravendb.abstractions.data.MultiLoadResult;
+import net.ravendb.abstractions.data.PutResult;
+import net.ravendb.abstractions.data.QueryResult;
+import net.ravendb.abstractions.json.linq.RavenJObject;
+import net.ravendb.client.connection.implementation.HttpJsonRequestFactory;
+import net.ravendb.client.connection.implementation.RequestCanceller;
+import net.ravendb.client.utils.RavenFuture;
+
+/**
+ * Convenience implementation of {@link IAsyncDatabaseCommands} which runs blocking {@link IDatabaseCommands} on given executor.
+ * It doesn't perform non-blocking I/O: caller thread is not blocked, but each running command occupies one executor thread
+ * for the whole duration of its http requests, so executor should be bounded.
+ *
+ * Requests go through wrapped {@link IDatabaseCommands}, so http caching, failover and profiling work as usual.
+ * Thread bound request settings (aggressive caching, request timeout, deadline) of calling thread are applied to worker thread.
+ * Cancelling returned future aborts http requests sent by command.
+ */
+public class ExecutorBackedDatabaseCommands implements IAsyncDatabaseCommands {
+
+  private final IDatabaseCommands databaseCommands;
+  private final HttpJsonRequestFactory jsonRequestFactory;
+  private final Executor executor;
+
+  public ExecutorBackedDatabaseCommands(IDatabaseCommands databaseCommands, HttpJsonRequestFactory jsonRequestFactory, Executor executor) {
+    this.databaseCommands = databaseCommands;
+    this.jsonRequestFactory = jsonRequestFactory;
+    this.executor = executor;
+  }
+
+  @Override
+  public IDatabaseCommands getDatabaseCommands() {
+    return databaseCommands;
+  }
+
+  protected <T> RavenFuture<T> execute(final Function0<T> operation) {
+    final Function0<CleanCloseable> threadSettings = jsonRequestFactory.captureThreadSettings();
+    final RequestCanceller canceller = new RequestCanceller();
+    RavenFuture<T> future = RavenFuture.supplyAsync(new Function0<T>() {
+      @Override
+      public T apply() {
+        CleanCloseable settings = threadSettings.apply();
+        jsonRequestFactory.setRequestCanceller(canceller);
+        try {
+          return operation.apply();
+        } finally {
+          jsonRequestFactory.setRequestCanceller(null);
+          settings.close();
+        }
+      }
+    }, executor);
+    future.whenComplete(new Action2<T, Throwable>() {
+      @Override
+      public void apply(T result, Throwable error) {
+        if (error instanceof CancellationException) {
+          canceller.cancel();
+        }
+      }
+    });
+    return future;
+  }
+
+  @Override
+  public RavenFuture<JsonDocument> getAsync(final String key) {
+    return execute(new Function0<JsonDocument>() {
+      @Override
+      public JsonDocument apply() {
+        return databaseCommands.get(key);
+      }
+    });
+  }
+
+  @Override
+  public RavenFuture<MultiLoadResult> getAsync(final String[] ids, final String[] includes) {
+    return execute(new Function0<MultiLoadResult>() {
+      @Override
+      public MultiLoadResult apply() {
+        return databaseCommands.get(ids, includes);
+      }
+    });
+  }
+
+  @Override
+  public RavenFuture<QueryResult> queryAsync(String index, IndexQuery query) {
+    return queryAsync(index, query, null);
+  }
+
+  @Override
+  public RavenFuture<QueryResult> queryAsync(final String index, final IndexQuery query, final String[] includes) {
+    return execute(new Function0<QueryResult>() {
+      @Override
+      public QueryResult apply() {
+        return databaseCommands.query(index, query, includes);
+      }
+    });
+  }
+
+  @Override
+  public RavenFuture<BatchResult[]> batchAsync(final List<ICommandData> commandDatas) {
+    return execute(new Function0<BatchResult[]>() {
+      @Override
+      public BatchResult[] apply() {
+        return databaseCommands.batch(commandDatas);
+      }
+    });
+  }
+
+  @Override
+  public RavenFuture<GetResponse[]> multiGetAsync(final GetRequest[] requests) {
+    return execute(new Function0<GetResponse[]>() {
+      @Override
+      public GetResponse[] apply() {
+        return databaseCommands.multiGet(requests);
+      }
+    });
+  }
+
+  @Override
+  public RavenFuture<PutResult> putAsync(final String key, final Etag etag, final RavenJObject document, final RavenJObject metadata) {
+    return execute(new Function0<PutResult>() {
+      @Override
+      public PutResult apply() {
+        return databaseCommands.put(key, etag, document, metadata);
+      }
+    });
+  }
+
+  @Override
+  public RavenFuture<Void> deleteAsync(final String key, final Etag etag) {
+    return execute(new Function0<Void>() {
+      @Override
+      public Void apply() {
+        databaseCommands.delete(key, etag);
+        return null;
+      }
+    });
+  }
+
+}
@@ -0,0 +1,324 @@
+package net.ravendb.client.connection;
+
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import net.ravendb.abstractions.basic.CleanCloseable;
+import net.ravendb.abstractions.basic.EventHandler;
+import net.ravendb.abstractions.basic.VoidArgs;
+import net.ravendb.abstractions.data.IndexChangeNotification;
+import net.ravendb.abstractions.data.IndexChangeTypes;
+import net.ravendb.abstractions.data.IndexQuery;
+import net.ravendb.abstractions.data.SuggestionQuery;
+import net.ravendb.abstractions.json.linq.RavenJToken;
+import net.ravendb.client.changes.IDatabaseChanges;
+import net.ravendb.client.changes.ObserverAdapter;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+import com.google.common.cache.RemovalNotification;
+
+/**
+ * Cache of facet and suggestion results keyed by (database, index, query, facets).
+ *
+ * Every entry remembers etag returned by server, so it is revalidated by conditional request
+ * (server answers 304 without computing facets again). When index changes of database are observed
+ * (see {@link #observeIndexChanges(String, IDatabaseChanges)}), entries are served without contacting server
+ * until index they were computed from changes or changes connection is interrupted.
+ * Results computed using facet setup document and results returned by secondary nodes are always revalidated
+ * (changes of documents and of secondary nodes' indexes aren't observed).
+ */
+public class FacetResultsCache {
+
+  public static final int DEFAULT_MAX_SIZE = 2048;
+
+  private static final String FACET_SETUP_DOC_PREFIX = "facetDoc|";
+
+  private final Cache<String, Entry> cache;
+  /**
+   * Incremented on every change, versions are values of this clock.
+   */
+  private final AtomicLong clock = new AtomicLong();
+  /**
+   * Clock value of last change of index (keyed by database|index).
+   */
+  private final Cache<String, IndexChange> indexChanges;
+  /**
+   * Clock value of last change of database as a whole (results older than it are stale).
+   */
+  private final ConcurrentMap<String, AtomicLong> databaseChanges = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, IDatabaseChanges> observedDatabases = new ConcurrentHashMap<>();
+
+  public FacetResultsCache() {
+    this(DEFAULT_MAX_SIZE);
+  }
+
+  public FacetResultsCache(int maxSize) {
+    cache = CacheBuilder.newBuilder().maximumSize(maxSize).build();
+    indexChanges = CacheBuilder.newBuilder().maximumSize(maxSize).removalListener(new RemovalListener<String, IndexChange>() {
+      @SuppressWarnings("synthetic-access")
+      @Override
+      public void onRemoval(RemovalNotification<String, IndexChange> notification) {
+        // forgotten change has to be still visible - treat it as change of whole database
+        if (notification.wasEvicted()) {
+          raise(databaseChange(notification.getValue().database), notification.getValue().lastChange.get());
+        }
+      }
+    }).build();
+  }
+
+  /**
+   * Builds cache key of facets query. Paging of index query doesn't affect facets, so minimal query string is used.
+   * @param databaseUrl
+   * @param index
+   * @param query
+   * @param facetStart
+   * @param facetPageSize
+   * @param facets facets json or name of facet setup document
+   */
+  public static String facetsKey(String databaseUrl, String index, IndexQuery query, int facetStart, Integer facetPageSize, String facets) {
+    return "facets|" + databaseUrl + "|" + index.toLowerCase(Locale.ROOT) + "|" + query.getMinimalQueryString()
+      + "|" + facetStart + "|" + facetPageSize + "|" + facets;
+  }
+
+  /**
+   * Builds cache key of facets query using facet setup document. Such results are always revalidated by server,
+   * as changes of setup document aren't observed.
+   * @param databaseUrl
+   * @param index
+   * @param query
+   * @param facetStart
+   * @param facetPageSize
+   * @param facetSetupDoc
+   */
+  public static String facetSetupDocKey(String databaseUrl, String index, IndexQuery query, int facetStart, Integer facetPageSize, String facetSetupDoc) {
+    return FACET_SETUP_DOC_PREFIX + facetsKey(databaseUrl, index, query, facetStart, facetPageSize, facetSetupDoc);
+  }
+
+  /**
+   * Builds cache key of suggestion query.
+   * @param databaseUrl
+   * @param index
+   * @param query
+   */
+  public static String suggestionKey(String databaseUrl, String index, SuggestionQuery query) {
+    return "suggest|" + databaseUrl + "|" + index.toLowerCase(Locale.ROOT) + "|" + query.getField() + "|" + query.getTerm()
+      + "|" + query.getMaxSuggestions() + "|" + query.getDistance() + "|" + query.getAccuracy() + "|" + query.isPopularity();
+  }
+
+  /**
+   * Returns cached entry or null.
+   * @param key
+   */
+  public Entry get(String key) {
+    return cache.getIfPresent(key);
+  }
+
+  /**
+   * Returns true if entry can be used without asking server: index changes of its database are observed
+   * and its index didn't change since entry was stored.
+   * @param entry
+   */
+  public boolean isUpToDate(Entry entry) {
+    if (!entry.trackChanges) {
+      return false;
+    }
+    IDatabaseChanges changes = observedDatabases.get(entry.database);
+    return changes != null && changes.isConnected() && !changedSince(entry.database, entry.index, entry.version);
+  }
+
+  /**
+   * Returns version, which has to be read before request is sent to server and passed to
+   * {@link #put(String, String, String, RavenJToken, String, long, boolean)}. Change notification received while request
+   * is in flight makes stored result stale, so it is revalidated on next use.
+   * @param database
+   * @param index
+   */
+  @SuppressWarnings("unused")
+  public long getVersion(String database, String index) {
+    return clock.get();
+  }
+
+  /**
+   * Stores result. Result without etag is stored only when index changes of its database are observed
+   * (otherwise it could be never used).
+   * @param key
+   * @param database
+   * @param index
+   * @param data result json
+   * @param etag etag returned by server (might be null)
+   * @param version version of index read by {@link #getVersion(String, String)} before request was sent
+   */
+  public void put(String key, String database, String index, RavenJToken data, String etag, long version) {
+    put(key, database, index, data, etag, version, true);
+  }
+
+  /**
+   * Stores result. Result without etag is stored only when it can be served using observed index changes
+   * (otherwise it could be never used).
+   * @param key
+   * @param database
+   * @param index
+   * @param data result json
+   * @param etag etag returned by server (might be null)
+   * @param version version of index read by {@link #getVersion(String, String)} before request was sent
+   * @param trackChanges false if result has to be always revalidated (e.g. it was returned by secondary node)
+   */
+  public void put(String key, String database, String index, RavenJToken data, String etag, long version, boolean trackChanges) {
+    boolean track = trackChanges && !key.startsWith(FACET_SETUP_DOC_PREFIX);
+    if (data == null || (etag == null && (!track || !observedDatabases.containsKey(database)))) {
+      return;
+    }
+    RavenJToken clone = data.cloneToken();
+    clone.ensureCannotBeChangeAndEnableShapshotting();
+    cache.put(key, new Entry(database, index.toLowerCase(Locale.ROOT), clone, etag, version, track));
+  }
+
+  public void invalidate(String key) {
+    cache.invalidate(key);
+  }
+
+  public void clear() {
+    cache.invalidateAll();
+  }
+
+  public long size() {
+    return cache.size();
+  }
+
+  /**
+   * Marks results computed from given index as requiring revalidation.
+   * @param database
+   * @param index
+   */
+  public void indexChanged(String database, String index) {
+    long now = clock.incrementAndGet();
+    String key = database + "|" + index.toLowerCase(Locale.ROOT);
+    IndexChange change = indexChanges.getIfPresent(key);
+    if (change == null) {
+      IndexChange newChange = new IndexChange(database);
+      change = indexChanges.asMap().putIfAbsent(key, newChange);
+      if (change == null) {
+        change = newChange;
+      }
+    }
+    raise(change.lastChange, now);
+  }
+
+  /**
+   * Marks all results of given database as requiring revalidation.
+   * @param database
+   */
+  public void databaseChanged(String database) {
+    raise(databaseChange(database), clock.incrementAndGet());
+  }
+
+  /**
+   * Observes index changes of given database, so results of not changed indexes are served without asking server.
+   * @param database
+   * @param changes
+   * @return subscription, close it to stop observing changes
+   */
+  public CleanCloseable observeIndexChanges(final String database, final IDatabaseChanges changes) {
+    final EventHandler<VoidArgs> connectionStatusChanged = new EventHandler<VoidArgs>() {
+      @Override
+      public void handle(Object sender, VoidArgs event) {
+        // notifications might have been missed while disconnected
+        databaseChanged(database);
+      }
+    };
+    changes.addConnectionStatusChanged(connectionStatusChanged);
+    final CleanCloseable subscription = changes.forAllIndexes().subscribe(new ObserverAdapter<IndexChangeNotification>() {
+      @Override
+      public void onNext(IndexChangeNotification value) {
+        if (!IndexChangeTypes.INDEX_DEMOTED_TO_IDLE.equals(value.getType())
+          && !IndexChangeTypes.INDEX_PROMOTED_FROM_IDLE.equals(value.getType())) {
+          indexChanged(database, value.getName());
+        }
+      }
+    });
+    databaseChanged(database);
+    observedDatabases.put(database, changes);
+
+    return new CleanCloseable() {
+      @Override
+      public void close() {
+        observedDatabases.remove(database, changes);
+        subscription.close();
+        changes.removeConnectionStatusChanges(connectionStatusChanged);
+      }
+    };
+  }
+
+  private boolean changedSince(String database, String index, long version) {
+    if (databaseChange(database).get() > version) {
+      return true;
+    }
+    IndexChange change = indexChanges.getIfPresent(database + "|" + index);
+    return change != null && change.lastChange.get() > version;
+  }
+
+  private AtomicLong databaseChange(String database) {
+    AtomicLong change = databaseChanges.get(database);
+    if (change == null) {
+      AtomicLong newChange = new AtomicLong();
+      change = databaseChanges.putIfAbsent(database, newChange);
+      if (change == null) {
+        change = newChange;
+      }
+    }
+    return change;
+  }
+
+  private static void raise(AtomicLong value, long now) {
+    long last;
+    do {
+      last = value.get();
+    } while (last < now && !value.compareAndSet(last, now));
+  }
+
+  private static class IndexChange {
+    private final String database;
+    private final AtomicLong lastChange = new AtomicLong();
+
+    public IndexChange(String database) {
+      this.database = database;
+    }
+  }
+
+  public static class Entry {
+    private final String database;
+    private final String index;
+    private final RavenJToken data;
+    private final String etag;
+    private final long version;
+    private final boolean trackChanges;
+
+    public Entry(String database, String index, RavenJToken data, String etag, long version, boolean trackChanges) {
+      this.database = database;
+      this.index = index;
+      this.data = data;
+      this.etag = etag;
+      this.version = version;
+      this.trackChanges = trackChanges;
+    }
+
+    /**
+     * Cached result (snapshot, clone it before modifying).
+     */
+    public RavenJToken getData() {
+      return data;
+    }
+
+    /**
+     * Etag returned by server together with result.
+     */
+    public String getEtag() {
+      return etag;
+    }
+  }
+
+}
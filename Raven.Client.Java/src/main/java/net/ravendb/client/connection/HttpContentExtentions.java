@@ -1,6 +1,10 @@
 package net.ravendb.client.connection;
 
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 
 import org.apache.commons.lang.StringUtils;
 import org.apache.http.entity.ContentType;
@@ -9,6 +13,35 @@ import org.apache.http.entity.InputStreamEntity;
 
 public class HttpContentExtentions {
 
+  private static final Set<String> COMPRESSED_CONTENT_TYPES = new HashSet<>(Arrays.asList(
+    "application/zip", "application/gzip", "application/x-gzip", "application/x-bzip2", "application/x-xz",
+    "application/x-7z-compressed", "application/x-rar-compressed", "application/java-archive", "application/pdf"));
+
+  private static final Set<String> UNCOMPRESSED_MEDIA_TYPES = new HashSet<>(Arrays.asList(
+    "image/bmp", "image/svg+xml", "image/tiff", "image/x-icon", "audio/wav", "audio/x-wav"));
+
+  /**
+   * Checks if content of given type is already compressed (images, audio, video, archives),
+   * so compressing it again only costs CPU.
+   * @param contentType
+   */
+  public static boolean isCompressedContentType(String contentType) {
+    if (StringUtils.isEmpty(contentType)) {
+      return false;
+    }
+    String mediaType = contentType;
+    int parametersStart = mediaType.indexOf(';');
+    if (parametersStart >= 0) {
+      mediaType = mediaType.substring(0, parametersStart);
+    }
+    mediaType = mediaType.trim().toLowerCase(Locale.ENGLISH);
+    if (COMPRESSED_CONTENT_TYPES.contains(mediaType)) {
+      return true;
+    }
+    return (mediaType.startsWith("image/") || mediaType.startsWith("audio/") || mediaType.startsWith("video/"))
+      && !UNCOMPRESSED_MEDIA_TYPES.contains(mediaType);
+  }
+
   public static void setContentType(InputStreamEntity innerEntity, Map<String, String> headers) {
     String contentType = headers.get("Content-Type");
     if (contentType == null) {
@@ -0,0 +1,86 @@
+package net.ravendb.client.connection;
+
+import java.util.List;
+
+import net.ravendb.abstractions.commands.ICommandData;
+import net.ravendb.abstractions.data.BatchResult;
+import net.ravendb.abstractions.data.Etag;
+import net.ravendb.abstractions.data.GetRequest;
+import net.ravendb.abstractions.data.GetResponse;
+import net.ravendb.abstractions.data.IndexQuery;
+import net.ravendb.abstractions.data.JsonDocument;
+import net.ravendb.abstractions.data.MultiLoadResult;
+import net.ravendb.abstractions.data.PutResult;
+import net.ravendb.abstractions.data.QueryResult;
+import net.ravendb.abstractions.json.linq.RavenJObject;
+import net.ravendb.client.utils.RavenFuture;
+
+/**
+ * Asynchronous counterpart of {@link IDatabaseCommands}.
+ * Each operation returns immediately and its result is delivered using returned future.
+ * Note that operations are not required to use non-blocking I/O, see {@link ExecutorBackedDatabaseCommands}.
+ */
+public interface IAsyncDatabaseCommands {
+
+  /**
+   * Gets synchronous commands used to execute operations
+   */
+  public IDatabaseCommands getDatabaseCommands();
+
+  /**
+   * Retrieve a single document for a specified key.
+   * @param key Key of the document you want to retrieve
+   */
+  public RavenFuture<JsonDocument> getAsync(String key);
+
+  /**
+   * Retrieves documents with the specified ids, optionally specifying includes to fetch along.
+   * @param ids Array of keys of the documents you want to retrieve
+   * @param includes Array of paths in documents in which server should look for a 'referenced' document
+   */
+  public RavenFuture<MultiLoadResult> getAsync(String[] ids, String[] includes);
+
+  /**
+   * Queries the specified index in the Raven-flavored Lucene query syntax
+   * @param index Name of an index to query
+   * @param query Query definition containing all information required to query a specified index
+   */
+  public RavenFuture<QueryResult> queryAsync(String index, IndexQuery query);
+
+  /**
+   * Queries the specified index in the Raven-flavored Lucene query syntax
+   * @param index Name of an index to query
+   * @param query Query definition containing all information required to query a specified index
+   * @param includes An array of relative paths that specify related documents ids which should be included in a query result
+   */
+  public RavenFuture<QueryResult> queryAsync(String index, IndexQuery query, String[] includes);
+
+  /**
+   * Sends multiple operations in a single request, reducing the number of remote calls and allowing several operations to share same transaction
+   * @param commandDatas Commands to process
+   */
+  public RavenFuture<BatchResult[]> batchAsync(List<ICommandData> commandDatas);
+
+  /**
+   * Perform a single POST request containing multiple nested GET requests
+   * @param requests
+   */
+  public RavenFuture<GetResponse[]> multiGetAsync(GetRequest[] requests);
+
+  /**
+   * Puts the document in the database with the specified key.
+   * @param key Unique key under which document will be stored
+   * @param etag Current document etag, used for concurrency checks (null to skip check)
+   * @param document Document data
+   * @param metadata Document metadata
+   */
+  public RavenFuture<PutResult> putAsync(String key, Etag etag, RavenJObject document, RavenJObject metadata);
+
+  /**
+   * Deletes the document with the specified key
+   * @param key The key of a document to be deleted
+   * @param etag current document etag, used for concurrency checks (null to skip check)
+   */
+  public RavenFuture<Void> deleteAsync(String key, Etag etag);
+
+}
@@ -3,6 +3,7 @@ package net.ravendb.client.connection;
 import net.ravendb.abstractions.basic.CleanCloseable;
 import net.ravendb.abstractions.basic.CloseableIterator;
 import net.ravendb.abstractions.basic.Reference;
+import net.ravendb.abstractions.closure.Action2;
 import net.ravendb.abstractions.commands.ICommandData;
 import net.ravendb.abstractions.connection.OperationCredentials;
 import net.ravendb.abstractions.data.*;
@@ -19,6 +20,7 @@ import net.ravendb.client.document.ILowLevelBulkInsertOperation;
 import net.ravendb.client.indexes.IndexDefinitionBuilder;
 
 import java.io.IOException;
+import java.io.File;
 import java.io.InputStream;
 import java.util.Collection;
 import java.util.Date;
@@ -71,6 +73,14 @@ public interface IDatabaseCommands extends IHoldProfilingInformation {
    */
   public MultiLoadResult get(final String[] ids, final String[] includes);
 
+  /**
+   * Retrieves documents with the specified ids without resolving replication conflicts.
+   * Conflicted document is returned as conflict marker: its metadata contains @Http-Status-Code 409
+   * and its Conflicts array contains ids of conflicted versions.
+   * @param ids Array of keys of the documents you want to retrieve
+   */
+  public MultiLoadResult getWithConflicts(final String[] ids);
+
   /**
    * Retrieves documents with the specified ids, optionally specifying includes to fetch along and also optionally the transformer.
    * Returns MultiLoadResult where:
@@ -449,6 +459,27 @@ public interface IDatabaseCommands extends IHoldProfilingInformation {
   @Deprecated
   public Attachment getAttachment(String key);
 
+  /**
+   * Downloads a single attachment as stream. Content is read from the network as it is consumed,
+   * so it is never buffered in memory. Returned stream has to be closed.
+   * @param key Key of the attachment you want to download
+   * @return attachment stream or null if attachment doesn't exist
+   * @deprecated Use RavenFS instead.
+   */
+  @Deprecated
+  public AttachmentStream getAttachmentStream(String key);
+
+  /**
+   * Downloads range of a single attachment as stream. Returned stream has to be closed.
+   * @param key Key of the attachment you want to download
+   * @param from Index of the first byte to download
+   * @param to Index of the last byte to download (inclusive) or null to download rest of the attachment
+   * @return attachment stream or null if attachment doesn't exist
+   * @deprecated Use RavenFS instead.
+   */
+  @Deprecated
+  public AttachmentStream getAttachmentStream(String key, long from, Long to);
+
   /**
    * Used to download attachment information for multiple attachments.
    * @param start Indicates how many attachments should be skipped
@@ -497,6 +528,15 @@ public interface IDatabaseCommands extends IHoldProfilingInformation {
    */
   public GetResponse[] multiGet(GetRequest[] requests);
 
+  /**
+   * Perform a single POST request containing multiple nested GET requests.
+   * Response is parsed incrementally and every nested response is handed to given callback
+   * as soon as it is read, together with index of the request it answers.
+   * @param requests
+   * @param onResponse callback invoked for each nested response
+   */
+  public GetResponse[] multiGet(GetRequest[] requests, Action2<Integer, GetResponse> onResponse);
+
   /**
    * Perform a set based update using the specified index
    * @param indexName Name of an index to perform a query on
@@ -691,6 +731,18 @@ public interface IDatabaseCommands extends IHoldProfilingInformation {
   @Deprecated
   public void putAttachment(String key, Etag etag, InputStream data, RavenJObject metadata);
 
+  /**
+   * Puts file content as attachment with the specified key. File is sent directly from disk
+   * and it isn't compressed when its content type (taken from metadata) is already compressed.
+   * @param key Unique key under which attachment will be stored
+   * @param etag Current attachment etag, used for concurrency checks (null to skip check)
+   * @param file Attachment data
+   * @param metadata Attachment metadata
+   * @deprecated Use RavenFS instead.
+   */
+  @Deprecated
+  public void putAttachment(String key, Etag etag, File file, RavenJObject metadata);
+
   /**
    * Updates attachments metadata only.
    * @param key Key under which attachment is stored
@@ -34,6 +34,8 @@ public class MultiGetOperation {
   private String requestUri;
   private boolean allRequestsCanBeServedFromAggressiveCache;
   private CachedRequest[] cachedData;
+  private RequestStatus[] requestStatuses;
+  private boolean hasCachedRequests;
 
   public String getRequestUri() {
     return requestUri;
@@ -107,34 +109,57 @@ public class MultiGetOperation {
   }
 
   public GetResponse[] handleCachingResponse(GetResponse[] responses, HttpJsonRequestFactory jsonRequestFactory) {
-    boolean hasCachedRequests = false;
-    RequestStatus[] requestStatuses = new RequestStatus[responses.length];
     for (int i = 0; i < responses.length; i++) {
-      if (responses[i] == null || responses[i].getStatus() == HttpStatus.SC_NOT_MODIFIED) {
-        hasCachedRequests = true;
+      responses[i] = handleCachingResponse(i, responses[i], jsonRequestFactory);
+    }
+    return completeCachingResponse(responses);
+  }
 
-        requestStatuses[i] = responses[i] == null ? RequestStatus.AGGRESSIVELY_CACHED : RequestStatus.CACHED;
-        if (responses[i] == null) {
-          responses[i] = new GetResponse();
-          responses[i].setStatus(0);
-        }
+  /**
+   * Handles caching for single response - it allows to process responses one by one as they are read from the server.
+   * Remember to call {@link #completeCachingResponse(GetResponse[])} when all responses were handled.
+   * @param index index of request
+   * @param response response from server or null if request was served from aggressive cache
+   * @param jsonRequestFactory
+   * @return response to use
+   */
+  public GetResponse handleCachingResponse(int index, GetResponse response, HttpJsonRequestFactory jsonRequestFactory) {
+    if (requestStatuses == null) {
+      requestStatuses = new RequestStatus[requests.length];
+    }
+    if (response != null && response.getStatus() == HttpStatus.SC_NOT_MODIFIED && cachedData[index] == null) {
+      // conditional request issued by caller (not by http cache) - caller uses its own cached data
+      hasCachedRequests = true;
+      requestStatuses[index] = RequestStatus.CACHED;
+      return response;
+    }
+    if (response == null || response.getStatus() == HttpStatus.SC_NOT_MODIFIED) {
+      hasCachedRequests = true;
 
-        for (String header: cachedData[i].getHeaders().keySet()) {
-          responses[i].getHeaders().put(header, cachedData[i].getHeaders().get(header));
-        }
-        responses[i].setResult(cachedData[i].getData().cloneToken());
-        jsonRequestFactory.incrementCachedRequests();
-      } else {
-        requestStatuses[i] = responses[i].isRequestHasErrors() ? RequestStatus.ERROR_ON_SERVER : RequestStatus.SEND_TO_SERVER;
-
-        Map<String, String> nameValueCollection = new HashMap<>();
-        for (Map.Entry<String, String> header: responses[i].getHeaders().entrySet()) {
-          nameValueCollection.put(header.getKey(), header.getValue());
-        }
-        jsonRequestFactory.cacheResponse(url + requests[i].getUrlAndQuery(), responses[i].getResult(), nameValueCollection);
+      requestStatuses[index] = response == null ? RequestStatus.AGGRESSIVELY_CACHED : RequestStatus.CACHED;
+      if (response == null) {
+        response = new GetResponse();
+        response.setStatus(0);
       }
+
+      for (String header: cachedData[index].getHeaders().keySet()) {
+        response.getHeaders().put(header, cachedData[index].getHeaders().get(header));
+      }
+      response.setResult(cachedData[index].getData().cloneToken());
+      jsonRequestFactory.incrementCachedRequests();
+    } else {
+      requestStatuses[index] = response.isRequestHasErrors() ? RequestStatus.ERROR_ON_SERVER : RequestStatus.SEND_TO_SERVER;
+
+      Map<String, String> nameValueCollection = new HashMap<>();
+      for (Map.Entry<String, String> header: response.getHeaders().entrySet()) {
+        nameValueCollection.put(header.getKey(), header.getValue());
+      }
+      jsonRequestFactory.cacheResponse(url + requests[index].getUrlAndQuery(), response.getResult(), nameValueCollection);
     }
+    return response;
+  }
 
+  public GetResponse[] completeCachingResponse(GetResponse[] responses) {
     if (hasCachedRequests == false || convention.isDisableProfiling() || holdProfilingInformation.getProfilingInformation().getRequests().size() == 0)
       return responses;
 
@@ -148,69 +173,73 @@ public class MultiGetOperation {
     return responses;
   }
 
-  @SuppressWarnings("boxing")
   public void tryResolveConflictOrCreateConcurrencyException(GetResponse[] responses,
     Function3<String, RavenJObject, Etag, ConflictException> tryResolveConflictOrCreateConcurrencyException) {
-
     for (GetResponse response: responses) {
-      if (response == null) {
-        continue;
-      }
-      if (response.isRequestHasErrors() && response.getStatus() != HttpStatus.SC_CONFLICT) {
-        continue;
-      }
-
-      RavenJObject result = (RavenJObject) response.getResult();
-      if (result == null) {
-        continue;
-      }
+      tryResolveConflictOrCreateConcurrencyException(response, tryResolveConflictOrCreateConcurrencyException);
+    }
+  }
 
-      if (result.containsKey("Results")) {
-        RavenJToken resultsAsToken = result.get("Results");
-        if (resultsAsToken == null || !(resultsAsToken instanceof RavenJArray)) {
-          continue;
-        }
+  @SuppressWarnings({"boxing", "static-method"})
+  public void tryResolveConflictOrCreateConcurrencyException(GetResponse response,
+    Function3<String, RavenJObject, Etag, ConflictException> tryResolveConflictOrCreateConcurrencyException) {
 
-        RavenJArray results = (RavenJArray) resultsAsToken;
+    if (response == null) {
+      return;
+    }
+    if (response.isRequestHasErrors() && response.getStatus() != HttpStatus.SC_CONFLICT) {
+      return;
+    }
 
-        for (RavenJToken value : results) {
-          if (value == null || !(value instanceof RavenJObject)) {
-            return;
-          }
-          RavenJObject docResult = (RavenJObject) value;
+    RavenJObject result = (RavenJObject) response.getResult();
+    if (result == null) {
+      return;
+    }
 
-          RavenJToken metadata = docResult.get(Constants.METADATA);
-          if (metadata == null) {
-            return;
-          }
+    if (result.containsKey("Results")) {
+      RavenJToken resultsAsToken = result.get("Results");
+      if (resultsAsToken == null || !(resultsAsToken instanceof RavenJArray)) {
+        return;
+      }
 
-          if (metadata.value(int.class, "@Http-Status-Code") != HttpStatus.SC_CONFLICT) {
-            return ;
-          }
+      RavenJArray results = (RavenJArray) resultsAsToken;
 
-          String id = metadata.value(String.class, "@id");
-          Etag etag = HttpExtensions.etagHeaderToEtag(metadata.value(String.class, "@etag"));
-          tryResolveConflictOrCreateConcurrencyExceptionForSingleDocument(
-            tryResolveConflictOrCreateConcurrencyException,
-            id, etag, docResult, response);
+      for (RavenJToken value : results) {
+        if (value == null || !(value instanceof RavenJObject)) {
+          return;
+        }
+        RavenJObject docResult = (RavenJObject) value;
 
+        RavenJToken metadata = docResult.get(Constants.METADATA);
+        if (metadata == null) {
+          return;
         }
-        continue;
-      }
 
-      if (result.containsKey("Conflicts")) {
-        String id = response.getHeaders().get(Constants.DOCUMENT_ID_FIELD_NAME);
-        Etag etag = HttpExtensions.getEtagHeader(response);
+        if (metadata.value(int.class, "@Http-Status-Code") != HttpStatus.SC_CONFLICT) {
+          return ;
+        }
 
+        String id = metadata.value(String.class, "@id");
+        Etag etag = HttpExtensions.etagHeaderToEtag(metadata.value(String.class, "@etag"));
         tryResolveConflictOrCreateConcurrencyExceptionForSingleDocument(
           tryResolveConflictOrCreateConcurrencyException,
-          id, etag, result, response);
+          id, etag, docResult, response);
+
       }
+      return;
+    }
+
+    if (result.containsKey("Conflicts")) {
+      String id = response.getHeaders().get(Constants.DOCUMENT_ID_FIELD_NAME);
+      Etag etag = HttpExtensions.getEtagHeader(response);
+
+      tryResolveConflictOrCreateConcurrencyExceptionForSingleDocument(
+        tryResolveConflictOrCreateConcurrencyException,
+        id, etag, result, response);
     }
   }
 
-  @SuppressWarnings("static-method")
-  private void tryResolveConflictOrCreateConcurrencyExceptionForSingleDocument(
+  private static void tryResolveConflictOrCreateConcurrencyExceptionForSingleDocument(
     Function3<String, RavenJObject, Etag, ConflictException> tryResolveConflictOrCreateConcurrencyException, String id,
     Etag etag, RavenJObject docResult, GetResponse response) {
 
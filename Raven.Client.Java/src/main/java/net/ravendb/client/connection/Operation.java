@@ -3,11 +3,14 @@ package net.ravendb.client.connection;
 import net.ravendb.abstractions.closure.Function1;
 import net.ravendb.abstractions.json.linq.RavenJObject;
 import net.ravendb.abstractions.json.linq.RavenJToken;
+import net.ravendb.client.utils.RavenFuture;
 
 public class Operation {
   private long id;
   private RavenJToken state;
   private Function1<Long, RavenJToken> statusFetcher;
+  private OperationStatusPoller poller;
+  private RavenFuture<RavenJToken> completion;
 
   public Operation(final ServerClient client, long id) {
     this(new Function1<Long, RavenJToken>() {
@@ -16,13 +19,22 @@ public class Operation {
       public RavenJToken apply(Long input) {
         return client.getOperationStatus(input);
       }
-    }, id);
-    this.id = id;
+    }, id, client.getJsonRequestFactory().getOperationStatusPoller());
   }
 
   public Operation(Function1<Long, RavenJToken> statusFetcher, long id) {
+    this(statusFetcher, id, null);
+  }
+
+  /**
+   * @param statusFetcher
+   * @param id
+   * @param poller shared poller used to track completion, when null operation is polled by waiting thread
+   */
+  public Operation(Function1<Long, RavenJToken> statusFetcher, long id, OperationStatusPoller poller) {
     this.statusFetcher = statusFetcher;
     this.id = id;
+    this.poller = poller;
   }
 
   public Operation(long id, RavenJToken state) {
@@ -31,32 +43,71 @@ public class Operation {
     this.state = state;
   }
 
-  @SuppressWarnings("boxing")
+  public long getId() {
+    return id;
+  }
+
   public RavenJToken waitForCompletion() {
-    if (statusFetcher == null)
-      return state;
+    return waitForCompletionAsync().join();
+  }
 
-    while (true) {
-      RavenJToken status = statusFetcher.apply(id);
-      if (status == null) {
-        return null;
-      }
-      if (status.value(Boolean.class, "Completed")) {
-        boolean faulted = status.value(Boolean.TYPE, "Faulted");
-        if (faulted) {
-          RavenJObject error = status.value(RavenJObject.class, "State");
-          String errorMessage = error.value(String.class, "Error");
-          throw new IllegalStateException("Operation failed: " + errorMessage);
+  /**
+   * Returns future completed with operation state when operation completes on server.
+   * Waiting doesn't block any thread - operation is tracked by poller shared by the store.
+   */
+  public synchronized RavenFuture<RavenJToken> waitForCompletionAsync() {
+    if (completion != null) {
+      return completion;
+    }
+    if (statusFetcher == null) {
+      completion = RavenFuture.completed(state);
+    } else if (poller != null) {
+      completion = poller.track(id, statusFetcher).thenApply(new Function1<RavenJToken, RavenJToken>() {
+        @Override
+        public RavenJToken apply(RavenJToken status) {
+          return toResult(status);
         }
+      });
+    } else {
+      completion = new RavenFuture<>();
+      try {
+        completion.complete(toResult(pollUntilCompleted()));
+      } catch (RuntimeException e) {
+        completion.completeExceptionally(e);
+      }
+    }
+    return completion;
+  }
 
-        return status.value(RavenJToken.class, "State");
+  @SuppressWarnings("boxing")
+  private RavenJToken pollUntilCompleted() {
+    long delay = OperationStatusPoller.INITIAL_DELAY;
+    while (true) {
+      RavenJToken status = statusFetcher.apply(id);
+      if (status == null || status.value(Boolean.class, "Completed")) {
+        return status;
       }
       try {
-        Thread.sleep(500);
+        Thread.sleep(delay);
       } catch (InterruptedException e) {
         /*ignore */
       }
+      delay = Math.min(delay * 2, OperationStatusPoller.MAX_DELAY);
+    }
+  }
+
+  @SuppressWarnings("boxing")
+  private static RavenJToken toResult(RavenJToken status) {
+    if (status == null) {
+      return null;
+    }
+    boolean faulted = status.value(Boolean.TYPE, "Faulted");
+    if (faulted) {
+      RavenJObject error = status.value(RavenJObject.class, "State");
+      String errorMessage = error.value(String.class, "Error");
+      throw new IllegalStateException("Operation failed: " + errorMessage);
     }
+    return status.value(RavenJToken.class, "State");
   }
 
 }
@@ -0,0 +1,205 @@
+package net.ravendb.client.connection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import net.ravendb.abstractions.basic.CleanCloseable;
+import net.ravendb.abstractions.closure.Action2;
+import net.ravendb.abstractions.closure.Function1;
+import net.ravendb.abstractions.json.linq.RavenJToken;
+import net.ravendb.client.utils.RavenFuture;
+
+/**
+ * Tracks completion of server side operations (set based operations, bulk inserts).
+ *
+ * Polls of all operations are scheduled by single shared thread, status requests are sent from separate
+ * pool threads, so slow status request of one operation doesn't delay polling of others.
+ * Each operation is polled with exponential backoff
+ * (starting at {@link #INITIAL_DELAY} ms, up to {@link #MAX_DELAY} ms), so short operations complete quickly
+ * and long ones don't flood server with status requests.
+ */
+public class OperationStatusPoller implements CleanCloseable {
+
+  public static final long INITIAL_DELAY = 50;
+  public static final long MAX_DELAY = 2000;
+
+  private ScheduledExecutorService scheduler;
+  private ExecutorService fetcher;
+  private boolean closed;
+  private final Set<OperationCompletion> outstanding = Collections.newSetFromMap(new ConcurrentHashMap<OperationCompletion, Boolean>());
+
+  /**
+   * Starts tracking given operation. Returned completion is completed with operation status
+   * when server reports operation as completed, or with null when operation is not known by server.
+   * @param operationId
+   * @param statusFetcher
+   */
+  public OperationCompletion track(long operationId, Function1<Long, RavenJToken> statusFetcher) {
+    final OperationCompletion completion = new OperationCompletion(operationId, statusFetcher);
+    outstanding.add(completion);
+    completion.whenComplete(new Action2<RavenJToken, Throwable>() {
+      @SuppressWarnings("synthetic-access")
+      @Override
+      public void apply(RavenJToken result, Throwable error) {
+        outstanding.remove(completion);
+      }
+    });
+    completion.schedule(0);
+    return completion;
+  }
+
+  private synchronized ScheduledExecutorService getScheduler() {
+    if (closed) {
+      throw new IllegalStateException("Operation status poller was closed");
+    }
+    if (scheduler == null) {
+      ScheduledThreadPoolExecutor executor = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+          Thread thread = new Thread(r, "RavenDB operation status poller");
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+      executor.setRemoveOnCancelPolicy(true);
+      scheduler = executor;
+    }
+    return scheduler;
+  }
+
+  private synchronized ExecutorService getFetcher() {
+    if (closed) {
+      throw new IllegalStateException("Operation status poller was closed");
+    }
+    if (fetcher == null) {
+      fetcher = Executors.newCachedThreadPool(new ThreadFactory() {
+        @Override
+        public Thread newThread(Runnable r) {
+          Thread thread = new Thread(r, "RavenDB operation status fetcher");
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+    }
+    return fetcher;
+  }
+
+  /**
+   * Stops polling. Operations which are still tracked are completed with IllegalStateException,
+   * so threads waiting for them don't hang.
+   */
+  @Override
+  public void close() {
+    synchronized (this) {
+      closed = true;
+      if (scheduler != null) {
+        scheduler.shutdownNow();
+        scheduler = null;
+      }
+      if (fetcher != null) {
+        fetcher.shutdownNow();
+        fetcher = null;
+      }
+    }
+    // completions are failed outside of lock, they call getScheduler while holding their own lock
+    for (OperationCompletion completion : new ArrayList<>(outstanding)) {
+      completion.completeExceptionally(new IllegalStateException("Operation status poller was closed before operation "
+        + completion.getOperationId() + " completed"));
+    }
+  }
+
+  /**
+   * Completion of tracked operation.
+   */
+  public class OperationCompletion extends RavenFuture<RavenJToken> implements Runnable {
+    private final long operationId;
+    private final Function1<Long, RavenJToken> statusFetcher;
+    private long delay = INITIAL_DELAY;
+    private ScheduledFuture<?> pending;
+    private final AtomicBoolean fetching = new AtomicBoolean();
+
+    protected OperationCompletion(long operationId, Function1<Long, RavenJToken> statusFetcher) {
+      this.operationId = operationId;
+      this.statusFetcher = statusFetcher;
+    }
+
+    public long getOperationId() {
+      return operationId;
+    }
+
+    /**
+     * Checks operation status immediately, e.g. when changes notification about operation was received.
+     */
+    public synchronized void pollNow() {
+      delay = INITIAL_DELAY;
+      schedule(0);
+    }
+
+    @SuppressWarnings("synthetic-access")
+    private synchronized void schedule(long delayInMillis) {
+      if (isDone()) {
+        return;
+      }
+      if (pending != null) {
+        pending.cancel(false);
+      }
+      try {
+        pending = getScheduler().schedule(new Runnable() {
+          @Override
+          public void run() {
+            fetch();
+          }
+        }, delayInMillis, TimeUnit.MILLISECONDS);
+      } catch (Exception e) {
+        completeExceptionally(e);
+      }
+    }
+
+    @SuppressWarnings("synthetic-access")
+    private void fetch() {
+      try {
+        getFetcher().execute(this);
+      } catch (Exception e) {
+        completeExceptionally(e);
+      }
+    }
+
+    @SuppressWarnings("boxing")
+    @Override
+    public void run() {
+      // status request in progress reschedules polling when done
+      if (isDone() || !fetching.compareAndSet(false, true)) {
+        return;
+      }
+      RavenJToken status;
+      try {
+        status = statusFetcher.apply(operationId);
+      } catch (Exception e) {
+        completeExceptionally(e);
+        return;
+      } finally {
+        fetching.set(false);
+      }
+      if (status == null || status.value(Boolean.class, "Completed")) {
+        complete(status);
+        return;
+      }
+      synchronized (this) {
+        long currentDelay = delay;
+        delay = Math.min(delay * 2, MAX_DELAY);
+        schedule(currentDelay);
+      }
+    }
+  }
+
+}
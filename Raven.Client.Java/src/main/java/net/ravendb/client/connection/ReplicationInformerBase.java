@@ -16,18 +16,25 @@ import net.ravendb.abstractions.logging.LogManager;
 import net.ravendb.client.connection.ReplicationInformer.FailoverStatusChangedEventArgs;
 import net.ravendb.client.connection.implementation.HttpJsonRequest;
 import net.ravendb.client.connection.implementation.HttpJsonRequestFactory;
+import net.ravendb.client.connection.implementation.RequestCanceller;
 import net.ravendb.client.document.Convention;
 import net.ravendb.client.document.FailoverBehavior;
+import net.ravendb.client.exceptions.ConcurrencyLimitExceededException;
+import net.ravendb.client.exceptions.DeadlineExceededException;
+import net.ravendb.client.metrics.Histogram;
+import net.ravendb.client.metrics.MetricsRegistry;
 import org.apache.commons.lang.ArrayUtils;
 import org.apache.commons.lang.exception.ExceptionUtils;
 import org.apache.http.HttpStatus;
 
+import java.io.InterruptedIOException;
 import java.net.SocketException;
 import java.net.SocketTimeoutException;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
@@ -232,26 +239,30 @@ public abstract class ReplicationInformerBase<T> implements IReplicationInformer
   protected abstract String getServerCheckUrl(String baseUrl);
 
   private void assertValidOperation(HttpMethods method, Exception error) {
-    if (conventions.getFailoverBehaviorWithoutFlags().contains(FailoverBehavior.ALLOW_READS_FROM_SECONDARIES)) {
-      if (HttpMethods.GET.equals(method) || HttpMethods.HEAD.equals(method)) {
-        return;
-      }
-    }
-    if (conventions.getFailoverBehaviorWithoutFlags().contains(
-      FailoverBehavior.ALLOW_READS_FROM_SECONDARIES_AND_WRITES_TO_SECONDARIES)) {
+    if (isValidOperationOnSecondary(method)) {
       return;
     }
-    if (conventions.getFailoverBehaviorWithoutFlags().contains(FailoverBehavior.FAIL_IMMEDIATELY)) {
-      if (conventions.getFailoverBehaviorWithoutFlags().contains(FailoverBehavior.READ_FROM_ALL_SERVERS)) {
-        if (HttpMethods.GET.equals(method) || HttpMethods.HEAD.equals(method)) {
-          return;
-        }
-      }
-    }
     throw new IllegalStateException("Could not replicate " + method
       + " operation to secondary node, failover behavior is: " + conventions.getFailoverBehavior(), error);
   }
 
+  /**
+   * Returns true if operation using given method can be sent to secondary node under current failover behavior.
+   * @param method
+   */
+  protected boolean isValidOperationOnSecondary(HttpMethods method) {
+    boolean read = HttpMethods.GET.equals(method) || HttpMethods.HEAD.equals(method);
+    if (conventions.getFailoverBehaviorWithoutFlags().contains(FailoverBehavior.ALLOW_READS_FROM_SECONDARIES) && read) {
+      return true;
+    }
+    if (conventions.getFailoverBehaviorWithoutFlags().contains(
+      FailoverBehavior.ALLOW_READS_FROM_SECONDARIES_AND_WRITES_TO_SECONDARIES)) {
+      return true;
+    }
+    return conventions.getFailoverBehaviorWithoutFlags().contains(FailoverBehavior.FAIL_IMMEDIATELY)
+      && conventions.getFailoverBehaviorWithoutFlags().contains(FailoverBehavior.READ_FROM_ALL_SERVERS) && read;
+  }
+
   protected FailureCounter getHolder(String operationUrl) {
     if (!failureCounts.containsKey(operationUrl)) {
       failureCounts.put(operationUrl, new FailureCounter());
@@ -270,6 +281,7 @@ public abstract class ReplicationInformerBase<T> implements IReplicationInformer
     FailureCounter value = getHolder(operationUrl);
     value.setForceCheck(false);
     long current = value.getValue().incrementAndGet();
+    requestFactory.getMetrics().failedAttempt(current == 1);
     if (current == 1) { // first failure
       EventHelper.invoke(failoverStatusChanged, this, new FailoverStatusChangedEventArgs(operationUrl, true));
     }
@@ -311,9 +323,13 @@ public abstract class ReplicationInformerBase<T> implements IReplicationInformer
       FailoverBehavior.READ_FROM_ALL_SERVERS);
 
     OperationResult<S> operationResult = new OperationResult<>();
+    int attempts = 0;
+    // don't wait for free slot of saturated node only when operation can be sent to another one
+    boolean canFailOver = localReplicationDestinations.size() > 0 && isValidOperationOnSecondary(method);
 
     if (shouldReadFromAllServers && HttpMethods.GET.equals(method)) {
-      int replicationIndex = currentReadStripingBase % (localReplicationDestinations.size() + 1);
+      int replicationIndex = selectReadNode(localReplicationDestinations, primaryOperation,
+        currentReadStripingBase % (localReplicationDestinations.size() + 1));
       // if replicationIndex == destinations count, then we want to use the
       // master
       // if replicationIndex < 0, then we were explicitly instructed to use the
@@ -324,8 +340,8 @@ public abstract class ReplicationInformerBase<T> implements IReplicationInformer
         if (shouldExecuteUsing(localReplicationDestinations.get(replicationIndex), primaryOperation, currentRequest,
           method, false, null)) {
 
-          operationResult = tryOperation(operation, localReplicationDestinations.get(replicationIndex),
-            primaryOperation, true);
+          operationResult = tryAttempt(attempts++, operationResult.getError(), operation, localReplicationDestinations.get(replicationIndex),
+            primaryOperation, true, false);
           if (operationResult.success) {
             return operationResult.result;
           }
@@ -334,19 +350,22 @@ public abstract class ReplicationInformerBase<T> implements IReplicationInformer
     }
 
     if (shouldExecuteUsing(primaryOperation, primaryOperation, currentRequest, method, true, null)) {
-      operationResult = tryOperation(operation, primaryOperation, null, !operationResult.wasTimeout
-        && localReplicationDestinations.size() > 0);
+      operationResult = tryAttempt(attempts++, operationResult.getError(), operation, primaryOperation, null, !operationResult.wasTimeout
+        && localReplicationDestinations.size() > 0, !canFailOver);
       if (operationResult.isSuccess()) {
         return operationResult.result;
       }
-      incrementFailureCount(primaryOperation.getUrl());
-      if (!operationResult.wasTimeout && isFirstFailure(primaryOperation.getUrl())) {
+      if (isNodeFailure(operationResult.getError())) {
+        incrementFailureCount(primaryOperation.getUrl());
+        if (!operationResult.wasTimeout && isFirstFailure(primaryOperation.getUrl())) {
 
-        operationResult = tryOperation(operation, primaryOperation, null, localReplicationDestinations.size() > 0);
-        if (operationResult.isSuccess()) {
-          return operationResult.result;
+          operationResult = tryAttempt(attempts++, operationResult.getError(), operation, primaryOperation, null, localReplicationDestinations.size() > 0,
+            !canFailOver);
+          if (operationResult.isSuccess()) {
+            return operationResult.result;
+          }
+          incrementFailureCount(primaryOperation.getUrl());
         }
-        incrementFailureCount(primaryOperation.getUrl());
       }
 
     }
@@ -359,19 +378,21 @@ public abstract class ReplicationInformerBase<T> implements IReplicationInformer
       }
       boolean hasMoreReplicationDestinations = localReplicationDestinations.size() > i + 1;
 
-      operationResult = tryOperation(operation, replicationDestination, primaryOperation, !operationResult.wasTimeout
-        && hasMoreReplicationDestinations);
+      operationResult = tryAttempt(attempts++, operationResult.getError(), operation, replicationDestination, primaryOperation, !operationResult.wasTimeout
+        && hasMoreReplicationDestinations, !hasMoreReplicationDestinations);
       if (operationResult.isSuccess()) {
         return operationResult.result;
       }
-      incrementFailureCount(replicationDestination.getUrl());
-      if (!operationResult.wasTimeout && isFirstFailure(replicationDestination.getUrl())) {
-        operationResult = tryOperation(operation, replicationDestination, primaryOperation,
-          hasMoreReplicationDestinations);
-        if (operationResult.success) {
-          return operationResult.result;
-        }
+      if (isNodeFailure(operationResult.getError())) {
         incrementFailureCount(replicationDestination.getUrl());
+        if (!operationResult.wasTimeout && isFirstFailure(replicationDestination.getUrl())) {
+          operationResult = tryAttempt(attempts++, operationResult.getError(), operation, replicationDestination, primaryOperation,
+            hasMoreReplicationDestinations, !hasMoreReplicationDestinations);
+          if (operationResult.success) {
+            return operationResult.result;
+          }
+          incrementFailureCount(replicationDestination.getUrl());
+        }
       }
     }
     // this should not be thrown, but since I know the value of should...
@@ -380,17 +401,117 @@ public abstract class ReplicationInformerBase<T> implements IReplicationInformer
         + (1 + localReplicationDestinations.size()) + " Raven instances.");
   }
 
+  /**
+   * Returns false if attempt failed for reason which doesn't say anything about health of node
+   * (e.g. node had no free concurrency slot) - such node isn't marked as failing.
+   * @param error
+   */
+  protected boolean isNodeFailure(Exception error) {
+    return !(error instanceof ConcurrencyLimitExceededException || error instanceof DeadlineExceededException);
+  }
+
+  /**
+   * Tries operation on given node. Attempts following the first one are skipped (operation fails with DeadlineExceededException)
+   * when time left until deadline of current thread is shorter than average latency of the node.
+   */
+  private <S> OperationResult<S> tryAttempt(int attempt, Exception lastError, Function1<OperationMetadata, S> operation,
+    OperationMetadata operationMetadata, OperationMetadata primaryOperationMetadata, boolean avoidThrowing, boolean waitForSlot) {
+    if (attempt > 0) {
+      assertBudgetForAttempt(operationMetadata.getUrl(), lastError);
+    }
+    return tryOperation(operation, operationMetadata, primaryOperationMetadata, avoidThrowing, waitForSlot);
+  }
+
   @SuppressWarnings("boxing")
+  private void assertBudgetForAttempt(String url, Exception lastError) {
+    Long remainingTime = requestFactory.getRemainingTime();
+    if (remainingTime == null) {
+      return;
+    }
+    Histogram latency = requestFactory.getMetrics().getNodeLatencies().get(MetricsRegistry.node(url));
+    double typicalAttempt = latency != null ? latency.getMean() : 0;
+    if (remainingTime <= 0 || remainingTime < typicalAttempt) {
+      throw new DeadlineExceededException("Not enough time left (" + remainingTime + " ms) to retry operation using " + url
+        + ", attempt takes " + (long) typicalAttempt + " ms on average", lastError);
+    }
+  }
+
+  /**
+   * Returns index of node used for read (index equal to destinations count means primary node).
+   * When node selected by read striping has no free concurrency slot, the next node, which has free slot and isn't failing, is used.
+   * @param destinations
+   * @param primaryOperation
+   * @param stripedIndex
+   */
+  private int selectReadNode(List<OperationMetadata> destinations, OperationMetadata primaryOperation, int stripedIndex) {
+    ConcurrencyLimiters limiters = requestFactory.getConcurrencyLimiters();
+    if (stripedIndex < 0 || !limiters.isSaturated(readNodeUrl(destinations, primaryOperation, stripedIndex))) {
+      return stripedIndex;
+    }
+    int nodes = destinations.size() + 1;
+    for (int i = 1; i < nodes; i++) {
+      int index = (stripedIndex + i) % nodes;
+      String url = readNodeUrl(destinations, primaryOperation, index);
+      if (!limiters.isSaturated(url) && isFirstFailure(url)) {
+        return index;
+      }
+    }
+    return stripedIndex;
+  }
+
+  private static String readNodeUrl(List<OperationMetadata> destinations, OperationMetadata primaryOperation, int index) {
+    return index < destinations.size() ? destinations.get(index).getUrl() : primaryOperation.getUrl();
+  }
+
   protected <S> OperationResult<S> tryOperation(Function1<OperationMetadata, S> operation,
     OperationMetadata operationMetadata, OperationMetadata primaryOperationMetadata, boolean avoidThrowing) {
+    return tryOperation(operation, operationMetadata, primaryOperationMetadata, avoidThrowing, !avoidThrowing);
+  }
+
+  /**
+   * Executes operation on given node.
+   * @param waitForSlot when false, operation fails immediately if node has no free concurrency slot
+   *  (used when operation can be sent to other node instead)
+   */
+  @SuppressWarnings("boxing")
+  protected <S> OperationResult<S> tryOperation(Function1<OperationMetadata, S> operation,
+    OperationMetadata operationMetadata, OperationMetadata primaryOperationMetadata, boolean avoidThrowing, boolean waitForSlot) {
     boolean tryWithPrimaryCredentials = isFirstFailure(operationMetadata.getUrl()) && primaryOperationMetadata != null;
     boolean shouldTryAgain = false;
+    ConcurrencyLimiters.Permit permit;
+    Long remainingTime = requestFactory.getRemainingTime();
+    try {
+      // never wait past deadline
+      long maxWait = !waitForSlot ? 0 : (remainingTime != null ? Math.max(0, remainingTime) : Long.MAX_VALUE);
+      permit = requestFactory.getConcurrencyLimiters().acquire(operationMetadata.getUrl(), maxWait);
+    } catch (ConcurrencyLimitExceededException e) {
+      if (avoidThrowing == false || waitForSlot) {
+        if (remainingTime != null && requestFactory.getRemainingTime() <= 0) {
+          throw new DeadlineExceededException("Deadline exceeded while waiting for free concurrency slot of " + e.getNode(), e);
+        }
+        throw e;
+      }
+      return new OperationResult<>(null, false, false, e);
+    }
+    boolean overloaded = false;
     try {
       S result = operation.apply(tryWithPrimaryCredentials ? new OperationMetadata(operationMetadata.getUrl(),
         primaryOperationMetadata.getCredentials()) : operationMetadata);
       resetFailureCount(operationMetadata.getUrl());
       return new OperationResult<>(result, true);
     } catch (Exception e) {
+      RequestCanceller canceller = requestFactory.getRequestCanceller();
+      if (canceller != null && canceller.isCancelled()) {
+        // request was aborted by caller, node isn't failing
+        CancellationException cancellation = new CancellationException("Operation was cancelled");
+        cancellation.initCause(e);
+        throw cancellation;
+      }
+      if (isCausedByDeadline(e)) {
+        // request timed out because caller's budget ran out, it doesn't mean node is failing or overloaded
+        throw new DeadlineExceededException("Deadline exceeded during request to " + operationMetadata.getUrl(), e);
+      }
+      overloaded = isOverloaded(e);
       if (tryWithPrimaryCredentials && operationMetadata.getCredentials().getApiKey() != null) {
         incrementFailureCount(operationMetadata.getUrl());
 
@@ -414,9 +535,37 @@ public abstract class ReplicationInformerBase<T> implements IReplicationInformer
         }
         throw e;
       }
+    } finally {
+      permit.release(overloaded);
     }
 
-    return tryOperation(operation, operationMetadata, primaryOperationMetadata, avoidThrowing);
+    return tryOperation(operation, operationMetadata, primaryOperationMetadata, avoidThrowing, waitForSlot);
+  }
+
+  /**
+   * Returns true if operation timed out after deadline of current thread passed (request timeouts are capped by remaining time).
+   * @param e
+   */
+  @SuppressWarnings("boxing")
+  protected boolean isCausedByDeadline(Exception e) {
+    if (e instanceof DeadlineExceededException) {
+      return false;
+    }
+    Long remainingTime = requestFactory.getRemainingTime();
+    return remainingTime != null && remainingTime <= 0 && Throwables.getRootCause(e) instanceof InterruptedIOException;
+  }
+
+  /**
+   * Returns true if operation failed because node is unavailable or can't handle more requests (reduces concurrency limit of node).
+   * @param e
+   */
+  protected boolean isOverloaded(Exception e) {
+    if (isServerDown(e, new Reference<Boolean>())) {
+      return true;
+    }
+    Throwable rootCause = Throwables.getRootCause(e);
+    return rootCause instanceof ErrorResponseException
+      && ((ErrorResponseException) rootCause).getStatusCode() == HttpStatus.SC_SERVICE_UNAVAILABLE;
   }
 
   @Override
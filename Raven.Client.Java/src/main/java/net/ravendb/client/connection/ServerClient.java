@@ -39,12 +39,14 @@ import net.ravendb.client.listeners.IDocumentConflictListener;
 import net.ravendb.client.util.SingleAuthTokenRetriever;
 import net.ravendb.client.utils.UrlUtils;
 import net.ravendb.imports.json.JsonConvert;
+import net.ravendb.java.http.client.FileChannelEntity;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.http.HttpStatus;
 import org.apache.http.client.methods.CloseableHttpResponse;
 import org.codehaus.jackson.JsonParser;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.text.ParseException;
@@ -57,7 +59,7 @@ import static net.ravendb.client.connection.RavenUrlExtensions.indexes;
 @SuppressWarnings("deprecation")
 public class ServerClient implements IDatabaseCommands {
 
-  private final ProfilingInformation profilingInformation;
+  private volatile ProfilingInformation profilingInformation;
   private final IDocumentConflictListener[] conflictListeners;
   protected String url;
   private String rootUrl;
@@ -101,7 +103,6 @@ public class ServerClient implements IDatabaseCommands {
     HttpJsonRequestFactory httpJsonRequestFactory, UUID sessionId,
     Function1<String, IDocumentStoreReplicationInformer> replicationInformerGetter,  String databaseName,
     IDocumentConflictListener[] conflictListeners, boolean incrementReadStripe) {
-    this.profilingInformation = ProfilingInformation.createProfilingInformation(sessionId);
     this.url = url;
     if (this.url.endsWith("/")) {
       this.url = this.url.substring(0, this.url.length() - 1);
@@ -124,6 +125,38 @@ public class ServerClient implements IDatabaseCommands {
     replicationInformer.updateReplicationInformationIfNeeded(this);
   }
 
+  /**
+   * Creates client for the same database as template, but with own session state (operation headers, read striping).
+   * Url, credentials and replication informer are taken from template, so nothing has to be resolved again.
+   * @param template
+   * @param sessionId
+   * @param conflictListeners
+   * @param incrementReadStripe
+   */
+  protected ServerClient(ServerClient template, UUID sessionId, IDocumentConflictListener[] conflictListeners, boolean incrementReadStripe) {
+    this.url = template.url;
+    this.rootUrl = template.rootUrl;
+    this.jsonRequestFactory = template.jsonRequestFactory;
+    this.sessionId = sessionId;
+    this.convention = template.convention;
+    this.credentialsThatShouldBeUsedOnlyInOperationsWithoutReplication = template.credentialsThatShouldBeUsedOnlyInOperationsWithoutReplication;
+    this.databaseName = template.databaseName;
+    this.conflictListeners = conflictListeners;
+    this.replicationInformerGetter = template.replicationInformerGetter;
+    this.replicationInformer = template.replicationInformer;
+    this.readStripingBase = replicationInformer.getReadStripingBase(incrementReadStripe);
+    replicationInformer.updateReplicationInformationIfNeeded(this);
+  }
+
+  /**
+   * Creates new client for the same database to be used by a session.
+   * @param sessionId
+   * @param conflictListeners
+   */
+  public ServerClient forSession(UUID sessionId, IDocumentConflictListener[] conflictListeners) {
+    return new ServerClient(this, sessionId, conflictListeners, true);
+  }
+
   @Override
   public Collection<String> getIndexNames(final int start, final int pageSize) {
     return executeWithReplication(HttpMethods.GET, new Function1<OperationMetadata, Collection<String>>() {
@@ -1009,7 +1042,22 @@ public class ServerClient implements IDatabaseCommands {
     });
   }
 
+  @Override
+  public MultiLoadResult getWithConflicts(final String[] ids) {
+    return executeWithReplication(HttpMethods.GET, new Function1<OperationMetadata, MultiLoadResult>() {
+      @Override
+      public MultiLoadResult apply(OperationMetadata operationMetadata) {
+        return directGet(ids, operationMetadata, null, null, new HashMap<String, RavenJToken>(), false, false);
+      }
+    });
+  }
+
   protected MultiLoadResult directGet(final String[] ids, final OperationMetadata operationMetadata, final String[] includes, final String transformer, final Map<String, RavenJToken> transformerParameters, final boolean metadataOnly) {
+    return directGet(ids, operationMetadata, includes, transformer, transformerParameters, metadataOnly, true);
+  }
+
+  private MultiLoadResult directGet(final String[] ids, final OperationMetadata operationMetadata, final String[] includes, final String transformer,
+    final Map<String, RavenJToken> transformerParameters, final boolean metadataOnly, final boolean resolveConflicts) {
     String path = operationMetadata.getUrl() + "/queries/?";
 
     if (metadataOnly)
@@ -1061,12 +1109,12 @@ public class ServerClient implements IDatabaseCommands {
       }
 
       RavenJToken result = request.readResponseJson();
-      return completeMultiGet(operationMetadata, ids, includes, transformer, transformerParameters, result);
+      return completeMultiGet(operationMetadata, ids, includes, transformer, transformerParameters, result, resolveConflicts);
     }
   }
 
   private MultiLoadResult completeMultiGet(final OperationMetadata operationMetadata, final String[] keys,
-    final String[] includes, final String transformer, final Map<String, RavenJToken> transformerParameters, RavenJToken result) {
+    final String[] includes, final String transformer, final Map<String, RavenJToken> transformerParameters, RavenJToken result, boolean resolveConflicts) {
     ErrorResponseException responseException;
     try {
 
@@ -1114,6 +1162,10 @@ public class ServerClient implements IDatabaseCommands {
       }
       multiLoadResult.setResults(resultsList);
 
+      if (!resolveConflicts) {
+        return multiLoadResult;
+      }
+
       List<RavenJObject> docResults = new ArrayList<>();
       docResults.addAll(resultsList);
       docResults.addAll(includesList);
@@ -1364,6 +1416,16 @@ public class ServerClient implements IDatabaseCommands {
 
   @SuppressWarnings("boxing")
   protected FacetResults directGetFacets(OperationMetadata operationMetadata, String index, IndexQuery query, String facetSetupDoc, int start, Integer pageSize) {
+    FacetResultsCache resultsCache = getFacetResultsCache();
+    String cacheKey = null;
+    if (resultsCache != null) {
+      cacheKey = FacetResultsCache.facetSetupDocKey(operationMetadata.getUrl(), index, query, start, pageSize, facetSetupDoc);
+      RavenJToken upToDate = getUpToDateResult(resultsCache, cacheKey);
+      if (upToDate != null) {
+        return convention.createSerializer().deserialize(upToDate, FacetResults.class);
+      }
+    }
+
     String requestUri = operationMetadata.getUrl() + String.format("/facets/%s?facetDoc=%s&%s&facetStart=%d&facetPageSize=%s",
       UrlUtils.escapeUriString(index),
       UrlUtils.escapeDataString(facetSetupDoc),
@@ -1376,6 +1438,11 @@ public class ServerClient implements IDatabaseCommands {
       .addOperationHeaders(operationsHeaders))
       .addReplicationStatusHeaders(url, operationMetadata.getUrl(), replicationInformer, convention.getFailoverBehavior(), new HandleReplicationStatusChangesCallback())) {
 
+      if (resultsCache != null) {
+        RavenJToken json = readResponseJsonUsingResultsCache(request, resultsCache, cacheKey, index, operationMetadata);
+        return convention.createSerializer().deserialize(json, FacetResults.class);
+      }
+
       CachedRequestOp cachedRequestDetails = jsonRequestFactory.configureCaching(requestUri, new Action2<String, String>() {
         @Override
         public void apply(String key, String val) {
@@ -1394,53 +1461,89 @@ public class ServerClient implements IDatabaseCommands {
   @Override
   public FacetResults[] getMultiFacets(final FacetQuery[] facetedQueries) {
     JsonSerializer jsonSerializer = convention.createSerializer();
-    GetRequest[] multiGetRequestItems = new GetRequest[facetedQueries.length];
+    FacetResultsCache resultsCache = getFacetResultsCache();
+    FacetResults[] facetResults = new FacetResults[facetedQueries.length];
+    String[] cacheKeys = new String[facetedQueries.length];
+    FacetResultsCache.Entry[] cachedEntries = new FacetResultsCache.Entry[facetedQueries.length];
+    long[] cacheVersions = new long[facetedQueries.length];
+    String database = MultiDatabase.getDatabaseName(url);
+    List<GetRequest> multiGetRequestItems = new ArrayList<>();
+    List<Integer> requestedQueries = new ArrayList<>();
     for (int i = 0; i < facetedQueries.length; i++) {
       FacetQuery x = facetedQueries[i];
 
       String addition = null;
+      String serializedFacets = null;
+      GetRequest request = new GetRequest();
+      request.setUrl("/facets/" + x.getIndexName());
       if (x.getFacetSetupDoc() != null) {
         addition = "facetDoc=" + x.getFacetSetupDoc();
-        GetRequest request = new GetRequest();
-        request.setUrl("/facets/" + x.getIndexName());
-        request.setQuery(String.format("%s&facetStart=%d&facetPageSize=%d&%d",
+        request.setQuery(String.format("%s&facetStart=%d&facetPageSize=%d&%s",
                 x.getQuery().getQueryString(),
           x.getPageStart(),
           x.getPageSize(),
           addition));
-        multiGetRequestItems[i] = request;
       } else {
-        String serializedFacets = serializeFacetsToFacetsJsonString(x.getFacets());
+        serializedFacets = serializeFacetsToFacetsJsonString(x.getFacets());
         if (serializedFacets.length() < (32 * 1024 - 1)) {
           addition = "facets=" + UrlUtils.escapeDataString(serializedFacets);
-          GetRequest request = new GetRequest();
-          request.setUrl("/facets/" + x.getIndexName());
-          request.setQuery(String.format("%s&facetStart=%d&facetPageSize=%d&%d",
+          request.setQuery(String.format("%s&facetStart=%d&facetPageSize=%d&%s",
             x.getQuery().getQueryString(),
             x.getPageStart(),
             x.getPageSize(),
             addition));
-          multiGetRequestItems[i] = request;
         } else {
-          GetRequest request = new GetRequest();
-          request.setUrl("/facets/" + x.getIndexName());
           request.setQuery(String.format("%s&facetStart=%d&facetPageSize=%d", x.getQuery().getQueryString(), x.getPageStart(), x.getPageSize()));
           request.setMethod(HttpMethods.POST);
           request.setContent(serializedFacets);
-          multiGetRequestItems[i] = request;
         }
       }
+
+      if (resultsCache != null) {
+        cacheKeys[i] = serializedFacets != null
+          ? FacetResultsCache.facetsKey(url, x.getIndexName(), x.getQuery(), x.getPageStart(), x.getPageSize(), serializedFacets)
+          : FacetResultsCache.facetSetupDocKey(url, x.getIndexName(), x.getQuery(), x.getPageStart(), x.getPageSize(), x.getFacetSetupDoc());
+        RavenJToken upToDate = getUpToDateResult(resultsCache, cacheKeys[i]);
+        if (upToDate != null) {
+          facetResults[i] = jsonSerializer.deserialize(upToDate, FacetResults.class);
+          continue;
+        }
+        cacheVersions[i] = resultsCache.getVersion(database, x.getIndexName());
+        cachedEntries[i] = resultsCache.get(cacheKeys[i]);
+        if (cachedEntries[i] != null && cachedEntries[i].getEtag() != null) {
+          request.getHeaders().put("If-None-Match", cachedEntries[i].getEtag());
+        }
+      }
+      multiGetRequestItems.add(request);
+      requestedQueries.add(i);
+    }
+
+    if (multiGetRequestItems.isEmpty()) {
+      return facetResults;
     }
 
-    GetResponse[] results = multiGet(multiGetRequestItems);
+    Reference<OperationMetadata> servedBy = new Reference<>();
+    GetResponse[] results = multiGetInternal(multiGetRequestItems.toArray(new GetRequest[0]), servedBy, null);
+    // results of secondary node are not stored under keys of primary node
+    boolean servedByPrimary = servedBy.value == null || url.equals(servedBy.value.getUrl());
 
-    FacetResults[] facetResults = new FacetResults[results.length];
-    for (int facetResultCounter = 0; facetResultCounter < facetResults.length; facetResultCounter++) {
-      GetResponse curFacetDoc = results[facetResultCounter];
+    for (int responseCounter = 0; responseCounter < results.length; responseCounter++) {
+      int facetResultCounter = requestedQueries.get(responseCounter);
+      GetResponse curFacetDoc = results[responseCounter];
       if (curFacetDoc.isRequestHasErrors()) {
         throw new IllegalStateException("Got an error from server, status code: " + curFacetDoc.getStatus() + "\n" + curFacetDoc.getResult());
       }
-      facetResults[facetResultCounter] = jsonSerializer.deserialize(curFacetDoc.getResult(), FacetResults.class);
+      RavenJToken result = curFacetDoc.getResult();
+      FacetResultsCache.Entry cached = cachedEntries[facetResultCounter];
+      if (result == null && curFacetDoc.getStatus() == HttpStatus.SC_NOT_MODIFIED && cached != null) {
+        result = cached.getData().cloneToken();
+      }
+      if (resultsCache != null && servedByPrimary) {
+        String etag = curFacetDoc.getHeaders().get(Constants.METADATA_ETAG_FIELD);
+        resultsCache.put(cacheKeys[facetResultCounter], database, facetedQueries[facetResultCounter].getIndexName(), result,
+          etag != null ? etag : (cached != null ? cached.getEtag() : null), cacheVersions[facetResultCounter]);
+      }
+      facetResults[facetResultCounter] = jsonSerializer.deserialize(result, FacetResults.class);
     }
     return facetResults;
   }
@@ -1513,6 +1616,16 @@ public class ServerClient implements IDatabaseCommands {
 
   @SuppressWarnings("boxing")
   protected FacetResults directGetFacets(OperationMetadata operationMetadata, String index, IndexQuery query, String facetsJson, int start, Integer pageSize, HttpMethods method) {
+    FacetResultsCache resultsCache = getFacetResultsCache();
+    String cacheKey = null;
+    if (resultsCache != null) {
+      cacheKey = FacetResultsCache.facetsKey(operationMetadata.getUrl(), index, query, start, pageSize, facetsJson);
+      RavenJToken upToDate = getUpToDateResult(resultsCache, cacheKey);
+      if (upToDate != null) {
+        return convention.createSerializer().deserialize(upToDate, FacetResults.class);
+      }
+    }
+
     String requestUri = operationMetadata.getUrl() + String.format("/facets/%s?%s&facetStart=%d&facetPageSize=%s",
       UrlUtils.escapeUriString(index),
       query.getQueryString(),
@@ -1530,7 +1643,7 @@ public class ServerClient implements IDatabaseCommands {
       if (method != HttpMethods.GET)
         request.write(facetsJson);
 
-      RavenJObject json = (RavenJObject)request.readResponseJson();
+      RavenJToken json = resultsCache != null ? readResponseJsonUsingResultsCache(request, resultsCache, cacheKey, index, operationMetadata) : request.readResponseJson();
       return convention.createSerializer().deserialize(json, FacetResults.class);
     }
   }
@@ -1715,23 +1828,48 @@ public class ServerClient implements IDatabaseCommands {
 
   @Override
   public GetResponse[] multiGet(final GetRequest[] requests) {
-    return multiGetInternal(requests, null);
+    return multiGetInternal(requests, null, null);
   }
 
-  private GetResponse[] multiGetInternal(final GetRequest[] requests, final Reference<OperationMetadata> operationMetadataRef) {
+  @Override
+  public GetResponse[] multiGet(final GetRequest[] requests, final Action2<Integer, GetResponse> onResponse) {
+    return multiGetInternal(requests, null, onResponse);
+  }
+
+  private GetResponse[] multiGetInternal(final GetRequest[] requests, final Reference<OperationMetadata> operationMetadataRef,
+    final Action2<Integer, GetResponse> onResponse) {
+    // when we fail over in the middle of the response, callback was already invoked for some of the requests
+    final boolean[] notified = new boolean[requests.length];
+    final Action2<Integer, GetResponse> notifyOnce = onResponse == null ? null : new Action2<Integer, GetResponse>() {
+      @SuppressWarnings("boxing")
+      @Override
+      public void apply(Integer index, GetResponse response) {
+        if (notified[index]) {
+          return;
+        }
+        notified[index] = true;
+        onResponse.apply(index, response);
+      }
+    };
     return executeWithReplication(HttpMethods.GET, new Function1<OperationMetadata, GetResponse[]>() {
       @Override
       public GetResponse[] apply(OperationMetadata operationMetadata) {
-        return directMultiGetInternal(operationMetadata, requests, operationMetadataRef);
+        return directMultiGetInternal(operationMetadata, requests, operationMetadataRef, notifyOnce);
       }
     });
   }
 
   protected GetResponse[] directMultiGetInternal(final OperationMetadata operationMetadata, GetRequest[] requests, Reference<OperationMetadata> operationMetadataRef) {
+    return directMultiGetInternal(operationMetadata, requests, operationMetadataRef, null);
+  }
+
+  @SuppressWarnings("boxing")
+  protected GetResponse[] directMultiGetInternal(final OperationMetadata operationMetadata, GetRequest[] requests,
+    Reference<OperationMetadata> operationMetadataRef, final Action2<Integer, GetResponse> onResponse) {
     if (operationMetadataRef != null) {
       operationMetadataRef.value = operationMetadata;
     }
-    MultiGetOperation multiGetOperation = new MultiGetOperation(this, convention, operationMetadata.getUrl(), requests);
+    final MultiGetOperation multiGetOperation = new MultiGetOperation(this, convention, operationMetadata.getUrl(), requests);
     // logical GET even though the actual request is a POST
     try (HttpJsonRequest httpJsonRequest = jsonRequestFactory.createHttpJsonRequest(new CreateHttpJsonRequestParams(this, multiGetOperation.getRequestUri(),
       HttpMethods.POST, new RavenJObject(), operationMetadata.getCredentials(), convention))) {
@@ -1741,24 +1879,47 @@ public class ServerClient implements IDatabaseCommands {
       String postedData = JsonConvert.serializeObject(requestsForServer);
 
       if (multiGetOperation.canFullyCache(jsonRequestFactory, httpJsonRequest, postedData)) {
-        return multiGetOperation.handleCachingResponse(new GetResponse[requests.length],
+        GetResponse[] responses = multiGetOperation.handleCachingResponse(new GetResponse[requests.length],
           jsonRequestFactory);
+        if (onResponse != null) {
+          for (int i = 0; i < responses.length; i++) {
+            onResponse.apply(i, responses[i]);
+          }
+        }
+        return responses;
       }
 
       httpJsonRequest.write(postedData);
-      RavenJArray results = (RavenJArray)httpJsonRequest.readResponseJson();
 
-      GetResponse[] responses = convention.createSerializer().deserialize(results, GetResponse[].class);
-
-      multiGetOperation.tryResolveConflictOrCreateConcurrencyException(responses, new Function3<String, RavenJObject, Etag, ConflictException>() {
+      final GetResponse[] responses = new GetResponse[requests.length];
+      final JsonSerializer serializer = convention.createSerializer();
+      final Function3<String, RavenJObject, Etag, ConflictException> conflictResolver = new Function3<String, RavenJObject, Etag, ConflictException>() {
         @SuppressWarnings("synthetic-access")
         @Override
         public ConflictException apply(String key, RavenJObject conflictsDoc, Etag etag) {
           return tryResolveConflictOrCreateConcurrencyException(operationMetadata, key, conflictsDoc, etag);
         }
+      };
+
+      httpJsonRequest.readResponseJsonArray(new Action1<RavenJToken>() {
+        private int index;
+
+        @Override
+        public void apply(RavenJToken item) {
+          int i = index++;
+          GetResponse response = null;
+          if (item != null && item.getType() != JTokenType.NULL) {
+            response = serializer.deserialize(item, GetResponse.class);
+          }
+          multiGetOperation.tryResolveConflictOrCreateConcurrencyException(response, conflictResolver);
+          responses[i] = multiGetOperation.handleCachingResponse(i, response, jsonRequestFactory);
+          if (onResponse != null) {
+            onResponse.apply(i, responses[i]);
+          }
+        }
       });
 
-      return multiGetOperation.handleCachingResponse(responses, jsonRequestFactory);
+      return multiGetOperation.completeCachingResponse(responses);
     }
   }
 
@@ -1881,7 +2042,7 @@ public class ServerClient implements IDatabaseCommands {
     try {
       Reference<OperationMetadata> operationMetadataRef = new Reference<OperationMetadata>();
 
-      GetResponse[] x = multiGetInternal(new GetRequest[] { getRequest }, operationMetadataRef);
+      GetResponse[] x = multiGetInternal(new GetRequest[] { getRequest }, operationMetadataRef, null);
       GetResponse getResponse = x[0];
       RavenJObject json = (RavenJObject) getResponse.getResult();
       QueryResult queryResult = SerializationHelper.toQueryResult(json, HttpExtensions.getEtagHeader(getResponse), getResponse.getHeaders().get("Temp-Request-Time"), -1);
@@ -1943,6 +2104,16 @@ public class ServerClient implements IDatabaseCommands {
 
   @SuppressWarnings("boxing")
   protected SuggestionQueryResult directSuggest(String index, SuggestionQuery suggestionQuery, OperationMetadata operationMetadata) {
+    FacetResultsCache resultsCache = getFacetResultsCache();
+    String cacheKey = null;
+    if (resultsCache != null) {
+      cacheKey = FacetResultsCache.suggestionKey(operationMetadata.getUrl(), index, suggestionQuery);
+      RavenJToken upToDate = getUpToDateResult(resultsCache, cacheKey);
+      if (upToDate != null) {
+        return toSuggestionQueryResult((RavenJObject) upToDate);
+      }
+    }
+
     String requestUri = operationMetadata.getUrl() + String.format("/suggest/%s?term=%s&field=%s&max=%d&popularity=%s",
       UrlUtils.escapeUriString(index),
       UrlUtils.escapeDataString(suggestionQuery.getTerm()),
@@ -1961,18 +2132,64 @@ public class ServerClient implements IDatabaseCommands {
       new CreateHttpJsonRequestParams(this, requestUri, HttpMethods.GET, new RavenJObject(), operationMetadata.getCredentials(), convention)
       .addOperationHeaders(operationsHeaders))
       .addReplicationStatusHeaders(url, operationMetadata.getUrl(), replicationInformer, convention.getFailoverBehavior(), new HandleReplicationStatusChangesCallback())) {
-      RavenJObject json = (RavenJObject)request.readResponseJson();
+      RavenJObject json = (RavenJObject) (resultsCache != null ? readResponseJsonUsingResultsCache(request, resultsCache, cacheKey, index, operationMetadata) : request.readResponseJson());
+      return toSuggestionQueryResult(json);
+    }
+  }
 
-      List<String> suggestions = new ArrayList<>();
+  private static SuggestionQueryResult toSuggestionQueryResult(RavenJObject json) {
+    List<String> suggestions = new ArrayList<>();
 
-      SuggestionQueryResult result = new SuggestionQueryResult();
-      RavenJArray array = (RavenJArray) json.get("Suggestions");
-      for (RavenJToken token: array) {
-        suggestions.add(token.value(String.class));
-      }
-      result.setSuggestions(suggestions.toArray(new String[0]));
-      return result;
+    SuggestionQueryResult result = new SuggestionQueryResult();
+    RavenJArray array = (RavenJArray) json.get("Suggestions");
+    for (RavenJToken token: array) {
+      suggestions.add(token.value(String.class));
+    }
+    result.setSuggestions(suggestions.toArray(new String[0]));
+    return result;
+  }
+
+  /**
+   * @return facet and suggestion results cache or null when results shouldn't be cached
+   */
+  public FacetResultsCache getFacetResultsCache() {
+    if (!convention.isUseFacetResultsCache() || jsonRequestFactory.getDisableHttpCaching()) {
+      return null;
+    }
+    return jsonRequestFactory.getFacetResultsCache();
+  }
+
+  /**
+   * Returns copy of cached result, if it can be used without asking server, otherwise null.
+   */
+  private RavenJToken getUpToDateResult(FacetResultsCache resultsCache, String cacheKey) {
+    FacetResultsCache.Entry cached = resultsCache.get(cacheKey);
+    if (cached == null || !resultsCache.isUpToDate(cached)) {
+      return null;
     }
+    jsonRequestFactory.incrementCachedRequests();
+    return cached.getData().cloneToken();
+  }
+
+  /**
+   * Reads response revalidating cached result (if any) by its etag, and stores response in results cache.
+   */
+  private RavenJToken readResponseJsonUsingResultsCache(HttpJsonRequest request, FacetResultsCache resultsCache, String cacheKey, String index,
+    OperationMetadata operationMetadata) {
+    String database = MultiDatabase.getDatabaseName(url);
+    long version = resultsCache.getVersion(database, index);
+    FacetResultsCache.Entry cached = resultsCache.get(cacheKey);
+    if (cached != null && cached.getEtag() != null && request.getCachedRequestDetails() == null) {
+      Map<String, String> headers = new HashMap<>();
+      headers.put(Constants.METADATA_ETAG_FIELD, cached.getEtag());
+      request.addOperationHeader("If-None-Match", cached.getEtag());
+      request.setCachedRequestDetails(new CachedRequest(cached.getData(), new Date(), headers, database, false));
+    }
+    RavenJToken json = request.readResponseJson();
+    // index changes are observed only on primary node
+    resultsCache.put(cacheKey, database, index, json, request.getResponseHeaders().get(Constants.METADATA_ETAG_FIELD), version,
+      url.equals(operationMetadata.getUrl()));
+    return json;
   }
 
   @Override
@@ -2068,6 +2285,32 @@ public class ServerClient implements IDatabaseCommands {
 
   @Deprecated
   protected void directPutAttachment(String key, RavenJObject metadata, Etag etag, InputStream data, OperationMetadata operationMetadata) {
+    try (HttpJsonRequest jsonRequest = createPutAttachmentRequest(key, metadata, etag, operationMetadata)) {
+      jsonRequest.write(data);
+    }
+  }
+
+  @Override
+  @Deprecated
+  public void putAttachment(final String key, final Etag etag, final File file, final RavenJObject metadata) {
+    executeWithReplication(HttpMethods.PUT, new Function1<OperationMetadata, Void>() {
+      @Override
+      public Void apply(OperationMetadata operationMetadata) {
+        directPutAttachment(key, metadata, etag, file, operationMetadata);
+        return null;
+      }
+    });
+  }
+
+  @Deprecated
+  protected void directPutAttachment(String key, RavenJObject metadata, Etag etag, File file, OperationMetadata operationMetadata) {
+    try (HttpJsonRequest jsonRequest = createPutAttachmentRequest(key, metadata, etag, operationMetadata)) {
+      String contentType = metadata != null ? metadata.value(String.class, "Content-Type") : null;
+      jsonRequest.write(new FileChannelEntity(file, contentType != null ? contentType : "application/octet-stream"));
+    }
+  }
+
+  private HttpJsonRequest createPutAttachmentRequest(String key, RavenJObject metadata, Etag etag, OperationMetadata operationMetadata) {
     if (metadata == null) {
       metadata = new RavenJObject();
     }
@@ -2077,11 +2320,11 @@ public class ServerClient implements IDatabaseCommands {
       metadata.remove(Constants.METADATA_ETAG_FIELD);
     }
 
-    try (HttpJsonRequest jsonRequest = jsonRequestFactory.createHttpJsonRequest(
-      new CreateHttpJsonRequestParams(this, operationMetadata.getUrl() + "/static/" + key, HttpMethods.PUT, metadata, operationMetadata.getCredentials(), convention))
-      .addReplicationStatusHeaders(url, operationMetadata.getUrl(), replicationInformer, convention.getFailoverBehavior(), new HandleReplicationStatusChangesCallback())) {
-      jsonRequest.write(data);
-    }
+    CreateHttpJsonRequestParams requestParams = new CreateHttpJsonRequestParams(this, operationMetadata.getUrl() + "/static/" + key, HttpMethods.PUT, metadata, operationMetadata.getCredentials(), convention);
+    // compressing images, video or archives only costs CPU
+    requestParams.setDisableRequestCompression(HttpContentExtentions.isCompressedContentType(metadata.value(String.class, "Content-Type")));
+    return jsonRequestFactory.createHttpJsonRequest(requestParams)
+      .addReplicationStatusHeaders(url, operationMetadata.getUrl(), replicationInformer, convention.getFailoverBehavior(), new HandleReplicationStatusChangesCallback());
   }
 
   @Override
@@ -2129,27 +2372,109 @@ public class ServerClient implements IDatabaseCommands {
         throw new IllegalStateException(e.getMessage(), e);
       }
 
-      String stream = null;
-      try (CloseableHttpResponse response = responseException.getResponse()) {
-        stream = BomUtils.removeUTF8BOM(IOUtils.toString(response.getEntity().getContent(), "UTF-8")).trim();
+      throw attachmentConflictException(method, key, responseException);
+    }
+  }
 
-        List<String> conflictedIds;
-        if (HttpMethods.GET.equals(method)) {
-          RavenJObject conflictsDoc = RavenJObject.parse(stream);
-          conflictedIds = conflictsDoc.value(RavenJArray.class, "Conflicts").values(String.class);
-        } else {
-          conflictedIds = Arrays.asList("Cannot get conflict ids in HEAD requesT");
-        }
+  @Deprecated
+  private static ConflictException attachmentConflictException(HttpMethods method, String key, ErrorResponseException responseException) {
+    String stream = null;
+    try (CloseableHttpResponse response = responseException.getResponse()) {
+      stream = BomUtils.removeUTF8BOM(IOUtils.toString(response.getEntity().getContent(), "UTF-8")).trim();
+
+      List<String> conflictedIds;
+      if (HttpMethods.GET.equals(method)) {
+        RavenJObject conflictsDoc = RavenJObject.parse(stream);
+        conflictedIds = conflictsDoc.value(RavenJArray.class, "Conflicts").values(String.class);
+      } else {
+        conflictedIds = Arrays.asList("Cannot get conflict ids in HEAD requesT");
+      }
 
-        ConflictException ex = new ConflictException("Conflict detected on " + key + ", conflict must be resolved before the attachment will be accessible", true);
-        ex.setConflictedVersionIds(conflictedIds.toArray(new String[0]));
-        ex.setEtag(responseException.getEtag());
-        throw ex;
+      ConflictException ex = new ConflictException("Conflict detected on " + key + ", conflict must be resolved before the attachment will be accessible", true);
+      ex.setConflictedVersionIds(conflictedIds.toArray(new String[0]));
+      ex.setEtag(responseException.getEtag());
+      return ex;
 
-      } catch (IOException e) {
-        throw new IllegalStateException(e.getMessage(), e);
+    } catch (IOException e) {
+      throw new IllegalStateException(e.getMessage(), e);
+    }
+  }
+
+  @Override
+  @Deprecated
+  public AttachmentStream getAttachmentStream(String key) {
+    return getAttachmentStream(key, 0, null);
+  }
+
+  @Override
+  @Deprecated
+  public AttachmentStream getAttachmentStream(final String key, final long from, final Long to) {
+    return executeWithReplication(HttpMethods.GET, new Function1<OperationMetadata, AttachmentStream>() {
+      @Override
+      public AttachmentStream apply(OperationMetadata operationMetadata) {
+        return directGetAttachmentStream(key, from, to, operationMetadata);
       }
+    });
+  }
+
+  @Deprecated
+  protected AttachmentStream directGetAttachmentStream(String key, long from, Long to, OperationMetadata operationMetadata) {
+    boolean ranged = from > 0 || to != null;
+    CreateHttpJsonRequestParams requestParams = new CreateHttpJsonRequestParams(this, operationMetadata.getUrl() + "/static/" + key, HttpMethods.GET, new RavenJObject(), operationMetadata.getCredentials(), convention);
+    // byte ranges refer to attachment content, so response can't be compressed
+    requestParams.setDisableRequestCompression(ranged);
+    HttpJsonRequest request = jsonRequestFactory.createHttpJsonRequest(requestParams)
+      .addReplicationStatusHeaders(url, operationMetadata.getUrl(), replicationInformer, convention.getFailoverBehavior(), new HandleReplicationStatusChangesCallback());
+    if (ranged) {
+      request.addOperationHeader("Range", "bytes=" + from + "-" + (to != null ? to.toString() : ""));
+    }
+
+    CloseableHttpResponse response;
+    try {
+      response = request.executeRawResponse();
+    } catch (RuntimeException e) {
+      request.close();
+      throw e;
     }
+    int statusCode = response.getStatusLine().getStatusCode();
+    if (statusCode == HttpStatus.SC_NOT_FOUND) {
+      request.close();
+      return null;
+    }
+    if (statusCode == HttpStatus.SC_CONFLICT) {
+      try {
+        throw attachmentConflictException(HttpMethods.GET, key, new ErrorResponseException(response, "Conflict"));
+      } finally {
+        request.close();
+      }
+    }
+    try {
+      HttpJsonRequestExtension.assertNotFailingResponse(response);
+    } catch (ErrorResponseException e) {
+      request.close();
+      throw e;
+    }
+
+    Map<String, String> headers = HttpJsonRequest.extractHeaders(response.getAllHeaders());
+    handleReplicationStatusChanges(headers, url, operationMetadata.getUrl());
+    Etag etag = response.getFirstHeader(Constants.METADATA_ETAG_FIELD) != null ? HttpExtensions.getEtagHeader(response) : null;
+    long contentLength = response.getEntity() != null ? response.getEntity().getContentLength() : 0;
+
+    long skip = 0;
+    long size = contentLength;
+    if (ranged && statusCode != HttpStatus.SC_PARTIAL_CONTENT) {
+      // server ignored range - skip and limit content on client side
+      skip = from;
+      if (to != null) {
+        size = to - from + 1;
+      } else if (contentLength >= 0) {
+        size = Math.max(0, contentLength - from);
+      }
+      if (contentLength >= 0) {
+        size = Math.min(size, Math.max(0, contentLength - from));
+      }
+    }
+    return new AttachmentStream(response, key, MetadataExtensions.filterHeadersAttachment(headers), etag, size, skip, ranged);
   }
 
   @Override
@@ -2210,7 +2535,17 @@ public class ServerClient implements IDatabaseCommands {
 
   @Override
   public ProfilingInformation getProfilingInformation() {
-    return profilingInformation;
+    ProfilingInformation result = profilingInformation;
+    if (result == null) {
+      synchronized (this) {
+        result = profilingInformation;
+        if (result == null) {
+          // created on first use, as most of clients are never profiled
+          profilingInformation = result = ProfilingInformation.createProfilingInformation(sessionId);
+        }
+      }
+    }
+    return result;
   }
 
   public void addFailoverStatusChanged(EventHandler<FailoverStatusChangedEventArgs> event) {
@@ -2425,7 +2760,7 @@ public class ServerClient implements IDatabaseCommands {
     if (fromEtag != null && startsWith != null)
       throw new IllegalArgumentException("Either fromEtag or startsWith must be null, you can't specify both");
 
-    StringBuilder sb = new StringBuilder(url).append("/streams/docs?");
+    StringBuilder sb = new StringBuilder(operationMetadata.getUrl()).append("/streams/docs?");
 
     if (fromEtag != null) {
       sb.append("etag=")
@@ -2466,9 +2801,9 @@ public class ServerClient implements IDatabaseCommands {
     }
 
     HttpJsonRequest request = jsonRequestFactory.createHttpJsonRequest(
-      new CreateHttpJsonRequestParams(this, sb.toString(), HttpMethods.GET, new RavenJObject(), credentialsThatShouldBeUsedOnlyInOperationsWithoutReplication, convention)
+      new CreateHttpJsonRequestParams(this, sb.toString(), HttpMethods.GET, new RavenJObject(), operationMetadata.getCredentials(), convention)
       .addOperationHeaders(operationsHeaders))
-      .addReplicationStatusHeaders(url, url, replicationInformer, convention.getFailoverBehavior(), new HandleReplicationStatusChangesCallback());
+      .addReplicationStatusHeaders(url, operationMetadata.getUrl(), replicationInformer, convention.getFailoverBehavior(), new HandleReplicationStatusChangesCallback());
 
     SingleAuthTokenRetriever tokenRetriever = new SingleAuthTokenRetriever(this, jsonRequestFactory, convention, operationsHeaders, operationMetadata);
     String token = tokenRetriever.getToken();
@@ -0,0 +1,63 @@
+package net.ravendb.client.connection.implementation;
+
+/**
+ * Utilization of HTTP connection pool for single server (or whole pool)
+ */
+public class ConnectionPoolStats {
+  private final String route;
+  private final int leased;
+  private final int pending;
+  private final int available;
+  private final int max;
+
+  public ConnectionPoolStats(String route, int leased, int pending, int available, int max) {
+    super();
+    this.route = route;
+    this.leased = leased;
+    this.pending = pending;
+    this.available = available;
+    this.max = max;
+  }
+
+  /**
+   * Server (scheme, host and port) these statistics refer to, null for whole pool.
+   */
+  public String getRoute() {
+    return route;
+  }
+
+  /**
+   * Number of connections currently used to execute requests.
+   */
+  public int getLeased() {
+    return leased;
+  }
+
+  /**
+   * Number of requests waiting for connection.
+   */
+  public int getPending() {
+    return pending;
+  }
+
+  /**
+   * Number of idle persistent connections.
+   */
+  public int getAvailable() {
+    return available;
+  }
+
+  /**
+   * Maximum number of allowed connections.
+   */
+  public int getMax() {
+    return max;
+  }
+
+  @Override
+  public String toString() {
+    return "ConnectionPoolStats [route=" + route + ", leased=" + leased + ", pending=" + pending + ", available=" + available
+      + ", max=" + max + "]";
+  }
+
+}
@@ -29,6 +29,7 @@ import net.ravendb.abstractions.exceptions.JsonReaderException;
 import net.ravendb.abstractions.exceptions.JsonWriterException;
 import net.ravendb.abstractions.exceptions.ServerVersionNotSuppportedException;
 import net.ravendb.abstractions.json.linq.JTokenType;
+import net.ravendb.abstractions.json.linq.RavenJArray;
 import net.ravendb.abstractions.json.linq.RavenJObject;
 import net.ravendb.abstractions.json.linq.RavenJToken;
 import net.ravendb.abstractions.util.NetDateFormat;
@@ -45,6 +46,7 @@ import net.ravendb.client.connection.profiling.RequestStatus;
 import net.ravendb.client.document.Convention;
 import net.ravendb.client.document.FailoverBehaviorSet;
 import net.ravendb.client.document.RemoteBulkInsertOperation.BulkInsertEntity;
+import net.ravendb.client.exceptions.DeadlineExceededException;
 import net.ravendb.java.http.client.GzipHttpEntity;
 import net.ravendb.java.http.client.HttpEval;
 import net.ravendb.java.http.client.HttpReset;
@@ -73,6 +75,9 @@ import org.apache.http.entity.ContentType;
 import org.apache.http.entity.InputStreamEntity;
 import org.apache.http.entity.StringEntity;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.codehaus.jackson.JsonFactory;
+import org.codehaus.jackson.JsonParser;
+import org.codehaus.jackson.JsonToken;
 
 import com.google.common.io.Closeables;
 
@@ -84,6 +89,9 @@ public class HttpJsonRequest implements CleanCloseable {
 
   public static final String clientVersion = Constants.VERSION;
 
+  // factory is thread safe and caches parser buffers/symbol tables, so it is shared by all requests
+  private static final JsonFactory jsonFactory = new JsonFactory();
+
   private final String url;
   private final HttpMethods method;
 
@@ -120,9 +128,14 @@ public class HttpJsonRequest implements CleanCloseable {
 
   private Long timeout;
 
+  private boolean limitedByDeadline;
+
+  private final RequestCanceller canceller;
+
   private CloseableHttpResponse response;
 
   private int contentLength = -1;
+  private final boolean requestCompression;
 
   private Map<String, String> defaultRequestHeaders = new HashMap<>();
 
@@ -138,16 +151,29 @@ public class HttpJsonRequest implements CleanCloseable {
 
     if (requestParams.getTimeout() != null) {
       timeout = requestParams.getTimeout();
+    } else if (factory.getRequestTimeout() != null) {
+      timeout = factory.getRequestTimeout();
     } else {
       timeout = 100 * 3600L;
     }
+    Long remainingTime = factory.getRemainingTime();
+    if (remainingTime != null) {
+      // request can't take longer than what is left of operation budget
+      if (remainingTime <= 0) {
+        throw new DeadlineExceededException("Deadline exceeded before request to " + url + " was sent");
+      }
+      timeout = Math.min(timeout, remainingTime);
+      limitedByDeadline = true;
+    }
     this.factory = factory;
+    this.canceller = factory.getRequestCanceller();
     this.owner = requestParams.getOwner();
     this.conventions = requestParams.getConvention();
 
     httpClient = factory.getHttpClient();
 
-    if (factory.isDisableRequestCompression() == false && requestParams.isDisableRequestCompression() == false) {
+    requestCompression = factory.isDisableRequestCompression() == false && requestParams.isDisableRequestCompression() == false;
+    if (requestCompression) {
       if (method == HttpMethods.POST || method == HttpMethods.PUT || method == HttpMethods.PATCH
         || method == HttpMethods.EVAL) {
         defaultRequestHeaders.put("Content-Encoding", "gzip");
@@ -205,6 +231,85 @@ public class HttpJsonRequest implements CleanCloseable {
     return readJsonInternal();
   }
 
+  /**
+   * Reads response which is expected to be JSON array and hands every item to given callback
+   * as soon as it is parsed, without waiting for the whole response to arrive.
+   * @param onItem callback invoked for each array item (in order)
+   */
+  public void readResponseJsonArray(Action1<RavenJToken> onItem) {
+    if (skipServerCheck) {
+      forEachItem(readResponseJson(), onItem);
+      return;
+    }
+
+    if (!writeCalled) {
+      RavenJToken result = sendRequestInternal(new Function0<HttpUriRequest>() {
+
+        @SuppressWarnings("synthetic-access")
+        @Override
+        public HttpUriRequest apply() {
+          return createWebRequest(url, method);
+        }
+      }, true);
+
+      if (result != null) {
+        forEachItem(result, onItem);
+        return;
+      }
+    }
+    readJsonArrayInternal(onItem);
+  }
+
+  private static void forEachItem(RavenJToken token, Action1<RavenJToken> onItem) {
+    if (token == null) {
+      return;
+    }
+    if (!(token instanceof RavenJArray)) {
+      throw new JsonReaderException("Expected JSON array, but got: " + token.getType());
+    }
+    for (RavenJToken item : (RavenJArray) token) {
+      onItem.apply(item);
+    }
+  }
+
+  private void readJsonArrayInternal(Action1<RavenJToken> onItem) {
+    handleReplicationStatusChanges.apply(responseHeaders, primaryUrl, operationUrl);
+
+    try (InputStream responseStream = response.getEntity() != null
+      ? response.getEntity().getContent() : new ByteArrayInputStream(new byte[0])) {
+      CountingStream countingStream = new CountingStream(responseStream);
+      JsonParser jsonParser = jsonFactory.createJsonParser(countingStream);
+
+      RavenJArray data = new RavenJArray();
+      if (jsonParser.nextToken() != null) {
+        if (jsonParser.getCurrentToken() != JsonToken.START_ARRAY) {
+          throw new JsonReaderException("Expected JSON array, but got: " + jsonParser.getCurrentToken());
+        }
+        while (jsonParser.nextToken() != JsonToken.END_ARRAY) {
+          RavenJToken item = RavenJToken.readFrom(jsonParser);
+          data.add(item);
+          onItem.apply(item);
+        }
+      }
+
+      size = countingStream.getNumberOfReadBytes();
+      factory.getMetrics().bytesReceived(size);
+
+      RequestResultArgs args = new RequestResultArgs();
+      args.setDurationMilliseconds(calculateDuration());
+      args.setMethod(method);
+      args.setHttpResult(responseStatusCode);
+      args.setStatus(RequestStatus.SEND_TO_SERVER);
+      args.setResult(data.toString());
+      args.setUrl(url);
+      args.setPostedData(postedData);
+
+      factory.onLogRequest(owner, args);
+    } catch (IOException e) {
+      throw new JsonReaderException(e.getMessage(), e);
+    }
+  }
+
   private RavenJToken sendRequestInternal(final Function0<HttpUriRequest> getRequestMessage, final boolean readErrorString) {
     if (isRequestSendToServer) {
       throw new IllegalStateException("Request was already sent to the server, cannot retry request.");
@@ -325,6 +430,7 @@ public class HttpJsonRequest implements CleanCloseable {
       RequestResultArgs requestResultArgs = new RequestResultArgs();
       requestResultArgs.setDurationMilliseconds(calculateDuration());
       requestResultArgs.setMethod(method);
+      requestResultArgs.setHttpResult(HttpStatus.SC_NOT_MODIFIED);
       requestResultArgs.setStatus(RequestStatus.CACHED);
       requestResultArgs.setResult(result.toString());
       requestResultArgs.setUrl(url);
@@ -455,6 +561,7 @@ public class HttpJsonRequest implements CleanCloseable {
       RavenJToken data = RavenJToken.tryLoad(countingStream);
 
       size = countingStream.getNumberOfReadBytes();
+      factory.getMetrics().bytesReceived(size);
 
       if (HttpMethods.GET == method && shouldCacheRequest) {
         factory.cacheResponse(url, data, responseHeaders);
@@ -600,17 +707,39 @@ public class HttpJsonRequest implements CleanCloseable {
       @SuppressWarnings("synthetic-access")
       @Override
       public HttpUriRequest apply() {
-        HttpEntityEnclosingRequestBase requestMethod = (HttpEntityEnclosingRequestBase) createWebRequest(url, method);
         InputStreamEntity innerEntity = new InputStreamEntity(postedStream, contentLength);
         HttpContentExtentions.setContentType(innerEntity, headers);
-        HttpEntity entity = new GzipHttpEntity(innerEntity);
         innerEntity.setChunked(true);
-        requestMethod.setEntity(entity);
-        return requestMethod;
+        return createEntityRequest(innerEntity);
+      }
+    }, true);
+  }
+
+  /**
+   * Writes given entity as request body. Entity should be repeatable, as request might be sent again (e.g. after authentication).
+   * @param entity
+   */
+  public void write(final HttpEntity entity) {
+    writeCalled = true;
+
+    sendRequestInternal(new Function0<HttpUriRequest>() {
+      @SuppressWarnings("synthetic-access")
+      @Override
+      public HttpUriRequest apply() {
+        if (entity.getContentLength() >= 0) {
+          factory.getMetrics().bytesSent(entity.getContentLength());
+        }
+        return createEntityRequest(entity);
       }
     }, true);
   }
 
+  private HttpUriRequest createEntityRequest(HttpEntity innerEntity) {
+    HttpEntityEnclosingRequestBase requestMethod = (HttpEntityEnclosingRequestBase) createWebRequest(url, method);
+    requestMethod.setEntity(requestCompression ? new GzipHttpEntity(innerEntity) : innerEntity);
+    return requestMethod;
+  }
+
   public void write(final String data) {
     postedData = data;
     writeCalled = true;
@@ -624,6 +753,7 @@ public class HttpJsonRequest implements CleanCloseable {
         HttpEntity entity = null;
         StringEntity innerEntity = new StringEntity(data, ContentType.APPLICATION_JSON);
         innerEntity.setChunked(true);
+        factory.getMetrics().bytesSent(innerEntity.getContentLength());
         if (factory.isDisableRequestCompression()) {
           entity = innerEntity;
         } else {
@@ -684,7 +814,7 @@ public class HttpJsonRequest implements CleanCloseable {
         baseMethod = new HttpPost(url);
         if (owner != null) {
           HttpRequestBase requestBase = (HttpRequestBase) baseMethod;
-          RequestConfig requestConfig =  RequestConfig.custom().setExpectContinueEnabled(owner.isExpect100Continue()).build();
+          RequestConfig requestConfig = RequestConfig.copy(factory.getDefaultRequestConfig()).setExpectContinueEnabled(owner.isExpect100Continue()).build();
           requestBase.setConfig(requestConfig);
         }
         break;
@@ -692,7 +822,7 @@ public class HttpJsonRequest implements CleanCloseable {
         baseMethod = new HttpPut(url);
         if (owner != null) {
           HttpRequestBase requestBase = (HttpRequestBase) baseMethod;
-          RequestConfig requestConfig = RequestConfig.custom().setExpectContinueEnabled(owner.isExpect100Continue()).build();
+          RequestConfig requestConfig = RequestConfig.copy(factory.getDefaultRequestConfig()).setExpectContinueEnabled(owner.isExpect100Continue()).build();
           requestBase.setConfig(requestConfig);
         }
         break;
@@ -721,6 +851,9 @@ public class HttpJsonRequest implements CleanCloseable {
       }
     }
     setTimeout((HttpRequestBase) baseMethod, timeout);
+    if (canceller != null) {
+      canceller.register((HttpRequestBase) baseMethod);
+    }
     factory.configureRequest(owner, new WebRequestEventArgs(baseMethod, _credentials));
     return baseMethod;
   }
@@ -736,11 +869,15 @@ public class HttpJsonRequest implements CleanCloseable {
   public void setTimeout(HttpRequestBase requestBase, long timeoutInMilis) {
     RequestConfig requestConfig = requestBase.getConfig();
     if (requestConfig == null) {
-      requestConfig = RequestConfig.DEFAULT;
+      requestConfig = factory.getDefaultRequestConfig();
     }
 
-    requestConfig = RequestConfig.copy(requestConfig).setSocketTimeout((int) timeoutInMilis).setConnectTimeout((int) timeoutInMilis).build();
-    requestBase.setConfig(requestConfig);
+    RequestConfig.Builder builder = RequestConfig.copy(requestConfig).setSocketTimeout((int) timeoutInMilis).setConnectTimeout((int) timeoutInMilis);
+    if (limitedByDeadline) {
+      // waiting for pooled connection counts to operation budget as well
+      builder.setConnectionRequestTimeout((int) timeoutInMilis);
+    }
+    requestBase.setConfig(builder.build());
   }
 
   @Override
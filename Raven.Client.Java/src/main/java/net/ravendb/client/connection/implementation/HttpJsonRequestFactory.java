@@ -1,10 +1,18 @@
 package net.ravendb.client.connection.implementation;
 
+import java.net.URI;
+import java.net.URISyntaxException;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import net.ravendb.abstractions.basic.CleanCloseable;
@@ -13,28 +21,43 @@ import net.ravendb.abstractions.basic.EventHelper;
 import net.ravendb.abstractions.basic.VoidArgs;
 import net.ravendb.abstractions.closure.Action0;
 import net.ravendb.abstractions.closure.Action2;
+import net.ravendb.abstractions.closure.Function0;
 import net.ravendb.abstractions.connection.WebRequestEventArgs;
 import net.ravendb.abstractions.data.Constants;
 import net.ravendb.abstractions.json.linq.RavenJToken;
+import net.ravendb.abstractions.logging.ILog;
+import net.ravendb.abstractions.logging.LogManager;
 import net.ravendb.client.connection.CachedRequest;
 import net.ravendb.client.connection.CachedRequestOp;
+import net.ravendb.client.connection.ConcurrencyLimiters;
 import net.ravendb.client.connection.CreateHttpJsonRequestParams;
+import net.ravendb.client.connection.FacetResultsCache;
+import net.ravendb.client.connection.OperationStatusPoller;
 import net.ravendb.client.connection.profiling.IHoldProfilingInformation;
 import net.ravendb.client.connection.profiling.RequestResultArgs;
+import net.ravendb.client.document.DocumentConvention;
 import net.ravendb.client.extensions.MultiDatabase;
+import net.ravendb.client.metrics.MetricsRegistry;
 import net.ravendb.client.util.SimpleCache;
 
 import net.ravendb.java.http.client.RavenResponseContentEncoding;
 import org.apache.commons.lang.StringUtils;
+import org.apache.http.HttpHost;
+import org.apache.http.HttpResponse;
 import org.apache.http.HttpStatus;
+import org.apache.http.client.config.RequestConfig;
 import org.apache.http.config.SocketConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.routing.HttpRoute;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.HttpClients;
 import org.apache.http.impl.client.StandardHttpRequestRetryHandler;
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.apache.http.protocol.HttpContext;
 
 import com.google.common.io.Closeables;
-import org.apache.http.protocol.HttpProcessorBuilder;
 
 
 /**
@@ -43,8 +66,28 @@ import org.apache.http.protocol.HttpProcessorBuilder;
  */
 public class HttpJsonRequestFactory implements CleanCloseable {
 
+  private static final ILog logger = LogManager.getCurrentClassLogger();
+
+  private static final int INITIAL_MAX_CONNECTIONS_PER_ROUTE = 10;
+
+  private static final long MAX_REAPER_INTERVAL = 5000;
+
+  static final int MAX_TRACKED_ROUTES = 256;
+
+  static final long ROUTE_IDLE_TIMEOUT = 5 * 60 * 1000;
+
   private CloseableHttpClient httpClient;
 
+  private final PoolingHttpClientConnectionManager connectionManager;
+
+  private final RequestConfig defaultRequestConfig;
+
+  private final boolean autoSizeConnectionsPerRoute;
+
+  private final ConcurrentMap<String, TrackedRoute> routes = new ConcurrentHashMap<>();
+
+  private Timer connectionPoolReaper;
+
   private List<EventHandler<WebRequestEventArgs>> configureRequest = new ArrayList<>();
 
   private List<EventHandler<RequestResultArgs>> logRequest = new ArrayList<>();
@@ -53,6 +96,14 @@ public class HttpJsonRequestFactory implements CleanCloseable {
 
   private int maxNumberOfCachedRequests;
   private SimpleCache cache;
+
+  private final FacetResultsCache facetResultsCache = new FacetResultsCache();
+
+  private final MetricsRegistry metrics = new MetricsRegistry();
+
+  private final ConcurrencyLimiters concurrencyLimiters;
+
+  private final OperationStatusPoller operationStatusPoller = new OperationStatusPoller();
   private final boolean acceptGzipContent;
   protected AtomicInteger numOfCachedRequests = new AtomicInteger();
   protected int numOfCacheResets;
@@ -62,6 +113,8 @@ public class HttpJsonRequestFactory implements CleanCloseable {
   private ThreadLocal<Boolean> disableHttpCaching = new ThreadLocal<>();
   private volatile boolean disposed;
   private ThreadLocal<Long> requestTimeout=  new ThreadLocal<>();// in milis
+  private ThreadLocal<Long> deadline = new ThreadLocal<>(); // System.nanoTime based
+  private ThreadLocal<RequestCanceller> requestCanceller = new ThreadLocal<>();
 
 
   public HttpJsonRequestFactory(int maxNumberOfCachedRequests) {
@@ -69,23 +122,182 @@ public class HttpJsonRequestFactory implements CleanCloseable {
   }
 
   public HttpJsonRequestFactory(int maxNumberOfCachedRequests, boolean acceptGzipContent) {
-    super();
-    this.acceptGzipContent = acceptGzipContent;
+    this(maxNumberOfCachedRequests, createConventions(acceptGzipContent));
+  }
+
+  private static DocumentConvention createConventions(boolean acceptGzipContent) {
+    DocumentConvention conventions = new DocumentConvention();
+    conventions.setAcceptGzipContent(acceptGzipContent);
+    return conventions;
+  }
 
-    PoolingHttpClientConnectionManager cm = new PoolingHttpClientConnectionManager();
-    cm.setDefaultMaxPerRoute(10);
+  public HttpJsonRequestFactory(int maxNumberOfCachedRequests, DocumentConvention conventions) {
+    super();
+    this.acceptGzipContent = conventions.isAcceptGzipContent();
+    this.concurrencyLimiters = new ConcurrencyLimiters(conventions.getMaxConcurrentRequestsPerNode(), conventions.getConcurrencyLimitWaitTimeout(), metrics);
+    metrics.registerConcurrencyLimiters(concurrencyLimiters);
+
+    long timeToLive = conventions.getConnectionTimeToLive();
+    connectionManager = new PoolingHttpClientConnectionManager(timeToLive > 0 ? timeToLive : -1, TimeUnit.MILLISECONDS);
+    connectionManager.setMaxTotal(conventions.getMaxTotalConnections());
+    autoSizeConnectionsPerRoute = conventions.getMaxConnectionsPerRoute() <= 0;
+    connectionManager.setDefaultMaxPerRoute(autoSizeConnectionsPerRoute
+      ? Math.min(INITIAL_MAX_CONNECTIONS_PER_ROUTE, conventions.getMaxTotalConnections()) : conventions.getMaxConnectionsPerRoute());
+
+    defaultRequestConfig = RequestConfig.custom()
+      .setStaleConnectionCheckEnabled(conventions.isConnectionStaleCheckEnabled())
+      .build();
+
+    final long connectionIdleTimeout = conventions.getConnectionIdleTimeout();
     this.httpClient = HttpClients
             .custom()
-            .setConnectionManager(cm)
+            .setConnectionManager(connectionManager)
+            .setKeepAliveStrategy(new ConnectionKeepAliveStrategy() {
+              @Override
+              public long getKeepAliveDuration(HttpResponse response, HttpContext context) {
+                long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+                // server didn't tell us how long it keeps connection open, so don't keep it longer than idle timeout
+                return keepAlive > 0 ? keepAlive : connectionIdleTimeout;
+              }
+            })
+            .setDefaultRequestConfig(defaultRequestConfig)
             .disableContentCompression()
             .addInterceptorLast(new RavenResponseContentEncoding())
             .setRetryHandler(new StandardHttpRequestRetryHandler(0, false))
             .setDefaultSocketConfig(SocketConfig.custom().setTcpNoDelay(true).build()).
             build();
+
+    if (connectionIdleTimeout > 0 || autoSizeConnectionsPerRoute) {
+      long reaperInterval = connectionIdleTimeout > 0 ? Math.min(connectionIdleTimeout / 2, MAX_REAPER_INTERVAL) : MAX_REAPER_INTERVAL;
+      reaperInterval = Math.max(reaperInterval, 100);
+      connectionPoolReaper = new Timer("RavenDB connection pool reaper", true);
+      connectionPoolReaper.schedule(new TimerTask() {
+        @SuppressWarnings("synthetic-access")
+        @Override
+        public void run() {
+          maintainConnectionPool(connectionIdleTimeout);
+        }
+      }, reaperInterval, reaperInterval);
+    }
+
     this.maxNumberOfCachedRequests = maxNumberOfCachedRequests;
     resetCache(null);
   }
 
+  /**
+   * Evicts expired and idle connections and (when per route limit wasn't configured)
+   * raises per route limit of servers which have requests waiting for connection and
+   * lowers it back once the load drops. Servers not used for a while are forgotten.
+   */
+  protected void maintainConnectionPool(long connectionIdleTimeout) {
+    maintainConnectionPool(connectionIdleTimeout, System.currentTimeMillis());
+  }
+
+  void maintainConnectionPool(long connectionIdleTimeout, long now) {
+    try {
+      connectionManager.closeExpiredConnections();
+      if (connectionIdleTimeout > 0) {
+        connectionManager.closeIdleConnections(connectionIdleTimeout, TimeUnit.MILLISECONDS);
+      }
+      evictIdleRoutes(now);
+      if (!autoSizeConnectionsPerRoute) {
+        return;
+      }
+      int maxTotal = connectionManager.getMaxTotal();
+      int defaultMax = connectionManager.getDefaultMaxPerRoute();
+      for (TrackedRoute tracked : routes.values()) {
+        PoolStats stats = connectionManager.getStats(tracked.route);
+        if (stats.getPending() > 0) {
+          if (stats.getMax() < maxTotal) {
+            connectionManager.setMaxPerRoute(tracked.route, Math.min(maxTotal, stats.getMax() + stats.getPending()));
+          }
+        } else if (stats.getMax() > defaultMax && stats.getLeased() < stats.getMax() / 2) {
+          connectionManager.setMaxPerRoute(tracked.route, Math.max(defaultMax, stats.getMax() / 2));
+        }
+      }
+    } catch (Exception e) {
+      logger.warnException("Unable to maintain connection pool", e);
+    }
+  }
+
+  /**
+   * Forgets servers without requests in progress which weren't used for {@value #ROUTE_IDLE_TIMEOUT} ms.
+   * Auto sized limit of such server is reset, as connection manager doesn't allow to remove it.
+   */
+  private void evictIdleRoutes(long now) {
+    for (Iterator<TrackedRoute> iterator = routes.values().iterator(); iterator.hasNext(); ) {
+      TrackedRoute tracked = iterator.next();
+      PoolStats stats = connectionManager.getStats(tracked.route);
+      if (stats.getLeased() == 0 && stats.getPending() == 0 && now - tracked.lastUsed > ROUTE_IDLE_TIMEOUT) {
+        if (autoSizeConnectionsPerRoute && stats.getMax() != connectionManager.getDefaultMaxPerRoute()) {
+          connectionManager.setMaxPerRoute(tracked.route, connectionManager.getDefaultMaxPerRoute());
+        }
+        iterator.remove();
+      }
+    }
+  }
+
+  /**
+   * Registers server, so it will be included in connection pool statistics.
+   * At most {@value #MAX_TRACKED_ROUTES} servers are tracked at once.
+   * @param url
+   */
+  protected void registerRoute(String url) {
+    int schemeEnd = url.indexOf("://");
+    if (schemeEnd < 0) {
+      return;
+    }
+    int authorityEnd = url.indexOf('/', schemeEnd + 3);
+    String key = authorityEnd < 0 ? url : url.substring(0, authorityEnd);
+    long now = System.currentTimeMillis();
+    TrackedRoute tracked = routes.get(key);
+    if (tracked != null) {
+      tracked.lastUsed = now;
+      return;
+    }
+    if (routes.size() >= MAX_TRACKED_ROUTES) {
+      evictIdleRoutes(now);
+      if (routes.size() >= MAX_TRACKED_ROUTES) {
+        return;
+      }
+    }
+    try {
+      URI uri = new URI(key);
+      boolean secure = "https".equalsIgnoreCase(uri.getScheme());
+      int port = uri.getPort() > 0 ? uri.getPort() : (secure ? 443 : 80);
+      routes.putIfAbsent(key, new TrackedRoute(new HttpRoute(new HttpHost(uri.getHost(), port, uri.getScheme()), null, secure), now));
+    } catch (URISyntaxException e) {
+      // ignore - such request will fail anyway
+    }
+  }
+
+  /**
+   * Connection pool utilization for each server this factory talked to.
+   */
+  public List<ConnectionPoolStats> getConnectionPoolStats() {
+    List<ConnectionPoolStats> result = new ArrayList<>();
+    for (Map.Entry<String, TrackedRoute> route : routes.entrySet()) {
+      PoolStats stats = connectionManager.getStats(route.getValue().route);
+      result.add(new ConnectionPoolStats(route.getKey(), stats.getLeased(), stats.getPending(), stats.getAvailable(), stats.getMax()));
+    }
+    return result;
+  }
+
+  /**
+   * Utilization of whole connection pool.
+   */
+  public ConnectionPoolStats getTotalConnectionPoolStats() {
+    PoolStats stats = connectionManager.getTotalStats();
+    return new ConnectionPoolStats(null, stats.getLeased(), stats.getPending(), stats.getAvailable(), stats.getMax());
+  }
+
+  /**
+   * Request configuration which should be used as base for all requests.
+   */
+  public RequestConfig getDefaultRequestConfig() {
+    return defaultRequestConfig;
+  }
+
   public boolean isAcceptGzipContent() {
     return acceptGzipContent;
   }
@@ -125,7 +337,11 @@ public class HttpJsonRequestFactory implements CleanCloseable {
       return ;
     }
     disposed = true;
+    if (connectionPoolReaper != null) {
+      connectionPoolReaper.cancel();
+    }
     cache.close();
+    operationStatusPoller.close();
     Closeables.closeQuietly(httpClient);
     if (onDispose != null) {
       onDispose.apply();
@@ -175,6 +391,7 @@ public class HttpJsonRequestFactory implements CleanCloseable {
       throw new IllegalStateException("Object was disposed!");
     }
 
+    registerRoute(createHttpJsonRequestParams.getUrl());
     HttpJsonRequest request = new HttpJsonRequest(createHttpJsonRequestParams, this);
     request.setShouldCacheRequest(createHttpJsonRequestParams.isAvoidCachingRequest() == false
         && createHttpJsonRequestParams.getConvention().shouldCacheRequest(createHttpJsonRequestParams.getUrl()));
@@ -210,6 +427,44 @@ public class HttpJsonRequestFactory implements CleanCloseable {
     };
   }
 
+  /**
+   * Captures thread bound settings (aggressive caching, disabled caching, request timeout and deadline) of current thread.
+   * Returned function applies them to thread it is called on - use it when executing requests on worker threads.
+   * Closing result of function restores previous settings of worker thread.
+   */
+  @SuppressWarnings("boxing")
+  public Function0<CleanCloseable> captureThreadSettings() {
+    final Long aggressiveCaching = getAggressiveCacheDuration();
+    final Boolean httpCaching = disableHttpCaching.get();
+    final Long timeout = getRequestTimeout();
+    final Long capturedDeadline = getDeadline();
+
+    return new Function0<CleanCloseable>() {
+      @Override
+      public CleanCloseable apply() {
+        final Long oldAggressiveCaching = getAggressiveCacheDuration();
+        final Boolean oldHttpCaching = disableHttpCaching.get();
+        final Long oldTimeout = getRequestTimeout();
+        final Long oldDeadline = getDeadline();
+
+        setAggressiveCacheDuration(aggressiveCaching);
+        setDisableHttpCaching(httpCaching);
+        setRequestTimeout(timeout);
+        setDeadline(capturedDeadline);
+
+        return new CleanCloseable() {
+          @Override
+          public void close() {
+            setAggressiveCacheDuration(oldAggressiveCaching);
+            setDisableHttpCaching(oldHttpCaching);
+            setRequestTimeout(oldTimeout);
+            setDeadline(oldDeadline);
+          }
+        };
+      }
+    };
+  }
+
   public void expireItemsFromCache(String db)
   {
     cache.forceServerCheckOfCachedItemsForDatabase(db);
@@ -270,9 +525,11 @@ public class HttpJsonRequestFactory implements CleanCloseable {
 
   public void incrementCachedRequests() {
     numOfCachedRequests.incrementAndGet();
+    metrics.cacheHit();
   }
 
   public void onLogRequest(IHoldProfilingInformation sender, RequestResultArgs requestResult) {
+    metrics.requestCompleted(requestResult);
     EventHelper.invoke(logRequest, sender, requestResult);
   }
 
@@ -315,9 +572,38 @@ public class HttpJsonRequestFactory implements CleanCloseable {
     }
 
     cache = new SimpleCache(maxNumberOfCachedRequests);
+    facetResultsCache.clear();
     numOfCachedRequests = new AtomicInteger();
   }
 
+  /**
+   * Cache of facet and suggestion results, revalidated by index etag.
+   */
+  public FacetResultsCache getFacetResultsCache() {
+    return facetResultsCache;
+  }
+
+  /**
+   * Metrics of requests created by this factory.
+   */
+  public MetricsRegistry getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * Limits of concurrent requests sent to each server.
+   */
+  public ConcurrencyLimiters getConcurrencyLimiters() {
+    return concurrencyLimiters;
+  }
+
+  /**
+   * Poller shared by all operations waiting for completion of server side operations.
+   */
+  public OperationStatusPoller getOperationStatusPoller() {
+    return operationStatusPoller;
+  }
+
   public void setAggressiveCacheDuration(Long value) {
     aggressiveCacheDuration.set(value);
   }
@@ -368,6 +654,48 @@ public class HttpJsonRequestFactory implements CleanCloseable {
     this.requestTimeout.set(requestTimeout);
   }
 
+  /**
+   * Deadline (in System.nanoTime units) of operations executed by current thread or null if there is no deadline.
+   */
+  public Long getDeadline() {
+    return deadline.get();
+  }
+
+  /**
+   * Deadline (in System.nanoTime units) of operations executed by current thread or null if there is no deadline.
+   * @param deadline
+   */
+  public void setDeadline(Long deadline) {
+    this.deadline.set(deadline);
+  }
+
+  /**
+   * Time (in milliseconds) remaining until deadline of current thread or null if there is no deadline.
+   */
+  @SuppressWarnings("boxing")
+  public Long getRemainingTime() {
+    Long currentDeadline = deadline.get();
+    if (currentDeadline == null) {
+      return null;
+    }
+    return TimeUnit.NANOSECONDS.toMillis(currentDeadline - System.nanoTime());
+  }
+
+  /**
+   * Canceller of operation executed by current thread or null. Requests created by current thread are registered with it.
+   */
+  public RequestCanceller getRequestCanceller() {
+    return requestCanceller.get();
+  }
+
+  /**
+   * Canceller of operation executed by current thread or null. Requests created by current thread are registered with it.
+   * @param canceller
+   */
+  public void setRequestCanceller(RequestCanceller canceller) {
+    requestCanceller.set(canceller);
+  }
+
   public Action0 getOnDispose() {
     return onDispose;
   }
@@ -375,4 +703,14 @@ public class HttpJsonRequestFactory implements CleanCloseable {
   public void setOnDispose(Action0 onDispose) {
     this.onDispose = onDispose;
   }
+
+  private static class TrackedRoute {
+    private final HttpRoute route;
+    private volatile long lastUsed;
+
+    public TrackedRoute(HttpRoute route, long lastUsed) {
+      this.route = route;
+      this.lastUsed = lastUsed;
+    }
+  }
 }
@@ -0,0 +1,54 @@
+package net.ravendb.client.connection.implementation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.http.client.methods.HttpRequestBase;
+
+/**
+ * Aborts http requests sent on behalf of single operation, when operation is cancelled
+ * (e.g. future returned by async database commands is cancelled).
+ *
+ * Requests created after cancellation are aborted immediately.
+ */
+public class RequestCanceller {
+
+  private final List<HttpRequestBase> requests = new ArrayList<>();
+  private boolean cancelled;
+
+  /**
+   * Registers request sent by operation.
+   * @param request
+   */
+  public void register(HttpRequestBase request) {
+    synchronized (this) {
+      if (!cancelled) {
+        requests.add(request);
+        return;
+      }
+    }
+    request.abort();
+  }
+
+  /**
+   * Aborts all registered requests.
+   */
+  public void cancel() {
+    List<HttpRequestBase> toAbort;
+    synchronized (this) {
+      if (cancelled) {
+        return;
+      }
+      cancelled = true;
+      toAbort = new ArrayList<>(requests);
+      requests.clear();
+    }
+    for (HttpRequestBase request : toAbort) {
+      request.abort();
+    }
+  }
+
+  public synchronized boolean isCancelled() {
+    return cancelled;
+  }
+}
@@ -1,6 +1,7 @@
 package net.ravendb.client.connection.profiling;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -32,7 +33,7 @@ public class ProfilingInformation {
   }
 
   private Map<String, String> context;
-  private List<RequestResultArgs> requests = new ArrayList<>();
+  private List<RequestResultArgs> requests = Collections.synchronizedList(new ArrayList<RequestResultArgs>());
   private UUID id;
   private Date at = new Date();
   private double durationMilleseconds;
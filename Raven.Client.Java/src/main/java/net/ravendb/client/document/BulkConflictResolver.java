@@ -0,0 +1,331 @@
+package net.ravendb.client.document;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+import net.ravendb.abstractions.basic.Reference;
+import net.ravendb.abstractions.closure.Function0;
+import net.ravendb.abstractions.commands.ICommandData;
+import net.ravendb.abstractions.commands.PutCommandData;
+import net.ravendb.abstractions.data.Constants;
+import net.ravendb.abstractions.data.Etag;
+import net.ravendb.abstractions.data.JsonDocument;
+import net.ravendb.abstractions.data.MultiLoadResult;
+import net.ravendb.abstractions.exceptions.ConcurrencyException;
+import net.ravendb.abstractions.json.ConflictsResolver;
+import net.ravendb.abstractions.json.linq.RavenJArray;
+import net.ravendb.abstractions.json.linq.RavenJObject;
+import net.ravendb.abstractions.json.linq.RavenJToken;
+import net.ravendb.client.connection.HttpExtensions;
+import net.ravendb.client.connection.IDatabaseCommands;
+import net.ravendb.client.connection.SerializationHelper;
+import net.ravendb.client.listeners.IDocumentConflictListener;
+import net.ravendb.client.utils.RavenFuture;
+
+/**
+ * Resolves replication conflicts of many documents at once:
+ * conflicted documents and all their versions are fetched using batched multi-loads, conflicts are resolved
+ * by registered conflict listeners (or merged using {@link ConflictsResolver} when merge doesn't contain conflicting values)
+ * and resolved documents are written back in batches, using etag of conflict so concurrent resolution is not overwritten.
+ */
+public class BulkConflictResolver {
+
+  public static final int DEFAULT_BATCH_SIZE = 128;
+
+  private static final String CONFLICT_START_MARKER = "/* >>>> conflict start */";
+
+  private static final List<String> METADATA_TO_REMOVE = Arrays.asList("@id", "@etag", "@Http-Status-Code", "@Http-Status-Description",
+    Constants.LAST_MODIFIED, Constants.RAVEN_LAST_MODIFIED, Constants.RAVEN_REPLICATION_CONFLICT, "Raven-Replication-Conflict-Document", "Non-Authoritative-Information");
+
+  private final IDatabaseCommands databaseCommands;
+  private final List<IDocumentConflictListener> conflictListeners;
+  private Executor executor;
+  private int batchSize = DEFAULT_BATCH_SIZE;
+  private boolean mergeConflicts = true;
+
+  public BulkConflictResolver(IDatabaseCommands databaseCommands, List<IDocumentConflictListener> conflictListeners) {
+    this.databaseCommands = databaseCommands;
+    this.conflictListeners = conflictListeners;
+  }
+
+  /**
+   * Executor used to fetch batches and resolve conflicts concurrently. When null everything is done in calling thread.
+   */
+  public Executor getExecutor() {
+    return executor;
+  }
+
+  /**
+   * Executor used to fetch batches and resolve conflicts concurrently. When null everything is done in calling thread.
+   * @param executor
+   */
+  public void setExecutor(Executor executor) {
+    this.executor = executor;
+  }
+
+  /**
+   * Number of documents fetched by single multi-load and written by single batch request (default: 128).
+   */
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * Number of documents fetched by single multi-load and written by single batch request (default: 128).
+   * @param batchSize
+   */
+  public void setBatchSize(int batchSize) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("Batch size must be positive");
+    }
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Whether conflicts not resolved by listeners should be merged, when versions don't have conflicting values (default: true).
+   */
+  public boolean isMergeConflicts() {
+    return mergeConflicts;
+  }
+
+  /**
+   * Whether conflicts not resolved by listeners should be merged, when versions don't have conflicting values (default: true).
+   * @param mergeConflicts
+   */
+  public void setMergeConflicts(boolean mergeConflicts) {
+    this.mergeConflicts = mergeConflicts;
+  }
+
+  /**
+   * Resolves conflicts of given documents.
+   * @param keys keys of conflicted documents (documents which are not conflicted are ignored)
+   */
+  public Result resolve(Collection<String> keys) {
+    Result result = new Result();
+    List<String> uniqueKeys = new ArrayList<>(new LinkedHashSet<>(keys));
+
+    // 1. conflict markers of documents
+    final List<Conflict> conflicts = new ArrayList<>();
+    for (MultiLoadResult loadResult : loadInBatches(uniqueKeys)) {
+      for (RavenJObject document : loadResult.getResults()) {
+        Conflict conflict = toConflict(document);
+        if (conflict != null) {
+          conflicts.add(conflict);
+        }
+      }
+    }
+    if (conflicts.isEmpty()) {
+      return result;
+    }
+
+    // 2. all conflicted versions
+    List<String> versionIds = new ArrayList<>();
+    for (Conflict conflict : conflicts) {
+      versionIds.addAll(conflict.versionIds);
+    }
+    Map<String, JsonDocument> versions = new HashMap<>();
+    for (MultiLoadResult loadResult : loadInBatches(versionIds)) {
+      for (RavenJObject version : loadResult.getResults()) {
+        if (version != null) {
+          JsonDocument document = SerializationHelper.toJsonDocument(version);
+          versions.put(document.getKey(), document);
+        }
+      }
+    }
+    for (Conflict conflict : conflicts) {
+      for (String versionId : conflict.versionIds) {
+        JsonDocument version = versions.get(versionId);
+        if (version != null) {
+          conflict.versions.add(version);
+        }
+      }
+    }
+
+    // 3. resolution
+    List<Function0<PutCommandData>> resolutions = new ArrayList<>();
+    for (final Conflict conflict : conflicts) {
+      resolutions.add(new Function0<PutCommandData>() {
+        @Override
+        public PutCommandData apply() {
+          return resolveConflict(conflict);
+        }
+      });
+    }
+    List<PutCommandData> resolved = new ArrayList<>();
+    List<PutCommandData> resolvedOrNull = execute(resolutions);
+    for (int i = 0; i < conflicts.size(); i++) {
+      PutCommandData putCommand = resolvedOrNull.get(i);
+      if (putCommand != null) {
+        resolved.add(putCommand);
+      } else {
+        result.unresolved.add(conflicts.get(i).key);
+      }
+    }
+
+    // 4. write back
+    for (int start = 0; start < resolved.size(); start += batchSize) {
+      List<PutCommandData> batch = resolved.subList(start, Math.min(resolved.size(), start + batchSize));
+      writeBatch(batch, result);
+    }
+    return result;
+  }
+
+  private List<MultiLoadResult> loadInBatches(List<String> ids) {
+    List<Function0<MultiLoadResult>> requests = new ArrayList<>();
+    for (int start = 0; start < ids.size(); start += batchSize) {
+      final String[] batch = ids.subList(start, Math.min(ids.size(), start + batchSize)).toArray(new String[0]);
+      requests.add(new Function0<MultiLoadResult>() {
+        @Override
+        public MultiLoadResult apply() {
+          return databaseCommands.getWithConflicts(batch);
+        }
+      });
+    }
+    return execute(requests);
+  }
+
+  private <T> List<T> execute(List<Function0<T>> tasks) {
+    List<T> results = new ArrayList<>();
+    if (executor == null || tasks.size() < 2) {
+      for (Function0<T> task : tasks) {
+        results.add(task.apply());
+      }
+      return results;
+    }
+    List<RavenFuture<T>> futures = new ArrayList<>();
+    for (Function0<T> task : tasks) {
+      futures.add(RavenFuture.supplyAsync(task, executor));
+    }
+    for (RavenFuture<T> future : futures) {
+      results.add(future.join());
+    }
+    return results;
+  }
+
+  @SuppressWarnings("boxing")
+  private static Conflict toConflict(RavenJObject document) {
+    if (document == null) {
+      return null;
+    }
+    RavenJObject metadata = document.value(RavenJObject.class, Constants.METADATA);
+    if (metadata == null || metadata.value(Integer.TYPE, "@Http-Status-Code") != 409) {
+      return null;
+    }
+    RavenJArray conflictIds = document.value(RavenJArray.class, "Conflicts");
+    if (conflictIds == null) {
+      return null;
+    }
+    Conflict conflict = new Conflict(metadata.value(String.class, "@id"), HttpExtensions.etagHeaderToEtag(metadata.value(String.class, "@etag")));
+    for (RavenJToken conflictId : conflictIds) {
+      conflict.versionIds.add(conflictId.value(String.class));
+    }
+    return conflict;
+  }
+
+  private PutCommandData resolveConflict(Conflict conflict) {
+    if (conflict.versions.isEmpty()) {
+      return null;
+    }
+    for (IDocumentConflictListener listener : conflictListeners) {
+      Reference<JsonDocument> resolvedDocument = new Reference<>();
+      if (listener.tryResolveConflict(conflict.key, Collections.unmodifiableList(conflict.versions), resolvedDocument)) {
+        return new PutCommandData(conflict.key, conflict.etag, resolvedDocument.value.getDataAsJson(), resolvedDocument.value.getMetadata());
+      }
+    }
+    if (!mergeConflicts) {
+      return null;
+    }
+    return merge(conflict);
+  }
+
+  private static PutCommandData merge(Conflict conflict) {
+    RavenJObject[] documents = new RavenJObject[conflict.versions.size()];
+    RavenJObject[] metadatas = new RavenJObject[conflict.versions.size()];
+    for (int i = 0; i < documents.length; i++) {
+      documents[i] = conflict.versions.get(i).getDataAsJson();
+      metadatas[i] = conflict.versions.get(i).getMetadata();
+    }
+    try {
+      ConflictsResolver.MergeResult document = new ConflictsResolver(documents, false).resolve();
+      ConflictsResolver.MergeResult metadata = new ConflictsResolver(metadatas, true).resolve();
+      if (document.getDocument().contains(CONFLICT_START_MARKER) || metadata.getDocument().contains(CONFLICT_START_MARKER)) {
+        // versions have conflicting values - it has to be resolved manually
+        return null;
+      }
+      RavenJObject mergedMetadata = RavenJObject.parse(metadata.getDocument());
+      for (String key : METADATA_TO_REMOVE) {
+        mergedMetadata.remove(key);
+      }
+      return new PutCommandData(conflict.key, conflict.etag, RavenJObject.parse(document.getDocument()), mergedMetadata);
+    } catch (IOException e) {
+      throw new IllegalStateException("Unable to merge conflict of " + conflict.key, e);
+    }
+  }
+
+  private void writeBatch(List<PutCommandData> batch, Result result) {
+    try {
+      databaseCommands.batch(new ArrayList<ICommandData>(batch));
+      for (PutCommandData command : batch) {
+        result.resolved.add(command.getKey());
+      }
+    } catch (ConcurrencyException e) {
+      // some document was modified (or resolved) concurrently - batch is transactional, so retry one by one
+      for (PutCommandData command : batch) {
+        try {
+          databaseCommands.batch(Collections.<ICommandData> singletonList(command));
+          result.resolved.add(command.getKey());
+        } catch (ConcurrencyException ex) {
+          result.modifiedConcurrently.add(command.getKey());
+        }
+      }
+    }
+  }
+
+  private static class Conflict {
+    private final String key;
+    private final Etag etag;
+    private final List<String> versionIds = new ArrayList<>();
+    private final List<JsonDocument> versions = new ArrayList<>();
+
+    public Conflict(String key, Etag etag) {
+      this.key = key;
+      this.etag = etag;
+    }
+  }
+
+  public static class Result {
+    private final List<String> resolved = new ArrayList<>();
+    private final List<String> unresolved = new ArrayList<>();
+    private final List<String> modifiedConcurrently = new ArrayList<>();
+
+    /**
+     * Keys of documents which conflicts were resolved.
+     */
+    public List<String> getResolved() {
+      return resolved;
+    }
+
+    /**
+     * Keys of documents which conflicts couldn't be resolved automatically.
+     */
+    public List<String> getUnresolved() {
+      return unresolved;
+    }
+
+    /**
+     * Keys of documents which were modified after conflict was fetched, so resolution wasn't written.
+     */
+    public List<String> getModifiedConcurrently() {
+      return modifiedConcurrently;
+    }
+  }
+
+}
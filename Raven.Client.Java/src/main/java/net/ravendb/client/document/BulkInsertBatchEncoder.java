@@ -0,0 +1,78 @@
+package net.ravendb.client.document;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.zip.GZIPOutputStream;
+
+import net.ravendb.abstractions.json.linq.RavenJObject;
+
+import org.apache.commons.lang.ArrayUtils;
+
+import de.undercouch.bson4jackson.BsonFactory;
+import de.undercouch.bson4jackson.BsonGenerator;
+
+/**
+ * Encodes bulk insert batches in format expected by server: documents serialized to BSON,
+ * prefixed with number of documents and gzipped as a whole.
+ *
+ * Buffers are reused between batches, so single instance can't be used concurrently.
+ */
+public class BulkInsertBatchEncoder {
+
+  private final BsonFactory bsonFactory = new BsonFactory();
+  private final ByteArrayOutputStream batchStream = new ByteArrayOutputStream();
+  private final ByteArrayOutputStream bufferedStream = new ByteArrayOutputStream();
+  private BsonGenerator bsonWriter;
+  private int documentCount;
+
+  /**
+   * Starts new batch, documents of previous batch are discarded.
+   */
+  public void startBatch() throws IOException {
+    batchStream.reset();
+    documentCount = 0;
+    bsonWriter = bsonFactory.createJsonGenerator(batchStream);
+    bsonWriter.disable(org.codehaus.jackson.JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+  }
+
+  /**
+   * Adds document to current batch.
+   * @param document
+   */
+  public void write(RavenJObject document) throws IOException {
+    document.writeTo(bsonWriter);
+    documentCount++;
+  }
+
+  /**
+   * Number of documents in current batch.
+   */
+  public int getDocumentCount() {
+    return documentCount;
+  }
+
+  /**
+   * Size (in bytes) of serialized documents of current batch before compression.
+   */
+  public int getSerializedSize() {
+    return batchStream.size();
+  }
+
+  /**
+   * Finishes current batch and returns it gzipped. Returned stream is reused by next batch.
+   */
+  public ByteArrayOutputStream finishBatch() throws IOException {
+    bsonWriter.close();
+    bufferedStream.reset();
+    GZIPOutputStream gzipOutputStream = new GZIPOutputStream(bufferedStream);
+
+    byte[] bytes = ByteBuffer.allocate(4).putInt(documentCount).array();
+    ArrayUtils.reverse(bytes);
+    gzipOutputStream.write(bytes);
+    batchStream.writeTo(gzipOutputStream);
+    gzipOutputStream.finish();
+    bufferedStream.flush();
+    return bufferedStream;
+  }
+}
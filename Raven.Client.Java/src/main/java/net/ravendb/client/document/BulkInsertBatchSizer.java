@@ -0,0 +1,88 @@
+package net.ravendb.client.document;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adjusts size (in serialized bytes) of bulk insert batches using throughput and latency of written batches.
+ *
+ * Size is changed in multiplicative steps in one direction as long as throughput grows, and direction is reversed
+ * when throughput drops. When writing single batch takes longer than max latency (server doesn't keep up)
+ * the size is halved.
+ */
+public class BulkInsertBatchSizer {
+
+  public static final long MIN_BATCH_SIZE_IN_BYTES = 16 * 1024;
+
+  private static final double STEP = 1.5;
+  private static final double TOLERANCE = 0.1;
+
+  private final long minBatchSize;
+  private final long maxBatchSize;
+  private final long maxLatencyNanos;
+
+  private long batchSize;
+  private boolean growing = true;
+  private double lastThroughput;
+
+  /**
+   * @param maxBatchSizeInBytes upper bound of batch size
+   * @param maxLatencyMillis time of writing single batch, after which batch size is reduced
+   */
+  public BulkInsertBatchSizer(long maxBatchSizeInBytes, long maxLatencyMillis) {
+    this.maxBatchSize = Math.max(MIN_BATCH_SIZE_IN_BYTES, maxBatchSizeInBytes);
+    this.minBatchSize = Math.min(MIN_BATCH_SIZE_IN_BYTES, maxBatchSize);
+    this.maxLatencyNanos = TimeUnit.MILLISECONDS.toNanos(maxLatencyMillis);
+    this.batchSize = Math.max(minBatchSize, maxBatchSize / 16);
+  }
+
+  /**
+   * Current target size of batch in bytes.
+   */
+  public long getBatchSizeInBytes() {
+    return batchSize;
+  }
+
+  /**
+   * Records written batch.
+   * @param bytes serialized size of batch
+   * @param elapsedNanos time of writing batch to server
+   * @param full true if batch was closed because it reached target size (other batches are only checked for latency)
+   */
+  public void onBatchWritten(long bytes, long elapsedNanos, boolean full) {
+    if (elapsedNanos > maxLatencyNanos) {
+      setBatchSize(batchSize / 2);
+      growing = false;
+      lastThroughput = 0;
+      return;
+    }
+    if (!full) {
+      return;
+    }
+
+    double throughput = bytes / (double) Math.max(1, elapsedNanos);
+    if (lastThroughput > 0) {
+      if (throughput < lastThroughput * (1 - TOLERANCE)) {
+        // last step made it worse - go back
+        growing = !growing;
+      } else if (throughput <= lastThroughput * (1 + TOLERANCE)) {
+        // no significant change, stay at current size
+        lastThroughput = (lastThroughput + throughput) / 2;
+        return;
+      }
+    }
+    lastThroughput = throughput;
+    setBatchSize(growing ? (long) (batchSize * STEP) : (long) (batchSize / STEP));
+  }
+
+  private void setBatchSize(long size) {
+    if (size >= maxBatchSize) {
+      batchSize = maxBatchSize;
+      growing = false;
+    } else if (size <= minBatchSize) {
+      batchSize = minBatchSize;
+      growing = true;
+    } else {
+      batchSize = size;
+    }
+  }
+}
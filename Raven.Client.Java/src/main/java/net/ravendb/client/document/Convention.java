@@ -3,6 +3,7 @@ package net.ravendb.client.document;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -22,12 +23,13 @@ import net.ravendb.client.delegates.IdentityPropertyFinder;
 import net.ravendb.client.delegates.RequestCachePolicy;
 import net.ravendb.client.indexes.AbstractIndexCreationTask;
 import net.ravendb.client.linq.LinqPathProvider;
+import net.ravendb.client.linq.QueryTranslationCache;
 
 
 @SuppressWarnings("unused")
 public class Convention {
 
-  private Map<Class<?>, Field> idPropertyCache = new HashMap<>();
+  private Map<Class<?>, Field> idPropertyCache = Collections.synchronizedMap(new HashMap<Class<?>, Field>());
 
   private FailoverBehaviorSet failoverBehavior = new FailoverBehaviorSet();
 
@@ -205,8 +207,18 @@ public class Convention {
 
   private List<CustomQueryExpressionTranslator> customQueryTranslators = new ArrayList<>();
 
+  private final QueryTranslationCache queryTranslationCache = new QueryTranslationCache();
+
   public void registerCustomQueryTranslator(CustomQueryExpressionTranslator translator) {
     customQueryTranslators.add(translator);
+    queryTranslationCache.clear();
+  }
+
+  /**
+   * Cache of query member translations (member expression to index field name) shared by all queries using these conventions.
+   */
+  public QueryTranslationCache getQueryTranslationCache() {
+    return queryTranslationCache;
   }
 
   public LinqPathProvider.Result translateCustomQueryExpression(LinqPathProvider provider, Expression<?> expression) {
@@ -232,6 +244,7 @@ public class Convention {
    */
   public void setSaveEnumsAsIntegers(boolean saveEnumsAsIntegers) {
     this.saveEnumsAsIntegers = saveEnumsAsIntegers;
+    queryTranslationCache.clear();
   }
 
 }
@@ -91,6 +91,8 @@ public class DocumentConvention extends Convention implements Serializable {
 
   private boolean useParallelMultiGet;
 
+  private int maxNumberOfLazyOperationsPerRequest;
+
   private boolean shouldAggressiveCacheTrackChanges;
 
   private boolean shouldSaveChangesForceAggressiveCacheCheck;
@@ -113,11 +115,38 @@ public class DocumentConvention extends Convention implements Serializable {
 
   private boolean acceptGzipContent;
 
+  private int maxConnectionsPerRoute;
+
+  private int maxTotalConnections;
+
+  private long connectionIdleTimeout;
+
+  private long connectionTimeToLive;
+
+  private boolean connectionStaleCheckEnabled;
+
+  private int maxConcurrentRequestsPerNode;
+
+  private long concurrencyLimitWaitTimeout;
+
+  private int maxNumberOfCommandsPerShardBatch;
+
+  private boolean useFacetResultsCache;
+
+  private boolean shouldFacetResultsCacheTrackIndexChanges;
+
+  private boolean useSecondLevelCache;
+
+  private transient volatile EntityMetadataRegistry entityMetadataRegistry;
+
   public DocumentConvention() {
 
     setIdentityTypeConvertors(Arrays.<ITypeConverter> asList(new UUIDConverter(), new Int32Converter(), new Int64Converter()));
     setDisableProfiling(true);
     setUseParallelMultiGet(true);
+    setMaxNumberOfLazyOperationsPerRequest(Integer.MAX_VALUE);
+    setMaxNumberOfCommandsPerShardBatch(Integer.MAX_VALUE);
+    setUseFacetResultsCache(true);
     setDefaultQueryingConsistency(ConsistencyOptions.NONE);
     setFailoverBehavior(FailoverBehaviorSet.of(FailoverBehavior.ALLOW_READS_FROM_SECONDARIES));
     setShouldCacheRequest(new RequestCachePolicy() {
@@ -221,6 +250,12 @@ public class DocumentConvention extends Convention implements Serializable {
         IndexAndTransformerReplicationMode.INDEXES,
         IndexAndTransformerReplicationMode.TRANSFORMERS));
     acceptGzipContent = true;
+    setMaxConnectionsPerRoute(0);
+    setMaxTotalConnections(200);
+    setConnectionIdleTimeout(30 * 1000L);
+    setConnectionTimeToLive(0);
+    setMaxConcurrentRequestsPerNode(200);
+    setConcurrencyLimitWaitTimeout(15 * 1000L);
     jsonSerializer = new JsonSerializer(this);
   }
 
@@ -419,7 +454,7 @@ public class DocumentConvention extends Convention implements Serializable {
     if (entity == null) {
       return null;
     }
-    return getTypeTagName(entity.getClass());
+    return getEntityMetadataRegistry().get(entity.getClass()).getTypeTagName();
   }
 
   /**
@@ -467,6 +502,7 @@ public class DocumentConvention extends Convention implements Serializable {
    */
   public void setFindJavaClassName(JavaClassNameFinder findJavaClassName) {
     this.findJavaClassName = findJavaClassName;
+    clearEntityMetadata();
   }
 
   /**
@@ -499,6 +535,31 @@ public class DocumentConvention extends Convention implements Serializable {
    */
   public void setFindTypeTagName(TypeTagNameFinder findTypeTagName) {
     this.findTypeTagName = findTypeTagName;
+    clearEntityMetadata();
+  }
+
+  /**
+   * Per class entity metadata (identity accessors, type tag name, java class name) computed using these conventions.
+   */
+  public EntityMetadataRegistry getEntityMetadataRegistry() {
+    EntityMetadataRegistry registry = entityMetadataRegistry;
+    if (registry == null) {
+      synchronized (this) {
+        registry = entityMetadataRegistry;
+        if (registry == null) {
+          registry = new EntityMetadataRegistry(this);
+          entityMetadataRegistry = registry;
+        }
+      }
+    }
+    return registry;
+  }
+
+  private void clearEntityMetadata() {
+    EntityMetadataRegistry registry = entityMetadataRegistry;
+    if (registry != null) {
+      registry.clear();
+    }
   }
 
   /**
@@ -516,6 +577,7 @@ public class DocumentConvention extends Convention implements Serializable {
    */
   public void setFindPropertyNameForIndex(PropertyNameFinder findPropertyNameForIndex) {
     this.findPropertyNameForIndex = findPropertyNameForIndex;
+    getQueryTranslationCache().clear();
   }
 
   /**
@@ -533,6 +595,7 @@ public class DocumentConvention extends Convention implements Serializable {
    */
   public void setFindPropertyNameForDynamicIndex(PropertyNameFinder findPropertyNameForDynamicIndex) {
     this.findPropertyNameForDynamicIndex = findPropertyNameForDynamicIndex;
+    getQueryTranslationCache().clear();
   }
 
   /**
@@ -616,6 +679,25 @@ public class DocumentConvention extends Convention implements Serializable {
     this.useParallelMultiGet = useParallelMultiGet;
   }
 
+  /**
+   * Gets the max number of lazy operations sent in single multi get request.
+   * When session has more pending lazy operations they are split into several
+   * multi get requests executed concurrently.
+   */
+  public int getMaxNumberOfLazyOperationsPerRequest() {
+    return maxNumberOfLazyOperationsPerRequest;
+  }
+
+  /**
+   * Sets the max number of lazy operations sent in single multi get request.
+   * When session has more pending lazy operations they are split into several
+   * multi get requests executed concurrently.
+   * @param maxNumberOfLazyOperationsPerRequest
+   */
+  public void setMaxNumberOfLazyOperationsPerRequest(int maxNumberOfLazyOperationsPerRequest) {
+    this.maxNumberOfLazyOperationsPerRequest = maxNumberOfLazyOperationsPerRequest;
+  }
+
   /**
    * Register an id convention for a single type (and all of its derived types.
    * Note that you can still fall back to the DocumentKeyGenerator if you want.
@@ -869,4 +951,197 @@ public class DocumentConvention extends Convention implements Serializable {
     this.acceptGzipContent = acceptGzipContent;
   }
 
+  /**
+   * Gets the max number of HTTP connections to single server.
+   * Value &lt;= 0 means that limit is sized automatically: it starts at 10 and grows (up to max total connections)
+   * when requests have to wait for a connection.
+   */
+  public int getMaxConnectionsPerRoute() {
+    return maxConnectionsPerRoute;
+  }
+
+  /**
+   * Sets the max number of HTTP connections to single server.
+   * Value &lt;= 0 means that limit is sized automatically: it starts at 10 and grows (up to max total connections)
+   * when requests have to wait for a connection.
+   * @param maxConnectionsPerRoute
+   */
+  public void setMaxConnectionsPerRoute(int maxConnectionsPerRoute) {
+    this.maxConnectionsPerRoute = maxConnectionsPerRoute;
+  }
+
+  /**
+   * Gets the max number of HTTP connections to all servers.
+   */
+  public int getMaxTotalConnections() {
+    return maxTotalConnections;
+  }
+
+  /**
+   * Sets the max number of HTTP connections to all servers.
+   * @param maxTotalConnections
+   */
+  public void setMaxTotalConnections(int maxTotalConnections) {
+    this.maxTotalConnections = maxTotalConnections;
+  }
+
+  /**
+   * Gets the time (in milliseconds) after which idle HTTP connection is closed by background reaper.
+   * It is also used as keep alive time when server doesn't send one. Value &lt;= 0 disables eviction of idle connections.
+   */
+  public long getConnectionIdleTimeout() {
+    return connectionIdleTimeout;
+  }
+
+  /**
+   * Sets the time (in milliseconds) after which idle HTTP connection is closed by background reaper.
+   * It is also used as keep alive time when server doesn't send one. Value &lt;= 0 disables eviction of idle connections.
+   * @param connectionIdleTimeout
+   */
+  public void setConnectionIdleTimeout(long connectionIdleTimeout) {
+    this.connectionIdleTimeout = connectionIdleTimeout;
+  }
+
+  /**
+   * Gets the max time (in milliseconds) HTTP connection can be reused. Value &lt;= 0 means no limit.
+   */
+  public long getConnectionTimeToLive() {
+    return connectionTimeToLive;
+  }
+
+  /**
+   * Sets the max time (in milliseconds) HTTP connection can be reused. Value &lt;= 0 means no limit.
+   * @param connectionTimeToLive
+   */
+  public void setConnectionTimeToLive(long connectionTimeToLive) {
+    this.connectionTimeToLive = connectionTimeToLive;
+  }
+
+  /**
+   * Whatever pooled HTTP connection should be validated before it is reused.
+   * Check costs additional time on every request, so it is disabled by default.
+   */
+  public boolean isConnectionStaleCheckEnabled() {
+    return connectionStaleCheckEnabled;
+  }
+
+  /**
+   * Whatever pooled HTTP connection should be validated before it is reused.
+   * Check costs additional time on every request, so it is disabled by default.
+   * @param connectionStaleCheckEnabled
+   */
+  public void setConnectionStaleCheckEnabled(boolean connectionStaleCheckEnabled) {
+    this.connectionStaleCheckEnabled = connectionStaleCheckEnabled;
+  }
+
+  /**
+   * Gets the upper bound of concurrent requests sent to single server.
+   * Actual limit adapts to server load: it starts at 20, grows while requests succeed
+   * and drops when server gets slower than usual (recent latency is more than twice the long term one),
+   * requests time out, server is unavailable or overloaded (503). Value &lt;= 0 disables the limit.
+   */
+  public int getMaxConcurrentRequestsPerNode() {
+    return maxConcurrentRequestsPerNode;
+  }
+
+  /**
+   * Sets the upper bound of concurrent requests sent to single server.
+   * Actual limit adapts to server load: it starts at 20, grows while requests succeed
+   * and drops when server gets slower than usual (recent latency is more than twice the long term one),
+   * requests time out, server is unavailable or overloaded (503). Value &lt;= 0 disables the limit.
+   * @param maxConcurrentRequestsPerNode
+   */
+  public void setMaxConcurrentRequestsPerNode(int maxConcurrentRequestsPerNode) {
+    this.maxConcurrentRequestsPerNode = maxConcurrentRequestsPerNode;
+  }
+
+  /**
+   * Gets the max time (in milliseconds) request waits for free slot when server already handles max number
+   * of concurrent requests. Value 0 means such requests fail immediately with ConcurrencyLimitExceededException.
+   */
+  public long getConcurrencyLimitWaitTimeout() {
+    return concurrencyLimitWaitTimeout;
+  }
+
+  /**
+   * Sets the max time (in milliseconds) request waits for free slot when server already handles max number
+   * of concurrent requests. Value 0 means such requests fail immediately with ConcurrencyLimitExceededException.
+   * @param concurrencyLimitWaitTimeout
+   */
+  public void setConcurrencyLimitWaitTimeout(long concurrencyLimitWaitTimeout) {
+    this.concurrencyLimitWaitTimeout = concurrencyLimitWaitTimeout;
+  }
+
+  /**
+   * Gets the max number of commands sent to single shard in one batch request during sharded save changes.
+   * Larger batches are split into several requests sent one after another (each of them is committed separately).
+   */
+  public int getMaxNumberOfCommandsPerShardBatch() {
+    return maxNumberOfCommandsPerShardBatch;
+  }
+
+  /**
+   * Sets the max number of commands sent to single shard in one batch request during sharded save changes.
+   * Larger batches are split into several requests sent one after another (each of them is committed separately).
+   * @param maxNumberOfCommandsPerShardBatch
+   */
+  public void setMaxNumberOfCommandsPerShardBatch(int maxNumberOfCommandsPerShardBatch) {
+    this.maxNumberOfCommandsPerShardBatch = maxNumberOfCommandsPerShardBatch;
+  }
+
+  /**
+   * Whatever or not facet and suggestion results should be cached by client (keyed by index, query and facets).
+   * Cached results are revalidated with etag check, so server doesn't compute facets again when index didn't change.
+   */
+  public boolean isUseFacetResultsCache() {
+    return useFacetResultsCache;
+  }
+
+  /**
+   * Whatever or not facet and suggestion results should be cached by client (keyed by index, query and facets).
+   * Cached results are revalidated with etag check, so server doesn't compute facets again when index didn't change.
+   * @param useFacetResultsCache
+   */
+  public void setUseFacetResultsCache(boolean useFacetResultsCache) {
+    this.useFacetResultsCache = useFacetResultsCache;
+  }
+
+  /**
+   * Whatever or not facet results cache should use Changes API to track index changes. When enabled, cached
+   * results of indexes which didn't change are returned without asking server at all (it is still possible to get
+   * stale result because of the time needed to receive the notification).
+   */
+  public boolean isShouldFacetResultsCacheTrackIndexChanges() {
+    return shouldFacetResultsCacheTrackIndexChanges;
+  }
+
+  /**
+   * Whatever or not facet results cache should use Changes API to track index changes. When enabled, cached
+   * results of indexes which didn't change are returned without asking server at all (it is still possible to get
+   * stale result because of the time needed to receive the notification).
+   * @param shouldFacetResultsCacheTrackIndexChanges
+   */
+  public void setShouldFacetResultsCacheTrackIndexChanges(boolean shouldFacetResultsCacheTrackIndexChanges) {
+    this.shouldFacetResultsCacheTrackIndexChanges = shouldFacetResultsCacheTrackIndexChanges;
+  }
+
+  /**
+   * Whatever or not documents loaded by id should be kept in store wide cache shared by all sessions.
+   * Document changes are tracked using Changes API, so cached documents are loaded without asking server
+   * (it is still possible to get stale document because of the time needed to receive the notification).
+   */
+  public boolean isUseSecondLevelCache() {
+    return useSecondLevelCache;
+  }
+
+  /**
+   * Whatever or not documents loaded by id should be kept in store wide cache shared by all sessions.
+   * Document changes are tracked using Changes API, so cached documents are loaded without asking server
+   * (it is still possible to get stale document because of the time needed to receive the notification).
+   * @param useSecondLevelCache
+   */
+  public void setUseSecondLevelCache(boolean useSecondLevelCache) {
+    this.useSecondLevelCache = useSecondLevelCache;
+  }
+
 }
@@ -8,6 +8,7 @@ import net.ravendb.abstractions.basic.Lazy;
 import net.ravendb.abstractions.basic.Reference;
 import net.ravendb.abstractions.basic.SharpEnum;
 import net.ravendb.abstractions.basic.Tuple;
+import net.ravendb.abstractions.closure.Function0;
 import net.ravendb.abstractions.data.Constants;
 import net.ravendb.abstractions.data.Facet;
 import net.ravendb.abstractions.data.FacetResults;
@@ -19,7 +20,9 @@ import net.ravendb.abstractions.json.linq.RavenJToken;
 import net.ravendb.client.EscapeQueryOptions;
 import net.ravendb.client.FieldHighlightings;
 import net.ravendb.client.IDocumentQuery;
+import net.ravendb.client.connection.FacetResultsCache;
 import net.ravendb.client.connection.IDatabaseCommands;
+import net.ravendb.client.connection.ServerClient;
 import net.ravendb.client.indexes.AbstractTransformerCreationTask;
 import net.ravendb.client.linq.EnumerableUtils;
 import net.ravendb.client.listeners.IDocumentQueryListener;
@@ -494,8 +497,7 @@ public class DocumentQuery<T> extends AbstractDocumentQuery<T, DocumentQuery<T>>
     IndexQuery indexQuery = getIndexQuery();
 
     LazyFacetsOperation lazyOperation = new LazyFacetsOperation(getIndexQueried(), facetSetupDoc, indexQuery, start, pageSize);
-    DocumentSession documentSession = (DocumentSession) getSession();
-    return documentSession.addLazyOperation(lazyOperation, null);
+    return addLazyFacetsOperation(lazyOperation);
   }
 
   @Override
@@ -517,6 +519,24 @@ public class DocumentQuery<T> extends AbstractDocumentQuery<T, DocumentQuery<T>>
     }
     IndexQuery indexQuery = getIndexQuery();
     LazyFacetsOperation lazyOperation = new LazyFacetsOperation(getIndexQueried(), facets, indexQuery, start, pageSize);
+    return addLazyFacetsOperation(lazyOperation);
+  }
+
+  private Lazy<FacetResults> addLazyFacetsOperation(final LazyFacetsOperation lazyOperation) {
+    if (theDatabaseCommands instanceof ServerClient) {
+      ServerClient serverClient = (ServerClient) theDatabaseCommands;
+      FacetResultsCache resultsCache = serverClient.getFacetResultsCache();
+      // multi get might be served by secondary node, which index changes aren't observed
+      boolean primaryOnly = serverClient.getReplicationInformer().getReplicationDestinationsUrls().isEmpty();
+      if (resultsCache != null && lazyOperation.useResultsCache(resultsCache, serverClient.getUrl(), primaryOnly)) {
+        return new Lazy<>(new Function0<FacetResults>() {
+          @Override
+          public FacetResults apply() {
+            return (FacetResults) lazyOperation.getResult();
+          }
+        });
+      }
+    }
     DocumentSession documentSession = (DocumentSession) getSession();
     return documentSession.addLazyOperation(lazyOperation, null);
   }
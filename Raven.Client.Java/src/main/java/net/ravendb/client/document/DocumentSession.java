@@ -4,7 +4,9 @@ import com.google.common.base.Defaults;
 import com.mysema.query.types.Expression;
 import net.ravendb.abstractions.basic.*;
 import net.ravendb.abstractions.closure.Action1;
+import net.ravendb.abstractions.closure.Action2;
 import net.ravendb.abstractions.closure.Function0;
+import net.ravendb.abstractions.closure.Function1;
 import net.ravendb.abstractions.data.*;
 import net.ravendb.abstractions.exceptions.ConcurrencyException;
 import net.ravendb.abstractions.json.linq.RavenJObject;
@@ -12,7 +14,9 @@ import net.ravendb.abstractions.json.linq.RavenJToken;
 import net.ravendb.client.*;
 import net.ravendb.client.connection.IDatabaseCommands;
 import net.ravendb.client.connection.IRavenQueryInspector;
+import net.ravendb.client.connection.OperationMetadata;
 import net.ravendb.client.connection.SerializationHelper;
+import net.ravendb.client.connection.ServerClient;
 import net.ravendb.client.document.batches.IEagerSessionOperations;
 import net.ravendb.client.document.batches.ILazyOperation;
 import net.ravendb.client.document.batches.ILazySessionOperations;
@@ -26,11 +30,21 @@ import net.ravendb.client.indexes.AbstractIndexCreationTask;
 import net.ravendb.client.indexes.AbstractTransformerCreationTask;
 import net.ravendb.client.linq.*;
 import net.ravendb.client.shard.ShardReduceFunction;
+import net.ravendb.client.streaming.PartitionedStreamIterator;
+import net.ravendb.client.streaming.Publisher;
+import net.ravendb.client.streaming.ReadAheadPublisher;
+import net.ravendb.client.streaming.StreamPartition;
+import net.ravendb.client.streaming.StreamingOptions;
+import net.ravendb.client.util.CaseInsensitiveHashMap;
 import org.apache.commons.lang.NullArgumentException;
 import org.apache.commons.lang.StringUtils;
 
 import java.lang.reflect.Array;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Implements Unit of Work for accessing the RavenDB server
@@ -42,6 +56,12 @@ public class DocumentSession extends InMemoryDocumentSessionOperations
 
   private IDatabaseCommands databaseCommands;
 
+  private final DocumentStore documentStore;
+
+  // created on first lazy operation
+  private List<ILazyOperation> pendingLazyOperations;
+  private Map<ILazyOperation, Action1<Object>> onEvaluateLazy;
+
   /**
    * Gets the database commands.
    */
@@ -78,6 +98,7 @@ public class DocumentSession extends InMemoryDocumentSessionOperations
       UUID id,
       IDatabaseCommands databaseCommands) {
     super(dbName, documentStore, listeners, id);
+    this.documentStore = documentStore;
     this.databaseCommands = databaseCommands;
   }
 
@@ -112,15 +133,18 @@ public class DocumentSession extends InMemoryDocumentSessionOperations
     if (isDeleted(id)) {
       return Defaults.defaultValue(clazz);
     }
-    Object existingEntity;
-    if (entitiesByKey.containsKey(id)) {
-      existingEntity = entitiesByKey.get(id);
+    Object existingEntity = entitiesByKey.getOrNull(id);
+    if (existingEntity != null) {
       return (T) existingEntity;
     }
 
-    if (includedDocumentsByKey.containsKey(id)) {
-      JsonDocument value = includedDocumentsByKey.get(id);
-      includedDocumentsByKey.remove(id);
+    JsonDocument value = includedDocumentsByKey.remove(id);
+    if (value != null) {
+      return (T) trackEntity(clazz, value);
+    }
+
+    value = getFromSecondLevelCache(id);
+    if (value != null) {
       return (T) trackEntity(clazz, value);
     }
 
@@ -291,10 +315,15 @@ public class DocumentSession extends InMemoryDocumentSessionOperations
     }
 
     // only load documents that aren't already cached
-    Set<String> idsOfNotExistingObjects = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+    Set<String> idsOfNotExistingObjects = Collections.newSetFromMap(new CaseInsensitiveHashMap<Boolean>(ids.length));
     for (String id: ids) {
       if (!isLoaded(id) && !isDeleted(id)) {
-        idsOfNotExistingObjects.add(id);
+        JsonDocument cached = getFromSecondLevelCache(id);
+        if (cached != null) {
+          trackEntity(clazz, cached);
+        } else {
+          idsOfNotExistingObjects.add(id);
+        }
       }
     }
 
@@ -547,16 +576,90 @@ public class DocumentSession extends InMemoryDocumentSessionOperations
     IRavenQueryInspector ravenQueryInspector = (IRavenQueryInspector) query;
     IndexQuery indexQuery = ravenQueryInspector.getIndexQuery();
 
+    assertStreamingQueryDoesNotWait(indexQuery);
+    incrementRequestCount();
+
+    CloseableIterator<RavenJObject> iterator = databaseCommands.streamQuery(ravenQueryInspector.getIndexQueried(), indexQuery, queryHeaderInformation);
+    return new StreamIterator<>(query, iterator);
+  }
+
+  private void assertStreamingQueryDoesNotWait(IndexQuery indexQuery) {
     boolean waitForNonStaleResultsWasSetGloably = advanced().getDocumentStore().getConventions().getDefaultQueryingConsistency() == ConsistencyOptions.ALWAYS_WAIT_FOR_NON_STALE_RESULTS_AS_OF_LAST_WRITE;
 
     if (!waitForNonStaleResultsWasSetGloably && (indexQuery.isWaitForNonStaleResults() || indexQuery.isWaitForNonStaleResultsAsOfNow())) {
       throw new IllegalArgumentException(
           "Since stream() does not wait for indexing (by design), streaming query with WaitForNonStaleResults is not supported.");
     }
+  }
+
+  @SuppressWarnings("unchecked")
+  @Override
+  public <T> Publisher<StreamResult<T>> streamPublisher(IRavenQueryable<T> query, StreamingOptions options) {
+    IRavenQueryProvider queryProvider = (IRavenQueryProvider)query.getProvider();
+    IDocumentQuery<T> docQuery = (IDocumentQuery<T>) queryProvider.toDocumentQuery(query.getElementType(), query.getExpression());
+    return streamPublisher(docQuery, options);
+  }
+
+  @Override
+  public <T> Publisher<StreamResult<T>> streamPublisher(IDocumentQuery<T> query, StreamingOptions options) {
+    final IRavenQueryInspector ravenQueryInspector = (IRavenQueryInspector) query;
+    final IndexQuery indexQuery = ravenQueryInspector.getIndexQuery();
+
+    assertStreamingQueryDoesNotWait(indexQuery);
     incrementRequestCount();
 
-    CloseableIterator<RavenJObject> iterator = databaseCommands.streamQuery(ravenQueryInspector.getIndexQueried(), indexQuery, queryHeaderInformation);
-    return new StreamIterator<>(query, iterator);
+    final DocumentQuery<T> documentQuery = (DocumentQuery<T>) query;
+    final QueryOperation queryOperation = documentQuery.initializeQueryOperation();
+    queryOperation.setDisableEntitiesTracking(true);
+
+    Function0<CloseableIterator<RavenJObject>> source = new Function0<CloseableIterator<RavenJObject>>() {
+      @SuppressWarnings("synthetic-access")
+      @Override
+      public CloseableIterator<RavenJObject> apply() {
+        CloseableIterator<RavenJObject> iterator = databaseCommands.streamQuery(ravenQueryInspector.getIndexQueried(), indexQuery, new Reference<QueryHeaderInformation>());
+        // listeners are invoked by reading thread, so they observe documents in order
+        return new AfterStreamExecutedIterator(documentQuery, iterator);
+      }
+    };
+    Function1<RavenJObject, StreamResult<T>> converter = new Function1<RavenJObject, StreamResult<T>>() {
+      @Override
+      public StreamResult<T> apply(RavenJObject input) {
+        return StreamIterator.toStreamResult(documentQuery, queryOperation, input);
+      }
+    };
+    return new ReadAheadPublisher<>(source, converter, documentStore.getExecutorService(), options);
+  }
+
+  private static class AfterStreamExecutedIterator implements CloseableIterator<RavenJObject> {
+    private final DocumentQuery<?> query;
+    private final CloseableIterator<RavenJObject> innerIterator;
+
+    public AfterStreamExecutedIterator(DocumentQuery<?> query, CloseableIterator<RavenJObject> innerIterator) {
+      this.query = query;
+      this.innerIterator = innerIterator;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return innerIterator.hasNext();
+    }
+
+    @Override
+    public RavenJObject next() {
+      RavenJObject nextValue = innerIterator.next();
+      query.invokeAfterStreamExecuted(new Reference<>(nextValue));
+      return nextValue;
+    }
+
+    @Override
+    public void close() {
+      innerIterator.close();
+    }
+
+    @Override
+    public void remove() {
+      throw new IllegalStateException("Not implemented!");
+    }
   }
 
 
@@ -588,6 +691,10 @@ public class DocumentSession extends InMemoryDocumentSessionOperations
     public StreamResult<T> next() {
       RavenJObject nextValue = innerIterator.next();
       query.invokeAfterStreamExecuted(new Reference<>(nextValue));
+      return toStreamResult(query, queryOperation, nextValue);
+    }
+
+    public static <T> StreamResult<T> toStreamResult(DocumentQuery<T> query, QueryOperation queryOperation, RavenJObject nextValue) {
       RavenJObject meta = nextValue.value(RavenJObject.class, Constants.METADATA);
 
       String key = null;
@@ -664,6 +771,66 @@ public class DocumentSession extends InMemoryDocumentSessionOperations
     return new SimpleSteamIterator<>(iterator, entityClass);
   }
 
+  @Override
+  public <T> Publisher<StreamResult<T>> streamPublisher(Class<T> entityClass, final Etag fromEtag, final String startsWith, StreamingOptions options) {
+    incrementRequestCount();
+    Function0<CloseableIterator<RavenJObject>> source = new Function0<CloseableIterator<RavenJObject>>() {
+      @SuppressWarnings("synthetic-access")
+      @Override
+      public CloseableIterator<RavenJObject> apply() {
+        return databaseCommands.streamDocs(fromEtag, startsWith, null, 0, Integer.MAX_VALUE, null, null, null);
+      }
+    };
+    final Class<T> resultClass = entityClass;
+    Function1<RavenJObject, StreamResult<T>> converter = new Function1<RavenJObject, StreamResult<T>>() {
+      @SuppressWarnings("synthetic-access")
+      @Override
+      public StreamResult<T> apply(RavenJObject input) {
+        return toStreamResult(resultClass, input);
+      }
+    };
+    return new ReadAheadPublisher<>(source, converter, documentStore.getExecutorService(), options);
+  }
+
+  @Override
+  public <T> PartitionedStreamIterator<T> streamPartitioned(final Class<T> entityClass, List<StreamPartition> partitions, StreamingOptions options) {
+    if (options == null) {
+      options = new StreamingOptions();
+    }
+    incrementRequestCount();
+
+    final List<OperationMetadata> nodes = new ArrayList<>();
+    if (options.isReadFromReplicas() && databaseCommands instanceof ServerClient) {
+      ServerClient serverClient = (ServerClient) databaseCommands;
+      nodes.add(new OperationMetadata(serverClient.getUrl(), serverClient.getPrimaryCredentials()));
+      nodes.addAll(serverClient.getReplicationInformer().getReplicationDestinationsUrls());
+    }
+    final AtomicInteger nextNode = new AtomicInteger();
+
+    Function1<StreamPartition, CloseableIterator<RavenJObject>> source = new Function1<StreamPartition, CloseableIterator<RavenJObject>>() {
+      @SuppressWarnings("synthetic-access")
+      @Override
+      public CloseableIterator<RavenJObject> apply(StreamPartition partition) {
+        if (partition.isEtagRange() || nodes.size() <= 1) {
+          return databaseCommands.streamDocs(partition.getFromEtag(), partition.getStartsWith(), partition.getMatches(), 0,
+            partition.getMaxDocuments(), null, null, partition.getSkipAfter());
+        }
+        // key prefix partitions are spread over primary and replicas
+        OperationMetadata node = nodes.get(nextNode.getAndIncrement() % nodes.size());
+        return ((ServerClient) databaseCommands).directStreamDocs(node, null, partition.getStartsWith(), partition.getMatches(), 0,
+          Integer.MAX_VALUE, null, null, partition.getSkipAfter());
+      }
+    };
+    Function1<RavenJObject, StreamResult<T>> converter = new Function1<RavenJObject, StreamResult<T>>() {
+      @SuppressWarnings("synthetic-access")
+      @Override
+      public StreamResult<T> apply(RavenJObject input) {
+        return toStreamResult(entityClass, input);
+      }
+    };
+    return new PartitionedStreamIterator<>(partitions, source, converter, documentStore.getExecutorService(), options);
+  }
+
   @Override
   public FacetResults[] multiFacetedSearch(FacetQuery...facetQueries) {
     incrementRequestCount();
@@ -692,20 +859,12 @@ public class DocumentSession extends InMemoryDocumentSessionOperations
       innerIterator.close();
     }
 
-    @SuppressWarnings("unchecked")
     @Override
     public StreamResult<T> next() {
       if (closed) {
         throw new IllegalStateException("Stream is closed");
       }
-      RavenJObject next = innerIterator.next();
-      JsonDocument document = SerializationHelper.ravenJObjectToJsonDocument(next);
-      StreamResult<T> streamResult = new StreamResult<>();
-      streamResult.setDocument((T) convertToEntity(entityClass, document.getKey(), document.getDataAsJson(), document.getMetadata(), false));
-      streamResult.setEtag(document.getEtag());
-      streamResult.setKey(document.getKey());
-      streamResult.setMetadata(document.getMetadata());
-      return streamResult;
+      return toStreamResult(entityClass, innerIterator.next());
     }
 
     @Override
@@ -714,12 +873,23 @@ public class DocumentSession extends InMemoryDocumentSessionOperations
     }
   }
 
+  @SuppressWarnings("unchecked")
+  private <T> StreamResult<T> toStreamResult(Class<T> entityClass, RavenJObject next) {
+    JsonDocument document = SerializationHelper.ravenJObjectToJsonDocument(next);
+    StreamResult<T> streamResult = new StreamResult<>();
+    streamResult.setDocument((T) convertToEntity(entityClass, document.getKey(), document.getDataAsJson(), document.getMetadata(), true));
+    streamResult.setEtag(document.getEtag());
+    streamResult.setKey(document.getKey());
+    streamResult.setMetadata(document.getMetadata());
+    return streamResult;
+  }
+
   /**
    * Saves all the changes to the Raven server.
    */
   @Override
   public void saveChanges() {
-    try (CleanCloseable scope = entityToJson.entitiesToJsonCachingScope()) {
+    try (CleanCloseable scope = getEntityToJson().entitiesToJsonCachingScope()) {
       SaveChangesData data = prepareForSaveChanges();
 
       if (data.getCommands().size() == 0) {
@@ -798,9 +968,16 @@ public class DocumentSession extends InMemoryDocumentSessionOperations
     return new RavenQueryInspector<S>();
   }
 
+  private void addPendingLazyOperation(ILazyOperation operation) {
+    if (pendingLazyOperations == null) {
+      pendingLazyOperations = new ArrayList<>();
+    }
+    pendingLazyOperations.add(operation);
+  }
+
   @SuppressWarnings("unchecked")
   public <T> Lazy<T> addLazyOperation(final ILazyOperation operation, final Action1<T> onEval) {
-    pendingLazyOperations.add(operation);
+    addPendingLazyOperation(operation);
     Lazy<T> lazyValue = new Lazy<>(new Function0<T>() {
       @Override
       public T apply() {
@@ -810,6 +987,9 @@ public class DocumentSession extends InMemoryDocumentSessionOperations
     });
 
     if (onEval != null) {
+      if (onEvaluateLazy == null) {
+        onEvaluateLazy = new HashMap<>();
+      }
       onEvaluateLazy.put(operation, new Action1<Object>() {
         @Override
         public void apply(Object theResult) {
@@ -822,7 +1002,7 @@ public class DocumentSession extends InMemoryDocumentSessionOperations
 
   public Lazy<Integer> addLazyCountOperation(final ILazyOperation operation)
   {
-      pendingLazyOperations.add(operation);
+      addPendingLazyOperation(operation);
 
       Lazy<Integer> lazyValue = new Lazy<>(new Function0<Integer>() {
         @SuppressWarnings("boxing")
@@ -862,7 +1042,7 @@ public class DocumentSession extends InMemoryDocumentSessionOperations
   @SuppressWarnings("boxing")
   @Override
   public ResponseTimeInformation executeAllPendingLazyOperations() {
-    if (pendingLazyOperations.size() == 0)
+    if (pendingLazyOperations == null || pendingLazyOperations.size() == 0)
       return new ResponseTimeInformation();
 
     try {
@@ -871,14 +1051,19 @@ public class DocumentSession extends InMemoryDocumentSessionOperations
       ResponseTimeInformation responseTimeDuration = new ResponseTimeInformation();
       long time1 = new Date().getTime();
       try {
-        while (executeLazyOperationsSingleStep(responseTimeDuration)) {
+        List<ILazyOperation> operationsToExecute = new ArrayList<>(pendingLazyOperations);
+        while (true) {
+          operationsToExecute = executeLazyOperationsSingleStep(responseTimeDuration, operationsToExecute);
+          if (operationsToExecute.isEmpty()) {
+            break;
+          }
           Thread.sleep(100);
         }
       } catch (InterruptedException e) {
         throw new RuntimeException(e);
       }
       for (ILazyOperation pendingLazyOperation : pendingLazyOperations) {
-        if (onEvaluateLazy.containsKey(pendingLazyOperation)) {
+        if (onEvaluateLazy != null && onEvaluateLazy.containsKey(pendingLazyOperation)) {
           onEvaluateLazy.get(pendingLazyOperation).apply(pendingLazyOperation.getResult());
         }
       }
@@ -892,11 +1077,15 @@ public class DocumentSession extends InMemoryDocumentSessionOperations
     }
   }
 
-  @SuppressWarnings("boxing")
-  private boolean executeLazyOperationsSingleStep(ResponseTimeInformation responseTimeInformation) {
+  /**
+   * Executes given lazy operations, every response is handed to its operation as soon as it is read.
+   * @return operations which have to be re-issued
+   */
+  private List<ILazyOperation> executeLazyOperationsSingleStep(final ResponseTimeInformation responseTimeInformation,
+    List<ILazyOperation> operations) throws InterruptedException {
 
     List<CleanCloseable> disposables = new ArrayList<>();
-    for (ILazyOperation lazyOp: pendingLazyOperations) {
+    for (ILazyOperation lazyOp: operations) {
       CleanCloseable context = lazyOp.enterContext();
       if (context != null) {
         disposables.add(context);
@@ -904,14 +1093,70 @@ public class DocumentSession extends InMemoryDocumentSessionOperations
     }
 
     try {
-      List<GetRequest> requests = new ArrayList<>();
-      for (ILazyOperation lazyOp: pendingLazyOperations) {
-        requests.add(lazyOp.createRequest());
+      List<ILazyOperation> operationsToRetry = new ArrayList<>();
+      int maxOperationsPerRequest = getConventions().getMaxNumberOfLazyOperationsPerRequest();
+      if (operations.size() <= maxOperationsPerRequest) {
+        executeLazyOperationsBatch(responseTimeInformation, operations, operationsToRetry);
+      } else {
+        executeLazyOperationsInParallel(responseTimeInformation, operations, operationsToRetry, maxOperationsPerRequest);
+      }
+      return operationsToRetry;
+    } finally {
+      for (CleanCloseable closable: disposables) {
+        closable.close();
       }
-      GetResponse[] responses = databaseCommands.multiGet(requests.toArray(new GetRequest[0]));
-      for (int i = 0; i < pendingLazyOperations.size(); i++) {
+    }
+  }
+
+  private void executeLazyOperationsInParallel(final ResponseTimeInformation responseTimeInformation, List<ILazyOperation> operations,
+    final List<ILazyOperation> operationsToRetry, int maxOperationsPerRequest) throws InterruptedException {
+    // caching settings are thread bound, so we have to pass them to worker threads
+    final Function0<CleanCloseable> threadSettings = documentStore.getJsonRequestFactory().captureThreadSettings();
+
+    List<Callable<Void>> tasks = new ArrayList<>();
+    for (int start = 0; start < operations.size(); start += maxOperationsPerRequest) {
+      final List<ILazyOperation> batch = operations.subList(start, Math.min(operations.size(), start + maxOperationsPerRequest));
+      tasks.add(new Callable<Void>() {
+        @SuppressWarnings("synthetic-access")
+        @Override
+        public Void call() throws Exception {
+          try (CleanCloseable settings = threadSettings.apply()) {
+            executeLazyOperationsBatch(responseTimeInformation, batch, operationsToRetry);
+          }
+          return null;
+        }
+      });
+    }
 
-        String tempRequestTime = responses[0].getHeaders().get("Temp-Request-Time");
+    for (Future<Void> future : documentStore.getExecutorService().invokeAll(tasks)) {
+      try {
+        future.get();
+      } catch (ExecutionException e) {
+        if (e.getCause() instanceof RuntimeException) {
+          throw (RuntimeException) e.getCause();
+        }
+        throw new RuntimeException(e.getCause());
+      }
+    }
+  }
+
+  /**
+   * Sends lazy operations in single multi get request. Responses might be handled by multiple threads
+   * at once (when batch was split), so access to session state is serialized using responseTimeInformation as lock.
+   */
+  private void executeLazyOperationsBatch(final ResponseTimeInformation responseTimeInformation, final List<ILazyOperation> operations,
+    final List<ILazyOperation> operationsToRetry) {
+    final GetRequest[] requests = new GetRequest[operations.size()];
+    for (int i = 0; i < requests.length; i++) {
+      requests[i] = operations.get(i).createRequest();
+    }
+    documentStore.getJsonRequestFactory().getMetrics().lazyOperationsExecuted(requests.length);
+
+    databaseCommands.multiGet(requests, new Action2<Integer, GetResponse>() {
+      @SuppressWarnings("boxing")
+      @Override
+      public void apply(Integer index, GetResponse response) {
+        String tempRequestTime = response.getHeaders().get("Temp-Request-Time");
         Long parsedValue = 0L;
         try {
           parsedValue = Long.parseLong(tempRequestTime);
@@ -919,26 +1164,26 @@ public class DocumentSession extends InMemoryDocumentSessionOperations
           // ignore
         }
         ResponseTimeInformation.ResponseTimeItem responseTimeItem = new ResponseTimeInformation.ResponseTimeItem();
-        responseTimeItem.setUrl(requests.get(i).getUrlAndQuery());
+        responseTimeItem.setUrl(requests[index].getUrlAndQuery());
         responseTimeItem.setDuration(parsedValue);
-        responseTimeInformation.getDurationBreakdown().add(responseTimeItem);
 
-        if (responses[i].isRequestHasErrors()) {
-          throw new IllegalStateException("Got an error from server, status code: " + responses[i].getStatus()  + "\n" + responses[i].getResult());
+        if (response.isRequestHasErrors()) {
+          throw new IllegalStateException("Got an error from server, status code: " + response.getStatus()  + "\n" + response.getResult());
         }
-        pendingLazyOperations.get(i).handleResponse(responses[i]);
-        if (pendingLazyOperations.get(i).isRequiresRetry()) {
-          return true;
+
+        synchronized (responseTimeInformation) {
+          responseTimeInformation.getDurationBreakdown().add(responseTimeItem);
+          ILazyOperation lazyOperation = operations.get(index);
+          lazyOperation.handleResponse(response);
+          if (lazyOperation.isRequiresRetry()) {
+            operationsToRetry.add(lazyOperation);
+          }
         }
       }
-      return false;
-    } finally {
-      for (CleanCloseable closable: disposables) {
-        closable.close();
-      }
-    }
+    });
   }
 
+
   @Override
   public <T> T[] loadStartingWith(Class<T> clazz, String keyPrefix) {
     return loadStartingWith(clazz, keyPrefix, null, 0, 25);
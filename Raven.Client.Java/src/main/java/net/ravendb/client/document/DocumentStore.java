@@ -2,6 +2,7 @@ package net.ravendb.client.document;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -9,6 +10,16 @@ import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
 
 import net.ravendb.abstractions.basic.CleanCloseable;
 import net.ravendb.abstractions.basic.EventHandler;
@@ -34,6 +45,8 @@ import net.ravendb.client.IDocumentSession;
 import net.ravendb.client.IDocumentStore;
 import net.ravendb.client.changes.IDatabaseChanges;
 import net.ravendb.client.changes.RemoteDatabaseChanges;
+import net.ravendb.client.connection.ExecutorBackedDatabaseCommands;
+import net.ravendb.client.connection.IAsyncDatabaseCommands;
 import net.ravendb.client.connection.IDatabaseCommands;
 import net.ravendb.client.connection.IDocumentStoreReplicationInformer;
 import net.ravendb.client.connection.OperationMetadata;
@@ -43,7 +56,11 @@ import net.ravendb.client.connection.profiling.RequestResultArgs;
 import net.ravendb.client.delegates.HttpResponseWithMetaHandler;
 import net.ravendb.client.extensions.MultiDatabase;
 import net.ravendb.client.extensions.SecurityExtensions;
+import net.ravendb.client.indexes.AbstractIndexCreationTask;
+import net.ravendb.client.indexes.AbstractTransformerCreationTask;
+import net.ravendb.client.indexes.IndexDeployment;
 import net.ravendb.client.listeners.IDocumentConflictListener;
+import net.ravendb.client.metrics.MetricsRegistry;
 import net.ravendb.client.util.EvictItemsFromCacheBasedOnChanges;
 import net.ravendb.client.utils.Lang;
 import net.ravendb.client.utils.RequirementsChecker;
@@ -68,6 +85,9 @@ public class DocumentStore extends DocumentStoreBase {
 
   protected Function0<IDatabaseCommands> databaseCommandsGenerator;
 
+  // per database clients used as templates for session clients, keyed by database name ("" for default database)
+  private final ConcurrentMap<String, ServerClient> sessionCommandsTemplates = new ConcurrentSkipListMap<>(String.CASE_INSENSITIVE_ORDER);
+
   private final ConcurrentMap<String, IDocumentStoreReplicationInformer> replicationInformers =  new ConcurrentSkipListMap<>(String.CASE_INSENSITIVE_ORDER);
   private String identifier;
 
@@ -76,8 +96,17 @@ public class DocumentStore extends DocumentStoreBase {
 
   private ReplicationBehavior replication;
 
+  private ExecutorService executorService;
+  private ExecutorService asyncCommandsExecutor;
+
   private ConcurrentMap<String, EvictItemsFromCacheBasedOnChanges> observeChangesAndEvictItemsFromCacheForDatabases = new ConcurrentHashMap<>();
 
+  private ConcurrentMap<String, CleanCloseable> observeIndexChangesForFacetResultsCache = new ConcurrentHashMap<>();
+
+  private ConcurrentMap<String, CleanCloseable> observeDocumentChangesForSecondLevelCache = new ConcurrentHashMap<>();
+
+  private CleanCloseable metricsMBeanRegistration;
+
   private String apiKey;
   private String defaultDatabase;
 
@@ -90,6 +119,17 @@ public class DocumentStore extends DocumentStoreBase {
     return replication;
   }
 
+  /**
+   * Thread pool used by store and its sessions to execute requests concurrently.
+   * It is created on first use and shut down when store is closed.
+   */
+  public synchronized ExecutorService getExecutorService() {
+    if (executorService == null) {
+      executorService = Executors.newCachedThreadPool();
+    }
+    return executorService;
+  }
+
   /**
    * Called after dispose is completed
    * @param event
@@ -105,6 +145,7 @@ public class DocumentStore extends DocumentStoreBase {
 
   public void setDefaultDatabase(String defaultDatabase) {
     this.defaultDatabase = defaultDatabase;
+    sessionCommandsTemplates.clear();
   }
 
   /**
@@ -131,6 +172,11 @@ public class DocumentStore extends DocumentStoreBase {
   public IDatabaseCommands getDatabaseCommands() {
     assertInitialized();
     IDatabaseCommands commands = databaseCommandsGenerator.apply();
+    addSharedOperationsHeaders(commands);
+    return commands;
+  }
+
+  private void addSharedOperationsHeaders(IDatabaseCommands commands) {
     for (String key: getSharedOperationsHeaders().keySet()) {
       String value = getSharedOperationsHeaders().get(key);
       if (value == null) {
@@ -138,7 +184,61 @@ public class DocumentStore extends DocumentStoreBase {
       }
       commands.getOperationsHeaders().put(key, value);
     }
-    return commands;
+  }
+
+  /**
+   * Gets the async database commands. Blocking operations are executed by bounded thread pool of the store,
+   * which has at most as many threads as there are connections in http connection pool.
+   * Returned commands don't block caller thread, but they don't use non-blocking I/O either.
+   */
+  public IAsyncDatabaseCommands getAsyncDatabaseCommands() {
+    return new ExecutorBackedDatabaseCommands(getDatabaseCommands(), jsonRequestFactory, getAsyncCommandsExecutor());
+  }
+
+  private synchronized ExecutorService getAsyncCommandsExecutor() {
+    if (asyncCommandsExecutor == null) {
+      // more threads than pooled connections would only wait for connection
+      int threads = Math.max(1, getConventions().getMaxTotalConnections());
+      ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+        private final AtomicInteger counter = new AtomicInteger();
+        @Override
+        public Thread newThread(Runnable r) {
+          Thread thread = new Thread(r, "RavenDB async commands " + counter.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        }
+      });
+      executor.allowCoreThreadTimeOut(true);
+      asyncCommandsExecutor = executor;
+    }
+    return asyncCommandsExecutor;
+  }
+
+  /**
+   * Deploys indexes and transformers, sending only those which differ from definitions already deployed on server.
+   * Indexes are sent in single request, transformers and replication requests are sent concurrently.
+   * @param indexCreationTasks
+   * @param transformerCreationTasks
+   */
+  public IndexDeployment.Result deployIndexes(List<AbstractIndexCreationTask> indexCreationTasks, List<AbstractTransformerCreationTask> transformerCreationTasks) {
+    assertInitialized();
+    IndexDeployment deployment = new IndexDeployment(getDatabaseCommands(), conventions);
+    deployment.setExecutor(getExecutorService());
+    return deployment.deploy(indexCreationTasks, transformerCreationTasks);
+  }
+
+  /**
+   * Resolves replication conflicts of given documents using registered conflict listeners
+   * (or by merging versions when they don't contain conflicting values).
+   * Documents and their versions are fetched in batches concurrently, resolved documents are written back in batches.
+   * @param keys
+   */
+  public BulkConflictResolver.Result resolveConflicts(Collection<String> keys) {
+    assertInitialized();
+    BulkConflictResolver resolver = new BulkConflictResolver(getDatabaseCommands(), getRegisteredConflictListeners());
+    resolver.setExecutor(getExecutorService());
+    return resolver.resolve(keys);
   }
 
   public DocumentStore() {
@@ -219,6 +319,17 @@ public class DocumentStore extends DocumentStoreBase {
     for (EvictItemsFromCacheBasedOnChanges observeChangesAndEvictItemsFromCacheForDatabase : observeChangesAndEvictItemsFromCacheForDatabases.values()) {
       observeChangesAndEvictItemsFromCacheForDatabase.close();
     }
+    if (metricsMBeanRegistration != null) {
+      metricsMBeanRegistration.close();
+      metricsMBeanRegistration = null;
+    }
+    for (CleanCloseable observeDocumentChanges : observeDocumentChangesForSecondLevelCache.values()) {
+      observeDocumentChanges.close();
+    }
+    sessionCommandsTemplates.clear();
+    for (CleanCloseable observeIndexChanges : observeIndexChangesForFacetResultsCache.values()) {
+      observeIndexChanges.close();
+    }
 
     for (Map.Entry<String, IDatabaseChanges> databaseChange : databaseChanges) {
       IDatabaseChanges dbChange = databaseChange.getValue();
@@ -245,6 +356,15 @@ public class DocumentStore extends DocumentStoreBase {
       jsonRequestFactory.close();
     }
 
+    synchronized (this) {
+      if (executorService != null) {
+        executorService.shutdown();
+      }
+      if (asyncCommandsExecutor != null) {
+        asyncCommandsExecutor.shutdown();
+      }
+    }
+
     try {
       if (replication != null) {
         replication.close();
@@ -285,7 +405,7 @@ public class DocumentStore extends DocumentStoreBase {
     currentSessionId.set(sessionId);
     try {
       DocumentSession session = new DocumentSession(Lang.coalesce(options.getDatabase(), defaultDatabase, MultiDatabase.getDatabaseName(url)), this, getListeners(), sessionId,
-        setupCommands(getDatabaseCommands(), options.getDatabase(), options));
+        getSessionCommands(sessionId, options));
       session.setDatabaseName(options.getDatabase() != null ? options.getDatabase() : defaultDatabase);
 
       afterSessionCreated(session);
@@ -295,6 +415,38 @@ public class DocumentStore extends DocumentStoreBase {
     }
   }
 
+  /**
+   * Creates database commands for new session. Url and replication informer of each database are resolved once
+   * and kept in template client, so opening a session creates single lightweight client.
+   * Template is never used by a session, so session state (operation headers, read striping) is not shared.
+   * @param sessionId
+   * @param options
+   */
+  private IDatabaseCommands getSessionCommands(UUID sessionId, OpenSessionOptions options) {
+    String templateKey = options.getDatabase() != null ? options.getDatabase() : "";
+    ServerClient template = sessionCommandsTemplates.get(templateKey);
+    if (template == null) {
+      IDatabaseCommands commands = databaseCommandsGenerator.apply();
+      if (commands.getClass() != ServerClient.class) {
+        // custom commands generator - we can't reuse its clients
+        addSharedOperationsHeaders(commands);
+        return setupCommands(commands, options.getDatabase(), options);
+      }
+      if (options.getDatabase() != null) {
+        commands = commands.forDatabase(options.getDatabase());
+      }
+      ServerClient existing = sessionCommandsTemplates.putIfAbsent(templateKey, (ServerClient) commands);
+      template = existing != null ? existing : (ServerClient) commands;
+    }
+
+    ServerClient commands = template.forSession(sessionId, getListeners().getConflictListeners().toArray(new IDocumentConflictListener[0]));
+    addSharedOperationsHeaders(commands);
+    if (options.isForceReadFromMaster()) {
+      commands.forceReadFromMaster();
+    }
+    return commands;
+  }
+
   private static IDatabaseCommands setupCommands(IDatabaseCommands databaseCommands, String database, OpenSessionOptions options) {
     if (database != null) {
       databaseCommands = databaseCommands.forDatabase(database);
@@ -313,7 +465,10 @@ public class DocumentStore extends DocumentStoreBase {
 
     assertValidConfiguration();
 
-    jsonRequestFactory = new HttpJsonRequestFactory(getMaxNumberOfCachedRequests(), conventions.isAcceptGzipContent());
+    if (jsonRequestFactory != null) {
+      jsonRequestFactory.close();
+    }
+    jsonRequestFactory = new HttpJsonRequestFactory(getMaxNumberOfCachedRequests(), conventions);
     try {
       initializeEncryptor();
       SecurityExtensions.initializeSecurity(conventions, jsonRequestFactory, getUrl());
@@ -344,6 +499,31 @@ public class DocumentStore extends DocumentStoreBase {
     return this;
   }
 
+  /**
+   * Metrics of this document store (requests, caching, failover, sessions and changes).
+   */
+  public MetricsRegistry getMetrics() {
+    assertInitialized();
+    return jsonRequestFactory.getMetrics();
+  }
+
+  /**
+   * Exposes metrics of this document store via JMX (as net.ravendb.client:type=DocumentStore,name=&lt;identifier&gt;).
+   * Metrics are unregistered when document store is closed.
+   */
+  public void registerMetricsMBean() {
+    assertInitialized();
+    if (metricsMBeanRegistration != null) {
+      return;
+    }
+    try {
+      ObjectName name = new ObjectName("net.ravendb.client:type=DocumentStore,name=" + ObjectName.quote(String.valueOf(getIdentifier())));
+      metricsMBeanRegistration = jsonRequestFactory.getMetrics().registerMBean(name);
+    } catch (MalformedObjectNameException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
   @Override
   public void initializeProfiling() {
     if (jsonRequestFactory == null) {
@@ -593,6 +773,29 @@ public class DocumentStore extends DocumentStoreBase {
       observeChangesAndEvictItemsFromCacheForDatabases.putIfAbsent(databaseName,
         new EvictItemsFromCacheBasedOnChanges(databaseName, changes(databaseName), new ExpireItemsFromCacheAction()));
     }
+    if (conventions.isUseFacetResultsCache() && conventions.isShouldFacetResultsCacheTrackIndexChanges()) {
+      String databaseName = Lang.coalesce(session.getDatabaseName(), defaultDatabase);
+      String cacheDatabaseName = databaseName != null ? databaseName : Constants.SYSTEM_DATABASE;
+      if (!observeIndexChangesForFacetResultsCache.containsKey(cacheDatabaseName)) {
+        synchronized (observeIndexChangesForFacetResultsCache) {
+          if (!observeIndexChangesForFacetResultsCache.containsKey(cacheDatabaseName)) {
+            observeIndexChangesForFacetResultsCache.put(cacheDatabaseName,
+              jsonRequestFactory.getFacetResultsCache().observeIndexChanges(cacheDatabaseName, changes(databaseName)));
+          }
+        }
+      }
+    }
+    if (conventions.isUseSecondLevelCache()) {
+      String databaseName = session.getDatabaseName();
+      if (!observeDocumentChangesForSecondLevelCache.containsKey(databaseName)) {
+        synchronized (observeDocumentChangesForSecondLevelCache) {
+          if (!observeDocumentChangesForSecondLevelCache.containsKey(databaseName)) {
+            observeDocumentChangesForSecondLevelCache.put(databaseName,
+              getSecondLevelCache().observeDocumentChanges(databaseName, changes(databaseName)));
+          }
+        }
+      }
+    }
 
     super.afterSessionCreated(session);
   }
@@ -635,4 +838,28 @@ public class DocumentStore extends DocumentStoreBase {
     };
   }
 
+  /**
+   * Setup the deadline for operations executed by current thread.
+   * Nested deadline can't extend the outer one.
+   */
+  @SuppressWarnings("boxing")
+  @Override
+  public CleanCloseable setDeadlineFor(long budget) {
+    assertInitialized();
+
+    final Long old = jsonRequestFactory.getDeadline();
+    long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(budget);
+    if (old != null && old - deadline < 0) {
+      deadline = old;
+    }
+    jsonRequestFactory.setDeadline(deadline);
+
+    return new CleanCloseable() {
+      @Override
+      public void close() {
+        jsonRequestFactory.setDeadline(old);
+      }
+    };
+  }
+
 }
@@ -0,0 +1,162 @@
+package net.ravendb.client.document;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Per class entity metadata computed once and shared by all sessions using given conventions:
+ * identity accessors (as method handles), type tag name and java class name stored in document metadata.
+ * It also caches resolution of Raven-Java-Class values to classes.
+ */
+public class EntityMetadataRegistry {
+
+  private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+  private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+  private final DocumentConvention conventions;
+  private final ConcurrentMap<Class<?>, EntityMetadata> metadataByType = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, Class<?>> classesByName = new ConcurrentHashMap<>();
+
+  public EntityMetadataRegistry(DocumentConvention conventions) {
+    this.conventions = conventions;
+  }
+
+  /**
+   * Returns metadata of given entity class.
+   * @param entityType
+   */
+  public EntityMetadata get(Class<?> entityType) {
+    EntityMetadata metadata = metadataByType.get(entityType);
+    if (metadata == null) {
+      metadata = new EntityMetadata(entityType, conventions);
+      EntityMetadata existing = metadataByType.putIfAbsent(entityType, metadata);
+      if (existing != null) {
+        metadata = existing;
+      }
+    }
+    return metadata;
+  }
+
+  /**
+   * Resolves class stored in Raven-Java-Class metadata.
+   * @param className
+   * @throws ClassNotFoundException
+   */
+  public Class<?> resolveClass(String className) throws ClassNotFoundException {
+    Class<?> type = classesByName.get(className);
+    if (type == null) {
+      type = Class.forName(className);
+      classesByName.putIfAbsent(className, type);
+    }
+    return type;
+  }
+
+  /**
+   * Removes all computed metadata, it has to be called when conventions used to compute it change.
+   */
+  public void clear() {
+    metadataByType.clear();
+    classesByName.clear();
+  }
+
+  public static class EntityMetadata {
+    private final Field identityProperty;
+    private final MethodHandle identityGetter;
+    private final MethodHandle identitySetter;
+    private final String typeTagName;
+    private final String javaClassName;
+
+    EntityMetadata(Class<?> entityType, DocumentConvention conventions) {
+      identityProperty = conventions.getIdentityProperty(entityType);
+      if (identityProperty != null) {
+        try {
+          identityProperty.setAccessible(true);
+          identityGetter = MethodHandles.lookup().unreflectGetter(identityProperty).asType(GETTER_TYPE);
+        } catch (IllegalAccessException e) {
+          throw new IllegalStateException("Unable to access identity property of " + entityType.getName(), e);
+        }
+        identitySetter = createSetter(identityProperty);
+      } else {
+        identityGetter = null;
+        identitySetter = null;
+      }
+      typeTagName = conventions.getTypeTagName(entityType);
+      javaClassName = conventions.getJavaClassName(entityType);
+    }
+
+    private static MethodHandle createSetter(Field field) {
+      try {
+        return MethodHandles.lookup().unreflectSetter(field).asType(SETTER_TYPE);
+      } catch (IllegalAccessException e) {
+        // final fields can't be written by method handle - field is written using reflection instead
+        return null;
+      }
+    }
+
+    /**
+     * Identity property or null if entity doesn't have one.
+     */
+    public Field getIdentityProperty() {
+      return identityProperty;
+    }
+
+    /**
+     * Type of identity property or null if entity doesn't have one.
+     */
+    public Class<?> getIdentityType() {
+      return identityProperty != null ? identityProperty.getType() : null;
+    }
+
+    /**
+     * Reads value of identity property.
+     * @param entity
+     */
+    public Object getIdentity(Object entity) {
+      try {
+        return (Object) identityGetter.invokeExact(entity);
+      } catch (RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable e) {
+        throw new IllegalStateException(e);
+      }
+    }
+
+    /**
+     * Writes value of identity property.
+     * @param entity
+     * @param value
+     */
+    public void setIdentity(Object entity, Object value) {
+      try {
+        if (identitySetter != null) {
+          identitySetter.invokeExact(entity, value);
+        } else {
+          identityProperty.set(entity, value);
+        }
+      } catch (RuntimeException | Error e) {
+        throw e;
+      } catch (Throwable e) {
+        throw new IllegalStateException(e);
+      }
+    }
+
+    /**
+     * Type tag name (collection name) of entity.
+     */
+    public String getTypeTagName() {
+      return typeTagName;
+    }
+
+    /**
+     * Java class name stored in entity metadata.
+     */
+    public String getJavaClassName() {
+      return javaClassName;
+    }
+  }
+
+}
@@ -10,6 +10,7 @@ import net.ravendb.abstractions.json.linq.RavenJObject;
 import net.ravendb.abstractions.json.linq.RavenJToken;
 import net.ravendb.abstractions.json.linq.RavenJValue;
 import net.ravendb.client.IDocumentStore;
+import net.ravendb.client.document.EntityMetadataRegistry.EntityMetadata;
 import net.ravendb.client.listeners.IDocumentConversionListener;
 
 public class EntityToJson {
@@ -46,14 +47,15 @@ public class EntityToJson {
     }
 
     Class< ? > entityType = entity.getClass();
-    Field identityProperty = documentStore.getConventions().getIdentityProperty(entityType);
+    EntityMetadata entityMetadata = documentStore.getConventions().getEntityMetadataRegistry().get(entityType);
+    Field identityProperty = entityMetadata.getIdentityProperty();
 
     RavenJObject objectAsJson = getObjectAsJson(entity);
     if (identityProperty != null) {
       objectAsJson.remove(identityProperty.getName());
     }
 
-    setJavaClass(entityType, metadata);
+    setJavaClass(entityType, entityMetadata, metadata);
 
     for (IDocumentConversionListener extendedDocumentConversionListener: listeners.getConversionListeners()) {
       extendedDocumentConversionListener.afterConversionToDocument(key, entity, objectAsJson, metadata);
@@ -92,11 +94,11 @@ public class EntityToJson {
     return jObject;
   }
 
-  private void setJavaClass(Class<?> entityType, RavenJObject metadata) {
+  private static void setJavaClass(Class<?> entityType, EntityMetadata entityMetadata, RavenJObject metadata) {
     if (RavenJObject.class.equals(entityType)) {
       return ; // do not overwrite the value
     }
-    metadata.add(Constants.RAVEN_JAVA_CLASS, new RavenJValue(documentStore.getConventions().getJavaClassName(entityType)));
+    metadata.add(Constants.RAVEN_JAVA_CLASS, new RavenJValue(entityMetadata.getJavaClassName()));
   }
 
 
@@ -1,15 +1,14 @@
 package net.ravendb.client.document;
 
-import java.lang.reflect.Field;
 import java.util.UUID;
 
 import net.ravendb.abstractions.basic.Reference;
 import net.ravendb.abstractions.closure.Function1;
 import net.ravendb.abstractions.data.Constants;
 import net.ravendb.client.converters.ITypeConverter;
+import net.ravendb.client.document.EntityMetadataRegistry.EntityMetadata;
 
 import org.apache.commons.lang.NullArgumentException;
-import org.apache.commons.lang.reflect.FieldUtils;
 
 
 public class GenerateEntityIdOnTheClient {
@@ -21,8 +20,8 @@ public class GenerateEntityIdOnTheClient {
     this.generateKey = generateKey;
   }
 
-  private Field getIdentityProperty(Class<?> entityType) {
-    return conventions.getIdentityProperty(entityType);
+  private EntityMetadata getEntityMetadata(Class<?> entityType) {
+    return conventions.getEntityMetadataRegistry().get(entityType);
   }
 
   /**
@@ -34,25 +33,21 @@ public class GenerateEntityIdOnTheClient {
     if (entity == null) {
       throw new NullArgumentException("entity");
     }
-    try {
-      Field identityProperty = getIdentityProperty(entity.getClass());
-      if (identityProperty != null) {
-        Object value = FieldUtils.readField(identityProperty, entity, true);
-        return getIdAsString(entity, value, identityProperty, idHolder);
-      }
-      idHolder.value = null;
-      return false;
-    } catch (IllegalAccessException e) {
-      throw new IllegalStateException(e);
+    EntityMetadata entityMetadata = getEntityMetadata(entity.getClass());
+    if (entityMetadata.getIdentityProperty() != null) {
+      Object value = entityMetadata.getIdentity(entity);
+      return getIdAsString(entity, value, entityMetadata.getIdentityType(), idHolder);
     }
+    idHolder.value = null;
+    return false;
   }
 
   @SuppressWarnings("boxing")
-  private boolean getIdAsString(Object entity, Object value, Field identityProperty, Reference<String> idHolder) {
+  private boolean getIdAsString(Object entity, Object value, Class<?> identityType, Reference<String> idHolder) {
     if (value instanceof String) {
       idHolder.value = (String) value;
     }
-    if (idHolder.value == null && value == null && identityProperty.getType().equals(UUID.class)) {
+    if (idHolder.value == null && value == null && identityType.equals(UUID.class)) {
       // fix for UUID as UUID is nullable type in Java
       value = Constants.EMPTY_UUID;
     }
@@ -92,32 +87,27 @@ public class GenerateEntityIdOnTheClient {
    * Tries to set the identity property
    */
   public void trySetIdentity(Object entity, String id) {
-    Class<?> entityType = entity.getClass();
-    Field identityProperty = conventions.getIdentityProperty(entityType);
+    EntityMetadata entityMetadata = getEntityMetadata(entity.getClass());
 
-    if (identityProperty == null) {
+    if (entityMetadata.getIdentityProperty() == null) {
       return;
     }
 
-    setPropertyOrField(identityProperty.getType(), entity, identityProperty, id);
+    setPropertyOrField(entityMetadata.getIdentityType(), entity, entityMetadata, id);
   }
 
-  private void setPropertyOrField(Class<?> propertyOrFieldType, Object entity, Field field, String id) {
-    try {
-      if (String.class.equals(propertyOrFieldType)) {
-        FieldUtils.writeField(field, entity, id, true);
-      } else { // need converting
-        for (ITypeConverter converter : conventions.getIdentityTypeConvertors()) {
-          if (converter.canConvertFrom(propertyOrFieldType)) {
-            FieldUtils.writeField(field, entity, converter.convertTo(conventions.getFindIdValuePartForValueTypeConversion().find(entity, id)), true);
-            return;
-          }
+  private void setPropertyOrField(Class<?> propertyOrFieldType, Object entity, EntityMetadata entityMetadata, String id) {
+    if (String.class.equals(propertyOrFieldType)) {
+      entityMetadata.setIdentity(entity, id);
+    } else { // need converting
+      for (ITypeConverter converter : conventions.getIdentityTypeConvertors()) {
+        if (converter.canConvertFrom(propertyOrFieldType)) {
+          entityMetadata.setIdentity(entity, converter.convertTo(conventions.getFindIdValuePartForValueTypeConversion().find(entity, id)));
+          return;
         }
-        throw new IllegalArgumentException("Could not convert identity to type " + propertyOrFieldType +
-            " because there is not matching type converter registered in the conventions' IdentityTypeConvertors");
       }
-    } catch (IllegalAccessException e) {
-      throw new IllegalStateException(e);
+      throw new IllegalArgumentException("Could not convert identity to type " + propertyOrFieldType +
+          " because there is not matching type converter registered in the conventions' IdentityTypeConvertors");
     }
   }
 
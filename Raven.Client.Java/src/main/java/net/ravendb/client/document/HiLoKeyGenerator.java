@@ -8,6 +8,7 @@ import net.ravendb.abstractions.exceptions.ConcurrencyException;
 import net.ravendb.abstractions.json.linq.RavenJObject;
 import net.ravendb.abstractions.json.linq.RavenJValue;
 import net.ravendb.client.connection.IDatabaseCommands;
+import net.ravendb.client.connection.SerializationHelper;
 import net.ravendb.client.exceptions.ConflictException;
 
 /**
@@ -72,10 +73,14 @@ public class HiLoKeyGenerator extends HiLoKeyGeneratorBase {
           }
           catch (ConflictException e) {
             // resolving the conflict by selecting the highest number
-            String[] conflictedVersionIds = e.getConflictedVersionIds();
+            // all conflicted versions are fetched in single request
+            MultiLoadResult conflictedVersions = databaseCommands.get(e.getConflictedVersionIds(), null);
             long highestMax = 0;
-            for (String conflictedVersionId: conflictedVersionIds) {
-              long currentMax = getMaxFromDocument(databaseCommands.get(conflictedVersionId), minNextMax);
+            for (RavenJObject conflictedVersion: conflictedVersions.getResults()) {
+              if (conflictedVersion == null) {
+                continue;
+              }
+              long currentMax = getMaxFromDocument(SerializationHelper.toJsonDocument(conflictedVersion), minNextMax);
               if (highestMax < currentMax) {
                 highestMax = currentMax;
               }
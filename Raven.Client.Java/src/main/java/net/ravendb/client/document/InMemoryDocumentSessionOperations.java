@@ -6,14 +6,13 @@ import java.beans.PropertyDescriptor;
 import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import java.util.TreeMap;
-import java.util.TreeSet;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -46,13 +45,13 @@ import net.ravendb.abstractions.util.IncludesUtil;
 import net.ravendb.client.DocumentStoreBase;
 import net.ravendb.client.IDocumentStore;
 import net.ravendb.client.connection.HttpExtensions;
-import net.ravendb.client.document.batches.ILazyOperation;
 import net.ravendb.client.exceptions.NonAuthoritativeInformationException;
 import net.ravendb.client.exceptions.NonUniqueObjectException;
 import net.ravendb.client.extensions.MultiDatabase;
 import net.ravendb.client.listeners.IDocumentConversionListener;
 import net.ravendb.client.listeners.IDocumentDeleteListener;
 import net.ravendb.client.listeners.IDocumentStoreListener;
+import net.ravendb.client.util.CaseInsensitiveHashMap;
 import net.ravendb.client.util.IdentityHashSet;
 import net.ravendb.client.util.Types;
 import net.ravendb.client.utils.Closer;
@@ -69,9 +68,6 @@ import com.google.common.base.Defaults;
  */
 public abstract class InMemoryDocumentSessionOperations implements CleanCloseable {
 
-  protected final List<ILazyOperation> pendingLazyOperations = new ArrayList<>();
-  protected final Map<ILazyOperation, Action1<Object>> onEvaluateLazy = new HashMap<>();
-
   private static AtomicInteger counter = new AtomicInteger();
 
   private final int hash = counter.incrementAndGet();
@@ -84,21 +80,21 @@ public abstract class InMemoryDocumentSessionOperations implements CleanCloseabl
 
   protected static final ILog log = LogManager.getCurrentClassLogger();
 
-  //The entities waiting to be deleted
-  protected final Set<Object> deletedEntities = new IdentityHashSet<>();
+  //The entities waiting to be deleted (replaced by mutable set on first delete)
+  protected Set<Object> deletedEntities = Collections.emptySet();
 
   //Entities whose id we already know do not exists, because they are a missing include, or a missing load, etc.
-  protected final Set<String> knownMissingIds =  new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+  protected final Set<String> knownMissingIds = Collections.newSetFromMap(new CaseInsensitiveHashMap<Boolean>());
 
   private Map<String, Object> externalState;
 
-  // hold the data required to manage the data for RavenDB's Unit of Work
-  protected final Map<Object, DocumentMetadata> entitiesAndMetadata = new IdentityHashMap<>();
+  // hold the data required to manage the data for RavenDB's Unit of Work (replaced by mutable map on first tracked entity)
+  protected Map<Object, DocumentMetadata> entitiesAndMetadata = Collections.emptyMap();
 
-  protected final Map<String, JsonDocument> includedDocumentsByKey = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+  protected final CaseInsensitiveHashMap<JsonDocument> includedDocumentsByKey = new CaseInsensitiveHashMap<>();
 
   // Translate between a key and its associated entity
-  protected final Map<String, Object> entitiesByKey = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+  protected final CaseInsensitiveHashMap<Object> entitiesByKey = new CaseInsensitiveHashMap<>();
 
   protected final String dbName;
   private final DocumentStoreBase documentStore;
@@ -107,12 +103,13 @@ public abstract class InMemoryDocumentSessionOperations implements CleanCloseabl
   protected final DocumentSessionListeners theListeners;
 
   private int numberOfRequests;
+  private boolean closed;
   private Long nonAuthoritativeInformationTimeout;
   private int maxNumberOfRequestsPerSession;
   private boolean useOptimisticConcurrency;
   private boolean allowNonAuthoritativeInformation;
 
-  private final List<ICommandData> deferedCommands = new ArrayList<>();
+  private List<ICommandData> deferedCommands = Collections.emptyList();
   protected String _databaseName;
   private GenerateEntityIdOnTheClient generateEntityIdOnTheClient;
   public EntityToJson entityToJson;
@@ -301,7 +298,7 @@ public abstract class InMemoryDocumentSessionOperations implements CleanCloseabl
     value.setOriginalMetadata(jsonDocument.getMetadata());
     value.setMetadata(jsonDocument.getMetadata().cloneToken());
     value.setOriginalValue(new RavenJObject());
-    entitiesAndMetadata.put(instance, value);
+    trackEntity(instance, value);
     return value;
   }
 
@@ -389,6 +386,43 @@ public abstract class InMemoryDocumentSessionOperations implements CleanCloseabl
           "more responsive application.", maxNumberOfRequestsPerSession));
   }
 
+  /**
+   * Returns copy of document kept in store wide second level cache or null.
+   * @param id
+   */
+  public JsonDocument getFromSecondLevelCache(String id) {
+    if (!getConventions().isUseSecondLevelCache()) {
+      return null;
+    }
+    return documentStore.getSecondLevelCache().get(getDatabaseName(), id);
+  }
+
+  /**
+   * Returns version of second level cache, which has to be read before documents are requested from server.
+   */
+  public long getSecondLevelCacheVersion() {
+    if (!getConventions().isUseSecondLevelCache()) {
+      return 0;
+    }
+    return documentStore.getSecondLevelCache().getVersion(getDatabaseName());
+  }
+
+  /**
+   * Stores document loaded from server in second level cache.
+   * @param document
+   * @param version second level cache version read before document was requested
+   */
+  public void putToSecondLevelCache(JsonDocument document, long version) {
+    if (!getConventions().isUseSecondLevelCache()) {
+      return;
+    }
+    if (documentStore.hasJsonRequestFactory() && documentStore.getJsonRequestFactory().getAggressiveCacheDuration() != null) {
+      // document might be served from aggressive cache without checking server
+      return;
+    }
+    documentStore.getSecondLevelCache().put(getDatabaseName(), document, version);
+  }
+
   /**
    * Tracks the entity inside the unit of work
    * @param entityType
@@ -423,14 +457,13 @@ public abstract class InMemoryDocumentSessionOperations implements CleanCloseabl
   @SuppressWarnings("boxing")
   public Object trackEntity(Class<?> entityType, String key, RavenJObject document, RavenJObject metadata, boolean noTracking) {
     document.remove("@metadata");
-    Object entity;
-    if (entitiesByKey.containsKey(key)) {
+    Object entity = entitiesByKey.getOrNull(key);
+    if (entity != null) {
       // the local instance may have been changed, we adhere to the current Unit of Work
       // instance, and return that, ignoring anything new.
-      return entitiesByKey.get(key);
-    } else {
-      entity = convertToEntity(entityType, key, document, metadata, false);
+      return entity;
     }
+    entity = convertToEntity(entityType, key, document, metadata, noTracking);
 
     String etag = metadata.value(String.class, "@etag");
 
@@ -447,7 +480,7 @@ public abstract class InMemoryDocumentSessionOperations implements CleanCloseabl
       docMeta.setEtag(HttpExtensions.etagHeaderToEtag(etag));
       docMeta.setKey(key);
 
-      entitiesAndMetadata.put(entity, docMeta);
+      trackEntity(entity, docMeta);
       entitiesByKey.put(key, entity);
     }
 
@@ -490,7 +523,7 @@ public abstract class InMemoryDocumentSessionOperations implements CleanCloseabl
     try {
       String documentType = getConventions().getJavaClass(id, documentFound, metadata);
       if (documentType != null) {
-        Class< ? > type = Class.forName(documentType);
+        Class< ? > type = getConventions().getEntityMetadataRegistry().resolveClass(documentType);
         if (type != null) {
           entity = getConventions().createSerializer().deserialize(documentFound, type);
         }
@@ -514,10 +547,10 @@ public abstract class InMemoryDocumentSessionOperations implements CleanCloseabl
   }
 
   private void registerMissingProperties(Object o, String key, Object value) {
-    if (!entityToJson.getMissingDictionary().containsKey(o)) {
-      entityToJson.getMissingDictionary().put(o, new HashMap<String, RavenJToken>());
+    if (!getEntityToJson().getMissingDictionary().containsKey(o)) {
+      getEntityToJson().getMissingDictionary().put(o, new HashMap<String, RavenJToken>());
     }
-    Map<String, RavenJToken> dictionary = entityToJson.getMissingDictionary().get(o);
+    Map<String, RavenJToken> dictionary = getEntityToJson().getMissingDictionary().get(o);
     dictionary.put(key, convertValueToJToken(value));
   }
 
@@ -578,6 +611,9 @@ public abstract class InMemoryDocumentSessionOperations implements CleanCloseabl
       throw new IllegalStateException(entity + " is marked as read only and cannot be deleted");
     }
 
+    if (deletedEntities.isEmpty()) {
+      deletedEntities = new IdentityHashSet<>();
+    }
     deletedEntities.add(entity);
     knownMissingIds.add(value.getKey());
   }
@@ -610,9 +646,8 @@ public abstract class InMemoryDocumentSessionOperations implements CleanCloseabl
       if (id == null) {
         throw new IllegalArgumentException("id is null");
       }
-      Object entity;
-      if (entitiesByKey.containsKey(id)) {
-        entity = entitiesByKey.get(id);
+      Object entity = entitiesByKey.getOrNull(id);
+      if (entity != null) {
           // find if entity was changed on session or just inserted
           if (entityChanged(entity, entitiesAndMetadata.get(entity))) {
               throw new IllegalStateException("Can't delete changed entity using identifier. Use delete(T entity) instead.");
@@ -757,7 +792,7 @@ public abstract class InMemoryDocumentSessionOperations implements CleanCloseabl
     meta.setOriginalValue(new RavenJObject());
     meta.setForceConcurrencyCheck(forceConcurrencyCheck);
 
-    entitiesAndMetadata.put(entity, meta);
+    trackEntity(entity, meta);
 
     if (id != null) {
       entitiesByKey.put(id, entity);
@@ -766,7 +801,11 @@ public abstract class InMemoryDocumentSessionOperations implements CleanCloseabl
 
   @SuppressWarnings("hiding")
   protected void assertNoNonUniqueInstance(Object entity, String id) {
-    if (id == null || id.endsWith("/") || !entitiesByKey.containsKey(id) || entitiesByKey.get(id) == entity) {
+    if (id == null || id.endsWith("/")) {
+      return;
+    }
+    Object existingEntity = entitiesByKey.getOrNull(id);
+    if (existingEntity == null || existingEntity == entity) {
       return;
     }
 
@@ -790,7 +829,7 @@ public abstract class InMemoryDocumentSessionOperations implements CleanCloseabl
           "You cannot change the document key property of a entity loaded into the session");
     }
 
-    RavenJObject json = entityToJson.convertEntityToJson(documentMetadata.getKey(), entity, documentMetadata.getMetadata());
+    RavenJObject json = getEntityToJson().convertEntityToJson(documentMetadata.getKey(), entity, documentMetadata.getMetadata());
 
     Etag etag = (isUseOptimisticConcurrency() || documentMetadata.isForceConcurrencyCheck() )? ( documentMetadata.getEtag() != null ? documentMetadata.getEtag() : Etag.empty() ) : null;
 
@@ -812,6 +851,14 @@ public abstract class InMemoryDocumentSessionOperations implements CleanCloseabl
     if (documentStore.hasJsonRequestFactory() && getConventions().isShouldSaveChangesForceAggressiveCacheCheck() && batchResults.size() != 0) {
       documentStore.getJsonRequestFactory().expireItemsFromCache(databaseName != null ? databaseName : Constants.SYSTEM_DATABASE);
     }
+    if (getConventions().isUseSecondLevelCache()) {
+      // don't wait for change notifications - documents changed by this session mustn't be loaded from cache
+      for (BatchResult batchResult : batchResults) {
+        if (batchResult.getKey() != null) {
+          documentStore.getSecondLevelCache().invalidate(getDatabaseName(), batchResult.getKey());
+        }
+      }
+    }
     for (int i = saveChangesData.getDeferredCommandsCount(); i < batchResults.size(); i++) {
       BatchResult batchResult = batchResults.get(i);
       if (!batchResult.getMethod().equalsIgnoreCase(HttpMethods.PUT.name())) {
@@ -830,7 +877,7 @@ public abstract class InMemoryDocumentSessionOperations implements CleanCloseabl
       documentMetadata.setKey(batchResult.getKey());
       documentMetadata.setOriginalMetadata(batchResult.getMetadata().cloneToken());
       documentMetadata.setMetadata(batchResult.getMetadata());
-      documentMetadata.setOriginalValue(entityToJson.convertEntityToJson(documentMetadata.getKey(), entity, documentMetadata.getMetadata()));
+      documentMetadata.setOriginalValue(getEntityToJson().convertEntityToJson(documentMetadata.getKey(), entity, documentMetadata.getMetadata()));
 
       generateEntityIdOnTheClient.trySetIdentity(entity, batchResult.getKey());
 
@@ -886,7 +933,7 @@ public abstract class InMemoryDocumentSessionOperations implements CleanCloseabl
         for (IDocumentStoreListener documentStoreListener : theListeners.getStoreListeners()) {
 
           if (documentStoreListener.beforeStore(pair.getValue().getKey(), pair.getKey(), pair.getValue().getMetadata(), pair.getValue().getOriginalValue())) {
-            entityToJson.getCachedJsonDocs().remove(pair.getKey());
+            getEntityToJson().getCachedJsonDocs().remove(pair.getKey());
           }
         }
         result.getEntities().add(pair.getKey());
@@ -943,10 +990,9 @@ public abstract class InMemoryDocumentSessionOperations implements CleanCloseabl
       else
       {
           Etag etag = null;
-          Object existingEntity = null;
           DocumentMetadata metadata = null;
-          if (entitiesByKey.containsKey(key)) {
-            existingEntity = entitiesByKey.get(key);
+          Object existingEntity = entitiesByKey.getOrNull(key);
+          if (existingEntity != null) {
             if (entitiesAndMetadata.containsKey(existingEntity)) {
               metadata = entitiesAndMetadata.get(existingEntity);
               etag = metadata.getEtag();
@@ -1020,7 +1066,7 @@ public abstract class InMemoryDocumentSessionOperations implements CleanCloseabl
       return false;
     }
 
-    RavenJObject newObj = entityToJson.convertEntityToJson(documentMetadata.getKey(), entity, documentMetadata.getMetadata());
+    RavenJObject newObj = getEntityToJson().convertEntityToJson(documentMetadata.getKey(), entity, documentMetadata.getMetadata());
 
     List<DocumentsChanges> changedData = changes != null ? new ArrayList<DocumentsChanges>() : null;
     boolean changed = (RavenJToken.deepEquals(newObj, documentMetadata.getOriginalValue(), changedData) == false) ||
@@ -1060,6 +1106,19 @@ public abstract class InMemoryDocumentSessionOperations implements CleanCloseabl
     return entityToJson;
   }
 
+  /**
+   * Adds entity to unit of work. Map is created on first tracked entity, so sessions which only
+   * query or use lazy operations don't allocate it.
+   * @param entity
+   * @param metadata
+   */
+  protected void trackEntity(Object entity, DocumentMetadata metadata) {
+    if (entitiesAndMetadata.isEmpty()) {
+      entitiesAndMetadata = new IdentityHashMap<>();
+    }
+    entitiesAndMetadata.put(entity, metadata);
+  }
+
   public GenerateEntityIdOnTheClient getGenerateEntityIdOnTheClient() {
     return generateEntityIdOnTheClient;
   }
@@ -1069,6 +1128,9 @@ public abstract class InMemoryDocumentSessionOperations implements CleanCloseabl
    * Defer commands to be executed on saveChanges()
    */
   public void defer(ICommandData... commands) {
+    if (deferedCommands.isEmpty()) {
+      deferedCommands = new ArrayList<>();
+    }
     for (ICommandData command: commands) {
       deferedCommands.add(command);
     }
@@ -1088,7 +1150,10 @@ public abstract class InMemoryDocumentSessionOperations implements CleanCloseabl
    */
   @Override
   public void close() {
-    //empty by design
+    if (!closed && documentStore.hasJsonRequestFactory()) {
+      documentStore.getJsonRequestFactory().getMetrics().sessionClosed(numberOfRequests);
+    }
+    closed = true;
   }
 
   @SuppressWarnings("boxing")
@@ -1118,21 +1183,20 @@ public abstract class InMemoryDocumentSessionOperations implements CleanCloseabl
       return;
     }
 
-    for (RavenJObject result : results) {
-      for (String include: includes) {
-        IncludesUtil.include(result, include, new Action1<String>() {
-          @SuppressWarnings("hiding")
-          @Override
-          public void apply(String id) {
-            if (id == null) {
-              return;
-            }
-            if (isLoaded(id) == false) {
-              registerMissing(id);
-            }
-          }
-        });
+    Action1<String> registerIfMissing = new Action1<String>() {
+      @SuppressWarnings("hiding")
+      @Override
+      public void apply(String id) {
+        if (id == null) {
+          return;
+        }
+        if (isLoaded(id) == false) {
+          registerMissing(id);
+        }
       }
+    };
+    for (String include: includes) {
+      IncludesUtil.include(results, include, registerIfMissing);
     }
   }
 
@@ -1208,11 +1272,8 @@ public abstract class InMemoryDocumentSessionOperations implements CleanCloseabl
         continue;
       }
 
-      if (!entitiesByKey.containsKey(id)) {
-        return false;
-      }
-      Object data = entitiesByKey.get(id);
-      if (!entitiesAndMetadata.containsKey(data)) {
+      Object data = entitiesByKey.getOrNull(id);
+      if (data == null || !entitiesAndMetadata.containsKey(data)) {
         return false;
       }
       DocumentMetadata value = entitiesAndMetadata.get(data);
@@ -11,6 +11,7 @@ import net.ravendb.abstractions.json.linq.RavenJTokenWriter;
 import org.codehaus.jackson.map.Module;
 import org.codehaus.jackson.map.ObjectMapper;
 import org.codehaus.jackson.map.SerializationConfig.Feature;
+import org.codehaus.jackson.util.TokenBuffer;
 
 
 public class JsonSerializer {
@@ -66,7 +67,14 @@ public class JsonSerializer {
   }
 
   public <T> T deserialize(RavenJToken y, Class<T> type) {
-    return deserialize(y.toString(), type);
+    // replay token into buffer instead of formatting it as text and parsing it back
+    TokenBuffer buffer = new TokenBuffer(objectMapper);
+    y.writeTo(buffer);
+    try {
+      return objectMapper.readValue(buffer.asParser(objectMapper), type);
+    } catch (IOException e) {
+      throw new JsonReaderException(e.getMessage(), e);
+    }
   }
 
   public void registerModule(Module setupMoneyModule) {
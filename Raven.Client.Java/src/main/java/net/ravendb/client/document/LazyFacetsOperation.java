@@ -5,6 +5,7 @@ import java.util.List;
 import java.util.Map;
 
 import net.ravendb.abstractions.basic.CleanCloseable;
+import net.ravendb.abstractions.data.Constants;
 import net.ravendb.abstractions.data.Facet;
 import net.ravendb.abstractions.data.FacetResult;
 import net.ravendb.abstractions.data.FacetResults;
@@ -16,11 +17,16 @@ import net.ravendb.abstractions.data.IndexQuery;
 import net.ravendb.abstractions.data.QueryResult;
 import net.ravendb.abstractions.extensions.JsonExtensions;
 import net.ravendb.abstractions.json.linq.RavenJObject;
+import net.ravendb.abstractions.json.linq.RavenJToken;
+import net.ravendb.client.connection.FacetResultsCache;
 import net.ravendb.client.document.batches.ILazyOperation;
+import net.ravendb.client.extensions.MultiDatabase;
 import net.ravendb.client.shard.ShardStrategy;
 import net.ravendb.client.utils.UrlUtils;
 import net.ravendb.imports.json.JsonConvert;
 
+import org.apache.http.HttpStatus;
+
 public class LazyFacetsOperation implements ILazyOperation {
 
   private final String index;
@@ -34,6 +40,13 @@ public class LazyFacetsOperation implements ILazyOperation {
   private Object result;
   private boolean requiresRetry;
 
+  private FacetResultsCache resultsCache;
+  private String cacheKey;
+  private String database;
+  private long cacheVersion;
+  private boolean trackChanges;
+  private FacetResultsCache.Entry cachedEntry;
+
 
   public LazyFacetsOperation(String index, String facetSetupDoc, IndexQuery query) {
     this(index, facetSetupDoc, query, 0, null);
@@ -69,9 +82,43 @@ public class LazyFacetsOperation implements ILazyOperation {
     this.facetSetupDoc = null;
   }
 
-  @SuppressWarnings("boxing")
+  /**
+   * Uses results cache: result is taken from cache when it is known to be up to date,
+   * otherwise cached result is revalidated by its etag and response is stored in cache.
+   * @param resultsCache
+   * @param databaseUrl
+   * @param primaryOnly false if request might be served by secondary node (its result has to be always revalidated)
+   * @return true if result was taken from cache, so operation doesn't have to be executed
+   */
+  public boolean useResultsCache(FacetResultsCache resultsCache, String databaseUrl, boolean primaryOnly) {
+    this.resultsCache = resultsCache;
+    this.database = MultiDatabase.getDatabaseName(databaseUrl);
+    this.trackChanges = primaryOnly;
+    this.cacheKey = facetSetupDoc != null
+      ? FacetResultsCache.facetSetupDocKey(databaseUrl, index, query, start, pageSize, facetSetupDoc)
+      : FacetResultsCache.facetsKey(databaseUrl, index, query, start, pageSize, JsonConvert.serializeObject(facets));
+    cachedEntry = resultsCache.get(cacheKey);
+    if (cachedEntry != null && resultsCache.isUpToDate(cachedEntry)) {
+      result = deserialize(cachedEntry.getData().cloneToken());
+      return true;
+    }
+    return false;
+  }
+
   @Override
   public GetRequest createRequest() {
+    if (resultsCache != null) {
+      cacheVersion = resultsCache.getVersion(database, index);
+    }
+    GetRequest getRequest = createFacetsRequest();
+    if (cachedEntry != null && cachedEntry.getEtag() != null) {
+      getRequest.getHeaders().put("If-None-Match", cachedEntry.getEtag());
+    }
+    return getRequest;
+  }
+
+  @SuppressWarnings("boxing")
+  private GetRequest createFacetsRequest() {
     String addition = null;
     if (facetSetupDoc != null) {
       addition = "facetDoc=" + facetSetupDoc;
@@ -113,9 +160,21 @@ public class LazyFacetsOperation implements ILazyOperation {
     if (response.isRequestHasErrors()) {
       throw new IllegalStateException("Got an unexpected response code for the request: " + response.getStatus() + "\n" + response.getResult());
     }
+    RavenJToken result = response.getResult();
+    if (result == null && response.getStatus() == HttpStatus.SC_NOT_MODIFIED && cachedEntry != null) {
+      result = cachedEntry.getData().cloneToken();
+    }
+    if (resultsCache != null) {
+      String etag = response.getHeaders().get(Constants.METADATA_ETAG_FIELD);
+      resultsCache.put(cacheKey, database, index, result, etag != null ? etag : (cachedEntry != null ? cachedEntry.getEtag() : null), cacheVersion,
+        trackChanges);
+    }
+    this.result = deserialize(result);
+  }
+
+  private static FacetResults deserialize(RavenJToken result) {
     try {
-      RavenJObject result =  (RavenJObject) response.getResult();
-      this.result = JsonExtensions.createDefaultJsonSerializer().readValue(result.toString(), FacetResults.class);
+      return JsonExtensions.createDefaultJsonSerializer().readValue(result.toString(), FacetResults.class);
     } catch (IOException e) {
       throw new RuntimeException(e);
     }
@@ -6,16 +6,11 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.lang.Thread.UncaughtExceptionHandler;
 import java.nio.ByteBuffer;
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.ArrayBlockingQueue;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
-import java.util.zip.GZIPOutputStream;
 
 import net.ravendb.abstractions.closure.Action1;
+import net.ravendb.abstractions.closure.Function1;
 import net.ravendb.abstractions.data.BulkInsertChangeNotification;
 import net.ravendb.abstractions.data.BulkInsertOptions;
 import net.ravendb.abstractions.data.Constants;
@@ -23,29 +18,26 @@ import net.ravendb.abstractions.data.DocumentChangeTypes;
 import net.ravendb.abstractions.data.HttpMethods;
 import net.ravendb.abstractions.json.linq.RavenJObject;
 import net.ravendb.abstractions.json.linq.RavenJToken;
-import net.ravendb.abstractions.util.TimeUtils;
+import net.ravendb.abstractions.util.DocumentHelpers;
 import net.ravendb.client.changes.IDatabaseChanges;
 import net.ravendb.client.changes.IObserver;
+import net.ravendb.client.connection.OperationStatusPoller.OperationCompletion;
 import net.ravendb.client.connection.ServerClient;
 import net.ravendb.client.connection.implementation.HttpJsonRequest;
 import net.ravendb.client.extensions.HttpJsonRequestExtension;
 import net.ravendb.client.utils.CancellationTokenSource;
 import net.ravendb.client.utils.CancellationTokenSource.CancellationToken;
+import net.ravendb.client.utils.SizeBoundedBlockingQueue;
 
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.ArrayUtils;
 import org.apache.http.Header;
 import org.apache.http.HttpEntity;
-
-import de.undercouch.bson4jackson.BsonFactory;
-import de.undercouch.bson4jackson.BsonGenerator;
 import org.apache.http.client.methods.CloseableHttpResponse;
 
 
 public class RemoteBulkInsertOperation implements ILowLevelBulkInsertOperation, IObserver<BulkInsertChangeNotification> {
 
-  private final BsonFactory bsonFactory = new BsonFactory();
-
   private final static RavenJObject END_OF_QUEUE_OBJECT = RavenJObject.parse("{ \"QueueFinished\" : true }");
 
   private final BulkInsertOptions options;
@@ -53,11 +45,14 @@ public class RemoteBulkInsertOperation implements ILowLevelBulkInsertOperation,
   private CancellationTokenSource cancellationTokenSource;
   private final ServerClient operationClient;
 
-  private final ByteArrayOutputStream bufferedStream = new ByteArrayOutputStream();
-  private final BlockingQueue<RavenJObject> queue;
+  private final BulkInsertBatchEncoder encoder = new BulkInsertBatchEncoder();
+  private final SizeBoundedBlockingQueue<QueuedDocument> queue;
+  private final BulkInsertBatchSizer batchSizer;
 
   private static final RavenJObject ABORT_MARKER = new RavenJObject();
-  private static final RavenJObject SKIP_MARKER = new RavenJObject();
+
+  private static final int WAIT_FOR_DOCUMENTS_MILLIS = 100;
+  private static final int LINGER_MILLIS = 1;
 
   @SuppressWarnings("unused")
   private HttpJsonRequest operationRequest;
@@ -68,10 +63,9 @@ public class RemoteBulkInsertOperation implements ILowLevelBulkInsertOperation,
   private int total;
   private boolean aborted;
 
-  private static final int BIG_DOCUMENT_SIZE = 64 * 1024;
-
   private Action1<String> report;
   private long responseOperationId;
+  private volatile OperationCompletion completion;
   private UUID operationId;
   private transient boolean disposed;
 
@@ -98,7 +92,9 @@ public class RemoteBulkInsertOperation implements ILowLevelBulkInsertOperation,
     this.options = options;
     operationId = existingOperationId != null ? existingOperationId : UUID.randomUUID();
     operationClient = client;
-    queue = new ArrayBlockingQueue<>(Math.max(128, (options.getBatchSize() * 3) / 2));
+    long maxBatchSizeInBytes = Math.max(BulkInsertBatchSizer.MIN_BATCH_SIZE_IN_BYTES, options.getMaxBatchSizeInBytes());
+    queue = new SizeBoundedBlockingQueue<>(Math.max(128, (options.getBatchSize() * 3) / 2), 2 * maxBatchSizeInBytes);
+    batchSizer = new BulkInsertBatchSizer(maxBatchSizeInBytes, options.getWriteTimeoutMiliseconds() / 4);
 
     if (previousTask != null) {
       this.total += previousTask.total;
@@ -185,14 +181,14 @@ public class RemoteBulkInsertOperation implements ILowLevelBulkInsertOperation,
     try {
       token = getToken();
     } catch (Exception e) {
-      queue.add(END_OF_QUEUE_OBJECT);
+      queue.add(new QueuedDocument(END_OF_QUEUE_OBJECT, 0));
       throw new IllegalStateException("Could not get token for bulk insert", e);
     }
 
     try {
       token = validateThatWeCanUseAuthenticateTokens(token);
     } catch (Exception e) {
-      queue.add(END_OF_QUEUE_OBJECT);
+      queue.add(new QueuedDocument(END_OF_QUEUE_OBJECT, 0));
       throw new IllegalStateException("Could not authenticate token for bulk insert, if you are using ravendb in IIS make sure you have Anonymous Authentication enabled in the IIS configuration", e);
     }
     final String tokenToPass = token;
@@ -292,32 +288,50 @@ public class RemoteBulkInsertOperation implements ILowLevelBulkInsertOperation,
   private void writeQueueToServer(OutputStream stream, BulkInsertOptions options, CancellationToken cancellationToken) throws IOException {
     while (true) {
       cancellationToken.throwIfCancellationRequested();
-      List<RavenJObject> batch = new ArrayList<>();
+      QueuedDocument queued;
+      try {
+        // wait for first document of batch, waking up periodically to check cancellation
+        queued = queue.poll(WAIT_FOR_DOCUMENTS_MILLIS, TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+        continue;
+      }
+      if (queued == null) {
+        continue;
+      }
+
+      encoder.startBatch();
+      int batchCount = 0;
+      long batchSize = 0;
+      boolean full = false;
       try {
-        RavenJObject document;
-        while ((document = queue.poll(200, TimeUnit.MICROSECONDS)) != null) {
+        while (queued != null) {
           cancellationToken.throwIfCancellationRequested();
 
-          if (document == END_OF_QUEUE_OBJECT) { //marker
-            flushBatch(stream, batch);
+          if (queued.document == END_OF_QUEUE_OBJECT) { //marker
+            flushBatch(stream, batchCount, false);
             return;
           }
-          if (document == SKIP_MARKER) { // ignore this, just filling the queue
-            continue;
-          }
-          if (document == ABORT_MARKER) { // abort immediately
+          if (queued.document == ABORT_MARKER) { // abort immediately
             return;
           }
-          batch.add(document);
+          encoder.write(queued.document);
+          batchCount++;
+          batchSize += queued.size;
 
-          if (batch.size() >= options.getBatchSize()) {
+          if (batchSize >= batchSizer.getBatchSizeInBytes()) {
+            full = true;
+            break;
+          }
+          if (batchCount >= options.getBatchSize()) {
             break;
           }
+          // when producer is slower than server, send what we have
+          queued = queue.poll(LINGER_MILLIS, TimeUnit.MILLISECONDS);
         }
       } catch (InterruptedException e ){
         //ignore
       }
-      flushBatch(stream, batch);
+      flushBatch(stream, batchCount, full);
     }
   }
 
@@ -344,6 +358,7 @@ public class RemoteBulkInsertOperation implements ILowLevelBulkInsertOperation,
 
     metadata.add("@id", id);
     data.add(Constants.METADATA, metadata);
+    long size = dataSize != null ? dataSize.longValue() : DocumentHelpers.getRoughSize(data);
     for (int i = 0; i < 2; i++) {
       if (operationTask.isInterrupted() || !operationTask.isAlive()){
         operationTask.join();
@@ -352,16 +367,7 @@ public class RemoteBulkInsertOperation implements ILowLevelBulkInsertOperation,
         }
       }
 
-      if (queue.offer(data, options.getWriteTimeoutMiliseconds() / 2, TimeUnit.MILLISECONDS)) {
-        if (dataSize != null && dataSize >= BIG_DOCUMENT_SIZE) {
-          //essentially for a BatchSize == 1024 and stream of 1MB documents - the actual batch size will be 128
-          // --> BatchSize = 1024 / (dataSize = 1024/BigDocumentSize = 250) * 2 == 128
-          for (int skipDocIndex = 0; skipDocIndex < (dataSize / BIG_DOCUMENT_SIZE) * 2; skipDocIndex++) {
-            if (!queue.offer(SKIP_MARKER)) {
-              break;
-            }
-          }
-        }
+      if (queue.offer(new QueuedDocument(data, size), size, options.getWriteTimeoutMiliseconds() / 2, TimeUnit.MILLISECONDS)) {
         return;
       }
     }
@@ -401,7 +407,7 @@ public class RemoteBulkInsertOperation implements ILowLevelBulkInsertOperation,
     if (disposed) {
       return ;
     }
-    queue.add(END_OF_QUEUE_OBJECT);
+    queue.add(new QueuedDocument(END_OF_QUEUE_OBJECT, 0));
     try {
       operationTask.join();
     } catch (InterruptedException e) {
@@ -414,58 +420,50 @@ public class RemoteBulkInsertOperation implements ILowLevelBulkInsertOperation,
 
     reportInternal("Finished writing all results to server");
 
-    while (true) {
-      if (isOperationCompleted(responseOperationId)) {
-        break;
+    completion = operationClient.getJsonRequestFactory().getOperationStatusPoller().track(responseOperationId, new Function1<Long, RavenJToken>() {
+      @SuppressWarnings("synthetic-access")
+      @Override
+      public RavenJToken apply(Long input) {
+        return getOperationStatus(input);
       }
-      TimeUtils.cleanSleep(500);
-    }
+    });
+    completion.join();
     reportInternal("Done writing to server");
   }
 
+  /**
+   * Writes documents of current batch of encoder to server, gzipped and prefixed with length.
+   * @param requestStream
+   * @param batchCount number of documents in batch
+   * @param full true if batch was closed because it reached target size
+   */
   @SuppressWarnings({"hiding", "boxing"})
-  private  void flushBatch(OutputStream requestStream, Collection<RavenJObject> localBatch) throws IOException {
-    if (localBatch.isEmpty()) {
+  private void flushBatch(OutputStream requestStream, int batchCount, boolean full) throws IOException {
+    if (batchCount == 0) {
       return ;
     }
     if (aborted) {
       throw new IllegalStateException("Operation was timed out or has been aborted");
     }
-    bufferedStream.reset();
-    writeToBuffer(localBatch);
+    long start = System.nanoTime();
+    ByteArrayOutputStream batch = encoder.finishBatch();
 
-    byte[] bytes = ByteBuffer.allocate(4).putInt(bufferedStream.size()).array();
+    byte[] bytes = ByteBuffer.allocate(4).putInt(batch.size()).array();
     ArrayUtils.reverse(bytes);
     requestStream.write(bytes);
-    bufferedStream.writeTo(requestStream);
+    batch.writeTo(requestStream);
     requestStream.flush();
 
-    total += localBatch.size();
+    batchSizer.onBatchWritten(encoder.getSerializedSize(), System.nanoTime() - start, full);
+    total += batchCount;
 
     Action1<String> report = getReport();
     if (report != null) {
-      report.apply(String.format("Wrote %d (total %d) documents to server gzipped to %d kb", localBatch.size(), total, bufferedStream.size() / 1024));
+      report.apply(String.format("Wrote %d (total %d) documents to server gzipped to %d kb", batchCount, total, batch.size() / 1024));
     }
 
   }
 
-  private void writeToBuffer(Collection<RavenJObject> localBatch) throws IOException {
-    GZIPOutputStream gzipOutputStream = new GZIPOutputStream(bufferedStream);
-
-    BsonGenerator bsonWriter = bsonFactory.createJsonGenerator(gzipOutputStream);
-    bsonWriter.disable(org.codehaus.jackson.JsonGenerator.Feature.AUTO_CLOSE_TARGET);
-
-    byte[] bytes = ByteBuffer.allocate(4).putInt(localBatch.size()).array();
-    ArrayUtils.reverse(bytes);
-    gzipOutputStream.write(bytes);
-    for (RavenJObject doc : localBatch) {
-      doc.writeTo(bsonWriter);
-    }
-    bsonWriter.close();
-    gzipOutputStream.finish();
-    bufferedStream.flush();
-  }
-
   private void reportInternal(String format, Object... args) {
     Action1<String> onReport = report;
     if (onReport != null) {
@@ -478,6 +476,10 @@ public class RemoteBulkInsertOperation implements ILowLevelBulkInsertOperation,
     if (value.getType().equals(DocumentChangeTypes.BULK_INSERT_ERROR)) {
       cancellationTokenSource.cancel();
     }
+    OperationCompletion currentCompletion = completion;
+    if (currentCompletion != null && value.getType().equals(DocumentChangeTypes.BULK_INSERT_ENDED)) {
+      currentCompletion.pollNow();
+    }
   }
 
   @Override
@@ -493,11 +495,21 @@ public class RemoteBulkInsertOperation implements ILowLevelBulkInsertOperation,
   @Override
   public void abort() {
     aborted = true;
-    queue.add(ABORT_MARKER);
+    queue.add(new QueuedDocument(ABORT_MARKER, 0));
   }
 
   @Override
   public boolean isAborted() {
     return aborted;
   }
+
+  private static class QueuedDocument {
+    private final RavenJObject document;
+    private final long size;
+
+    public QueuedDocument(RavenJObject document, long size) {
+      this.document = document;
+      this.size = size;
+    }
+  }
 }
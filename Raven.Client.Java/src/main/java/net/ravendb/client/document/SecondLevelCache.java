@@ -0,0 +1,266 @@
+package net.ravendb.client.document;
+
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import net.ravendb.abstractions.basic.CleanCloseable;
+import net.ravendb.abstractions.basic.EventHandler;
+import net.ravendb.abstractions.basic.VoidArgs;
+import net.ravendb.abstractions.data.Constants;
+import net.ravendb.abstractions.data.DocumentChangeNotification;
+import net.ravendb.abstractions.data.Etag;
+import net.ravendb.abstractions.data.JsonDocument;
+import net.ravendb.abstractions.json.linq.RavenJObject;
+import net.ravendb.client.changes.IDatabaseChanges;
+import net.ravendb.client.changes.ObserverAdapter;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Store wide cache of loaded documents shared by all sessions.
+ *
+ * Documents are cached only for databases, which document changes are observed
+ * (see {@link #observeDocumentChanges(String, IDatabaseChanges)}). Cached document is removed when change notification
+ * for it arrives, and all documents of database are removed when changes connection is interrupted,
+ * so session can load cached document without asking server.
+ */
+public class SecondLevelCache {
+
+  public static final int DEFAULT_MAX_SIZE = 2048;
+
+  private static final int CHANGE_STRIPES = 1024;
+
+  private volatile Cache<String, Entry> cache;
+  /**
+   * Incremented on every change, versions are values of this clock.
+   */
+  private final AtomicLong clock = new AtomicLong();
+  private final ConcurrentMap<String, DatabaseChanges> databaseChanges = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, IDatabaseChanges> observedDatabases = new ConcurrentHashMap<>();
+
+  public SecondLevelCache() {
+    this(DEFAULT_MAX_SIZE);
+  }
+
+  public SecondLevelCache(int maxSize) {
+    resetCache(maxSize);
+  }
+
+  /**
+   * Removes all cached documents and changes maximum number of cached documents.
+   * @param maxSize
+   */
+  public void resetCache(int maxSize) {
+    cache = CacheBuilder.newBuilder().maximumSize(maxSize).build();
+  }
+
+  /**
+   * @return true if documents of given database can be cached
+   * @param database
+   */
+  public boolean isEnabledFor(String database) {
+    IDatabaseChanges changes = observedDatabases.get(database.toLowerCase(Locale.ROOT));
+    return changes != null && changes.isConnected();
+  }
+
+  /**
+   * Returns version, which has to be read before documents are requested from server
+   * and passed to {@link #put(String, JsonDocument, long)}.
+   * @param database
+   */
+  @SuppressWarnings("unused")
+  public long getVersion(String database) {
+    return clock.get();
+  }
+
+  /**
+   * Returns copy of cached document or null.
+   * @param database
+   * @param id
+   */
+  public JsonDocument get(String database, String id) {
+    if (!isEnabledFor(database)) {
+      return null;
+    }
+    Entry entry = cache.getIfPresent(cacheKey(database, id));
+    if (entry == null) {
+      return null;
+    }
+    return new JsonDocument(entry.data.cloneToken(), entry.metadata.cloneToken(), entry.key, null, entry.etag, entry.lastModified);
+  }
+
+  /**
+   * Stores document loaded from server. Document isn't stored if it (or other document with the same
+   * change stripe) changed after version was read (cached document could be older than change notification).
+   * @param database
+   * @param document
+   * @param version database version read before document was requested
+   */
+  public void put(String database, JsonDocument document, long version) {
+    if (document == null || document.getKey() == null || Boolean.TRUE.equals(document.getNonAuthoritativeInformation())
+      || Boolean.TRUE.equals(document.getMetadata().value(Boolean.class, Constants.RAVEN_DOCUMENT_DOES_NOT_EXISTS))
+      || !isEnabledFor(database)) {
+      return;
+    }
+    RavenJObject data = document.getDataAsJson().cloneToken();
+    data.remove("@metadata");
+    RavenJObject metadata = document.getMetadata().cloneToken();
+    data.ensureCannotBeChangeAndEnableShapshotting();
+    metadata.ensureCannotBeChangeAndEnableShapshotting();
+    DatabaseChanges changes = getDatabaseChanges(database);
+    if (changes.changedSince(document.getKey(), version)) {
+      return;
+    }
+    cache.put(cacheKey(database, document.getKey()), new Entry(document.getKey(), data, metadata, document.getEtag(), document.getLastModified()));
+    // change notification might have been received while document was stored
+    if (changes.changedSince(document.getKey(), version)) {
+      cache.invalidate(cacheKey(database, document.getKey()));
+    }
+  }
+
+  /**
+   * Removes document from cache.
+   * @param database
+   * @param id
+   */
+  public void invalidate(String database, String id) {
+    getDatabaseChanges(database).documentChanged(id, clock.incrementAndGet());
+    cache.invalidate(cacheKey(database, id));
+  }
+
+  /**
+   * Removes all documents of given database.
+   * @param database
+   */
+  public void invalidateDatabase(String database) {
+    getDatabaseChanges(database).databaseChanged(clock.incrementAndGet());
+    String prefix = database.toLowerCase(Locale.ROOT) + "|";
+    for (String key : cache.asMap().keySet()) {
+      if (key.startsWith(prefix)) {
+        cache.invalidate(key);
+      }
+    }
+  }
+
+  public void clear() {
+    long now = clock.incrementAndGet();
+    for (DatabaseChanges changes : databaseChanges.values()) {
+      changes.databaseChanged(now);
+    }
+    cache.invalidateAll();
+  }
+
+  public long size() {
+    return cache.size();
+  }
+
+  /**
+   * Observes document changes of given database and enables caching of its documents.
+   * @param database
+   * @param changes
+   * @return subscription, close it to stop observing changes
+   */
+  public CleanCloseable observeDocumentChanges(final String database, final IDatabaseChanges changes) {
+    final EventHandler<VoidArgs> connectionStatusChanged = new EventHandler<VoidArgs>() {
+      @Override
+      public void handle(Object sender, VoidArgs event) {
+        // notifications might have been missed while disconnected
+        invalidateDatabase(database);
+      }
+    };
+    changes.addConnectionStatusChanged(connectionStatusChanged);
+    final CleanCloseable subscription = changes.forAllDocuments().subscribe(new ObserverAdapter<DocumentChangeNotification>() {
+      @Override
+      public void onNext(DocumentChangeNotification value) {
+        invalidate(database, value.getId());
+      }
+    });
+    invalidateDatabase(database);
+    observedDatabases.put(database.toLowerCase(Locale.ROOT), changes);
+
+    return new CleanCloseable() {
+      @Override
+      public void close() {
+        observedDatabases.remove(database.toLowerCase(Locale.ROOT), changes);
+        subscription.close();
+        changes.removeConnectionStatusChanges(connectionStatusChanged);
+        invalidateDatabase(database);
+      }
+    };
+  }
+
+  private static String cacheKey(String database, String id) {
+    return database.toLowerCase(Locale.ROOT) + "|" + id.toLowerCase(Locale.ROOT);
+  }
+
+  private DatabaseChanges getDatabaseChanges(String database) {
+    String key = database.toLowerCase(Locale.ROOT);
+    DatabaseChanges changes = databaseChanges.get(key);
+    if (changes == null) {
+      DatabaseChanges newChanges = new DatabaseChanges();
+      changes = databaseChanges.putIfAbsent(key, newChanges);
+      if (changes == null) {
+        changes = newChanges;
+      }
+    }
+    return changes;
+  }
+
+  /**
+   * Clock values of last changes of database. Documents are tracked in fixed number of stripes (by hash of id),
+   * so change of one document rejects only loads of documents from the same stripe.
+   */
+  private static class DatabaseChanges {
+    private final AtomicLong lastDatabaseChange = new AtomicLong();
+    private final AtomicLongArray lastDocumentChanges = new AtomicLongArray(CHANGE_STRIPES);
+
+    public void databaseChanged(long now) {
+      raise(lastDatabaseChange, now);
+    }
+
+    public void documentChanged(String id, long now) {
+      int stripe = stripe(id);
+      long last;
+      do {
+        last = lastDocumentChanges.get(stripe);
+      } while (last < now && !lastDocumentChanges.compareAndSet(stripe, last, now));
+    }
+
+    public boolean changedSince(String id, long version) {
+      return lastDatabaseChange.get() > version || lastDocumentChanges.get(stripe(id)) > version;
+    }
+
+    private static void raise(AtomicLong value, long now) {
+      long last;
+      do {
+        last = value.get();
+      } while (last < now && !value.compareAndSet(last, now));
+    }
+
+    private static int stripe(String id) {
+      return (id.toLowerCase(Locale.ROOT).hashCode() & Integer.MAX_VALUE) % CHANGE_STRIPES;
+    }
+  }
+
+  private static class Entry {
+    private final String key;
+    private final RavenJObject data;
+    private final RavenJObject metadata;
+    private final Etag etag;
+    private final Date lastModified;
+
+    public Entry(String key, RavenJObject data, RavenJObject metadata, Etag etag, Date lastModified) {
+      this.key = key;
+      this.data = data;
+      this.metadata = metadata;
+      this.etag = etag;
+      this.lastModified = lastModified;
+    }
+  }
+
+}
@@ -36,14 +36,16 @@ import java.io.Closeable;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 public class Subscription<T> implements IObservable<T>, CleanCloseable {
 
   private final static Object END_OF_COLLECTION_MARKER = new Object();
 
-  private final ExecutorService executorService = Executors.newFixedThreadPool(3);
+  private final ExecutorService executorService;
 
   protected static final ILog logger = LogManager.getCurrentClassLogger();
 
@@ -78,8 +80,8 @@ public class Subscription<T> implements IObservable<T>, CleanCloseable {
 
   private EventHandler<VoidArgs> eventHandler;
 
-  private boolean isErroredBecauseOfSubscriber;
-  private Exception lastSubscriberException;
+  private volatile boolean isErroredBecauseOfSubscriber;
+  private volatile Exception lastSubscriberException;
   private Throwable subscriptionConnectionException;
   private boolean connectionClosed;
 
@@ -93,6 +95,8 @@ public class Subscription<T> implements IObservable<T>, CleanCloseable {
     this.changes = changes;
     this.conventions = conventions;
     this.ensureOpenSubscription = ensureOpenSubscription;
+    // one thread for starting, one for pulling and the rest for processing documents
+    this.executorService = Executors.newFixedThreadPool(2 + getProcessingThreads());
 
     if (!RavenJObject.class.equals(clazz)) {
       isStronglyTyped = true;
@@ -124,7 +128,7 @@ public class Subscription<T> implements IObservable<T>, CleanCloseable {
     startPullingTask = startPullingDocs();
   }
 
-  @SuppressWarnings({"boxing", "unchecked"})
+  @SuppressWarnings("boxing")
   private Future<?> pullDocuments() {
     return executorService.submit(new Callable<Void>() {
       @Override
@@ -139,10 +143,10 @@ public class Subscription<T> implements IObservable<T>, CleanCloseable {
 
             boolean pulledDocs = false;
             final Reference<Etag> lastProcessedEtagOnServerRef = new Reference<>();
-            final Reference<Integer> processedDocsRef = new Reference<>(0);
+            final AtomicInteger processedDocs = new AtomicInteger();
 
-            final BlockingQueue<Object> queue = new ArrayBlockingQueue<>(options.getBatchOptions().getMaxDocCount() + 1);
-            Future<?> processingTask = null;
+            final List<BlockingQueue<Object>> queues = createProcessingQueues();
+            List<Future<?>> processingTasks = new ArrayList<>();
 
             try (HttpJsonRequest subscriptionRequest = createPullingRequest()) {
               try (CloseableHttpResponse response = subscriptionRequest.executeRawResponse()) {
@@ -170,69 +174,19 @@ public class Subscription<T> implements IObservable<T>, CleanCloseable {
                     if (pulledDocs == false) {
                       EventHelper.invoke(beforeBatch, this, EventArgs.EMPTY);
 
-                      processingTask = executorService.submit(new Runnable() {
-                        @Override
-                        public void run() {
-                          T doc;
-                          try {
-                            while (true) {
-                              Object takenObject = queue.take();
-
-                              if (END_OF_COLLECTION_MARKER == takenObject) {
-                                break;
-                              }
-
-                              doc = (T) takenObject;
-                              cts.getToken().throwIfCancellationRequested();
-
-                              for (IObserver<T> subscriber : subscribers) {
-                                try {
-                                  subscriber.onNext(doc);
-                                } catch (Exception ex) {
-                                  logger.warnException("Subscriber threw an exception", ex);
-                                  if (options.isIgnoreSubscribersErrors() == false) {
-                                    isErroredBecauseOfSubscriber = true;
-                                    lastSubscriberException = ex;
-                                    try {
-                                      subscriber.onError(ex);
-                                    } catch (Exception e) {
-                                      // can happen if a subscriber doesn't have an onError handler - just ignore it
-                                    }
-                                    break;
-                                  }
-                                }
-                              }
-
-                              if (isErroredBecauseOfSubscriber) {
-                                break;
-                              }
-
-                              processedDocsRef.value++;
-                            }
-                          } catch (InterruptedException e) {
-                            throw new RuntimeException(e);
-                          }
+                      for (BlockingQueue<Object> queue : queues) {
+                        for (int i = 0; i < getProcessingThreads() / queues.size(); i++) {
+                          processingTasks.add(executorService.submit(createProcessingTask(queue, processedDocs)));
                         }
-                      });
+                      }
                     }
                     pulledDocs = true;
 
                     cts.getToken().throwIfCancellationRequested();
 
+                    // documents are deserialized by processing threads
                     RavenJObject jsonDoc = streamedDocs.next();
-
-                    if (isStronglyTyped) {
-                      T instance = conventions.createSerializer().deserialize(jsonDoc.toString(), clazz);
-                      String docId = jsonDoc.get(Constants.METADATA).value(String.class, "@id");
-
-                      if (StringUtils.isNotEmpty(docId)) {
-                        generateEntityIdOnTheClient.trySetIdentity(instance, docId);
-                      }
-
-                      queue.add(instance);
-                    } else {
-                      queue.add((T) jsonDoc);
-                    }
+                    getProcessingQueue(queues, jsonDoc).add(jsonDoc);
 
                     if (isErroredBecauseOfSubscriber) {
                       break;
@@ -241,9 +195,13 @@ public class Subscription<T> implements IObservable<T>, CleanCloseable {
                 }
               }
 
-              queue.add(END_OF_COLLECTION_MARKER);
+              for (BlockingQueue<Object> queue : queues) {
+                for (int i = 0; i < getProcessingThreads() / queues.size(); i++) {
+                  queue.add(END_OF_COLLECTION_MARKER);
+                }
+              }
 
-              if (processingTask != null) {
+              for (Future<?> processingTask : processingTasks) {
                 processingTask.get();
               }
 
@@ -259,7 +217,7 @@ public class Subscription<T> implements IObservable<T>, CleanCloseable {
                   acknowledgeBatchToServer(lastProcessedEtagOnServerRef.value);
                   EventHelper.invoke(afterAcknowledgment, this, new LastProcessedEtagEventArgs(lastProcessedEtagOnServerRef.value));
 
-                  EventHelper.invoke(afterBatch, this, new DocumentProcessedEventArgs(processedDocsRef.value));
+                  EventHelper.invoke(afterBatch, this, new DocumentProcessedEventArgs(processedDocs.get()));
                   continue; // try to pull more documents from subscription
                 } else {
                   if (!lastProcessedEtagOnServerRef.value.equals(lastProcessedEtagOnClient)) {
@@ -296,6 +254,104 @@ public class Subscription<T> implements IObservable<T>, CleanCloseable {
     });
   }
 
+  private int getProcessingThreads() {
+    return Math.max(1, options.getProcessingThreads());
+  }
+
+  /**
+   * Creates queues feeding processing threads: either single queue shared by all threads
+   * or (when order of changes of the same document has to be preserved) one queue per thread.
+   */
+  private List<BlockingQueue<Object>> createProcessingQueues() {
+    int processingThreads = getProcessingThreads();
+    int maxDocCount = options.getBatchOptions().getMaxDocCount();
+    List<BlockingQueue<Object>> queues = new ArrayList<>();
+    if (processingThreads > 1 && options.isPreserveDocumentOrder()) {
+      for (int i = 0; i < processingThreads; i++) {
+        queues.add(new ArrayBlockingQueue<>(maxDocCount + 1));
+      }
+    } else {
+      queues.add(new ArrayBlockingQueue<>(maxDocCount + processingThreads));
+    }
+    return queues;
+  }
+
+  private static BlockingQueue<Object> getProcessingQueue(List<BlockingQueue<Object>> queues, RavenJObject jsonDoc) {
+    if (queues.size() == 1) {
+      return queues.get(0);
+    }
+    String docId = jsonDoc.get(Constants.METADATA).value(String.class, "@id");
+    int hash = docId != null ? docId.toLowerCase(Locale.ROOT).hashCode() : 0;
+    return queues.get((hash & Integer.MAX_VALUE) % queues.size());
+  }
+
+  private Runnable createProcessingTask(final BlockingQueue<Object> queue, final AtomicInteger processedDocs) {
+    return new Runnable() {
+      @SuppressWarnings("synthetic-access")
+      @Override
+      public void run() {
+        T doc;
+        try {
+          while (true) {
+            Object takenObject = queue.take();
+
+            if (END_OF_COLLECTION_MARKER == takenObject) {
+              break;
+            }
+
+            cts.getToken().throwIfCancellationRequested();
+
+            if (isErroredBecauseOfSubscriber) {
+              break;
+            }
+
+            doc = toEntity((RavenJObject) takenObject);
+
+            for (IObserver<T> subscriber : subscribers) {
+              try {
+                subscriber.onNext(doc);
+              } catch (Exception ex) {
+                logger.warnException("Subscriber threw an exception", ex);
+                if (options.isIgnoreSubscribersErrors() == false) {
+                  isErroredBecauseOfSubscriber = true;
+                  lastSubscriberException = ex;
+                  try {
+                    subscriber.onError(ex);
+                  } catch (Exception e) {
+                    // can happen if a subscriber doesn't have an onError handler - just ignore it
+                  }
+                  break;
+                }
+              }
+            }
+
+            if (isErroredBecauseOfSubscriber) {
+              break;
+            }
+
+            processedDocs.incrementAndGet();
+          }
+        } catch (InterruptedException e) {
+          throw new RuntimeException(e);
+        }
+      }
+    };
+  }
+
+  @SuppressWarnings("unchecked")
+  private T toEntity(RavenJObject jsonDoc) {
+    if (!isStronglyTyped) {
+      return (T) jsonDoc;
+    }
+    T instance = conventions.createSerializer().deserialize(jsonDoc, clazz);
+    String docId = jsonDoc.get(Constants.METADATA).value(String.class, "@id");
+
+    if (StringUtils.isNotEmpty(docId)) {
+      generateEntityIdOnTheClient.trySetIdentity(instance, docId);
+    }
+    return instance;
+  }
+
   private void acknowledgeBatchToServer(Etag lastProcessedEtagOnServer) {
     try (HttpJsonRequest acknowledgmentRequest = createAcknowledgmentRequest(lastProcessedEtagOnServer)) {
       try {
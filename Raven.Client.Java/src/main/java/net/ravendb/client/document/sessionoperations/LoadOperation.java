@@ -22,6 +22,7 @@ public class LoadOperation {
   private JsonDocument documentFound;
 
   private long spStart;
+  private long secondLevelCacheVersion;
 
 
   public LoadOperation(InMemoryDocumentSessionOperations sessionOperations, Function0<CleanCloseable> disableAllCaching, String id) {
@@ -31,6 +32,7 @@ public class LoadOperation {
     this.sessionOperations = sessionOperations;
     this.disableAllCaching = disableAllCaching;
     this.id = id;
+    this.secondLevelCacheVersion = sessionOperations.getSecondLevelCacheVersion();
   }
 
   public void logOperation() {
@@ -52,6 +54,7 @@ public class LoadOperation {
     if (documentFound == null) {
       return false;
     }
+    sessionOperations.putToSecondLevelCache(documentFound, secondLevelCacheVersion);
     return
         Boolean.TRUE.equals(documentFound.getNonAuthoritativeInformation())
         && sessionOperations.isAllowNonAuthoritativeInformation() == false
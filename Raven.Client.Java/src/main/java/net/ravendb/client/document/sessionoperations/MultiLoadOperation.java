@@ -13,6 +13,7 @@ import net.ravendb.abstractions.logging.ILog;
 import net.ravendb.abstractions.logging.LogManager;
 import net.ravendb.client.connection.SerializationHelper;
 import net.ravendb.client.document.InMemoryDocumentSessionOperations;
+import net.ravendb.client.util.CaseInsensitiveHashMap;
 
 import org.apache.commons.lang.StringUtils;
 
@@ -31,12 +32,14 @@ public class MultiLoadOperation {
   JsonDocument[] includeResults;
 
   private long spStart;
+  private long secondLevelCacheVersion;
 
   public MultiLoadOperation(InMemoryDocumentSessionOperations sessionOperations, Function0<CleanCloseable> disableAllCaching, String[] ids, Tuple<String, Class<?>>[] includes) {
     this.sessionOperations = sessionOperations;
     this.disableAllCaching = disableAllCaching;
     this.ids = ids;
     this.includes = includes;
+    this.secondLevelCacheVersion = sessionOperations.getSecondLevelCacheVersion();
   }
 
   public void logOperation() {
@@ -59,6 +62,12 @@ public class MultiLoadOperation {
     firstRequest = false;
     includeResults = SerializationHelper.ravenJObjectsToJsonDocuments(multiLoadResult.getIncludes()).toArray(new JsonDocument[0]);
     results = SerializationHelper.ravenJObjectsToJsonDocuments(multiLoadResult.getResults()).toArray(new JsonDocument[0]);
+    for (JsonDocument doc : results) {
+      sessionOperations.putToSecondLevelCache(doc, secondLevelCacheVersion);
+    }
+    for (JsonDocument doc : includeResults) {
+      sessionOperations.putToSecondLevelCache(doc, secondLevelCacheVersion);
+    }
 
     if (sessionOperations.isAllowNonAuthoritativeInformation()) {
       return false;
@@ -122,14 +131,14 @@ public class MultiLoadOperation {
 
   private <T> T[] returnResultsById(Class<T> clazz) {
     T[] finalResults = (T[]) Array.newInstance(clazz, results.length);
-    TreeMap<String, FinalResultPositionById> dic = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    CaseInsensitiveHashMap<FinalResultPositionById> dic = new CaseInsensitiveHashMap<>(ids.length);
 
     for (int i = 0; i < ids.length; i++) {
       if (ids[i] == null) {
         continue;
       }
 
-      FinalResultPositionById position = dic.get(ids[i]);
+      FinalResultPositionById position = dic.getOrNull(ids[i]);
       if (position == null) {
         FinalResultPositionById finalResultPositionById = new FinalResultPositionById();
         finalResultPositionById.singleReturn = i;
@@ -154,7 +163,7 @@ public class MultiLoadOperation {
         continue;
       }
 
-      FinalResultPositionById position = dic.get(id);
+      FinalResultPositionById position = dic.getOrNull(id);
 
       if (position != null) {
         if (position.singleReturn != null) {
@@ -0,0 +1,32 @@
+package net.ravendb.client.exceptions;
+
+/**
+ * Thrown when request can't be sent because node already handles max number of concurrent requests
+ * (and request didn't get free slot in configured wait timeout).
+ */
+public class ConcurrencyLimitExceededException extends RuntimeException {
+
+  private final String node;
+  private final int limit;
+
+  public ConcurrencyLimitExceededException(String node, int limit) {
+    super("Too many concurrent requests to " + node + " (current limit: " + limit + ")");
+    this.node = node;
+    this.limit = limit;
+  }
+
+  /**
+   * Server url (scheme, host and port).
+   */
+  public String getNode() {
+    return node;
+  }
+
+  /**
+   * Concurrency limit of node at the time request was rejected.
+   */
+  public int getLimit() {
+    return limit;
+  }
+
+}
@@ -0,0 +1,16 @@
+package net.ravendb.client.exceptions;
+
+/**
+ * Thrown when operation can't be (re)tried, because time budget set by IDocumentStore.setDeadlineFor is exhausted.
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+  public DeadlineExceededException(String message) {
+    super(message);
+  }
+
+  public DeadlineExceededException(String message, Throwable cause) {
+    super(message, cause);
+  }
+
+}
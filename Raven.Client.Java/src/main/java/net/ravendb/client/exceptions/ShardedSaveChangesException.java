@@ -0,0 +1,35 @@
+package net.ravendb.client.exceptions;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This exception is thrown when sharded save changes failed on some of the shards.
+ * Changes sent to remaining shards were saved and are no longer pending in session.
+ */
+public class ShardedSaveChangesException extends RuntimeException {
+
+  private final Map<String, Exception> failures;
+  private final List<String> savedShards;
+
+  public ShardedSaveChangesException(String message, Map<String, Exception> failures, List<String> savedShards) {
+    super(message, failures.isEmpty() ? null : failures.values().iterator().next());
+    this.failures = failures;
+    this.savedShards = savedShards;
+  }
+
+  /**
+   * Exceptions thrown by shards which failed to save changes (by shard id).
+   */
+  public Map<String, Exception> getFailures() {
+    return failures;
+  }
+
+  /**
+   * Ids of shards which saved changes successfully.
+   */
+  public List<String> getSavedShards() {
+    return savedShards;
+  }
+
+}
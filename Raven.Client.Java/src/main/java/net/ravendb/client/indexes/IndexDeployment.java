@@ -0,0 +1,427 @@
+package net.ravendb.client.indexes;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.Executor;
+
+import net.ravendb.abstractions.closure.Function0;
+import net.ravendb.abstractions.data.HttpMethods;
+import net.ravendb.abstractions.data.IndexStats;
+import net.ravendb.abstractions.data.IndexStats.IndexingPriority;
+import net.ravendb.abstractions.data.IndexToAdd;
+import net.ravendb.abstractions.indexing.IndexDefinition;
+import net.ravendb.abstractions.indexing.TransformerDefinition;
+import net.ravendb.abstractions.json.linq.JTokenType;
+import net.ravendb.abstractions.json.linq.RavenJArray;
+import net.ravendb.abstractions.json.linq.RavenJObject;
+import net.ravendb.abstractions.json.linq.RavenJToken;
+import net.ravendb.abstractions.logging.ILog;
+import net.ravendb.abstractions.logging.LogManager;
+import net.ravendb.client.connection.IDatabaseCommands;
+import net.ravendb.client.connection.ServerClient;
+import net.ravendb.client.connection.implementation.HttpJsonRequest;
+import net.ravendb.client.document.DocumentConvention;
+import net.ravendb.client.document.IndexAndTransformerReplicationMode;
+import net.ravendb.client.utils.RavenFuture;
+import net.ravendb.client.utils.UrlUtils;
+
+import org.apache.commons.codec.digest.DigestUtils;
+
+/**
+ * Deploys indexes and transformers with minimal number of requests.
+ *
+ * Fingerprint of each definition is compared with fingerprints of definitions already deployed, which are taken
+ * from the fingerprint file (when configured and it contains all of them) or from single fetch of all server definitions.
+ * Only changed indexes are sent - all of them in single putIndexes request. Changed transformers and replication
+ * requests are sent concurrently using given executor.
+ */
+public class IndexDeployment {
+
+  private static final ILog log = LogManager.getCurrentClassLogger();
+
+  private static final int PAGE_SIZE = 1024;
+
+  // properties compared by IndexDefinition.equals
+  private static final Set<String> INDEX_FINGERPRINT_PROPERTIES = new HashSet<>(Arrays.asList("maps", "reduce", "stores", "indexes",
+    "sortoptions", "analyzers", "suggestions", "termvectors", "spatialindexes", "maxindexoutputsperdocument"));
+
+  private final IDatabaseCommands databaseCommands;
+  private final DocumentConvention conventions;
+  private Executor executor;
+  private File fingerprintFile;
+
+  public IndexDeployment(IDatabaseCommands databaseCommands, DocumentConvention conventions) {
+    this.databaseCommands = databaseCommands;
+    this.conventions = conventions;
+  }
+
+  /**
+   * Executor used to send transformers and replication requests concurrently. When null requests are sent sequentially.
+   */
+  public Executor getExecutor() {
+    return executor;
+  }
+
+  /**
+   * Executor used to send transformers and replication requests concurrently. When null requests are sent sequentially.
+   * @param executor
+   */
+  public void setExecutor(Executor executor) {
+    this.executor = executor;
+  }
+
+  /**
+   * File with fingerprints of definitions deployed by previous deployments. When all definitions match fingerprints
+   * in file, nothing is sent to server. Note the file is not aware of changes made to server by others
+   * (e.g. database was recreated), delete it to force comparison with server.
+   */
+  public File getFingerprintFile() {
+    return fingerprintFile;
+  }
+
+  /**
+   * File with fingerprints of definitions deployed by previous deployments. When all definitions match fingerprints
+   * in file, nothing is sent to server. Note the file is not aware of changes made to server by others
+   * (e.g. database was recreated), delete it to force comparison with server.
+   * @param fingerprintFile
+   */
+  public void setFingerprintFile(File fingerprintFile) {
+    this.fingerprintFile = fingerprintFile;
+  }
+
+  /**
+   * Deploys given indexes and transformers.
+   * @param indexCreationTasks
+   * @param transformerCreationTasks
+   * @return names of deployed and skipped (unchanged) indexes and transformers
+   */
+  public Result deploy(List<AbstractIndexCreationTask> indexCreationTasks, List<AbstractTransformerCreationTask> transformerCreationTasks) {
+    Result result = new Result();
+
+    IndexToAdd[] indexesToAdd = IndexCreation.createIndexesToAdd(indexCreationTasks, conventions);
+    Map<String, String> fingerprints = new HashMap<>();
+    // priority is compared only when set explicitly, otherwise priority changed by server (e.g. idle index) would cause redeploy
+    Map<String, IndexingPriority> explicitPriorities = new HashMap<>();
+    for (int i = 0; i < indexesToAdd.length; i++) {
+      IndexToAdd indexToAdd = indexesToAdd[i];
+      String key = indexKey(indexToAdd.getName());
+      IndexingPriority priority = indexCreationTasks.get(i).getPriority();
+      if (priority != null) {
+        explicitPriorities.put(key, priority);
+      }
+      fingerprints.put(key, fingerprint(indexToAdd.getDefinition(), priority));
+    }
+    List<TransformerDefinition> transformers = new ArrayList<>();
+    for (AbstractTransformerCreationTask transformerCreationTask : transformerCreationTasks) {
+      transformerCreationTask.setConventions(conventions);
+      TransformerDefinition transformerDefinition = transformerCreationTask.createTransformerDefinition();
+      transformers.add(transformerDefinition);
+      fingerprints.put(transformerKey(transformerDefinition.getName()), fingerprint(transformerDefinition));
+    }
+
+    Map<String, String> deployedFingerprints = loadFingerprints();
+    if (!deployedFingerprints.keySet().containsAll(fingerprints.keySet())) {
+      deployedFingerprints = fetchServerFingerprints(indexesToAdd, explicitPriorities.keySet());
+    }
+
+    List<IndexToAdd> changedIndexes = new ArrayList<>();
+    for (IndexToAdd indexToAdd : indexesToAdd) {
+      String key = indexKey(indexToAdd.getName());
+      if (fingerprints.get(key).equals(deployedFingerprints.get(key))) {
+        result.skippedIndexes.add(indexToAdd.getName());
+      } else {
+        changedIndexes.add(indexToAdd);
+        result.deployedIndexes.add(indexToAdd.getName());
+      }
+    }
+
+    List<Function0<Void>> requests = new ArrayList<>();
+    for (final TransformerDefinition transformer : transformers) {
+      String key = transformerKey(transformer.getName());
+      if (fingerprints.get(key).equals(deployedFingerprints.get(key))) {
+        result.skippedTransformers.add(transformer.getName());
+        continue;
+      }
+      result.deployedTransformers.add(transformer.getName());
+      requests.add(new Function0<Void>() {
+        @SuppressWarnings("synthetic-access")
+        @Override
+        public Void apply() {
+          databaseCommands.putTransformer(transformer.getName(), transformer);
+          replicate(IndexAndTransformerReplicationMode.TRANSFORMERS, "/replication/replicate-transformers?transformerName=", transformer.getName());
+          return null;
+        }
+      });
+    }
+
+    if (!changedIndexes.isEmpty()) {
+      databaseCommands.putIndexes(changedIndexes.toArray(new IndexToAdd[0]));
+      for (final IndexToAdd indexToAdd : changedIndexes) {
+        requests.add(new Function0<Void>() {
+          @SuppressWarnings("synthetic-access")
+          @Override
+          public Void apply() {
+            replicate(IndexAndTransformerReplicationMode.INDEXES, "/replication/replicate-indexes?indexName=", indexToAdd.getName());
+            return null;
+          }
+        });
+      }
+    }
+
+    executeAll(requests);
+
+    storeFingerprints(deployedFingerprints, fingerprints);
+    return result;
+  }
+
+  private Map<String, String> fetchServerFingerprints(IndexToAdd[] indexesToAdd, Set<String> indexesWithExplicitPriority) {
+    Map<String, String> result = new HashMap<>();
+
+    Map<String, IndexingPriority> priorities = new HashMap<>();
+    if (!indexesWithExplicitPriority.isEmpty()) {
+      for (IndexStats indexStats : databaseCommands.getStatistics().getIndexes()) {
+        priorities.put(indexKey(indexStats.getName()), indexStats.getPriority());
+      }
+    }
+
+    for (int start = 0; indexesToAdd.length > 0; start += PAGE_SIZE) {
+      int count = 0;
+      for (IndexDefinition indexDefinition : databaseCommands.getIndexes(start, PAGE_SIZE)) {
+        count++;
+        if (indexDefinition.getName() != null) {
+          String key = indexKey(indexDefinition.getName());
+          result.put(key, fingerprint(indexDefinition, indexesWithExplicitPriority.contains(key) ? priorities.get(key) : null));
+        }
+      }
+      if (count < PAGE_SIZE) {
+        break;
+      }
+    }
+
+    for (int start = 0; ; start += PAGE_SIZE) {
+      List<TransformerDefinition> transformers = databaseCommands.getTransformers(start, PAGE_SIZE);
+      for (TransformerDefinition transformerDefinition : transformers) {
+        if (transformerDefinition.getName() != null) {
+          result.put(transformerKey(transformerDefinition.getName()), fingerprint(transformerDefinition));
+        }
+      }
+      if (transformers.size() < PAGE_SIZE) {
+        break;
+      }
+    }
+    return result;
+  }
+
+  private void replicate(IndexAndTransformerReplicationMode mode, String url, String name) {
+    if (!conventions.getIndexAndTransformerReplicationMode().contains(mode) || !(databaseCommands instanceof ServerClient)) {
+      return;
+    }
+    try (HttpJsonRequest replicateRequest = ((ServerClient) databaseCommands).createRequest(HttpMethods.POST, url + UrlUtils.escapeDataString(name))) {
+      replicateRequest.executeRequest();
+    } catch (Exception e) {
+      log.warnException("Unable to replicate " + name + " to replication destinations", e);
+    }
+  }
+
+  private void executeAll(List<Function0<Void>> requests) {
+    if (executor == null) {
+      for (Function0<Void> request : requests) {
+        request.apply();
+      }
+      return;
+    }
+    List<RavenFuture<Void>> futures = new ArrayList<>();
+    for (Function0<Void> request : requests) {
+      futures.add(RavenFuture.supplyAsync(request, executor));
+    }
+    for (RavenFuture<Void> future : futures) {
+      future.join();
+    }
+  }
+
+  private Map<String, String> loadFingerprints() {
+    Map<String, String> result = new HashMap<>();
+    if (fingerprintFile == null || !fingerprintFile.exists()) {
+      return result;
+    }
+    Properties properties = new Properties();
+    try (InputStream input = new FileInputStream(fingerprintFile)) {
+      properties.load(input);
+    } catch (IOException e) {
+      log.warnException("Unable to read index fingerprints from " + fingerprintFile, e);
+      return result;
+    }
+    String prefix = fingerprintPrefix();
+    for (String name : properties.stringPropertyNames()) {
+      if (name.startsWith(prefix)) {
+        result.put(name.substring(prefix.length()), properties.getProperty(name));
+      }
+    }
+    return result;
+  }
+
+  private void storeFingerprints(Map<String, String> deployedFingerprints, Map<String, String> fingerprints) {
+    if (fingerprintFile == null || deployedFingerprints.equals(fingerprints)) {
+      return;
+    }
+    Properties properties = new Properties();
+    if (fingerprintFile.exists()) {
+      try (InputStream input = new FileInputStream(fingerprintFile)) {
+        properties.load(input);
+      } catch (IOException e) {
+        log.warnException("Unable to read index fingerprints from " + fingerprintFile, e);
+      }
+    }
+    String prefix = fingerprintPrefix();
+    for (Map.Entry<String, String> fingerprint : fingerprints.entrySet()) {
+      properties.setProperty(prefix + fingerprint.getKey(), fingerprint.getValue());
+    }
+    try (OutputStream output = new FileOutputStream(fingerprintFile)) {
+      properties.store(output, "RavenDB index and transformer fingerprints");
+    } catch (IOException e) {
+      log.warnException("Unable to store index fingerprints to " + fingerprintFile, e);
+    }
+  }
+
+  private String fingerprintPrefix() {
+    // single file can be shared by stores working with different databases
+    return (databaseCommands instanceof ServerClient ? ((ServerClient) databaseCommands).getUrl() : "") + "|";
+  }
+
+  private static String indexKey(String name) {
+    return "index/" + name.toLowerCase();
+  }
+
+  private static String transformerKey(String name) {
+    return "transformer/" + name.toLowerCase();
+  }
+
+  /**
+   * Computes fingerprint of index definition. Fingerprints are equal when definitions are equal
+   * (name, lock mode and other server side properties are ignored).
+   * @param indexDefinition
+   */
+  public static String fingerprint(IndexDefinition indexDefinition) {
+    RavenJObject json = RavenJObject.fromObject(indexDefinition);
+    StringBuilder builder = new StringBuilder();
+    for (Map.Entry<String, RavenJToken> property : sortedProperties(json).entrySet()) {
+      if (INDEX_FINGERPRINT_PROPERTIES.contains(property.getKey().toLowerCase())) {
+        appendCanonical(builder.append(property.getKey().toLowerCase()).append(':'), property.getValue());
+        builder.append(',');
+      }
+    }
+    return DigestUtils.sha256Hex(builder.toString());
+  }
+
+  private static String fingerprint(IndexDefinition indexDefinition, IndexingPriority priority) {
+    String fingerprint = fingerprint(indexDefinition);
+    return priority != null ? fingerprint + "/" + priority : fingerprint;
+  }
+
+  /**
+   * Computes fingerprint of transformer definition.
+   * @param transformerDefinition
+   */
+  public static String fingerprint(TransformerDefinition transformerDefinition) {
+    return DigestUtils.sha256Hex(String.valueOf(transformerDefinition.getTransformResults()));
+  }
+
+  private static Map<String, RavenJToken> sortedProperties(RavenJObject json) {
+    Map<String, RavenJToken> result = new TreeMap<>();
+    for (Map.Entry<String, RavenJToken> property : json) {
+      if (!isEmpty(property.getValue())) {
+        result.put(property.getKey(), property.getValue());
+      }
+    }
+    return result;
+  }
+
+  private static boolean isEmpty(RavenJToken token) {
+    if (token == null || token.getType() == JTokenType.NULL) {
+      return true;
+    }
+    if (token.getType() == JTokenType.OBJECT) {
+      return ((RavenJObject) token).getCount() == 0;
+    }
+    if (token.getType() == JTokenType.ARRAY) {
+      return ((RavenJArray) token).size() == 0;
+    }
+    return false;
+  }
+
+  private static void appendCanonical(StringBuilder builder, RavenJToken token) {
+    if (token.getType() == JTokenType.OBJECT) {
+      builder.append('{');
+      for (Map.Entry<String, RavenJToken> property : sortedProperties((RavenJObject) token).entrySet()) {
+        appendCanonical(builder.append(property.getKey()).append(':'), property.getValue());
+        builder.append(',');
+      }
+      builder.append('}');
+    } else if (token.getType() == JTokenType.ARRAY) {
+      // arrays in index definition are sets (e.g. maps)
+      List<String> items = new ArrayList<>();
+      for (RavenJToken item : (RavenJArray) token) {
+        StringBuilder itemBuilder = new StringBuilder();
+        appendCanonical(itemBuilder, item);
+        items.add(itemBuilder.toString());
+      }
+      Collections.sort(items);
+      builder.append(items);
+    } else {
+      builder.append(token.toString());
+    }
+  }
+
+  /**
+   * Names of deployed and skipped indexes and transformers.
+   */
+  public static class Result {
+    private final List<String> deployedIndexes = new ArrayList<>();
+    private final List<String> skippedIndexes = new ArrayList<>();
+    private final List<String> deployedTransformers = new ArrayList<>();
+    private final List<String> skippedTransformers = new ArrayList<>();
+
+    /**
+     * Indexes sent to server (new or changed).
+     */
+    public List<String> getDeployedIndexes() {
+      return deployedIndexes;
+    }
+
+    /**
+     * Indexes which were not sent, because they are already deployed.
+     */
+    public List<String> getSkippedIndexes() {
+      return skippedIndexes;
+    }
+
+    /**
+     * Transformers sent to server (new or changed).
+     */
+    public List<String> getDeployedTransformers() {
+      return deployedTransformers;
+    }
+
+    /**
+     * Transformers which were not sent, because they are already deployed.
+     */
+    public List<String> getSkippedTransformers() {
+      return skippedTransformers;
+    }
+  }
+
+}
@@ -0,0 +1,81 @@
+package net.ravendb.client.linq;
+
+import com.google.common.base.Objects;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.mysema.query.types.Expression;
+
+/**
+ * Caches translation of query member expressions (i.e. order.customer.name) to index field names.
+ * Translation depends only on the shape of the query (queried type, index, member expression and current path),
+ * so queries executed many times with different values don't need to repeat it.
+ * Values are never cached - they are bound and escaped on every execution.
+ *
+ * Cache is cleared when conventions affecting the translation are changed, so custom
+ * {@link net.ravendb.client.delegates.PropertyNameFinder} implementations must return the same result for the same arguments.
+ */
+public class QueryTranslationCache {
+
+  public static final int DEFAULT_MAX_SIZE = 4096;
+
+  private final Cache<MemberKey, ExpressionInfo> members;
+
+  public QueryTranslationCache() {
+    this(DEFAULT_MAX_SIZE);
+  }
+
+  public QueryTranslationCache(int maxSize) {
+    members = CacheBuilder.newBuilder().maximumSize(maxSize).build();
+  }
+
+  public ExpressionInfo getMember(Class<?> clazz, String indexName, String currentPath, Expression<?> expression) {
+    return members.getIfPresent(new MemberKey(clazz, indexName, currentPath, expression));
+  }
+
+  public void putMember(Class<?> clazz, String indexName, String currentPath, Expression<?> expression, ExpressionInfo member) {
+    members.put(new MemberKey(clazz, indexName, currentPath, expression), member);
+  }
+
+  public void clear() {
+    members.invalidateAll();
+  }
+
+  public long size() {
+    return members.size();
+  }
+
+  private static final class MemberKey {
+    private final Class<?> clazz;
+    private final String indexName;
+    private final String currentPath;
+    private final Expression<?> expression;
+    private final int hashCode;
+
+    MemberKey(Class<?> clazz, String indexName, String currentPath, Expression<?> expression) {
+      this.clazz = clazz;
+      this.indexName = indexName;
+      this.currentPath = currentPath;
+      this.expression = expression;
+      this.hashCode = Objects.hashCode(clazz, indexName, currentPath, expression);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+      if (this == obj) {
+        return true;
+      }
+      if (!(obj instanceof MemberKey)) {
+        return false;
+      }
+      MemberKey other = (MemberKey) obj;
+      return hashCode == other.hashCode && clazz == other.clazz && Objects.equal(indexName, other.indexName)
+        && Objects.equal(currentPath, other.currentPath) && expression.equals(other.expression);
+    }
+  }
+
+}
@@ -564,6 +564,16 @@ public class RavenQueryProviderProcessor<T> {
   }
 
   private ExpressionInfo getMemberDirect(Expression< ? > expression) {
+    QueryTranslationCache translationCache = queryGenerator.getConventions().getQueryTranslationCache();
+    ExpressionInfo expressionInfo = translationCache.getMember(clazz, indexName, currentPath, expression);
+    if (expressionInfo == null) {
+      expressionInfo = translateMember(expression);
+      translationCache.putMember(clazz, indexName, currentPath, expression, expressionInfo);
+    }
+    return expressionInfo;
+  }
+
+  private ExpressionInfo translateMember(Expression< ? > expression) {
     Result result = linqPathProvider.getPath(expression);
 
     //for standard queries, we take just the last part. But for dynamic queries, we take the whole part
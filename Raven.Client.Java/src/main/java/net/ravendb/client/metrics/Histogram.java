@@ -0,0 +1,112 @@
+package net.ravendb.client.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Histogram of non negative values with fixed relative precision (similar to HdrHistogram).
+ *
+ * Values smaller than 32 are counted exactly, larger values are counted in buckets which width is 1/16 of their
+ * magnitude, so percentiles are reported with error below 6.25%. Recording is lock free and doesn't allocate.
+ */
+public class Histogram {
+
+  private static final int SUB_BUCKET_BITS = 4;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int EXACT_VALUES = SUB_BUCKETS * 2;
+  private static final int BUCKETS = EXACT_VALUES + (63 - SUB_BUCKET_BITS - 1) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final StripedCounter count = new StripedCounter();
+  private final StripedCounter sum = new StripedCounter();
+  private final AtomicLong max = new AtomicLong();
+
+  /**
+   * Records value, negative values are recorded as zero.
+   * @param value
+   */
+  public void record(long value) {
+    if (value < 0) {
+      value = 0;
+    }
+    counts.incrementAndGet(bucketIndex(value));
+    count.increment();
+    sum.add(value);
+    long currentMax = max.get();
+    while (value > currentMax && !max.compareAndSet(currentMax, value)) {
+      currentMax = max.get();
+    }
+  }
+
+  public long getCount() {
+    return count.sum();
+  }
+
+  public long getMax() {
+    return max.get();
+  }
+
+  public double getMean() {
+    long n = count.sum();
+    return n == 0 ? 0 : (double) sum.sum() / n;
+  }
+
+  /**
+   * Returns value, which is greater or equal to given percentage of recorded values.
+   * @param percentile percentile (0 - 100)
+   */
+  public long getPercentile(double percentile) {
+    long total = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      total += counts.get(i);
+    }
+    if (total == 0) {
+      return 0;
+    }
+    long rank = Math.max(1, (long) Math.ceil(total * Math.min(100, Math.max(0, percentile)) / 100));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts.get(i);
+      if (seen >= rank) {
+        return Math.min(bucketUpperBound(i), getMax());
+      }
+    }
+    return getMax();
+  }
+
+  public void reset() {
+    for (int i = 0; i < BUCKETS; i++) {
+      counts.set(i, 0);
+    }
+    count.reset();
+    sum.reset();
+    max.set(0);
+  }
+
+  static int bucketIndex(long value) {
+    if (value < EXACT_VALUES) {
+      return (int) value;
+    }
+    int highestBit = 63 - Long.numberOfLeadingZeros(value);
+    int shift = highestBit - SUB_BUCKET_BITS;
+    int subBucket = (int) (value >>> shift) - SUB_BUCKETS;
+    return EXACT_VALUES + (highestBit - SUB_BUCKET_BITS - 1) * SUB_BUCKETS + subBucket;
+  }
+
+  static long bucketUpperBound(int index) {
+    if (index < EXACT_VALUES) {
+      return index;
+    }
+    int highestBit = (index - EXACT_VALUES) / SUB_BUCKETS + SUB_BUCKET_BITS + 1;
+    int shift = highestBit - SUB_BUCKET_BITS;
+    long subBucket = (index - EXACT_VALUES) % SUB_BUCKETS + SUB_BUCKETS;
+    long upper = ((subBucket + 1) << shift) - 1;
+    return upper < 0 ? Long.MAX_VALUE : upper;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("count=%d, mean=%.2f, p50=%d, p99=%d, max=%d", getCount(), getMean(), getPercentile(50), getPercentile(99), getMax());
+  }
+
+}
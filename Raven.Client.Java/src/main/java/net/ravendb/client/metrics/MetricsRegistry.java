@@ -0,0 +1,393 @@
+package net.ravendb.client.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import net.ravendb.abstractions.basic.CleanCloseable;
+import net.ravendb.abstractions.data.HttpMethods;
+import net.ravendb.client.connection.ConcurrencyLimiters;
+import net.ravendb.client.connection.profiling.RequestResultArgs;
+import net.ravendb.client.connection.profiling.RequestStatus;
+
+import org.apache.http.HttpStatus;
+
+/**
+ * Store wide metrics: request latencies (total, by operation type and by node), transferred bytes, caching,
+ * failover, concurrency limits, lazy operations, session requests and changes stream.
+ *
+ * Counters and histograms are updated without locking, so metrics are always collected.
+ * Use {@link #registerMBean(ObjectName)} to expose them via JMX.
+ */
+public class MetricsRegistry implements MetricsRegistryMXBean {
+
+  private static final int MAX_TRACKED_KEYS = 256;
+  private static final String OTHER_KEY = "(other)";
+
+  private final StripedCounter requests = new StripedCounter();
+  private final StripedCounter sentRequests = new StripedCounter();
+  private final StripedCounter errorResponses = new StripedCounter();
+  private final StripedCounter cacheHits = new StripedCounter();
+  private final StripedCounter notModifiedResponses = new StripedCounter();
+  private final StripedCounter failedAttempts = new StripedCounter();
+  private final StripedCounter failovers = new StripedCounter();
+  private final StripedCounter rejectedRequests = new StripedCounter();
+  private final StripedCounter bytesSent = new StripedCounter();
+  private final StripedCounter bytesReceived = new StripedCounter();
+
+  private final Histogram requestLatency = new Histogram();
+  private final ConcurrentMap<String, Histogram> operationLatencies = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, Histogram> nodeLatencies = new ConcurrentHashMap<>();
+  private final Histogram lazyOperationsBatchSizes = new Histogram();
+  private final Histogram sessionRequests = new Histogram();
+  private final Histogram changesMessageIntervals = new Histogram();
+
+  private volatile ConcurrencyLimiters concurrencyLimiters;
+
+  /**
+   * Records finished request (called for every logged request).
+   * @param request
+   */
+  public void requestCompleted(RequestResultArgs request) {
+    requests.increment();
+    if (request.getStatus() == RequestStatus.AGGRESSIVELY_CACHED) {
+      return;
+    }
+    sentRequests.increment();
+    if (request.getHttpResult() == HttpStatus.SC_NOT_MODIFIED) {
+      notModifiedResponses.increment();
+    } else if (request.getStatus() == RequestStatus.ERROR_ON_SERVER || request.getHttpResult() >= 400) {
+      errorResponses.increment();
+    }
+
+    long duration = (long) request.getDurationMilliseconds();
+    requestLatency.record(duration);
+    if (request.getUrl() != null) {
+      histogram(operationLatencies, operationType(request.getMethod(), request.getUrl())).record(duration);
+      histogram(nodeLatencies, node(request.getUrl())).record(duration);
+    }
+  }
+
+  /**
+   * Records result served from client side cache.
+   */
+  public void cacheHit() {
+    cacheHits.increment();
+  }
+
+  /**
+   * Records failed attempt to execute operation on given node.
+   * @param firstFailure true if node was working until now (operations fail over to other nodes)
+   */
+  public void failedAttempt(boolean firstFailure) {
+    failedAttempts.increment();
+    if (firstFailure) {
+      failovers.increment();
+    }
+  }
+
+  /**
+   * Records request rejected by concurrency limiter.
+   */
+  public void requestRejected() {
+    rejectedRequests.increment();
+  }
+
+  /**
+   * Exposes state of given concurrency limiters.
+   * @param concurrencyLimiters
+   */
+  public void registerConcurrencyLimiters(ConcurrencyLimiters concurrencyLimiters) {
+    this.concurrencyLimiters = concurrencyLimiters;
+  }
+
+  public void bytesSent(long bytes) {
+    bytesSent.add(bytes);
+  }
+
+  public void bytesReceived(long bytes) {
+    bytesReceived.add(bytes);
+  }
+
+  public void lazyOperationsExecuted(int batchSize) {
+    lazyOperationsBatchSizes.record(batchSize);
+  }
+
+  public void sessionClosed(int numberOfRequests) {
+    sessionRequests.record(numberOfRequests);
+  }
+
+  public void changesMessageReceived(long millisSincePreviousMessage) {
+    changesMessageIntervals.record(millisSincePreviousMessage);
+  }
+
+  /**
+   * Registers metrics in platform MBean server.
+   * @param name
+   * @return registration, close it to unregister metrics
+   */
+  public CleanCloseable registerMBean(final ObjectName name) {
+    final MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    try {
+      server.registerMBean(this, name);
+    } catch (JMException e) {
+      throw new IllegalStateException("Unable to register metrics MBean " + name, e);
+    }
+    return new CleanCloseable() {
+      @Override
+      public void close() {
+        try {
+          if (server.isRegistered(name)) {
+            server.unregisterMBean(name);
+          }
+        } catch (JMException e) {
+          // already unregistered
+        }
+      }
+    };
+  }
+
+  @Override
+  public long getRequests() {
+    return requests.sum();
+  }
+
+  @Override
+  public long getSentRequests() {
+    return sentRequests.sum();
+  }
+
+  @Override
+  public long getErrorResponses() {
+    return errorResponses.sum();
+  }
+
+  @Override
+  public long getCacheHits() {
+    return cacheHits.sum();
+  }
+
+  @Override
+  public long getNotModifiedResponses() {
+    return notModifiedResponses.sum();
+  }
+
+  @Override
+  public double getCacheHitRatio() {
+    long hits = cacheHits.sum();
+    // 304 responses are counted both as sent requests and cache hits
+    long lookups = sentRequests.sum() + hits - notModifiedResponses.sum();
+    return lookups <= 0 ? 0 : Math.min(1, (double) hits / lookups);
+  }
+
+  @Override
+  public double getNotModifiedRatio() {
+    long sent = sentRequests.sum();
+    return sent == 0 ? 0 : (double) notModifiedResponses.sum() / sent;
+  }
+
+  @Override
+  public long getFailedAttempts() {
+    return failedAttempts.sum();
+  }
+
+  @Override
+  public long getFailovers() {
+    return failovers.sum();
+  }
+
+  @Override
+  public long getRejectedRequests() {
+    return rejectedRequests.sum();
+  }
+
+  @Override
+  public Map<String, Integer> getNodeConcurrencyLimits() {
+    ConcurrencyLimiters limiters = concurrencyLimiters;
+    return limiters == null ? Collections.<String, Integer> emptyMap() : limiters.getLimits();
+  }
+
+  @Override
+  public Map<String, Integer> getNodeInFlightRequests() {
+    ConcurrencyLimiters limiters = concurrencyLimiters;
+    return limiters == null ? Collections.<String, Integer> emptyMap() : limiters.getInFlightRequests();
+  }
+
+  @Override
+  public long getBytesSent() {
+    return bytesSent.sum();
+  }
+
+  @Override
+  public long getBytesReceived() {
+    return bytesReceived.sum();
+  }
+
+  @Override
+  public double getRequestLatencyMeanMillis() {
+    return requestLatency.getMean();
+  }
+
+  @Override
+  public long getRequestLatency99thPercentileMillis() {
+    return requestLatency.getPercentile(99);
+  }
+
+  @Override
+  public long getRequestLatencyMaxMillis() {
+    return requestLatency.getMax();
+  }
+
+  @Override
+  public Map<String, Long> getOperationLatency99thPercentilesMillis() {
+    return percentiles(operationLatencies, 99);
+  }
+
+  @Override
+  public Map<String, Long> getNodeLatency99thPercentilesMillis() {
+    return percentiles(nodeLatencies, 99);
+  }
+
+  @Override
+  public double getLazyOperationsBatchSizeMean() {
+    return lazyOperationsBatchSizes.getMean();
+  }
+
+  @Override
+  public double getSessionRequestsMean() {
+    return sessionRequests.getMean();
+  }
+
+  @Override
+  public long getChangesMessageIntervalMaxMillis() {
+    return changesMessageIntervals.getMax();
+  }
+
+  /**
+   * Latency of all requests sent to server (in milliseconds).
+   */
+  public Histogram getRequestLatency() {
+    return requestLatency;
+  }
+
+  /**
+   * Latency of requests (in milliseconds) by operation type, e.g. "GET /docs" or "POST /bulk_docs".
+   */
+  public Map<String, Histogram> getOperationLatencies() {
+    return Collections.unmodifiableMap(operationLatencies);
+  }
+
+  /**
+   * Latency of requests (in milliseconds) by server url.
+   */
+  public Map<String, Histogram> getNodeLatencies() {
+    return Collections.unmodifiableMap(nodeLatencies);
+  }
+
+  /**
+   * Number of operations executed by single lazy operations request.
+   */
+  public Histogram getLazyOperationsBatchSizes() {
+    return lazyOperationsBatchSizes;
+  }
+
+  /**
+   * Number of requests made by session (recorded when session is closed).
+   */
+  public Histogram getSessionRequests() {
+    return sessionRequests;
+  }
+
+  /**
+   * Time (in milliseconds) between consecutive messages of changes stream. Server sends heartbeat every 10 seconds,
+   * so larger values mean notifications are delayed.
+   */
+  public Histogram getChangesMessageIntervals() {
+    return changesMessageIntervals;
+  }
+
+  @Override
+  public void reset() {
+    for (StripedCounter counter : new StripedCounter[] { requests, sentRequests, errorResponses, cacheHits, notModifiedResponses,
+      failedAttempts, failovers, rejectedRequests, bytesSent, bytesReceived }) {
+      counter.reset();
+    }
+    for (Histogram histogram : new Histogram[] { requestLatency, lazyOperationsBatchSizes, sessionRequests, changesMessageIntervals }) {
+      histogram.reset();
+    }
+    operationLatencies.clear();
+    nodeLatencies.clear();
+  }
+
+  /**
+   * Returns operation type of request: method and first path segment of url (after database part),
+   * e.g. "GET /docs" for "http://localhost:8080/databases/Northwind/docs?id=users/1".
+   * @param method
+   * @param url
+   */
+  public static String operationType(HttpMethods method, String url) {
+    int pathStart = pathStart(url);
+    int end = url.length();
+    int queryStart = url.indexOf('?', pathStart);
+    if (queryStart >= 0) {
+      end = queryStart;
+    }
+    int segmentStart = pathStart + 1;
+    if (url.startsWith("/databases/", pathStart)) {
+      int databaseEnd = url.indexOf('/', pathStart + "/databases/".length());
+      segmentStart = databaseEnd < 0 || databaseEnd >= end ? end : databaseEnd + 1;
+    }
+    int segmentEnd = segmentStart < end ? url.indexOf('/', segmentStart) : -1;
+    if (segmentEnd < 0 || segmentEnd > end) {
+      segmentEnd = end;
+    }
+    String segment = segmentStart < segmentEnd ? url.substring(segmentStart, segmentEnd) : "";
+    return method + " /" + segment;
+  }
+
+  /**
+   * Returns server part of url (scheme, host and port).
+   * @param url
+   */
+  public static String node(String url) {
+    return url.substring(0, pathStart(url));
+  }
+
+  private static int pathStart(String url) {
+    int schemeEnd = url.indexOf("://");
+    int pathStart = url.indexOf('/', schemeEnd < 0 ? 0 : schemeEnd + 3);
+    return pathStart < 0 ? url.length() : pathStart;
+  }
+
+  private static Histogram histogram(ConcurrentMap<String, Histogram> histograms, String key) {
+    Histogram histogram = histograms.get(key);
+    if (histogram == null) {
+      if (histograms.size() >= MAX_TRACKED_KEYS) {
+        // protects against unbounded growth (e.g. many urls without recognized structure)
+        key = OTHER_KEY;
+      }
+      Histogram newHistogram = new Histogram();
+      histogram = histograms.putIfAbsent(key, newHistogram);
+      if (histogram == null) {
+        histogram = newHistogram;
+      }
+    }
+    return histogram;
+  }
+
+  private static Map<String, Long> percentiles(Map<String, Histogram> histograms, double percentile) {
+    Map<String, Long> result = new TreeMap<>();
+    for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+      result.put(entry.getKey(), entry.getValue().getPercentile(percentile));
+    }
+    return result;
+  }
+
+}
@@ -0,0 +1,100 @@
+package net.ravendb.client.metrics;
+
+import java.util.Map;
+
+/**
+ * Document store metrics exposed via JMX.
+ */
+public interface MetricsRegistryMXBean {
+
+  /**
+   * Number of requests, including requests served from aggressive cache.
+   */
+  long getRequests();
+
+  /**
+   * Number of requests sent to server.
+   */
+  long getSentRequests();
+
+  /**
+   * Number of requests, which failed with error returned by server.
+   */
+  long getErrorResponses();
+
+  /**
+   * Number of results served from client side caches (aggressive cache, 304 responses and results caches).
+   */
+  long getCacheHits();
+
+  /**
+   * Number of 304 (Not Modified) responses.
+   */
+  long getNotModifiedResponses();
+
+  /**
+   * Ratio of results served from client side caches.
+   */
+  double getCacheHitRatio();
+
+  /**
+   * Ratio of sent requests answered by 304 (Not Modified).
+   */
+  double getNotModifiedRatio();
+
+  /**
+   * Number of failed attempts to execute operation on a node.
+   */
+  long getFailedAttempts();
+
+  /**
+   * Number of times a node was marked as failing (operations fail over to other nodes).
+   */
+  long getFailovers();
+
+  /**
+   * Number of requests rejected because node had no free concurrency slot.
+   */
+  long getRejectedRequests();
+
+  /**
+   * Current (adaptive) limit of concurrent requests by server url.
+   */
+  Map<String, Integer> getNodeConcurrencyLimits();
+
+  /**
+   * Number of requests currently sent by server url.
+   */
+  Map<String, Integer> getNodeInFlightRequests();
+
+  long getBytesSent();
+
+  long getBytesReceived();
+
+  double getRequestLatencyMeanMillis();
+
+  long getRequestLatency99thPercentileMillis();
+
+  long getRequestLatencyMaxMillis();
+
+  /**
+   * 99th percentile of request latency (in milliseconds) by operation type, e.g. "GET /docs".
+   */
+  Map<String, Long> getOperationLatency99thPercentilesMillis();
+
+  /**
+   * 99th percentile of request latency (in milliseconds) by server url.
+   */
+  Map<String, Long> getNodeLatency99thPercentilesMillis();
+
+  double getLazyOperationsBatchSizeMean();
+
+  double getSessionRequestsMean();
+
+  /**
+   * Maximum time between two consecutive messages received from changes stream.
+   */
+  long getChangesMessageIntervalMaxMillis();
+
+  void reset();
+}
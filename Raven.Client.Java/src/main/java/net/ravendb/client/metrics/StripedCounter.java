@@ -0,0 +1,67 @@
+package net.ravendb.client.metrics;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counter optimized for frequent concurrent updates and rare reads.
+ *
+ * Updates are spread over several cells (chosen by thread), so threads don't contend on single value.
+ * Cells are padded to separate cache lines. Reading sums all cells.
+ */
+public class StripedCounter {
+
+  private static final int STRIPES = stripes();
+  private static final int PADDING = 8; // 8 longs = 64 bytes
+
+  private final AtomicLongArray cells = new AtomicLongArray(STRIPES * PADDING);
+
+  public void increment() {
+    add(1);
+  }
+
+  public void add(long value) {
+    cells.getAndAdd(cellIndex(), value);
+  }
+
+  /**
+   * @return sum of all updates since creation or last reset
+   */
+  public long sum() {
+    long sum = 0;
+    for (int i = 0; i < STRIPES; i++) {
+      sum += cells.get(i * PADDING);
+    }
+    return sum;
+  }
+
+  /**
+   * Resets counter to zero. Updates made concurrently with reset might be lost.
+   */
+  public void reset() {
+    for (int i = 0; i < STRIPES; i++) {
+      cells.set(i * PADDING, 0);
+    }
+  }
+
+  private static int cellIndex() {
+    long id = Thread.currentThread().getId();
+    int hash = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+    hash ^= hash >>> 16;
+    return (hash & (STRIPES - 1)) * PADDING;
+  }
+
+  private static int stripes() {
+    int processors = Runtime.getRuntime().availableProcessors();
+    int stripes = 1;
+    while (stripes < processors * 2 && stripes < 64) {
+      stripes <<= 1;
+    }
+    return stripes;
+  }
+
+  @Override
+  public String toString() {
+    return Long.toString(sum());
+  }
+
+}
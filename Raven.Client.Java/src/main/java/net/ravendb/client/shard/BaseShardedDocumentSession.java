@@ -64,7 +64,10 @@ public abstract class BaseShardedDocumentSession<TDatabaseCommands> extends InMe
   }
 
   protected List<Tuple<String, TDatabaseCommands>> getShardsToOperateOn(ShardRequestData resultionData) {
-    List<String> shardIds = shardStrategy.getShardResolutionStrategy().potentialShardsFor(resultionData);
+    List<String> shardIds = getCachedShardsFor(resultionData);
+    if (shardIds == null) {
+      shardIds = shardStrategy.getShardResolutionStrategy().potentialShardsFor(resultionData);
+    }
     if (shardIds == null) {
       List<Tuple<String, TDatabaseCommands>> result = new ArrayList<>();
       for (Map.Entry<String, TDatabaseCommands> entry: shardDbCommands.entrySet()) {
@@ -85,6 +88,50 @@ public abstract class BaseShardedDocumentSession<TDatabaseCommands> extends InMe
     return result;
   }
 
+  /**
+   * Returns shards known (from routing cache) to contain all requested keys or null.
+   * @param resultionData
+   */
+  protected List<String> getCachedShardsFor(ShardRequestData resultionData) {
+    ShardRoutingCache routingCache = shardStrategy.getShardRoutingCache();
+    if (routingCache == null || resultionData.getQuery() != null || resultionData.getKeys() == null || resultionData.getKeys().isEmpty()) {
+      return null;
+    }
+    List<String> shardIds = routingCache.getShardIds(resultionData.getKeys());
+    if (shardIds == null) {
+      return null;
+    }
+    for (String shardId : shardIds) {
+      if (!shardDbCommands.containsKey(shardId)) {
+        return null; // shard was removed from store
+      }
+    }
+    return shardIds;
+  }
+
+  protected void rememberShardRoute(String key, String shardId) {
+    ShardRoutingCache routingCache = shardStrategy.getShardRoutingCache();
+    if (routingCache != null && key != null && shardId != null) {
+      routingCache.setShardId(key, shardId);
+    }
+  }
+
+  /**
+   * Removes cached route for given key (i.e. document was not found on cached shard).
+   * @param key
+   * @return true if route was cached
+   */
+  protected boolean forgetShardRoute(String key) {
+    ShardRoutingCache routingCache = shardStrategy.getShardRoutingCache();
+    return routingCache != null && key != null && routingCache.invalidate(key);
+  }
+
+  @Override
+  public Object trackEntity(Class<?> entityType, String key, RavenJObject document, RavenJObject metadata, boolean noTracking) {
+    rememberShardRoute(key, metadata.value(String.class, Constants.RAVEN_SHARD_ID));
+    return super.trackEntity(entityType, key, document, metadata, noTracking);
+  }
+
   public List<TDatabaseCommands> getCommandsToOperateOn(ShardRequestData resultionData) {
     List<TDatabaseCommands> result = new ArrayList<>();
     for (Tuple<String, TDatabaseCommands> item: getShardsToOperateOn(resultionData)) {
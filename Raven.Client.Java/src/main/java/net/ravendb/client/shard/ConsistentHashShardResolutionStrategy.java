@@ -0,0 +1,170 @@
+package net.ravendb.client.shard;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import net.ravendb.abstractions.basic.Reference;
+import net.ravendb.client.document.GenerateEntityIdOnTheClient;
+
+/**
+ * Resolves shards by placing document keys on consistent hash ring. Each shard owns several virtual nodes
+ * on the ring, so keys are spread evenly and adding new shard moves only ~1/N of the keys to it
+ * (other keys keep their shards).
+ *
+ * Document key is taken from entity identity property when generating shard id, so
+ * {@link ShardStrategy#setModifyDocumentId(ModifyDocumentIdFunc)} should not change the key. Keys prefixed with
+ * known shard id (default ModifyDocumentIdFunc behavior) are still routed by that prefix.
+ * Queries are sent to all shards.
+ */
+public class ConsistentHashShardResolutionStrategy implements IShardResolutionStrategy {
+
+  public static final int DEFAULT_VIRTUAL_NODES_PER_SHARD = 128;
+
+  private final ShardStrategy shardStrategy;
+  private final int virtualNodesPerShard;
+
+  private volatile List<String> shardIds;
+  private volatile NavigableMap<Integer, String> ring;
+
+  public ConsistentHashShardResolutionStrategy(Collection<String> shardIds, ShardStrategy shardStrategy) {
+    this(shardIds, shardStrategy, DEFAULT_VIRTUAL_NODES_PER_SHARD);
+  }
+
+  public ConsistentHashShardResolutionStrategy(Collection<String> shardIds, ShardStrategy shardStrategy, int virtualNodesPerShard) {
+    if (shardIds.isEmpty()) {
+      throw new IllegalArgumentException("shardIds must have at least one value");
+    }
+    if (virtualNodesPerShard < 1) {
+      throw new IllegalArgumentException("virtualNodesPerShard must be positive");
+    }
+    this.shardStrategy = shardStrategy;
+    this.virtualNodesPerShard = virtualNodesPerShard;
+    rebuild(new ArrayList<>(shardIds));
+  }
+
+  /**
+   * Adds shard to the ring. Only keys which fall to new shard's virtual nodes change their shard.
+   * Shard must be registered in {@link ShardStrategy#getShards()} as well.
+   * @param shardId
+   */
+  public synchronized void addShard(String shardId) {
+    if (shardIds.contains(shardId)) {
+      return;
+    }
+    List<String> newShardIds = new ArrayList<>(shardIds);
+    newShardIds.add(shardId);
+    rebuild(newShardIds);
+  }
+
+  /**
+   * Removes shard from the ring. Its keys are spread over remaining shards.
+   * @param shardId
+   */
+  public synchronized void removeShard(String shardId) {
+    if (!shardIds.contains(shardId)) {
+      return;
+    }
+    if (shardIds.size() == 1) {
+      throw new IllegalStateException("Can't remove last shard");
+    }
+    List<String> newShardIds = new ArrayList<>(shardIds);
+    newShardIds.remove(shardId);
+    rebuild(newShardIds);
+  }
+
+  public List<String> getShardIds() {
+    return shardIds;
+  }
+
+  private void rebuild(List<String> newShardIds) {
+    NavigableMap<Integer, String> newRing = new TreeMap<>();
+    for (String shardId : newShardIds) {
+      for (int i = 0; i < virtualNodesPerShard; i++) {
+        int point = hash(shardId + "#" + i);
+        String existing = newRing.get(point);
+        // resolve (unlikely) collisions deterministically, regardless of shards order
+        if (existing == null || existing.compareTo(shardId) > 0) {
+          newRing.put(point, shardId);
+        }
+      }
+    }
+    shardIds = Collections.unmodifiableList(newShardIds);
+    ring = newRing;
+  }
+
+  /**
+   * Returns shard owning given document key.
+   * @param key
+   */
+  public String shardIdFor(String key) {
+    NavigableMap<Integer, String> currentRing = ring;
+    Map.Entry<Integer, String> entry = currentRing.ceilingEntry(hash(key));
+    return entry != null ? entry.getValue() : currentRing.firstEntry().getValue();
+  }
+
+  /**
+   * Case insensitive FNV-1a hash with murmur3 finalizer.
+   */
+  private static int hash(String text) {
+    int h = 0x811C9DC5;
+    for (int i = 0; i < text.length(); i++) {
+      h ^= Character.toLowerCase(text.charAt(i));
+      h *= 0x01000193;
+    }
+    h ^= h >>> 16;
+    h *= 0x85EBCA6B;
+    h ^= h >>> 13;
+    h *= 0xC2B2AE35;
+    h ^= h >>> 16;
+    return h;
+  }
+
+  @Override
+  public String generateShardIdFor(Object entity, Object owner) {
+    Reference<String> idHolder = new Reference<>();
+    GenerateEntityIdOnTheClient entityIdReader = new GenerateEntityIdOnTheClient(shardStrategy.getConventions(), null);
+    if (entityIdReader.tryGetIdFromInstance(entity, idHolder) && idHolder.value != null) {
+      return shardIdFor(idHolder.value);
+    }
+    // entity without identity - one shard per session
+    return shardIdFor(String.valueOf(owner.hashCode()));
+  }
+
+  @Override
+  public String metadataShardIdFor(Object entity) {
+    return shardIds.get(0);
+  }
+
+  @Override
+  public List<String> potentialShardsFor(ShardRequestData requestData) {
+    if (requestData.getQuery() != null || requestData.getKeys() == null || requestData.getKeys().isEmpty()) {
+      return null;
+    }
+    String separator = shardStrategy.getConventions().getIdentityPartsSeparator();
+    List<String> currentShardIds = shardIds;
+    List<String> result = new ArrayList<>();
+    for (String key : requestData.getKeys()) {
+      String shardId = null;
+      int start = key.indexOf(separator);
+      if (start != -1) {
+        String maybeShardId = key.substring(0, start);
+        if (currentShardIds.contains(maybeShardId)) {
+          shardId = maybeShardId;
+        }
+      }
+      if (shardId == null) {
+        shardId = shardIdFor(key);
+      }
+      if (!result.contains(shardId)) {
+        result.add(shardId);
+      }
+    }
+    return result;
+  }
+
+}
@@ -11,9 +11,11 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
 
 import net.ravendb.abstractions.basic.CleanCloseable;
+import net.ravendb.abstractions.closure.Function0;
 import net.ravendb.abstractions.closure.Function2;
 import net.ravendb.abstractions.exceptions.AggregateException;
 import net.ravendb.client.connection.IDatabaseCommands;
+import net.ravendb.client.connection.ServerClient;
 
 
 /**
@@ -25,7 +27,8 @@ public class ParallelShardAccessStrategy implements IShardAccessStrategy, CleanC
 
   public ParallelShardAccessStrategy() {
     super();
-    threadPool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+    // requests are I/O bound - don't limit number of shards accessed at once by number of processors
+    threadPool = Executors.newCachedThreadPool();
   }
 
   private List<ShardingErrorHandle<IDatabaseCommands>> onError = new ArrayList<>();
@@ -54,10 +57,14 @@ public class ParallelShardAccessStrategy implements IShardAccessStrategy, CleanC
     for (int i = 0; i < commands.size(); i++) {
       final int copy = i;
       final IDatabaseCommands cmd = commands.get(i);
+      // thread bound settings (deadline, request timeout, aggressive caching) of caller apply to pool thread as well
+      final Function0<CleanCloseable> threadSettings = cmd instanceof ServerClient
+        ? ((ServerClient) cmd).getJsonRequestFactory().captureThreadSettings() : null;
       tasks.add(new Callable<Void>() {
         @SuppressWarnings({"boxing", "synthetic-access"})
         @Override
         public Void call() throws Exception {
+          CleanCloseable settings = threadSettings != null ? threadSettings.apply() : null;
           try {
             T value = operation.apply(cmd, copy);
             returnedLists[copy] = value;
@@ -73,6 +80,10 @@ public class ParallelShardAccessStrategy implements IShardAccessStrategy, CleanC
               }
             }
             errors[copy] = e;
+          } finally {
+            if (settings != null) {
+              settings.close();
+            }
           }
           return null;
         }
@@ -91,7 +102,7 @@ public class ParallelShardAccessStrategy implements IShardAccessStrategy, CleanC
           throw new RuntimeException(e);
         }
       }
-      boolean allErrored = false;
+      boolean allErrored = errors.length > 0;
       for (Exception e : errors) {
         allErrored &= e != null;
       }
@@ -0,0 +1,83 @@
+package net.ravendb.client.shard;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+/**
+ * Bounded, thread safe cache of shard ids by document key.
+ * It is populated from Raven-Shard-Id metadata of documents seen by sharded sessions (loads, queries, stores),
+ * so loads of keys which can't be resolved by {@link IShardResolutionStrategy} don't have to be sent to all shards.
+ * Keys are case insensitive.
+ */
+public class ShardRoutingCache {
+
+  public static final int DEFAULT_MAX_SIZE = 100000;
+
+  private final Cache<String, String> shardIdsByKey;
+
+  public ShardRoutingCache() {
+    this(DEFAULT_MAX_SIZE);
+  }
+
+  public ShardRoutingCache(int maxSize) {
+    shardIdsByKey = CacheBuilder.newBuilder().maximumSize(maxSize).build();
+  }
+
+  /**
+   * Returns shard id for given document key or null when it is unknown.
+   * @param key
+   */
+  public String getShardId(String key) {
+    return shardIdsByKey.getIfPresent(key.toLowerCase(Locale.ROOT));
+  }
+
+  /**
+   * Returns shard ids for given document keys or null if any of them is unknown.
+   * @param keys
+   */
+  public List<String> getShardIds(Collection<String> keys) {
+    List<String> result = new ArrayList<>(keys.size());
+    for (String key : keys) {
+      String shardId = getShardId(key);
+      if (shardId == null) {
+        return null;
+      }
+      if (!result.contains(shardId)) {
+        result.add(shardId);
+      }
+    }
+    return result;
+  }
+
+  public void setShardId(String key, String shardId) {
+    shardIdsByKey.put(key.toLowerCase(Locale.ROOT), shardId);
+  }
+
+  /**
+   * Removes route for given key.
+   * @param key
+   * @return true if route was known
+   */
+  public boolean invalidate(String key) {
+    String lowerKey = key.toLowerCase(Locale.ROOT);
+    if (shardIdsByKey.getIfPresent(lowerKey) == null) {
+      return false;
+    }
+    shardIdsByKey.invalidate(lowerKey);
+    return true;
+  }
+
+  public void clear() {
+    shardIdsByKey.invalidateAll();
+  }
+
+  public long size() {
+    return shardIdsByKey.size();
+  }
+
+}
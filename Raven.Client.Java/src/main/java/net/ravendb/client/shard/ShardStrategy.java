@@ -18,6 +18,7 @@ import net.ravendb.abstractions.data.QueryResult;
 import net.ravendb.abstractions.data.SortedField;
 import net.ravendb.abstractions.json.linq.JTokenType;
 import net.ravendb.abstractions.json.linq.RavenJObject;
+import net.ravendb.abstractions.json.linq.RavenJPath;
 import net.ravendb.abstractions.json.linq.RavenJToken;
 import net.ravendb.client.IDocumentStore;
 import net.ravendb.client.document.DocumentConvention;
@@ -36,6 +37,7 @@ public class ShardStrategy {
   private IShardResolutionStrategy shardResolutionStrategy;
   private IShardAccessStrategy shardAccessStrategy;
   private ModifyDocumentIdFunc modifyDocumentId;
+  private ShardRoutingCache shardRoutingCache;
 
   public ShardStrategy(Map<String, IDocumentStore> shards) {
     if (shards == null) {
@@ -52,6 +54,7 @@ public class ShardStrategy {
 
     shardAccessStrategy = new SequentialShardAccessStrategy();
     shardResolutionStrategy = new DefaultShardResolutionStrategy(shards.keySet(), this);
+    shardRoutingCache = new ShardRoutingCache();
     mergeQueryResults = new MergeQueryResultsFunc() {
       @Override
       public QueryResult apply(IndexQuery query, List<QueryResult> queryResults) {
@@ -109,14 +112,14 @@ public class ShardStrategy {
 
       // apply sorting
       if (query.getSortedFields() != null) {
-        final List<String> fieldsToSort = new ArrayList<>();
+        final List<RavenJPath[]> fieldsToSort = new ArrayList<>();
         final List<Integer> desceding = new ArrayList<>();
         for (SortedField field: query.getSortedFields()) {
           String f = field.getField();
           if (f.endsWith("_Range")) {
             f = f.substring(0, f.length() - "_Range".length());
           }
-          fieldsToSort.add(f);
+          fieldsToSort.add(RavenJPath.compileRavenSyntax(f));
           desceding.add(field.isDescending() ? -1 : 1);
         }
 
@@ -202,6 +205,23 @@ public class ShardStrategy {
     this.modifyDocumentId = modifyDocumentId;
   }
 
+  /**
+   * Cache of shard ids by document key consulted before shard resolution strategy when loading documents by key.
+   * Null means routing cache is disabled.
+   */
+  public ShardRoutingCache getShardRoutingCache() {
+    return shardRoutingCache;
+  }
+
+  /**
+   * Cache of shard ids by document key consulted before shard resolution strategy when loading documents by key.
+   * Null means routing cache is disabled.
+   * @param shardRoutingCache
+   */
+  public void setShardRoutingCache(ShardRoutingCache shardRoutingCache) {
+    this.shardRoutingCache = shardRoutingCache;
+  }
+
   public IShardAccessStrategy getShardAccessStrategy() {
     return shardAccessStrategy;
   }
@@ -5,6 +5,7 @@ import com.google.common.base.Objects;
 import com.mysema.query.types.Expression;
 import net.ravendb.abstractions.basic.*;
 import net.ravendb.abstractions.closure.Action1;
+import net.ravendb.abstractions.commands.ICommandData;
 import net.ravendb.abstractions.closure.Function0;
 import net.ravendb.abstractions.closure.Function1;
 import net.ravendb.abstractions.closure.Function2;
@@ -24,11 +25,16 @@ import net.ravendb.client.document.sessionoperations.LoadTransformerOperation;
 import net.ravendb.client.document.sessionoperations.MultiLoadOperation;
 import net.ravendb.client.document.sessionoperations.QueryOperation;
 import net.ravendb.client.exceptions.ConflictException;
+import net.ravendb.client.exceptions.ShardedSaveChangesException;
 import net.ravendb.client.indexes.AbstractIndexCreationTask;
 import net.ravendb.client.indexes.AbstractTransformerCreationTask;
 import net.ravendb.client.linq.IDocumentQueryGenerator;
 import net.ravendb.client.linq.IRavenQueryable;
 import net.ravendb.client.linq.RavenQueryInspector;
+import net.ravendb.client.streaming.PartitionedStreamIterator;
+import net.ravendb.client.streaming.Publisher;
+import net.ravendb.client.streaming.StreamPartition;
+import net.ravendb.client.streaming.StreamingOptions;
 
 import java.beans.IntrospectionException;
 import java.beans.Introspector;
@@ -143,22 +149,31 @@ implements IDocumentQueryGenerator, IDocumentSessionImpl, ISyncAdvancedSessionOp
       return null;
     }
 
-    Object existingEntity;
-    if (entitiesByKey.containsKey(id)) {
-      existingEntity = entitiesByKey.get(id);
+    Object existingEntity = entitiesByKey.getOrNull(id);
+    if (existingEntity != null) {
       return (T) existingEntity;
     }
 
-    JsonDocument value = includedDocumentsByKey.get(id);
+    JsonDocument value = includedDocumentsByKey.remove(id);
     if (value != null) {
-      includedDocumentsByKey.remove(id);
       return (T) trackEntity(clazz, value);
     }
 
     incrementRequestCount();
 
     ShardRequestData shardRequestData = new ShardRequestData(Arrays.asList(id), clazz);
-    List<IDatabaseCommands> dbCommands = getCommandsToOperateOn(shardRequestData);
+    T result = loadFromShards(clazz, id, shardRequestData, getCommandsToOperateOn(shardRequestData));
+    if (result == null && forgetShardRoute(id)) {
+      // cached route is stale, ask shards selected by resolution strategy
+      result = loadFromShards(clazz, id, shardRequestData, getCommandsToOperateOn(shardRequestData));
+      if (result != null) {
+        knownMissingIds.remove(id);
+      }
+    }
+    return result;
+  }
+
+  private <T> T loadFromShards(final Class<T> clazz, final String id, ShardRequestData shardRequestData, List<IDatabaseCommands> dbCommands) {
     T[] results = getShardStrategy().getShardAccessStrategy().apply(clazz, dbCommands, shardRequestData, new Function2<IDatabaseCommands, Integer, T>() {
       @Override
       public T apply(final IDatabaseCommands commands, Integer i) {
@@ -481,6 +496,10 @@ implements IDocumentQueryGenerator, IDocumentSessionImpl, ISyncAdvancedSessionOp
     for (int i =0 ; i < finalResult.length; i++) {
       // so we get items that were skipped because they are already in the session cache
       finalResult[i] = (T) entitiesByKey.get(ids[i]);
+      if (finalResult[i] == null) {
+        // don't route next load of missing document using (possibly stale) cached shard
+        forgetShardRoute(ids[i]);
+      }
     }
     return finalResult;
   }
@@ -719,7 +738,7 @@ implements IDocumentQueryGenerator, IDocumentSessionImpl, ISyncAdvancedSessionOp
    */
   @Override
   public void saveChanges() {
-    try (CleanCloseable scope = entityToJson.entitiesToJsonCachingScope()) {
+    try (CleanCloseable scope = getEntityToJson().entitiesToJsonCachingScope()) {
       SaveChangesData data = prepareForSaveChanges();
       if (data.getCommands().isEmpty() && deferredCommandsByShard.isEmpty()) {
         return; // nothing to do here
@@ -731,16 +750,80 @@ implements IDocumentQueryGenerator, IDocumentSessionImpl, ISyncAdvancedSessionOp
       // split by shards
       Map<String, SaveChangesData> saveChangesPerShard = getChangesToSavePerShard(data);
 
-      // execute on all shards
-      for (Map.Entry<String, SaveChangesData> shardAndObject : saveChangesPerShard.entrySet()) {
-        String shardId = shardAndObject.getKey();
-
+      final List<String> shardIds = new ArrayList<>(saveChangesPerShard.keySet());
+      final List<SaveChangesData> shardsData = new ArrayList<>(saveChangesPerShard.values());
+      List<IDatabaseCommands> dbCommands = new ArrayList<>(shardIds.size());
+      for (String shardId : shardIds) {
         IDatabaseCommands databaseCommands = shardDbCommands.get(shardId);
         if (databaseCommands == null) {
           throw new IllegalStateException("ShardedDocumentStore can't find a DatabaseCommands for shard id '" + shardId + "'");
         }
-        BatchResult[] results = databaseCommands.batch(shardAndObject.getValue().getCommands());
-        updateBatchResults(Arrays.asList(results), shardAndObject.getValue());
+        dbCommands.add(databaseCommands);
+      }
+
+      // execute on all shards using configured access strategy, results are applied to session afterwards on this thread
+      final List<List<BatchResult>> results = new ArrayList<>(shardIds.size());
+      final Exception[] errors = new Exception[shardIds.size()];
+      for (int i = 0; i < shardIds.size(); i++) {
+        results.add(new ArrayList<BatchResult>());
+      }
+      final int maxCommandsPerBatch = Math.max(1, getConventions().getMaxNumberOfCommandsPerShardBatch());
+
+      ShardRequestData shardRequestData = new ShardRequestData();
+      shardRequestData.setEntityType(Object.class);
+      shardRequestData.setKeys(new ArrayList<String>());
+
+      RuntimeException strategyError = null;
+      try {
+        getShardStrategy().getShardAccessStrategy().apply(Boolean.class, dbCommands, shardRequestData, new Function2<IDatabaseCommands, Integer, Boolean>() {
+          @SuppressWarnings("boxing")
+          @Override
+          public Boolean apply(IDatabaseCommands commands, Integer i) {
+            List<ICommandData> shardCommands = shardsData.get(i).getCommands();
+            try {
+              // chunks are sent one after another, so they reuse the same connection
+              for (int start = 0; start < shardCommands.size(); start += maxCommandsPerBatch) {
+                List<ICommandData> chunk = shardCommands.subList(start, Math.min(shardCommands.size(), start + maxCommandsPerBatch));
+                results.get(i).addAll(Arrays.asList(commands.batch(chunk)));
+              }
+            } catch (RuntimeException e) {
+              errors[i] = e;
+              throw e;
+            }
+            return Boolean.TRUE;
+          }
+        });
+      } catch (RuntimeException e) {
+        strategyError = e;
+      }
+
+      Map<String, Exception> failures = new LinkedHashMap<>();
+      List<String> savedShards = new ArrayList<>();
+      for (int i = 0; i < shardIds.size(); i++) {
+        // even failed shard might have committed some of the chunks
+        updateBatchResults(results.get(i), shardsData.get(i));
+        for (BatchResult batchResult : results.get(i)) {
+          if (HttpMethods.PUT.name().equalsIgnoreCase(batchResult.getMethod())) {
+            rememberShardRoute(batchResult.getKey(), shardIds.get(i));
+          } else if (HttpMethods.DELETE.name().equalsIgnoreCase(batchResult.getMethod())) {
+            forgetShardRoute(batchResult.getKey());
+          }
+        }
+        if (errors[i] != null) {
+          failures.put(shardIds.get(i), errors[i]);
+        } else if (results.get(i).size() == shardsData.get(i).getCommands().size()) {
+          savedShards.add(shardIds.get(i));
+        } else if (strategyError != null) {
+          // shard wasn't reached at all - i.e. sequential strategy stopped on first failure
+          failures.put(shardIds.get(i), strategyError);
+        }
+      }
+
+      if (!failures.isEmpty()) {
+        throw new ShardedSaveChangesException("Unable to save changes on shard(s): " + failures.keySet(), failures, savedShards);
+      }
+      if (strategyError != null) {
+        throw strategyError;
       }
     }
   }
@@ -1049,6 +1132,26 @@ implements IDocumentQueryGenerator, IDocumentSessionImpl, ISyncAdvancedSessionOp
     throw new UnsupportedOperationException("Streams are currently not supported by sharded document store");
   }
 
+  @Override
+  public <T> Publisher<StreamResult<T>> streamPublisher(IRavenQueryable<T> query, StreamingOptions options) {
+    throw new UnsupportedOperationException("Streams are currently not supported by sharded document store");
+  }
+
+  @Override
+  public <T> Publisher<StreamResult<T>> streamPublisher(IDocumentQuery<T> query, StreamingOptions options) {
+    throw new UnsupportedOperationException("Streams are currently not supported by sharded document store");
+  }
+
+  @Override
+  public <T> Publisher<StreamResult<T>> streamPublisher(Class<T> entityClass, Etag fromEtag, String startsWith, StreamingOptions options) {
+    throw new UnsupportedOperationException("Streams are currently not supported by sharded document store");
+  }
+
+  @Override
+  public <T> PartitionedStreamIterator<T> streamPartitioned(Class<T> entityClass, List<StreamPartition> partitions, StreamingOptions options) {
+    throw new UnsupportedOperationException("Streams are currently not supported by sharded document store");
+  }
+
   @Override
   public FacetResults[] multiFacetedSearch(FacetQuery... queries) {
     throw new UnsupportedOperationException("Multi faceted searching is currenlty not supported by sharded document store");
@@ -214,6 +214,24 @@ public class ShardedDocumentStore extends DocumentStoreBase {
     };
   }
 
+  @Override
+  public CleanCloseable setDeadlineFor(long budget) {
+    Map<String, IDocumentStore> shards = shardStrategy.getShards();
+    final List<CleanCloseable> closeables = new ArrayList<>();
+    for (IDocumentStore shard : shards.values()) {
+      closeables.add(shard.setDeadlineFor(budget));
+    }
+
+    return new CleanCloseable() {
+      @Override
+      public void close() {
+        for (CleanCloseable closeable: closeables) {
+          closeable.close();
+        }
+      }
+    };
+  }
+
   /**
    * Opens the session.
    */
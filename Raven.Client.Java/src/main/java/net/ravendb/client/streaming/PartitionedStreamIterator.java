@@ -0,0 +1,242 @@
+package net.ravendb.client.streaming;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+import net.ravendb.abstractions.basic.CloseableIterator;
+import net.ravendb.abstractions.closure.Function1;
+import net.ravendb.abstractions.data.StreamResult;
+import net.ravendb.abstractions.json.linq.RavenJObject;
+
+/**
+ * Iterator merging documents streamed concurrently from many partitions.
+ *
+ * Up to {@link StreamingOptions#getMaxConcurrentPartitions()} partitions are streamed at the same time, each by separate task
+ * (and over separate connection). With ordered delivery documents are returned partition by partition
+ * and every partition reads ahead into its own buffer, otherwise documents are returned in order they are received.
+ *
+ * Progress of every partition is available from {@link #getCheckpoints()}, so interrupted stream
+ * can be resumed without returning documents already returned by this iterator.
+ *
+ * @param <T> type of entities
+ */
+public class PartitionedStreamIterator<T> implements CloseableIterator<StreamResult<T>> {
+
+  private static final long POLL_INTERVAL_MILLIS = 100;
+
+  private final Function1<StreamPartition, CloseableIterator<RavenJObject>> sourceFactory;
+  private final Function1<RavenJObject, StreamResult<T>> converter;
+  private final Executor executor;
+  private final boolean ordered;
+  private final List<PartitionReader> readers;
+  private final BlockingQueue<Entry> sharedBuffer;
+
+  private int nextReaderToStart;
+  private int currentReader;
+  private int finishedReaders;
+  private Entry next;
+  private volatile boolean closed;
+
+  /**
+   * @param partitions
+   * @param sourceFactory opens stream of given partition
+   * @param converter converts streamed documents, it is called concurrently by partition readers
+   * @param executor executes partition readers
+   * @param options
+   */
+  public PartitionedStreamIterator(List<StreamPartition> partitions, Function1<StreamPartition, CloseableIterator<RavenJObject>> sourceFactory,
+    Function1<RavenJObject, StreamResult<T>> converter, Executor executor, StreamingOptions options) {
+    if (options == null) {
+      options = new StreamingOptions();
+    }
+    this.sourceFactory = sourceFactory;
+    this.converter = converter;
+    this.executor = executor;
+    this.ordered = options.isOrderedDelivery();
+
+    int bufferSize = Math.max(1, options.getBufferSize());
+    sharedBuffer = ordered ? null : new ArrayBlockingQueue<Entry>(bufferSize);
+    readers = new ArrayList<>(partitions.size());
+    for (StreamPartition partition : partitions) {
+      readers.add(new PartitionReader(partition, ordered ? new ArrayBlockingQueue<Entry>(bufferSize) : sharedBuffer));
+    }
+
+    int concurrency = Math.max(1, options.getMaxConcurrentPartitions());
+    for (int i = 0; i < concurrency; i++) {
+      startNextReader();
+    }
+  }
+
+  /**
+   * Returns partitions describing documents not returned yet by this iterator.
+   * Completely returned partitions are omitted, partially returned partitions are replaced by partitions starting after last returned document.
+   */
+  public List<StreamPartition> getCheckpoints() {
+    List<StreamPartition> result = new ArrayList<>();
+    for (PartitionReader reader : readers) {
+      if (!reader.finished) {
+        result.add(reader.checkpoint);
+      }
+    }
+    return result;
+  }
+
+  @Override
+  public boolean hasNext() {
+    if (next != null) {
+      return true;
+    }
+    while (!closed) {
+      Entry entry;
+      if (ordered) {
+        if (currentReader >= readers.size()) {
+          return false;
+        }
+        entry = take(readers.get(currentReader).buffer);
+      } else {
+        if (finishedReaders >= readers.size()) {
+          return false;
+        }
+        entry = take(sharedBuffer);
+      }
+      if (entry == null) {
+        return false;
+      }
+      if (entry.error != null) {
+        close();
+        throw new IllegalStateException("Unable to stream " + entry.reader.partition + ": " + entry.error.getMessage(), entry.error);
+      }
+      if (entry.result == null) {
+        entry.reader.finished = true;
+        currentReader++;
+        finishedReaders++;
+        continue;
+      }
+      next = entry;
+      return true;
+    }
+    return false;
+  }
+
+  @Override
+  public StreamResult<T> next() {
+    if (!hasNext()) {
+      throw new NoSuchElementException();
+    }
+    Entry entry = next;
+    next = null;
+    entry.reader.checkpoint = entry.reader.checkpoint.resumeAfter(entry.result.getKey(), entry.result.getEtag());
+    return entry.result;
+  }
+
+  @Override
+  public void remove() {
+    throw new IllegalStateException("Not implemented!");
+  }
+
+  /**
+   * Stops streaming. Partition streams are closed by their readers.
+   */
+  @Override
+  public void close() {
+    closed = true;
+  }
+
+  private Entry take(BlockingQueue<Entry> buffer) {
+    try {
+      while (!closed) {
+        Entry entry = buffer.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        if (entry != null) {
+          return entry;
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      close();
+    }
+    return null;
+  }
+
+  private void startNextReader() {
+    final PartitionReader reader;
+    synchronized (readers) {
+      if (closed || nextReaderToStart >= readers.size()) {
+        return;
+      }
+      reader = readers.get(nextReaderToStart++);
+    }
+    executor.execute(reader);
+  }
+
+  private class PartitionReader implements Runnable {
+    private final StreamPartition partition;
+    private final BlockingQueue<Entry> buffer;
+    private volatile StreamPartition checkpoint;
+    private volatile boolean finished;
+
+    public PartitionReader(StreamPartition partition, BlockingQueue<Entry> buffer) {
+      this.partition = partition;
+      this.buffer = buffer;
+      this.checkpoint = partition;
+    }
+
+    @Override
+    public void run() {
+      CloseableIterator<RavenJObject> iterator = null;
+      try {
+        iterator = sourceFactory.apply(partition);
+        while (!closed && iterator.hasNext()) {
+          StreamResult<T> result = converter.apply(iterator.next());
+          if (partition.isAfterEnd(result.getEtag())) {
+            break;
+          }
+          if (!put(new Entry(this, result, null))) {
+            return;
+          }
+        }
+        put(new Entry(this, null, null));
+      } catch (Throwable e) {
+        put(new Entry(this, null, e));
+      } finally {
+        if (iterator != null) {
+          iterator.close();
+        }
+        startNextReader();
+      }
+    }
+
+    private boolean put(Entry entry) {
+      try {
+        while (!closed) {
+          if (buffer.offer(entry, POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+            return true;
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return false;
+    }
+  }
+
+  /**
+   * Streamed document, end of partition (no result) or partition failure.
+   */
+  private class Entry {
+    private final PartitionReader reader;
+    private final StreamResult<T> result;
+    private final Throwable error;
+
+    public Entry(PartitionReader reader, StreamResult<T> result, Throwable error) {
+      this.reader = reader;
+      this.result = result;
+      this.error = error;
+    }
+  }
+
+}
@@ -0,0 +1,17 @@
+package net.ravendb.client.streaming;
+
+/**
+ * Provider of potentially unbounded number of elements, published according to demand received from its subscriber.
+ * Mirrors org.reactivestreams.Publisher (same contract), so it can be adapted to any Reactive Streams library.
+ * @param <T> type of published elements
+ */
+public interface Publisher<T> {
+
+  /**
+   * Requests publisher to start streaming data. Elements are passed to subscriber only after it requests them
+   * using {@link Subscription#request(long)}.
+   * @param subscriber
+   */
+  void subscribe(Subscriber<? super T> subscriber);
+
+}
@@ -0,0 +1,310 @@
+package net.ravendb.client.streaming;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import net.ravendb.abstractions.basic.CloseableIterator;
+import net.ravendb.abstractions.closure.Function0;
+import net.ravendb.abstractions.closure.Function1;
+
+/**
+ * Publisher which reads items from {@link CloseableIterator} ahead of subscriber demand and converts them in parallel.
+ *
+ * Reading (network I/O and JSON parsing) is done by single task, which splits items into batches.
+ * Every batch is converted by separate task (at most {@link StreamingOptions#getParallelism()} at once),
+ * and converted batches are delivered to subscriber in order they were read.
+ * When {@link StreamingOptions#getBufferSize()} items are waiting for subscriber, reading is suspended,
+ * so slow subscriber doesn't cause unbounded memory usage.
+ *
+ * Source iterator is opened when subscriber subscribes and it is always closed by reading task.
+ * Executor must be able to run reading task, delivering task and conversion tasks at the same time.
+ *
+ * @param <TSource> type of items returned by source iterator
+ * @param <T> type of published items
+ */
+public class ReadAheadPublisher<TSource, T> implements Publisher<T> {
+
+  private static final long POLL_INTERVAL_MILLIS = 100;
+
+  private final Function0<CloseableIterator<TSource>> sourceFactory;
+  private final Function1<TSource, T> converter;
+  private final Executor executor;
+  private final int batchSize;
+  private final int bufferedBatches;
+  private final int parallelism;
+  private final AtomicBoolean subscribed = new AtomicBoolean();
+
+  /**
+   * @param sourceFactory opens source iterator
+   * @param converter converts items, it might be called concurrently from many threads
+   * @param executor executes reading, conversion and delivering tasks
+   * @param options
+   */
+  public ReadAheadPublisher(Function0<CloseableIterator<TSource>> sourceFactory, Function1<TSource, T> converter, Executor executor, StreamingOptions options) {
+    if (options == null) {
+      options = new StreamingOptions();
+    }
+    this.sourceFactory = sourceFactory;
+    this.converter = converter;
+    this.executor = executor;
+    this.batchSize = Math.max(1, options.getBatchSize());
+    this.bufferedBatches = Math.max(1, options.getBufferSize() / batchSize);
+    this.parallelism = Math.max(1, options.getParallelism());
+  }
+
+  @Override
+  public void subscribe(Subscriber<? super T> subscriber) {
+    if (subscriber == null) {
+      throw new NullPointerException("subscriber");
+    }
+    if (!subscribed.compareAndSet(false, true)) {
+      subscriber.onSubscribe(new Subscription() {
+        @Override
+        public void request(long n) {
+          // nothing to deliver
+        }
+        @Override
+        public void cancel() {
+          // nothing to cancel
+        }
+      });
+      subscriber.onError(new IllegalStateException("Stream can be subscribed only once"));
+      return;
+    }
+
+    final ReadAheadSubscription subscription = new ReadAheadSubscription(subscriber);
+    subscriber.onSubscribe(subscription);
+    executor.execute(new Runnable() {
+      @Override
+      public void run() {
+        subscription.read();
+      }
+    });
+    executor.execute(new Runnable() {
+      @Override
+      public void run() {
+        subscription.emit();
+      }
+    });
+  }
+
+  private class ReadAheadSubscription implements Subscription {
+
+    private final Subscriber<? super T> subscriber;
+    private final BlockingQueue<Future<List<T>>> batches = new ArrayBlockingQueue<>(bufferedBatches);
+    private final Semaphore conversionPermits = new Semaphore(parallelism);
+    private final Object demandLock = new Object();
+
+    private long demand;
+    private IllegalArgumentException invalidRequest;
+    private volatile boolean cancelled;
+
+    public ReadAheadSubscription(Subscriber<? super T> subscriber) {
+      this.subscriber = subscriber;
+    }
+
+    @Override
+    public void request(long n) {
+      synchronized (demandLock) {
+        if (n <= 0) {
+          invalidRequest = new IllegalArgumentException("Number of requested items must be positive, but was: " + n);
+        } else {
+          demand += n;
+          if (demand < 0) {
+            demand = Long.MAX_VALUE;
+          }
+        }
+        demandLock.notifyAll();
+      }
+    }
+
+    @Override
+    public void cancel() {
+      cancelled = true;
+      synchronized (demandLock) {
+        demandLock.notifyAll();
+      }
+    }
+
+    /**
+     * Reads source iterator and schedules conversion of batches.
+     */
+    void read() {
+      CloseableIterator<TSource> iterator = null;
+      boolean finished = false;
+      Throwable error = null;
+      try {
+        iterator = sourceFactory.apply();
+        while (!cancelled && iterator.hasNext()) {
+          final List<TSource> batch = new ArrayList<>(batchSize);
+          while (batch.size() < batchSize && iterator.hasNext()) {
+            batch.add(iterator.next());
+          }
+          if (!acquireConversionPermit()) {
+            return;
+          }
+          FutureTask<List<T>> conversion = new FutureTask<>(new Callable<List<T>>() {
+            @Override
+            public List<T> call() throws Exception {
+              try {
+                List<T> result = new ArrayList<>(batch.size());
+                for (TSource item : batch) {
+                  result.add(converter.apply(item));
+                }
+                return result;
+              } finally {
+                conversionPermits.release();
+              }
+            }
+          });
+          if (!enqueue(conversion)) {
+            conversionPermits.release();
+            return;
+          }
+          try {
+            executor.execute(conversion);
+          } catch (RejectedExecutionException e) {
+            conversion.run();
+          }
+        }
+        finished = true;
+      } catch (Throwable e) {
+        error = e;
+      } finally {
+        // source is released before subscriber is notified about end of stream
+        if (iterator != null) {
+          try {
+            iterator.close();
+          } catch (Throwable e) {
+            if (error == null) {
+              error = e;
+            }
+          }
+        }
+      }
+      if (finished || error != null) {
+        enqueue(endOfStream(error));
+      }
+    }
+
+    /**
+     * Delivers converted items to subscriber according to its demand.
+     */
+    void emit() {
+      try {
+        while (true) {
+          Future<List<T>> batch = null;
+          while (batch == null) {
+            if (cancelled) {
+              return;
+            }
+            batch = batches.poll(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+          }
+          List<T> items = batch.get();
+          if (items == null) {
+            cancelled = true;
+            subscriber.onComplete();
+            return;
+          }
+          for (T item : items) {
+            if (!awaitDemand()) {
+              return;
+            }
+            subscriber.onNext(item);
+          }
+        }
+      } catch (ExecutionException e) {
+        terminate(e.getCause());
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        terminate(e);
+      } catch (RuntimeException e) {
+        // subscriber failed - subscription is considered cancelled, so reading task can release source
+        cancelled = true;
+        throw e;
+      }
+    }
+
+    private boolean awaitDemand() throws InterruptedException {
+      IllegalArgumentException error;
+      synchronized (demandLock) {
+        while (demand == 0 && !cancelled && invalidRequest == null) {
+          demandLock.wait();
+        }
+        if (cancelled) {
+          return false;
+        }
+        error = invalidRequest;
+        if (error == null) {
+          if (demand != Long.MAX_VALUE) {
+            demand--;
+          }
+          return true;
+        }
+      }
+      terminate(error);
+      return false;
+    }
+
+    private void terminate(Throwable error) {
+      if (!cancelled) {
+        cancelled = true;
+        subscriber.onError(error);
+      }
+    }
+
+    private boolean acquireConversionPermit() throws InterruptedException {
+      while (!cancelled) {
+        if (conversionPermits.tryAcquire(POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private boolean enqueue(Future<List<T>> batch) {
+      try {
+        while (!cancelled) {
+          if (batches.offer(batch, POLL_INTERVAL_MILLIS, TimeUnit.MILLISECONDS)) {
+            return true;
+          }
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return false;
+    }
+
+    /**
+     * @return batch marking end of stream (null list), or failed batch when error is given
+     */
+    private FutureTask<List<T>> endOfStream(final Throwable error) {
+      FutureTask<List<T>> task = new FutureTask<>(new Callable<List<T>>() {
+        @Override
+        public List<T> call() throws Exception {
+          if (error instanceof Exception) {
+            throw (Exception) error;
+          }
+          if (error instanceof Error) {
+            throw (Error) error;
+          }
+          return null;
+        }
+      });
+      task.run();
+      return task;
+    }
+  }
+
+}
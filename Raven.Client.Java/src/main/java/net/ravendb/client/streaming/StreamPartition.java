@@ -0,0 +1,162 @@
+package net.ravendb.client.streaming;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import net.ravendb.abstractions.data.Etag;
+
+/**
+ * Part of documents stream, which can be streamed independently of other parts.
+ *
+ * Partition is either key prefix range (documents with keys starting with given prefix, optionally matching pattern,
+ * after given key) or etag range (documents with etag greater than fromEtag and not greater than toEtag).
+ * Partitions are immutable - partially streamed partition is described by new partition
+ * returned from {@link #resumeAfter(String, Etag)}, which can be persisted and used to resume streaming later.
+ */
+public class StreamPartition {
+
+  private final String startsWith;
+  private final String matches;
+  private final String skipAfter;
+  private final Etag fromEtag;
+  private final Etag toEtag;
+
+  private StreamPartition(String startsWith, String matches, String skipAfter, Etag fromEtag, Etag toEtag) {
+    this.startsWith = startsWith;
+    this.matches = matches;
+    this.skipAfter = skipAfter;
+    this.fromEtag = fromEtag;
+    this.toEtag = toEtag;
+  }
+
+  /**
+   * Creates partition containing documents with keys starting with given prefix.
+   * @param startsWith Prefix for which documents should be returned e.g. "products/1"
+   * @param matches Pipe ('|') separated values for which document keys (after 'startsWith') should be matched ('?' any single character, '*' any characters)
+   * @param skipAfter Skip documents until given key is found and return documents after that key (null to start at beginning)
+   */
+  public static StreamPartition forKeyPrefix(String startsWith, String matches, String skipAfter) {
+    if (startsWith == null) {
+      throw new IllegalArgumentException("startsWith cannot be null");
+    }
+    return new StreamPartition(startsWith, matches, skipAfter, null, null);
+  }
+
+  /**
+   * Creates partition containing documents with etag greater than fromEtag and not greater than toEtag.
+   * @param fromEtag
+   * @param toEtag null for unbounded partition
+   */
+  public static StreamPartition forEtagRange(Etag fromEtag, Etag toEtag) {
+    if (fromEtag == null) {
+      throw new IllegalArgumentException("fromEtag cannot be null");
+    }
+    return new StreamPartition(null, null, null, fromEtag, toEtag);
+  }
+
+  /**
+   * Splits keys starting with given prefix into partitions by next characters of key.
+   * Suffixes must not be prefixes of each other and should cover all keys, e.g. "0", "1", ..., "9"
+   * for numeric identifiers like "companies/123".
+   * @param startsWith Common prefix e.g. "companies/"
+   * @param suffixes Values appended to common prefix to get prefix of each partition
+   */
+  public static List<StreamPartition> splitByKeyPrefix(String startsWith, String... suffixes) {
+    List<StreamPartition> result = new ArrayList<>(suffixes.length);
+    for (String suffix : suffixes) {
+      result.add(forKeyPrefix(startsWith + suffix, null, null));
+    }
+    return result;
+  }
+
+  /**
+   * Splits etag range into partitions of (roughly) same size. Last partition is unbounded when toEtag is null.
+   * Range spanning database restarts can't be split and it is returned as single partition.
+   * @param fromEtag Etag after which documents are streamed (use Etag.empty() to stream all documents)
+   * @param toEtag Usually last document etag taken from database statistics
+   * @param count Number of partitions
+   */
+  public static List<StreamPartition> splitByEtagRange(Etag fromEtag, Etag toEtag, int count) {
+    List<StreamPartition> result = new ArrayList<>(count);
+    if (count <= 1 || toEtag == null || fromEtag.getRestarts() != toEtag.getRestarts() || toEtag.compareTo(fromEtag) <= 0) {
+      result.add(forEtagRange(fromEtag, toEtag));
+      return result;
+    }
+    long changes = toEtag.getChanges() - fromEtag.getChanges();
+    count = (int) Math.min(count, changes);
+    Etag start = fromEtag;
+    for (int i = 1; i <= count; i++) {
+      Etag end = i == count ? toEtag : fromEtag.incrementBy(changes * i / count);
+      result.add(forEtagRange(start, end));
+      start = end;
+    }
+    return result;
+  }
+
+  /**
+   * Returns partition containing documents of this partition, which are after given document.
+   * @param key Key of last processed document
+   * @param etag Etag of last processed document
+   */
+  public StreamPartition resumeAfter(String key, Etag etag) {
+    if (isEtagRange()) {
+      return new StreamPartition(null, null, null, etag, toEtag);
+    }
+    return new StreamPartition(startsWith, matches, key, null, null);
+  }
+
+  /**
+   * @return true if partition is defined by etag range, false if by key prefix
+   */
+  public boolean isEtagRange() {
+    return fromEtag != null;
+  }
+
+  /**
+   * @return true when document with given etag is after end of partition
+   * @param etag
+   */
+  public boolean isAfterEnd(Etag etag) {
+    return toEtag != null && etag != null && etag.compareTo(toEtag) > 0;
+  }
+
+  /**
+   * Maximum number of documents in etag range partition (every document has distinct etag),
+   * so server stops streaming at end of partition. Integer.MAX_VALUE for other partitions.
+   */
+  public int getMaxDocuments() {
+    if (toEtag == null || fromEtag.getRestarts() != toEtag.getRestarts()) {
+      return Integer.MAX_VALUE;
+    }
+    return (int) Math.max(1, Math.min(Integer.MAX_VALUE, toEtag.getChanges() - fromEtag.getChanges()));
+  }
+
+  public String getStartsWith() {
+    return startsWith;
+  }
+
+  public String getMatches() {
+    return matches;
+  }
+
+  public String getSkipAfter() {
+    return skipAfter;
+  }
+
+  public Etag getFromEtag() {
+    return fromEtag;
+  }
+
+  public Etag getToEtag() {
+    return toEtag;
+  }
+
+  @Override
+  public String toString() {
+    if (isEtagRange()) {
+      return "StreamPartition(" + fromEtag + ", " + toEtag + "]";
+    }
+    return "StreamPartition [startsWith=" + startsWith + ", matches=" + matches + ", skipAfter=" + skipAfter + "]";
+  }
+
+}
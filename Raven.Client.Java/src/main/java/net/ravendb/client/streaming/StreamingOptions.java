@@ -0,0 +1,123 @@
+package net.ravendb.client.streaming;
+
+/**
+ * Options of streaming publishers.
+ */
+public class StreamingOptions {
+
+  private int bufferSize;
+  private int batchSize;
+  private int parallelism;
+  private int maxConcurrentPartitions;
+  private boolean orderedDelivery;
+  private boolean readFromReplicas;
+
+  public StreamingOptions() {
+    bufferSize = 1024;
+    batchSize = 64;
+    parallelism = Runtime.getRuntime().availableProcessors();
+    maxConcurrentPartitions = 4;
+    orderedDelivery = true;
+  }
+
+  /**
+   * Max number of documents read from network and not yet delivered to subscriber (default: 1024).
+   * When buffer is full, reading stops until subscriber requests more documents.
+   */
+  public int getBufferSize() {
+    return bufferSize;
+  }
+
+  /**
+   * Max number of documents read from network and not yet delivered to subscriber (default: 1024).
+   * When buffer is full, reading stops until subscriber requests more documents.
+   * @param bufferSize
+   */
+  public void setBufferSize(int bufferSize) {
+    this.bufferSize = bufferSize;
+  }
+
+  /**
+   * Number of documents converted to entities by single conversion task (default: 64).
+   */
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * Number of documents converted to entities by single conversion task (default: 64).
+   * @param batchSize
+   */
+  public void setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Max number of conversion tasks executed concurrently (default: number of processors).
+   * Documents are always delivered to subscriber in order they were read.
+   */
+  public int getParallelism() {
+    return parallelism;
+  }
+
+  /**
+   * Max number of conversion tasks executed concurrently (default: number of processors).
+   * Documents are always delivered to subscriber in order they were read.
+   * @param parallelism
+   */
+  public void setParallelism(int parallelism) {
+    this.parallelism = parallelism;
+  }
+
+  /**
+   * Max number of partitions streamed at the same time, each over separate connection (default: 4).
+   */
+  public int getMaxConcurrentPartitions() {
+    return maxConcurrentPartitions;
+  }
+
+  /**
+   * Max number of partitions streamed at the same time, each over separate connection (default: 4).
+   * @param maxConcurrentPartitions
+   */
+  public void setMaxConcurrentPartitions(int maxConcurrentPartitions) {
+    this.maxConcurrentPartitions = maxConcurrentPartitions;
+  }
+
+  /**
+   * If true documents of partitioned stream are returned partition by partition, in order partitions were given (default: true).
+   * Otherwise documents are returned as soon as they are received from any partition.
+   * In both cases each partition buffers up to buffer size documents.
+   */
+  public boolean isOrderedDelivery() {
+    return orderedDelivery;
+  }
+
+  /**
+   * If true documents of partitioned stream are returned partition by partition, in order partitions were given (default: true).
+   * Otherwise documents are returned as soon as they are received from any partition.
+   * In both cases each partition buffers up to buffer size documents.
+   * @param orderedDelivery
+   */
+  public void setOrderedDelivery(boolean orderedDelivery) {
+    this.orderedDelivery = orderedDelivery;
+  }
+
+  /**
+   * If true key prefix partitions are spread over primary server and its replicas (default: false).
+   * Etag range partitions are always streamed from primary server, as etags differ between replicas.
+   */
+  public boolean isReadFromReplicas() {
+    return readFromReplicas;
+  }
+
+  /**
+   * If true key prefix partitions are spread over primary server and its replicas (default: false).
+   * Etag range partitions are always streamed from primary server, as etags differ between replicas.
+   * @param readFromReplicas
+   */
+  public void setReadFromReplicas(boolean readFromReplicas) {
+    this.readFromReplicas = readFromReplicas;
+  }
+
+}
@@ -0,0 +1,33 @@
+package net.ravendb.client.streaming;
+
+/**
+ * Receiver of elements published by {@link Publisher}.
+ * Mirrors org.reactivestreams.Subscriber (same contract): methods are called serially, never concurrently.
+ * @param <T> type of received elements
+ */
+public interface Subscriber<T> {
+
+  /**
+   * Invoked after calling {@link Publisher#subscribe(Subscriber)}. No data is sent until {@link Subscription#request(long)} is called.
+   * @param subscription
+   */
+  void onSubscribe(Subscription subscription);
+
+  /**
+   * Element sent in response to {@link Subscription#request(long)}.
+   * @param item
+   */
+  void onNext(T item);
+
+  /**
+   * Failed terminal state. No further events are sent.
+   * @param t
+   */
+  void onError(Throwable t);
+
+  /**
+   * Successful terminal state. No further events are sent.
+   */
+  void onComplete();
+
+}
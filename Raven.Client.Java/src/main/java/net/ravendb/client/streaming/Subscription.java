@@ -0,0 +1,20 @@
+package net.ravendb.client.streaming;
+
+/**
+ * One-to-one lifecycle of {@link Subscriber} subscribing to {@link Publisher}.
+ * Mirrors org.reactivestreams.Subscription (same contract).
+ */
+public interface Subscription {
+
+  /**
+   * Requests given number of additional elements. Long.MAX_VALUE means unbounded demand.
+   * @param n
+   */
+  void request(long n);
+
+  /**
+   * Requests publisher to stop sending data and release resources.
+   */
+  void cancel();
+
+}
@@ -0,0 +1,372 @@
+package net.ravendb.client.util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Open addressing (linear probing) hash map with case insensitive String keys.
+ * Keys are compared the same way as {@link String#CASE_INSENSITIVE_ORDER} does, but lookup
+ * costs single hash computation and (usually) single key comparison instead of O(log n) comparisons.
+ * Iteration order is not defined. Null keys are not supported. Not thread safe.
+ * Tables are allocated on first insert, so empty maps are cheap to create.
+ * @param <V> type of values
+ */
+public class CaseInsensitiveHashMap<V> extends AbstractMap<String, V> {
+
+  private static final int DEFAULT_CAPACITY = 16;
+
+  private static final String TOMBSTONE = new String("<removed>");
+
+  private static final String[] EMPTY_KEYS = new String[0];
+  private static final Object[] EMPTY_VALUES = new Object[0];
+  private static final int[] EMPTY_HASHES = new int[0];
+
+  private final int initialCapacity;
+  private String[] keys = EMPTY_KEYS;
+  private Object[] values = EMPTY_VALUES;
+  private int[] hashes = EMPTY_HASHES;
+  private int size;
+  private int used; // live entries + tombstones
+  private int modCount;
+
+  private EntrySet entrySet;
+
+  public CaseInsensitiveHashMap() {
+    this(DEFAULT_CAPACITY);
+  }
+
+  public CaseInsensitiveHashMap(int expectedSize) {
+    initialCapacity = tableSizeFor(expectedSize);
+  }
+
+  public CaseInsensitiveHashMap(Map<String, ? extends V> map) {
+    this(map.size());
+    putAll(map);
+  }
+
+  /**
+   * Computes hash code of given string which is the same for strings differing only in case.
+   * @param key
+   */
+  public static int caseInsensitiveHash(String key) {
+    int h = 0;
+    for (int i = 0; i < key.length(); i++) {
+      h = 31 * h + Character.toLowerCase(Character.toUpperCase(key.charAt(i)));
+    }
+    // spread bits, as we use low bits of hash as table index
+    h *= 0x9E3779B9;
+    return h ^ (h >>> 16);
+  }
+
+  private static int tableSizeFor(int expectedSize) {
+    int capacity = DEFAULT_CAPACITY;
+    while (capacity < expectedSize * 2 && capacity < (1 << 30)) {
+      capacity <<= 1;
+    }
+    return capacity;
+  }
+
+  private void allocate(int capacity) {
+    keys = new String[capacity];
+    values = new Object[capacity];
+    hashes = new int[capacity];
+  }
+
+  private int findSlot(String key, int hash) {
+    if (size == 0) {
+      return -1;
+    }
+    int mask = keys.length - 1;
+    int slot = hash & mask;
+    while (true) {
+      String candidate = keys[slot];
+      if (candidate == null) {
+        return -1;
+      }
+      if (candidate != TOMBSTONE && hashes[slot] == hash && (candidate == key || candidate.equalsIgnoreCase(key))) {
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+  }
+
+  private int findSlot(Object key) {
+    if (!(key instanceof String)) {
+      return -1;
+    }
+    String stringKey = (String) key;
+    return findSlot(stringKey, caseInsensitiveHash(stringKey));
+  }
+
+  /**
+   * Returns value for given key or null when key is not present (single lookup).
+   * @param key
+   */
+  @SuppressWarnings("unchecked")
+  public V getOrNull(String key) {
+    int slot = findSlot(key, caseInsensitiveHash(key));
+    return slot >= 0 ? (V) values[slot] : null;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V get(Object key) {
+    int slot = findSlot(key);
+    return slot >= 0 ? (V) values[slot] : null;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    return findSlot(key) >= 0;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V put(String key, V value) {
+    if (key == null) {
+      throw new NullPointerException("key");
+    }
+    if (keys.length == 0) {
+      allocate(initialCapacity);
+    }
+    int hash = caseInsensitiveHash(key);
+    int mask = keys.length - 1;
+    int slot = hash & mask;
+    int firstTombstone = -1;
+    while (true) {
+      String candidate = keys[slot];
+      if (candidate == null) {
+        break;
+      }
+      if (candidate == TOMBSTONE) {
+        if (firstTombstone < 0) {
+          firstTombstone = slot;
+        }
+      } else if (hashes[slot] == hash && candidate.equalsIgnoreCase(key)) {
+        V old = (V) values[slot];
+        values[slot] = value;
+        return old;
+      }
+      slot = (slot + 1) & mask;
+    }
+
+    if (firstTombstone >= 0) {
+      slot = firstTombstone;
+    } else {
+      used++;
+    }
+    // like TreeMap, we keep key used by first insert
+    keys[slot] = key;
+    hashes[slot] = hash;
+    values[slot] = value;
+    size++;
+    modCount++;
+
+    if (used * 2 > keys.length) {
+      rehash(size * 2 > keys.length / 2 ? keys.length * 2 : keys.length);
+    }
+    return null;
+  }
+
+  private void rehash(int capacity) {
+    String[] oldKeys = keys;
+    Object[] oldValues = values;
+    int[] oldHashes = hashes;
+    allocate(capacity);
+    int mask = capacity - 1;
+    for (int i = 0; i < oldKeys.length; i++) {
+      String key = oldKeys[i];
+      if (key == null || key == TOMBSTONE) {
+        continue;
+      }
+      int slot = oldHashes[i] & mask;
+      while (keys[slot] != null) {
+        slot = (slot + 1) & mask;
+      }
+      keys[slot] = key;
+      hashes[slot] = oldHashes[i];
+      values[slot] = oldValues[i];
+    }
+    used = size;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public V remove(Object key) {
+    int slot = findSlot(key);
+    if (slot < 0) {
+      return null;
+    }
+    V old = (V) values[slot];
+    removeSlot(slot);
+    return old;
+  }
+
+  private void removeSlot(int slot) {
+    keys[slot] = TOMBSTONE;
+    values[slot] = null;
+    size--;
+    modCount++;
+  }
+
+  @Override
+  public void clear() {
+    if (used == 0) {
+      return;
+    }
+    for (int i = 0; i < keys.length; i++) {
+      keys[i] = null;
+      values[i] = null;
+    }
+    size = 0;
+    used = 0;
+    modCount++;
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  @Override
+  public Set<Map.Entry<String, V>> entrySet() {
+    if (entrySet == null) {
+      entrySet = new EntrySet();
+    }
+    return entrySet;
+  }
+
+  private class EntrySet extends AbstractSet<Map.Entry<String, V>> {
+    @Override
+    public Iterator<Map.Entry<String, V>> iterator() {
+      return new EntryIterator();
+    }
+
+    @Override
+    public int size() {
+      return size;
+    }
+
+    @Override
+    public void clear() {
+      CaseInsensitiveHashMap.this.clear();
+    }
+  }
+
+  private class EntryIterator implements Iterator<Map.Entry<String, V>> {
+    private int next = -1;
+    private int current = -1;
+    private int expectedModCount = modCount;
+
+    EntryIterator() {
+      advance();
+    }
+
+    private void advance() {
+      next++;
+      while (next < keys.length && (keys[next] == null || keys[next] == TOMBSTONE)) {
+        next++;
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return next < keys.length;
+    }
+
+    @Override
+    public Map.Entry<String, V> next() {
+      if (modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      current = next;
+      advance();
+      return new Entry(current);
+    }
+
+    @Override
+    public void remove() {
+      if (current < 0) {
+        throw new IllegalStateException();
+      }
+      if (modCount != expectedModCount) {
+        throw new ConcurrentModificationException();
+      }
+      removeSlot(current);
+      current = -1;
+      expectedModCount = modCount;
+    }
+  }
+
+  private class Entry implements Map.Entry<String, V> {
+    private final String key;
+    private final int slot;
+    private final int expectedModCount = modCount;
+
+    Entry(int slot) {
+      this.slot = slot;
+      this.key = keys[slot];
+    }
+
+    @Override
+    public String getKey() {
+      return key;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V getValue() {
+      if (expectedModCount == modCount) {
+        return (V) values[slot];
+      }
+      return get(key);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V setValue(V value) {
+      int index = expectedModCount == modCount ? slot : findSlot(key);
+      if (index < 0) {
+        throw new IllegalStateException("Entry was removed");
+      }
+      V old = (V) values[index];
+      values[index] = value;
+      return old;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (!(o instanceof Map.Entry)) {
+        return false;
+      }
+      Map.Entry<?, ?> other = (Map.Entry<?, ?>) o;
+      V value = getValue();
+      return key.equals(other.getKey()) && (value == null ? other.getValue() == null : value.equals(other.getValue()));
+    }
+
+    @Override
+    public int hashCode() {
+      V value = getValue();
+      return key.hashCode() ^ (value == null ? 0 : value.hashCode());
+    }
+
+    @Override
+    public String toString() {
+      return key + "=" + getValue();
+    }
+  }
+
+}
@@ -0,0 +1,239 @@
+package net.ravendb.client.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import net.ravendb.abstractions.closure.Action2;
+import net.ravendb.abstractions.closure.Function0;
+import net.ravendb.abstractions.closure.Function1;
+
+/**
+ * Future which can be completed explicitly and notifies registered callbacks on completion.
+ * @param <T> type of result
+ */
+public class RavenFuture<T> implements Future<T> {
+
+  private boolean done;
+  private T result;
+  private Throwable error;
+  private List<Action2<T, Throwable>> callbacks = new ArrayList<>();
+  private Thread runner;
+  private boolean runnerInterrupted;
+
+  /**
+   * Creates future which is already completed with given value
+   * @param value
+   */
+  public static <T> RavenFuture<T> completed(T value) {
+    RavenFuture<T> future = new RavenFuture<>();
+    future.complete(value);
+    return future;
+  }
+
+  /**
+   * Creates future which is completed with result of function executed using given executor
+   * @param function
+   * @param executor
+   */
+  public static <T> RavenFuture<T> supplyAsync(final Function0<T> function, Executor executor) {
+    final RavenFuture<T> future = new RavenFuture<>();
+    executor.execute(new Runnable() {
+      @Override
+      public void run() {
+        if (!future.startRunning()) {
+          return;
+        }
+        try {
+          future.complete(function.apply());
+        } catch (Throwable e) {
+          future.completeExceptionally(e);
+        } finally {
+          future.stopRunning();
+        }
+      }
+    });
+    return future;
+  }
+
+  private synchronized boolean startRunning() {
+    if (done) {
+      return false;
+    }
+    runner = Thread.currentThread();
+    return true;
+  }
+
+  private void stopRunning() {
+    boolean interrupted;
+    synchronized (this) {
+      runner = null;
+      interrupted = runnerInterrupted;
+    }
+    if (interrupted) {
+      // don't leak interrupt caused by cancel to next task of executor thread
+      Thread.interrupted();
+    }
+  }
+
+  /**
+   * Completes future with given value
+   * @param value
+   * @return false if future was already completed
+   */
+  public boolean complete(T value) {
+    return finish(value, null);
+  }
+
+  /**
+   * Completes future with given error
+   * @param throwable
+   * @return false if future was already completed
+   */
+  public boolean completeExceptionally(Throwable throwable) {
+    return finish(null, throwable);
+  }
+
+  private boolean finish(T value, Throwable throwable) {
+    List<Action2<T, Throwable>> toNotify;
+    synchronized (this) {
+      if (done) {
+        return false;
+      }
+      done = true;
+      result = value;
+      error = throwable;
+      toNotify = callbacks;
+      callbacks = null;
+      notifyAll();
+    }
+    for (Action2<T, Throwable> callback : toNotify) {
+      callback.apply(value, throwable);
+    }
+    return true;
+  }
+
+  /**
+   * Registers callback invoked when future is completed. When future is already completed callback is invoked immediately.
+   * Callback receives either result or error (the other argument is null).
+   * @param callback
+   */
+  public RavenFuture<T> whenComplete(Action2<T, Throwable> callback) {
+    synchronized (this) {
+      if (!done) {
+        callbacks.add(callback);
+        return this;
+      }
+    }
+    callback.apply(result, error);
+    return this;
+  }
+
+  /**
+   * Returns future which is completed with result of this future transformed using given function.
+   * @param function
+   */
+  public <U> RavenFuture<U> thenApply(final Function1<T, U> function) {
+    final RavenFuture<U> future = new RavenFuture<>();
+    whenComplete(new Action2<T, Throwable>() {
+      @Override
+      public void apply(T value, Throwable throwable) {
+        if (throwable != null) {
+          future.completeExceptionally(throwable);
+          return;
+        }
+        try {
+          future.complete(function.apply(value));
+        } catch (Throwable e) {
+          future.completeExceptionally(e);
+        }
+      }
+    });
+    return future;
+  }
+
+  /**
+   * Completes future with CancellationException. Callbacks are notified, so they can abort work in progress
+   * (e.g. async database commands abort http requests). When mayInterruptIfRunning is set, thread executing
+   * function passed to {@link #supplyAsync(Function0, Executor)} is interrupted.
+   */
+  @Override
+  public boolean cancel(boolean mayInterruptIfRunning) {
+    if (!completeExceptionally(new CancellationException())) {
+      return false;
+    }
+    if (mayInterruptIfRunning) {
+      synchronized (this) {
+        if (runner != null) {
+          runnerInterrupted = true;
+          runner.interrupt();
+        }
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public synchronized boolean isCancelled() {
+    return done && error instanceof CancellationException;
+  }
+
+  @Override
+  public synchronized boolean isDone() {
+    return done;
+  }
+
+  @Override
+  public synchronized T get() throws InterruptedException, ExecutionException {
+    while (!done) {
+      wait();
+    }
+    return getResult();
+  }
+
+  @Override
+  public synchronized T get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException, TimeoutException {
+    long deadline = System.nanoTime() + unit.toNanos(timeout);
+    while (!done) {
+      long remaining = deadline - System.nanoTime();
+      if (remaining <= 0) {
+        throw new TimeoutException();
+      }
+      TimeUnit.NANOSECONDS.timedWait(this, remaining);
+    }
+    return getResult();
+  }
+
+  /**
+   * Waits for result and rethrows error (unwrapped when it is runtime exception).
+   */
+  public T join() {
+    try {
+      return get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new RuntimeException(e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new RuntimeException(e.getCause());
+    }
+  }
+
+  private T getResult() throws ExecutionException {
+    if (error instanceof CancellationException) {
+      throw (CancellationException) error;
+    }
+    if (error != null) {
+      throw new ExecutionException(error);
+    }
+    return result;
+  }
+
+}
@@ -0,0 +1,133 @@
+package net.ravendb.client.utils;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * FIFO queue bounded by number of items and by their total size (e.g. in bytes).
+ * Producers and consumer are signalled when queue changes, instead of polling.
+ * Item larger than size capacity is accepted when queue is empty, so it never blocks forever.
+ * @param <T> type of item
+ */
+public class SizeBoundedBlockingQueue<T> {
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Condition notEmpty = lock.newCondition();
+  private final Condition notFull = lock.newCondition();
+
+  private final Deque<T> items = new ArrayDeque<>();
+  private final Deque<Long> sizes = new ArrayDeque<>();
+  private final int maxCount;
+  private final long maxSize;
+  private long size;
+
+  public SizeBoundedBlockingQueue(int maxCount, long maxSize) {
+    if (maxCount < 1 || maxSize < 1) {
+      throw new IllegalArgumentException("Queue capacity must be positive");
+    }
+    this.maxCount = maxCount;
+    this.maxSize = maxSize;
+  }
+
+  /**
+   * Inserts item, waiting up to given time for free space.
+   * @param item
+   * @param itemSize
+   * @param timeout
+   * @param unit
+   * @return false if timeout elapsed before item could be inserted
+   * @throws InterruptedException
+   */
+  public boolean offer(T item, long itemSize, long timeout, TimeUnit unit) throws InterruptedException {
+    long nanos = unit.toNanos(timeout);
+    lock.lockInterruptibly();
+    try {
+      while (!items.isEmpty() && (items.size() >= maxCount || size + itemSize > maxSize)) {
+        if (nanos <= 0) {
+          return false;
+        }
+        nanos = notFull.awaitNanos(nanos);
+      }
+      enqueue(item, itemSize);
+      return true;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Inserts item regardless of capacity (used for control items which can't be rejected).
+   * @param item
+   */
+  public void add(T item) {
+    lock.lock();
+    try {
+      enqueue(item, 0);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Retrieves and removes head of queue, waiting up to given time if queue is empty.
+   * @param timeout
+   * @param unit
+   * @return head of queue or null if timeout elapsed
+   * @throws InterruptedException
+   */
+  public T poll(long timeout, TimeUnit unit) throws InterruptedException {
+    long nanos = unit.toNanos(timeout);
+    lock.lockInterruptibly();
+    try {
+      while (items.isEmpty()) {
+        if (nanos <= 0) {
+          return null;
+        }
+        nanos = notEmpty.awaitNanos(nanos);
+      }
+      return dequeue();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Retrieves and removes head of queue or returns null if queue is empty.
+   */
+  public T poll() {
+    lock.lock();
+    try {
+      return items.isEmpty() ? null : dequeue();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  public int size() {
+    lock.lock();
+    try {
+      return items.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @SuppressWarnings("boxing")
+  private void enqueue(T item, long itemSize) {
+    items.addLast(item);
+    sizes.addLast(itemSize);
+    size += itemSize;
+    notEmpty.signal();
+  }
+
+  @SuppressWarnings("boxing")
+  private T dequeue() {
+    size -= sizes.removeFirst();
+    T item = items.removeFirst();
+    notFull.signalAll();
+    return item;
+  }
+}
@@ -0,0 +1,66 @@
+package net.ravendb.java.http.client;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
+import org.apache.http.entity.AbstractHttpEntity;
+
+/**
+ * Repeatable entity which sends file using {@link FileChannel#transferTo(long, long, WritableByteChannel)},
+ * so file content is never loaded to heap.
+ */
+public class FileChannelEntity extends AbstractHttpEntity {
+
+  private final File file;
+
+  public FileChannelEntity(File file, String contentType) {
+    this.file = file;
+    setContentType(contentType);
+  }
+
+  @Override
+  public boolean isRepeatable() {
+    return true;
+  }
+
+  @Override
+  public long getContentLength() {
+    return file.length();
+  }
+
+  @Override
+  public InputStream getContent() throws IOException {
+    return new FileInputStream(file);
+  }
+
+  @Override
+  public void writeTo(OutputStream outstream) throws IOException {
+    try (FileInputStream input = new FileInputStream(file)) {
+      FileChannel channel = input.getChannel();
+      WritableByteChannel target = Channels.newChannel(outstream);
+      long size = channel.size();
+      long position = 0;
+      while (position < size) {
+        long transferred = channel.transferTo(position, size - position, target);
+        if (transferred <= 0) {
+          // file was truncated - content length was already sent
+          throw new IOException("File " + file + " was truncated while being sent: expected " + size + " bytes, but only " + position + " bytes are available");
+        }
+        position += transferred;
+      }
+    }
+    outstream.flush();
+  }
+
+  @Override
+  public boolean isStreaming() {
+    return false;
+  }
+
+}
@@ -1,11 +1,16 @@
 package net.ravendb.querydsl;
 
 
+import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 
 import javax.annotation.processing.RoundEnvironment;
 import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.element.TypeElement;
+import javax.tools.Diagnostic;
 
 import com.mysema.query.annotations.QueryEmbeddable;
 import com.mysema.query.annotations.QueryEmbedded;
@@ -19,6 +24,31 @@ import com.mysema.query.apt.QuerydslAnnotationProcessor;
 @SupportedAnnotationTypes({"com.mysema.query.annotations.*"})
 public class RavenDBAnnotationProcessor extends QuerydslAnnotationProcessor {
 
+  private RavenJsonCodecGenerator codecGenerator;
+
+  @Override
+  public Set<String> getSupportedOptions() {
+    Set<String> options = new HashSet<>(super.getSupportedOptions());
+    options.add(RavenJsonCodecGenerator.OPTION);
+    return options;
+  }
+
+  @Override
+  public boolean process(Set< ? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+    if (codecGenerator == null && RavenJsonCodecGenerator.isEnabled(processingEnv)) {
+      codecGenerator = new RavenJsonCodecGenerator(processingEnv);
+    }
+    boolean result = super.process(annotations, roundEnv);
+    if (roundEnv.processingOver() && codecGenerator != null) {
+      try {
+        codecGenerator.writeServiceFile();
+      } catch (IOException e) {
+        processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR, "Unable to write JSON codecs service file: " + e.getMessage());
+      }
+    }
+    return result;
+  }
+
   @Override
   protected Configuration createConfiguration(RoundEnvironment roundEnv) {
     Class<? extends Annotation> entities = QueryEntities.class;
@@ -29,7 +59,7 @@ public class RavenDBAnnotationProcessor extends QuerydslAnnotationProcessor {
     Class<? extends Annotation> skip = QueryTransient.class;
 
     RavenDefaultConfiguration defaultConfig = new RavenDefaultConfiguration(roundEnv, processingEnv.getOptions(),Collections.<String>emptySet(), entities,
-        entity, superType, embeddable, embedded, skip);
+        entity, superType, embeddable, embedded, skip, codecGenerator);
 
     defaultConfig.addCustomType(String.class, RavenString.class);
     return defaultConfig;
@@ -16,8 +16,14 @@ public class RavenDefaultConfiguration  extends DefaultConfiguration{
   public RavenDefaultConfiguration(RoundEnvironment roundEnv, Map<String, String> options, Collection<String> keywords, Class< ? extends Annotation> entitiesAnn,
       Class< ? extends Annotation> entityAnn, Class< ? extends Annotation> superTypeAnn, Class< ? extends Annotation> embeddableAnn, Class< ? extends Annotation> embeddedAnn,
       Class< ? extends Annotation> skipAnn) {
+    this(roundEnv, options, keywords, entitiesAnn, entityAnn, superTypeAnn, embeddableAnn, embeddedAnn, skipAnn, null);
+  }
+
+  public RavenDefaultConfiguration(RoundEnvironment roundEnv, Map<String, String> options, Collection<String> keywords, Class< ? extends Annotation> entitiesAnn,
+      Class< ? extends Annotation> entityAnn, Class< ? extends Annotation> superTypeAnn, Class< ? extends Annotation> embeddableAnn, Class< ? extends Annotation> embeddedAnn,
+      Class< ? extends Annotation> skipAnn, RavenJsonCodecGenerator codecGenerator) {
     super(roundEnv, options, keywords, entitiesAnn, entityAnn, superTypeAnn, embeddableAnn, embeddedAnn, skipAnn);
-    entitySerializer = new RavenEntitySerializer(getTypeMappings(), getKeywords());
+    entitySerializer = new RavenEntitySerializer(getTypeMappings(), getKeywords(), codecGenerator);
   }
 
   @Override
@@ -20,8 +20,23 @@ import com.mysema.query.types.path.MapPath;
 
 public class RavenEntitySerializer extends EntitySerializer {
 
+  private final RavenJsonCodecGenerator codecGenerator;
+
   public RavenEntitySerializer(TypeMappings mappings, Collection<String> keywords) {
+    this(mappings, keywords, null);
+  }
+
+  public RavenEntitySerializer(TypeMappings mappings, Collection<String> keywords, RavenJsonCodecGenerator codecGenerator) {
     super(mappings, keywords);
+    this.codecGenerator = codecGenerator;
+  }
+
+  @Override
+  public void serialize(EntityType model, SerializerConfig config, CodeWriter writer) throws IOException {
+    super.serialize(model, config, writer);
+    if (codecGenerator != null) {
+      codecGenerator.generate(model);
+    }
   }
 
   @Override
@@ -0,0 +1,498 @@
+package net.ravendb.querydsl;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+import net.ravendb.abstractions.json.JsonCodec;
+
+import org.apache.commons.lang.StringUtils;
+
+import com.mysema.query.codegen.EntityType;
+
+/**
+ * Generates {@link JsonCodec} for entity classes, enabled by ravendb.jsonCodecs=true processor option.
+ *
+ * Codec is generated only when Jackson would (de)serialize entity using plain public getters and setters:
+ * entity has to be public, non generic class with public no-arg constructor, without public fields
+ * and Jackson annotations. Other entities are still handled by Jackson bean (de)serializers.
+ */
+public class RavenJsonCodecGenerator {
+
+  public static final String OPTION = "ravendb.jsonCodecs";
+
+  private static final String CODEC_SUFFIX = "JsonCodec";
+
+  private static final String SERVICE_FILE = "META-INF/services/" + JsonCodec.class.getName();
+
+  private final ProcessingEnvironment processingEnv;
+
+  private final Set<String> generatedCodecs = new TreeSet<>();
+
+  public RavenJsonCodecGenerator(ProcessingEnvironment processingEnv) {
+    this.processingEnv = processingEnv;
+  }
+
+  public static boolean isEnabled(ProcessingEnvironment processingEnv) {
+    return "true".equalsIgnoreCase(processingEnv.getOptions().get(OPTION));
+  }
+
+  /**
+   * Generates codec for given entity, if it can be (de)serialized without Jackson.
+   * @param model
+   * @throws IOException
+   */
+  public void generate(EntityType model) throws IOException {
+    TypeElement type = processingEnv.getElementUtils().getTypeElement(model.getFullName());
+    if (type == null) {
+      return;
+    }
+    String packageName = processingEnv.getElementUtils().getPackageOf(type).getQualifiedName().toString();
+    String codecName = codecName(type, packageName);
+    String qualifiedCodecName = packageName.isEmpty() ? codecName : packageName + "." + codecName;
+    if (generatedCodecs.contains(qualifiedCodecName)) {
+      return;
+    }
+
+    String problem = findProblem(type);
+    List<CodecProperty> properties = null;
+    if (problem == null) {
+      properties = new ArrayList<>();
+      problem = collectProperties(type, properties);
+    }
+    if (problem != null) {
+      processingEnv.getMessager().printMessage(Diagnostic.Kind.NOTE,
+        "JSON codec was not generated for " + type.getQualifiedName() + ": " + problem, type);
+      return;
+    }
+
+    try (Writer writer = processingEnv.getFiler().createSourceFile(qualifiedCodecName, type).openWriter()) {
+      writeCodec(writer, packageName, codecName, type.getQualifiedName().toString(), properties);
+    }
+    generatedCodecs.add(qualifiedCodecName);
+  }
+
+  /**
+   * Lists generated codecs in service file, so they are registered when ObjectMapper is created.
+   * @throws IOException
+   */
+  public void writeServiceFile() throws IOException {
+    if (generatedCodecs.isEmpty()) {
+      return;
+    }
+    FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+    try (Writer writer = file.openWriter()) {
+      for (String codec : generatedCodecs) {
+        writer.write(codec);
+        writer.write("\n");
+      }
+    }
+  }
+
+  private static String codecName(TypeElement type, String packageName) {
+    String qualifiedName = type.getQualifiedName().toString();
+    String simpleName = packageName.isEmpty() ? qualifiedName : qualifiedName.substring(packageName.length() + 1);
+    return simpleName.replace('.', '_') + CODEC_SUFFIX;
+  }
+
+  private static String findProblem(TypeElement type) {
+    if (type.getKind() != ElementKind.CLASS) {
+      return "not a class";
+    }
+    for (Element element = type; element instanceof TypeElement; element = element.getEnclosingElement()) {
+      if (!element.getModifiers().contains(Modifier.PUBLIC)) {
+        return "class is not public";
+      }
+      if (((TypeElement) element).getNestingKind() == NestingKind.MEMBER && !element.getModifiers().contains(Modifier.STATIC)) {
+        return "inner class is not static";
+      }
+      if (element.getEnclosingElement() instanceof PackageElement) {
+        break;
+      }
+    }
+    if (type.getModifiers().contains(Modifier.ABSTRACT)) {
+      return "class is abstract";
+    }
+    if (!type.getTypeParameters().isEmpty()) {
+      return "class is generic";
+    }
+    boolean hasDefaultConstructor = false;
+    for (ExecutableElement constructor : ElementFilter.constructorsIn(type.getEnclosedElements())) {
+      if (constructor.getParameters().isEmpty() && constructor.getModifiers().contains(Modifier.PUBLIC)) {
+        hasDefaultConstructor = true;
+      }
+    }
+    if (!hasDefaultConstructor) {
+      return "class doesn't have public no-arg constructor";
+    }
+    return null;
+  }
+
+  private String collectProperties(TypeElement type, List<CodecProperty> properties) {
+    Map<String, ExecutableElement> getters = new LinkedHashMap<>();
+    Map<String, ExecutableElement> setters = new LinkedHashMap<>();
+    List<String> fieldOrder = new ArrayList<>();
+
+    List<TypeElement> hierarchy = new ArrayList<>();
+    for (TypeElement current = type; current != null && !Object.class.getName().equals(current.getQualifiedName().toString()); current = superclass(current)) {
+      hierarchy.add(0, current);
+    }
+
+    for (TypeElement current : hierarchy) {
+      if (hasJacksonAnnotation(current)) {
+        return "Jackson annotations are used";
+      }
+      for (Element member : current.getEnclosedElements()) {
+        if (hasJacksonAnnotation(member)) {
+          return "Jackson annotations are used";
+        }
+        if (member.getModifiers().contains(Modifier.STATIC)) {
+          continue;
+        }
+        if (member.getKind() == ElementKind.FIELD) {
+          if (member.getModifiers().contains(Modifier.PUBLIC) && !member.getModifiers().contains(Modifier.TRANSIENT)) {
+            return "class has public fields";
+          }
+          fieldOrder.add(member.getSimpleName().toString());
+        } else if (member.getKind() == ElementKind.METHOD) {
+          ExecutableElement method = (ExecutableElement) member;
+          String getterName = getterPropertyName(method);
+          if (getterName != null && method.getModifiers().contains(Modifier.PUBLIC)) {
+            getters.put(getterName, method);
+          }
+          String setterName = setterPropertyName(method);
+          if (setterName != null) {
+            ExecutableElement existing = setters.get(setterName);
+            if (existing != null && !processingEnv.getTypeUtils().isSameType(existing.getParameters().get(0).asType(), method.getParameters().get(0).asType())) {
+              return "property " + setterName + " has overloaded setters";
+            }
+            setters.put(setterName, method);
+          }
+        }
+      }
+    }
+
+    List<String> names = new ArrayList<>();
+    for (String field : fieldOrder) {
+      if (getters.containsKey(field) && !names.contains(field)) {
+        names.add(field);
+      }
+    }
+    for (String getter : getters.keySet()) {
+      if (!names.contains(getter)) {
+        names.add(getter);
+      }
+    }
+    for (String setter : setters.keySet()) {
+      if (!getters.containsKey(setter)) {
+        return "property " + setter + " doesn't have public getter";
+      }
+    }
+
+    for (String name : names) {
+      ExecutableElement getter = getters.get(name);
+      ExecutableElement setter = setters.get(name);
+      if (setter == null || !setter.getModifiers().contains(Modifier.PUBLIC)) {
+        return "property " + name + " doesn't have public setter";
+      }
+      TypeMirror propertyType = getter.getReturnType();
+      if (!processingEnv.getTypeUtils().isSameType(propertyType, setter.getParameters().get(0).asType())) {
+        return "property " + name + " has different getter and setter types";
+      }
+      if (propertyType.getKind() == TypeKind.CHAR || propertyType.getKind() == TypeKind.TYPEVAR) {
+        return "property " + name + " has unsupported type";
+      }
+      properties.add(new CodecProperty(StringUtils.capitalize(name), getter.getSimpleName().toString(),
+        setter.getSimpleName().toString(), propertyType));
+    }
+    return null;
+  }
+
+  private static TypeElement superclass(TypeElement type) {
+    TypeMirror superclass = type.getSuperclass();
+    if (superclass.getKind() != TypeKind.DECLARED) {
+      return null;
+    }
+    return (TypeElement) ((DeclaredType) superclass).asElement();
+  }
+
+  private static boolean hasJacksonAnnotation(Element element) {
+    for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+      if (annotation.getAnnotationType().toString().startsWith("org.codehaus.jackson.")) {
+        return true;
+      }
+    }
+    for (VariableElement parameter : element instanceof ExecutableElement ? ((ExecutableElement) element).getParameters() : new ArrayList<VariableElement>()) {
+      if (hasJacksonAnnotation(parameter)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Property name as Jackson derives it from getter name.
+   */
+  private static String getterPropertyName(ExecutableElement method) {
+    if (!method.getParameters().isEmpty() || method.getReturnType().getKind() == TypeKind.VOID) {
+      return null;
+    }
+    String name = method.getSimpleName().toString();
+    if (name.startsWith("get") && name.length() > 3) {
+      if ("getClass".equals(name)) {
+        return null;
+      }
+      return manglePropertyName(name.substring(3));
+    }
+    if (name.startsWith("is") && name.length() > 2 && method.getReturnType().getKind() == TypeKind.BOOLEAN) {
+      return manglePropertyName(name.substring(2));
+    }
+    return null;
+  }
+
+  private static String setterPropertyName(ExecutableElement method) {
+    String name = method.getSimpleName().toString();
+    if (method.getParameters().size() != 1 || !name.startsWith("set") || name.length() <= 3) {
+      return null;
+    }
+    return manglePropertyName(name.substring(3));
+  }
+
+  /**
+   * Lower cases leading upper case characters, the same way Jackson does (e.g. URL -> url, FirstName -> firstName).
+   */
+  private static String manglePropertyName(String basename) {
+    StringBuilder result = new StringBuilder(basename);
+    for (int i = 0; i < result.length(); i++) {
+      char upper = result.charAt(i);
+      char lower = Character.toLowerCase(upper);
+      if (upper == lower) {
+        break;
+      }
+      result.setCharAt(i, lower);
+    }
+    return result.toString();
+  }
+
+  private static void writeCodec(Writer writer, String packageName, String codecName, String entityName, List<CodecProperty> properties) throws IOException {
+    if (!packageName.isEmpty()) {
+      writer.write("package " + packageName + ";\n\n");
+    }
+    writer.write("import java.io.IOException;\n\n");
+    writer.write("import net.ravendb.abstractions.json.JsonCodec;\n\n");
+    writer.write("import org.codehaus.jackson.JsonGenerator;\n");
+    writer.write("import org.codehaus.jackson.JsonParser;\n");
+    writer.write("import org.codehaus.jackson.map.DeserializationConfig;\n");
+    writer.write("import org.codehaus.jackson.map.DeserializationContext;\n");
+    writer.write("import org.codehaus.jackson.map.DeserializerProvider;\n");
+    writer.write("import org.codehaus.jackson.map.JsonDeserializer;\n");
+    writer.write("import org.codehaus.jackson.map.JsonMappingException;\n");
+    writer.write("import org.codehaus.jackson.map.SerializerProvider;\n");
+    writer.write("import org.codehaus.jackson.type.TypeReference;\n\n");
+
+    writer.write("/**\n * JSON codec of " + entityName + ", generated by " + RavenJsonCodecGenerator.class.getName() + "\n */\n");
+    writer.write("public class " + codecName + " extends JsonCodec<" + entityName + "> {\n\n");
+
+    for (CodecProperty property : properties) {
+      if (property.getKind() == ValueKind.DELEGATE) {
+        writer.write("  private JsonDeserializer<Object> " + property.getDeserializerField() + ";\n\n");
+      }
+    }
+
+    writer.write("  public " + codecName + "() {\n");
+    writer.write("    super(" + entityName + ".class);\n");
+    writer.write("  }\n\n");
+
+    writer.write("  @Override\n");
+    writer.write("  protected " + entityName + " newInstance() {\n");
+    writer.write("    return new " + entityName + "();\n");
+    writer.write("  }\n\n");
+
+    writer.write("  @Override\n");
+    writer.write("  protected void resolve(DeserializationConfig config, DeserializerProvider provider) throws JsonMappingException {\n");
+    for (CodecProperty property : properties) {
+      if (property.getKind() == ValueKind.DELEGATE) {
+        writer.write("    " + property.getDeserializerField() + " = findDeserializer(config, provider, new TypeReference<" + property.getTypeName() + ">() {\n");
+        writer.write("      // captures property type\n");
+        writer.write("    });\n");
+      }
+    }
+    writer.write("  }\n\n");
+
+    writer.write("  @Override\n");
+    writer.write("  protected void writeProperties(" + entityName + " value, JsonGenerator jgen, SerializerProvider provider) throws IOException {\n");
+    for (CodecProperty property : properties) {
+      writer.write(property.writeStatement());
+    }
+    writer.write("  }\n\n");
+
+    writer.write("  @Override\n");
+    writer.write("  @SuppressWarnings(\"unchecked\")\n");
+    writer.write("  protected boolean readProperty(" + entityName + " bean, String propertyName, JsonParser jp, DeserializationContext ctxt) throws IOException {\n");
+    writer.write("    switch (propertyName) {\n");
+    for (CodecProperty property : properties) {
+      writer.write("      case \"" + property.getJsonName() + "\":\n");
+      writer.write("        bean." + property.getSetter() + "(" + property.readExpression() + ");\n");
+      writer.write("        return true;\n");
+    }
+    writer.write("      default:\n");
+    writer.write("        return false;\n");
+    writer.write("    }\n");
+    writer.write("  }\n\n");
+    writer.write("}\n");
+  }
+
+  private enum ValueKind {
+    STRING, PRIMITIVE, BOXED, DELEGATE
+  }
+
+  private static class CodecProperty {
+    private final String jsonName;
+    private final String getter;
+    private final String setter;
+    private final String typeName;
+    private final ValueKind kind;
+    private final TypeKind primitiveKind;
+
+    public CodecProperty(String jsonName, String getter, String setter, TypeMirror type) {
+      this.jsonName = jsonName;
+      this.getter = getter;
+      this.setter = setter;
+      this.typeName = type.toString();
+      if (type.getKind().isPrimitive()) {
+        kind = ValueKind.PRIMITIVE;
+        primitiveKind = type.getKind();
+      } else if (String.class.getName().equals(typeName)) {
+        kind = ValueKind.STRING;
+        primitiveKind = null;
+      } else {
+        primitiveKind = unboxedKind(typeName);
+        kind = primitiveKind != null ? ValueKind.BOXED : ValueKind.DELEGATE;
+      }
+    }
+
+    private static TypeKind unboxedKind(String typeName) {
+      switch (typeName) {
+        case "java.lang.Boolean":
+          return TypeKind.BOOLEAN;
+        case "java.lang.Byte":
+          return TypeKind.BYTE;
+        case "java.lang.Short":
+          return TypeKind.SHORT;
+        case "java.lang.Integer":
+          return TypeKind.INT;
+        case "java.lang.Long":
+          return TypeKind.LONG;
+        case "java.lang.Float":
+          return TypeKind.FLOAT;
+        case "java.lang.Double":
+          return TypeKind.DOUBLE;
+        default:
+          return null;
+      }
+    }
+
+    public String getJsonName() {
+      return jsonName;
+    }
+
+    public String getSetter() {
+      return setter;
+    }
+
+    public String getTypeName() {
+      return typeName;
+    }
+
+    public ValueKind getKind() {
+      return kind;
+    }
+
+    public String getDeserializerField() {
+      return StringUtils.uncapitalize(jsonName) + "Deserializer";
+    }
+
+    public String writeStatement() {
+      String getterCall = "value." + getter + "()";
+      switch (kind) {
+        case STRING:
+          return "    jgen.writeFieldName(\"" + jsonName + "\");\n"
+            + "    writeString(jgen, " + getterCall + ");\n";
+        case PRIMITIVE:
+          return "    jgen.writeFieldName(\"" + jsonName + "\");\n"
+            + "    " + writePrimitive(getterCall) + ";\n";
+        case BOXED:
+          String local = StringUtils.uncapitalize(jsonName) + "Value";
+          return "    jgen.writeFieldName(\"" + jsonName + "\");\n"
+            + "    " + typeName + " " + local + " = " + getterCall + ";\n"
+            + "    if (" + local + " == null) {\n"
+            + "      jgen.writeNull();\n"
+            + "    } else {\n"
+            + "      " + writePrimitive(local + "." + primitiveKind.name().toLowerCase() + "Value()") + ";\n"
+            + "    }\n";
+        default:
+          return "    provider.defaultSerializeField(\"" + jsonName + "\", " + getterCall + ", jgen);\n";
+      }
+    }
+
+    private String writePrimitive(String value) {
+      return primitiveKind == TypeKind.BOOLEAN ? "jgen.writeBoolean(" + value + ")" : "jgen.writeNumber(" + value + ")";
+    }
+
+    public String readExpression() {
+      switch (kind) {
+        case STRING:
+          return "readString(jp, ctxt)";
+        case PRIMITIVE:
+          return readPrimitive();
+        case BOXED:
+          return "isNull(jp) ? null : " + typeName + ".valueOf(" + readPrimitive() + ")";
+        default:
+          return "(" + typeName + ") readValue(jp, ctxt, " + getDeserializerField() + ")";
+      }
+    }
+
+    private String readPrimitive() {
+      switch (primitiveKind) {
+        case BOOLEAN:
+          return "readBoolean(jp, ctxt)";
+        case BYTE:
+          return "(byte) readInt(jp, ctxt, byte.class)";
+        case SHORT:
+          return "(short) readInt(jp, ctxt, short.class)";
+        case INT:
+          return "readInt(jp, ctxt, int.class)";
+        case LONG:
+          return "readLong(jp, ctxt, long.class)";
+        case FLOAT:
+          return "(float) readDouble(jp, ctxt, float.class)";
+        default:
+          return "readDouble(jp, ctxt, double.class)";
+      }
+    }
+  }
+
+}
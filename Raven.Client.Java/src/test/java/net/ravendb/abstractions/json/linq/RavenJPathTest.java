@@ -0,0 +1,64 @@
+package net.ravendb.abstractions.json.linq;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import net.ravendb.abstractions.closure.Action1;
+import net.ravendb.abstractions.util.IncludesUtil;
+
+import org.junit.Test;
+
+
+public class RavenJPathTest {
+
+  private final RavenJObject order = RavenJObject.parse(
+    "{ \"Customer\": { \"Address\": { \"City\": \"Torun\" } }, " +
+    "  \"Lines\": [ { \"Product\": \"products/1\" }, { \"Product\": \"products/2\" } ], " +
+    "  \"Employees\": [ \"1\", \"2\" ] }");
+
+  @Test
+  public void canSelectNestedProperties() {
+    assertEquals("Torun", order.selectToken("Customer.Address.City").value(String.class));
+    assertEquals("products/2", order.selectToken("Lines[1].Product").value(String.class));
+    assertEquals("products/1", order.selectToken("Lines(0).Product").value(String.class));
+    assertEquals(Integer.valueOf(2), order.selectToken("Lines.Count").value(Integer.class));
+    assertNull(order.selectToken("Customer.Name.First"));
+    assertNull(order.selectToken("Lines[5].Product"));
+    assertNull(order.selectToken("Customer[0]"));
+  }
+
+  @Test
+  public void compiledPathsAreCached() {
+    assertSame(RavenJPath.compile("Customer.Address.City"), RavenJPath.compile("Customer.Address.City"));
+    assertSame(RavenJPath.compileRavenSyntax("Lines,Product"), RavenJPath.compileRavenSyntax("Lines,Product"));
+  }
+
+  @Test
+  public void canSelectUsingRavenSyntax() {
+    assertEquals("products/1", order.selectTokenWithRavenSyntaxReturningSingleValue("Lines,Product").value(String.class));
+    assertEquals(2, order.selectTokenWithRavenSyntaxReturningFlatStructure("Lines,Product").size());
+  }
+
+  @Test
+  public void canExtractIncludesFromManyDocuments() {
+    final List<String> ids = new ArrayList<>();
+    Action1<String> loadId = new Action1<String>() {
+      @Override
+      public void apply(String id) {
+        ids.add(id);
+      }
+    };
+    IncludesUtil.include(Arrays.asList(order, order), "Lines,Product", loadId);
+    assertEquals(Arrays.asList("products/1", "products/2", "products/1", "products/2"), ids);
+
+    ids.clear();
+    IncludesUtil.include(order, "Employees(employees/)", loadId);
+    assertEquals(Arrays.asList("employees/1", "1", "employees/2", "2"), ids);
+  }
+
+}
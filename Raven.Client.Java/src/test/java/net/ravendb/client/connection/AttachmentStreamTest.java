@@ -0,0 +1,107 @@
+package net.ravendb.client.connection;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.nio.channels.Channels;
+import java.util.Arrays;
+
+import net.ravendb.java.http.client.FileChannelEntity;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.entity.ByteArrayEntity;
+import org.junit.Test;
+
+
+@SuppressWarnings("deprecation")
+public class AttachmentStreamTest {
+
+  @Test
+  public void skipsAndLimitsContentWhenServerIgnoredRange() throws Exception {
+    byte[] data = data(1000);
+    try (AttachmentStream stream = new AttachmentStream(response(data), "images/1", null, null, 100, 250, true)) {
+      assertArrayEquals(Arrays.copyOfRange(data, 250, 350), IOUtils.toByteArray(stream.getInputStream()));
+    }
+  }
+
+  @Test
+  public void limitsContentOfRangeFromStartWhenServerIgnoredRange() throws Exception {
+    byte[] data = data(1000);
+    try (AttachmentStream stream = new AttachmentStream(response(data), "images/1", null, null, 100, 0, true)) {
+      assertEquals(100, stream.getSize());
+      assertArrayEquals(Arrays.copyOfRange(data, 0, 100), IOUtils.toByteArray(stream.getInputStream()));
+    }
+  }
+
+  @Test
+  public void transfersContentToChannel() throws Exception {
+    byte[] data = data(200 * 1024);
+    ByteArrayOutputStream target = new ByteArrayOutputStream();
+    try (AttachmentStream stream = new AttachmentStream(response(data), "images/1", null, null, data.length, 0, false)) {
+      assertEquals(data.length, stream.transferTo(Channels.newChannel(target)));
+    }
+    assertArrayEquals(data, target.toByteArray());
+  }
+
+  @Test
+  public void sendsFileThroughChannel() throws Exception {
+    byte[] data = data(100 * 1024);
+    File file = File.createTempFile("attachment", ".bin");
+    try {
+      try (FileOutputStream output = new FileOutputStream(file)) {
+        output.write(data);
+      }
+      FileChannelEntity entity = new FileChannelEntity(file, "image/png");
+      assertEquals(data.length, entity.getContentLength());
+      assertTrue(entity.isRepeatable());
+      for (int i = 0; i < 2; i++) {
+        ByteArrayOutputStream target = new ByteArrayOutputStream();
+        entity.writeTo(target);
+        assertArrayEquals(data, target.toByteArray());
+      }
+    } finally {
+      file.delete();
+    }
+  }
+
+  @Test
+  public void detectsCompressedContentTypes() {
+    assertTrue(HttpContentExtentions.isCompressedContentType("image/jpeg"));
+    assertTrue(HttpContentExtentions.isCompressedContentType("Video/MP4; codecs=avc1"));
+    assertTrue(HttpContentExtentions.isCompressedContentType("application/zip"));
+    assertFalse(HttpContentExtentions.isCompressedContentType("image/svg+xml"));
+    assertFalse(HttpContentExtentions.isCompressedContentType("application/json; charset=utf-8"));
+    assertFalse(HttpContentExtentions.isCompressedContentType(null));
+  }
+
+  private static byte[] data(int size) {
+    byte[] data = new byte[size];
+    for (int i = 0; i < size; i++) {
+      data[i] = (byte) (i * 31);
+    }
+    return data;
+  }
+
+  private static CloseableHttpResponse response(byte[] data) {
+    final ByteArrayEntity entity = new ByteArrayEntity(data);
+    return (CloseableHttpResponse) Proxy.newProxyInstance(AttachmentStreamTest.class.getClassLoader(),
+      new Class<?>[] { CloseableHttpResponse.class }, new InvocationHandler() {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+          if ("getEntity".equals(method.getName())) {
+            return entity;
+          }
+          return null;
+        }
+      });
+  }
+}
@@ -0,0 +1,229 @@
+package net.ravendb.client.connection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import net.ravendb.abstractions.closure.Function1;
+import net.ravendb.abstractions.connection.OperationCredentials;
+import net.ravendb.abstractions.data.HttpMethods;
+import net.ravendb.client.connection.implementation.HttpJsonRequestFactory;
+import net.ravendb.client.document.DocumentConvention;
+import net.ravendb.client.document.FailoverBehavior;
+import net.ravendb.client.document.FailoverBehaviorSet;
+import net.ravendb.client.exceptions.ConcurrencyLimitExceededException;
+import net.ravendb.client.metrics.MetricsRegistry;
+
+import org.junit.Test;
+
+
+public class ConcurrencyLimitersTest {
+
+  private static final String NODE = "http://localhost:8080";
+
+  @Test
+  public void rejectsRequestsAboveLimitWhenFailingFast() throws Exception {
+    final MetricsRegistry metrics = new MetricsRegistry();
+    final ConcurrencyLimiters limiters = new ConcurrencyLimiters(2, 0, metrics);
+    metrics.registerConcurrencyLimiters(limiters);
+
+    final List<ConcurrencyLimiters.Permit> permits = new ArrayList<>();
+    // permits are held per thread, nested requests of the same thread don't take another slot
+    permits.add(limiters.acquire(NODE + "/databases/db1/docs"));
+    permits.add(limiters.acquire(NODE + "/databases/db2/docs"));
+    assertEquals(Integer.valueOf(1), metrics.getNodeInFlightRequests().get(NODE));
+
+    Thread other = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        permits.add(limiters.acquire(NODE + "/docs"));
+      }
+    });
+    other.start();
+    other.join();
+    assertEquals(Integer.valueOf(2), metrics.getNodeInFlightRequests().get(NODE));
+    assertTrue(limiters.isSaturated(NODE + "/queries"));
+    assertFalse(limiters.isSaturated("http://otherhost:8080/docs"));
+
+    try {
+      runInOtherThread(limiters, NODE + "/docs");
+      fail("Request should be rejected");
+    } catch (ConcurrencyLimitExceededException e) {
+      assertEquals(NODE, e.getNode());
+    }
+    assertEquals(1, metrics.getRejectedRequests());
+
+    for (ConcurrencyLimiters.Permit permit : permits) {
+      permit.release(false);
+    }
+    assertEquals(Integer.valueOf(0), metrics.getNodeInFlightRequests().get(NODE));
+    assertFalse(limiters.isSaturated(NODE));
+  }
+
+  @Test
+  public void adjustsLimitUsingAimd() {
+    ConcurrencyLimiters limiters = new ConcurrencyLimiters(100, 0, null);
+    limiters.acquire(NODE).release(false);
+    assertEquals(Integer.valueOf(20), limiters.getLimits().get(NODE));
+
+    limiters.acquire(NODE).release(true);
+    assertEquals(Integer.valueOf(15), limiters.getLimits().get(NODE));
+  }
+
+  @Test
+  public void mixedLatencyTrafficDoesNotReduceLimit() throws Exception {
+    final ConcurrencyLimiters limiters = new ConcurrencyLimiters(200, 15000, null);
+    ExecutorService executor = Executors.newFixedThreadPool(16);
+    List<Future<?>> results = new ArrayList<>();
+    for (int i = 0; i < 320; i++) {
+      // fast loads mixed with slow queries
+      final long latency = i % 4 == 0 ? 60 : 2;
+      results.add(executor.submit(new Callable<Void>() {
+        @Override
+        public Void call() throws Exception {
+          ConcurrencyLimiters.Permit permit = limiters.acquire(NODE + "/docs");
+          Thread.sleep(latency);
+          permit.release(false);
+          return null;
+        }
+      }));
+    }
+    for (Future<?> result : results) {
+      result.get();
+    }
+    executor.shutdown();
+    assertTrue(limiters.getLimits().get(NODE).intValue() >= 20);
+  }
+
+  @Test
+  public void slowdownOfNodeReducesLimit() throws Exception {
+    ConcurrencyLimiters limiters = new ConcurrencyLimiters(100, 0, null);
+    for (int i = 0; i < 150; i++) {
+      ConcurrencyLimiters.Permit permit = limiters.acquire(NODE);
+      Thread.sleep(2);
+      permit.release(false);
+    }
+    assertEquals(Integer.valueOf(20), limiters.getLimits().get(NODE));
+
+    // e.g. GC pause on server
+    for (int i = 0; i < 20; i++) {
+      ConcurrencyLimiters.Permit permit = limiters.acquire(NODE);
+      Thread.sleep(50);
+      permit.release(false);
+    }
+    assertTrue(limiters.getLimits().get(NODE).intValue() < 20);
+  }
+
+  @Test
+  public void saturatedPrimaryFailsOverToReplica() throws Exception {
+    DocumentConvention convention = new DocumentConvention();
+    convention.setFailoverBehavior(new FailoverBehaviorSet(FailoverBehavior.ALLOW_READS_FROM_SECONDARIES));
+    convention.setMaxConcurrentRequestsPerNode(1);
+    final HttpJsonRequestFactory factory = new HttpJsonRequestFactory(10, convention);
+    ReplicationInformer replicationInformer = new ReplicationInformer(convention, factory);
+    String replica = "http://replica:8080";
+    replicationInformer.replicationDestinations.add(new OperationMetadata(replica, new OperationCredentials()));
+
+    // other thread holds the only slot of primary
+    Thread other = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        factory.getConcurrencyLimiters().acquire(NODE);
+      }
+    });
+    other.start();
+    other.join();
+
+    long start = System.nanoTime();
+    String usedUrl = replicationInformer.executeWithReplication(HttpMethods.GET, NODE, new OperationCredentials(), 1, 0,
+      new Function1<OperationMetadata, String>() {
+      @Override
+      public String apply(OperationMetadata metadata) {
+        return metadata.getUrl();
+      }
+    });
+    assertEquals(replica, usedUrl);
+    assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5000);
+    assertEquals(0, replicationInformer.getFailureCount(NODE).get());
+    factory.close();
+  }
+
+  @Test
+  public void writeToSaturatedPrimaryWaitsForFreeSlot() throws Exception {
+    DocumentConvention convention = new DocumentConvention();
+    convention.setFailoverBehavior(new FailoverBehaviorSet(FailoverBehavior.ALLOW_READS_FROM_SECONDARIES));
+    convention.setMaxConcurrentRequestsPerNode(1);
+    final HttpJsonRequestFactory factory = new HttpJsonRequestFactory(10, convention);
+    ReplicationInformer replicationInformer = new ReplicationInformer(convention, factory);
+    replicationInformer.replicationDestinations.add(new OperationMetadata("http://replica:8080", new OperationCredentials()));
+
+    // other thread holds the only slot of primary for a while
+    final CountDownLatch acquired = new CountDownLatch(1);
+    Thread other = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        ConcurrencyLimiters.Permit permit = factory.getConcurrencyLimiters().acquire(NODE);
+        acquired.countDown();
+        try {
+          Thread.sleep(300);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        permit.release(false);
+      }
+    });
+    other.start();
+    acquired.await();
+
+    String usedUrl = replicationInformer.executeWithReplication(HttpMethods.PUT, NODE, new OperationCredentials(), 1, 0,
+      new Function1<OperationMetadata, String>() {
+      @Override
+      public String apply(OperationMetadata metadata) {
+        return metadata.getUrl();
+      }
+    });
+    other.join();
+    assertEquals(NODE, usedUrl);
+    assertEquals(0, replicationInformer.getFailureCount(NODE).get());
+    factory.close();
+  }
+
+  @Test
+  public void disabledLimiterDoesNotTrackNodes() {
+    ConcurrencyLimiters limiters = new ConcurrencyLimiters(0, 0, null);
+    for (int i = 0; i < 100; i++) {
+      limiters.acquire(NODE);
+    }
+    assertTrue(limiters.getLimits().isEmpty());
+    assertFalse(limiters.isSaturated(NODE));
+  }
+
+  private static void runInOtherThread(final ConcurrencyLimiters limiters, final String url) throws InterruptedException {
+    final List<RuntimeException> errors = new ArrayList<>();
+    Thread thread = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          limiters.acquire(url);
+        } catch (RuntimeException e) {
+          errors.add(e);
+        }
+      }
+    });
+    thread.start();
+    thread.join();
+    if (!errors.isEmpty()) {
+      throw errors.get(0);
+    }
+  }
+}
@@ -0,0 +1,208 @@
+package net.ravendb.client.connection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import net.ravendb.abstractions.basic.CleanCloseable;
+import net.ravendb.abstractions.closure.Function0;
+import net.ravendb.abstractions.closure.Function1;
+import net.ravendb.abstractions.closure.Function2;
+import net.ravendb.abstractions.connection.OperationCredentials;
+import net.ravendb.abstractions.data.HttpMethods;
+import net.ravendb.client.IDocumentStore;
+import net.ravendb.client.connection.implementation.HttpJsonRequestFactory;
+import net.ravendb.client.document.DocumentConvention;
+import net.ravendb.client.document.DocumentStore;
+import net.ravendb.client.exceptions.DeadlineExceededException;
+import net.ravendb.client.shard.ParallelShardAccessStrategy;
+import net.ravendb.client.shard.ShardRequestData;
+import net.ravendb.client.shard.ShardStrategy;
+import net.ravendb.client.shard.ShardedDocumentStore;
+
+import org.apache.http.client.methods.HttpGet;
+import org.junit.Test;
+
+
+public class DeadlineTest {
+
+  private static final String NODE = "http://localhost:8080";
+
+  @SuppressWarnings("boxing")
+  @Test
+  public void deadlineIsPropagatedToWorkerThreads() throws Exception {
+    final HttpJsonRequestFactory factory = new HttpJsonRequestFactory(10);
+    assertNull(factory.getRemainingTime());
+
+    factory.setDeadline(System.nanoTime() + TimeUnit.SECONDS.toNanos(10));
+    long remaining = factory.getRemainingTime();
+    assertTrue(remaining > 9000 && remaining <= 10000);
+
+    final Function0<CleanCloseable> settings = factory.captureThreadSettings();
+    final Long[] remainingInWorker = new Long[2];
+    Thread worker = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        CleanCloseable scope = settings.apply();
+        try {
+          remainingInWorker[0] = factory.getRemainingTime();
+        } finally {
+          scope.close();
+        }
+        remainingInWorker[1] = factory.getRemainingTime();
+      }
+    });
+    worker.start();
+    worker.join();
+
+    assertTrue(remainingInWorker[0] > 9000);
+    assertNull(remainingInWorker[1]);
+    factory.close();
+  }
+
+  @SuppressWarnings("boxing")
+  @Test
+  public void deadlineOfShardedStoreIsPropagatedToShardThreads() {
+    Map<String, IDocumentStore> shards = new LinkedHashMap<>();
+    shards.put("europe", new DocumentStore(NODE));
+    shards.put("asia", new DocumentStore("http://localhost:8081"));
+    ShardStrategy shardStrategy = new ShardStrategy(shards);
+    ParallelShardAccessStrategy accessStrategy = new ParallelShardAccessStrategy();
+    List<IDatabaseCommands> commands = new ArrayList<>();
+
+    try (IDocumentStore store = new ShardedDocumentStore(shardStrategy).initialize()) {
+      for (IDocumentStore shard : shards.values()) {
+        commands.add(shard.getDatabaseCommands());
+      }
+      Long[] remaining;
+      CleanCloseable deadline = store.setDeadlineFor(10000);
+      try {
+        remaining = accessStrategy.apply(Long.class, commands, new ShardRequestData(), new Function2<IDatabaseCommands, Integer, Long>() {
+          @Override
+          public Long apply(IDatabaseCommands shardCommands, Integer index) {
+            return ((ServerClient) shardCommands).getJsonRequestFactory().getRemainingTime();
+          }
+        });
+      } finally {
+        deadline.close();
+      }
+      assertEquals(2, remaining.length);
+      for (Long shardRemaining : remaining) {
+        assertTrue(shardRemaining > 9000 && shardRemaining <= 10000);
+      }
+    } finally {
+      accessStrategy.close();
+    }
+  }
+
+  @SuppressWarnings("boxing")
+  @Test
+  public void requestIsNotSentAfterDeadline() {
+    HttpJsonRequestFactory factory = new HttpJsonRequestFactory(10);
+    DocumentConvention convention = new DocumentConvention();
+    CreateHttpJsonRequestParams params = new CreateHttpJsonRequestParams(null, "http://localhost:8080/docs",
+      HttpMethods.GET, null, null, convention);
+
+    factory.setDeadline(System.nanoTime() - 1);
+    try {
+      factory.createHttpJsonRequest(params);
+      fail("Request should not be created");
+    } catch (DeadlineExceededException e) {
+      assertTrue(e.getMessage().contains("http://localhost:8080/docs"));
+    }
+
+    factory.setDeadline(null);
+    assertEquals("http://localhost:8080/docs", factory.createHttpJsonRequest(params).getUrl());
+    factory.close();
+  }
+
+  @SuppressWarnings("boxing")
+  @Test
+  public void waitingForConnectionIsLimitedByDeadline() {
+    HttpJsonRequestFactory factory = new HttpJsonRequestFactory(10);
+    CreateHttpJsonRequestParams params = new CreateHttpJsonRequestParams(null, "http://localhost:8080/docs",
+      HttpMethods.GET, null, null, new DocumentConvention());
+
+    HttpGet get = new HttpGet("http://localhost:8080/docs");
+    factory.createHttpJsonRequest(params).setTimeout(get, 100);
+    assertEquals(-1, get.getConfig().getConnectionRequestTimeout());
+
+    factory.setDeadline(System.nanoTime() + TimeUnit.SECONDS.toNanos(10));
+    factory.createHttpJsonRequest(params).setTimeout(get, 100);
+    assertEquals(100, get.getConfig().getConnectionRequestTimeout());
+    factory.close();
+  }
+
+  @SuppressWarnings("boxing")
+  @Test
+  public void waitingForConcurrencySlotIsLimitedByDeadline() throws Exception {
+    DocumentConvention convention = new DocumentConvention();
+    convention.setMaxConcurrentRequestsPerNode(1);
+    final HttpJsonRequestFactory factory = new HttpJsonRequestFactory(10, convention);
+    ReplicationInformer replicationInformer = new ReplicationInformer(convention, factory);
+
+    Thread other = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        factory.getConcurrencyLimiters().acquire(NODE);
+      }
+    });
+    other.start();
+    other.join();
+
+    factory.setDeadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(200));
+    long start = System.nanoTime();
+    try {
+      replicationInformer.executeWithReplication(HttpMethods.GET, NODE, new OperationCredentials(), 1, 0,
+        new Function1<OperationMetadata, String>() {
+        @Override
+        public String apply(OperationMetadata metadata) {
+          return metadata.getUrl();
+        }
+      });
+      fail("Operation should exceed deadline");
+    } catch (DeadlineExceededException e) {
+      assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < 5000);
+    }
+    factory.close();
+  }
+
+  @SuppressWarnings("boxing")
+  @Test
+  public void timeoutCausedByDeadlineIsNotNodeFailure() {
+    DocumentConvention convention = new DocumentConvention();
+    HttpJsonRequestFactory factory = new HttpJsonRequestFactory(10, convention);
+    ReplicationInformer replicationInformer = new ReplicationInformer(convention, factory);
+    replicationInformer.replicationDestinations.add(new OperationMetadata("http://replica:8080", new OperationCredentials()));
+
+    factory.setDeadline(System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(50));
+    try {
+      replicationInformer.executeWithReplication(HttpMethods.GET, NODE, new OperationCredentials(), 1, 0,
+        new Function1<OperationMetadata, String>() {
+        @Override
+        public String apply(OperationMetadata metadata) {
+          try {
+            Thread.sleep(100);
+          } catch (InterruptedException e) {
+            throw new RuntimeException(e);
+          }
+          throw new RuntimeException(new SocketTimeoutException("Read timed out"));
+        }
+      });
+      fail("Operation should exceed deadline");
+    } catch (DeadlineExceededException e) {
+      assertTrue(e.getCause().getCause() instanceof SocketTimeoutException);
+    }
+    assertEquals(0, replicationInformer.getFailureCount(NODE).get());
+    assertEquals(Integer.valueOf(20), factory.getConcurrencyLimiters().getLimits().get(NODE));
+    factory.close();
+  }
+}
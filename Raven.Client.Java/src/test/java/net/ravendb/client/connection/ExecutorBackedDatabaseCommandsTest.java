@@ -0,0 +1,65 @@
+package net.ravendb.client.connection;
+
+import static org.junit.Assert.assertTrue;
+
+import java.io.InputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import net.ravendb.abstractions.closure.Function0;
+import net.ravendb.abstractions.data.HttpMethods;
+import net.ravendb.abstractions.json.linq.RavenJToken;
+import net.ravendb.client.connection.implementation.HttpJsonRequestFactory;
+import net.ravendb.client.document.DocumentConvention;
+import net.ravendb.client.utils.RavenFuture;
+
+import org.junit.Test;
+
+
+public class ExecutorBackedDatabaseCommandsTest {
+
+  @Test
+  public void cancelAbortsRequest() throws Exception {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    final HttpJsonRequestFactory factory = new HttpJsonRequestFactory(10);
+    try (final ServerSocket server = new ServerSocket(0)) {
+      // server reads request until connection is aborted, but never responds
+      Thread acceptor = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          try (Socket socket = server.accept(); InputStream input = socket.getInputStream()) {
+            while (input.read() != -1) {
+              // ignore request
+            }
+          } catch (Exception e) {
+            // test is over
+          }
+        }
+      });
+      acceptor.setDaemon(true);
+      acceptor.start();
+
+      final String url = "http://localhost:" + server.getLocalPort() + "/docs";
+      ExecutorBackedDatabaseCommands client = new ExecutorBackedDatabaseCommands(null, factory, executor);
+      RavenFuture<RavenJToken> future = client.execute(new Function0<RavenJToken>() {
+        @Override
+        public RavenJToken apply() {
+          CreateHttpJsonRequestParams params = new CreateHttpJsonRequestParams(null, url, HttpMethods.GET, null, null,
+            new DocumentConvention());
+          return factory.createHttpJsonRequest(params).readResponseJson();
+        }
+      });
+      Thread.sleep(500);
+      assertTrue(future.cancel(false));
+
+      executor.shutdown();
+      assertTrue("Request should be aborted", executor.awaitTermination(10, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdownNow();
+      factory.close();
+    }
+  }
+}
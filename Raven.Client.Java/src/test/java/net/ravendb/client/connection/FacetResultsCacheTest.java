@@ -0,0 +1,174 @@
+package net.ravendb.client.connection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+
+import net.ravendb.abstractions.basic.CleanCloseable;
+import net.ravendb.abstractions.data.IndexChangeNotification;
+import net.ravendb.abstractions.data.IndexChangeTypes;
+import net.ravendb.abstractions.data.IndexQuery;
+import net.ravendb.abstractions.json.linq.RavenJObject;
+import net.ravendb.client.changes.IDatabaseChanges;
+import net.ravendb.client.changes.IObservable;
+import net.ravendb.client.changes.IObserver;
+
+import org.junit.Test;
+
+
+public class FacetResultsCacheTest {
+
+  private static final String ETAG = "\"01000000-0000-0001-0000-000000000001\"";
+
+  @Test
+  public void keyIgnoresQueryPaging() {
+    IndexQuery query1 = new IndexQuery("Name:Phone");
+    query1.setPageSize(10);
+    IndexQuery query2 = new IndexQuery("Name:Phone");
+    query2.setStart(20);
+    query2.setPageSize(50);
+    IndexQuery query3 = new IndexQuery("Name:Laptop");
+
+    String key1 = FacetResultsCache.facetsKey("http://localhost:8080", "Products/ByName", query1, 0, null, "facetDoc=facets/1");
+    String key2 = FacetResultsCache.facetsKey("http://localhost:8080", "products/byname", query2, 0, null, "facetDoc=facets/1");
+    String key3 = FacetResultsCache.facetsKey("http://localhost:8080", "Products/ByName", query3, 0, null, "facetDoc=facets/1");
+
+    assertEquals(key1, key2);
+    assertNotEquals(key1, key3);
+  }
+
+  @Test
+  public void storesOnlyResultsWhichCanBeRevalidated() {
+    FacetResultsCache cache = new FacetResultsCache();
+    RavenJObject result = new RavenJObject();
+    result.add("Results", new RavenJObject());
+
+    long version = cache.getVersion("db", "Products/ByName");
+    cache.put("withoutEtag", "db", "Products/ByName", result, null, version);
+    assertNull(cache.get("withoutEtag"));
+
+    cache.put("withEtag", "db", "Products/ByName", result, "\"01000000-0000-0001-0000-000000000001\"", version);
+    FacetResultsCache.Entry entry = cache.get("withEtag");
+    assertNotNull(entry);
+    assertEquals("\"01000000-0000-0001-0000-000000000001\"", entry.getEtag());
+    // changes are not observed, so entry has to be revalidated
+    assertFalse(cache.isUpToDate(entry));
+
+    cache.clear();
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void notificationReceivedDuringRequestMakesResultStale() {
+    FacetResultsCache cache = new FacetResultsCache();
+    StubIndexChanges changes = new StubIndexChanges();
+    cache.observeIndexChanges("db", changes.proxy());
+
+    // version is read before request is sent
+    long version = cache.getVersion("db", "Products/ByName");
+    changes.indexChanged("Products/ByName");
+
+    // response (computed before index changed) arrives after notification
+    cache.put("facets", "db", "Products/ByName", result(), ETAG, version);
+    assertFalse(cache.isUpToDate(cache.get("facets")));
+
+    long newVersion = cache.getVersion("db", "Products/ByName");
+    cache.put("facets", "db", "Products/ByName", result(), ETAG, newVersion);
+    assertTrue(cache.isUpToDate(cache.get("facets")));
+
+    // change of other index doesn't affect result
+    changes.indexChanged("Orders/ByCompany");
+    assertTrue(cache.isUpToDate(cache.get("facets")));
+  }
+
+  @Test
+  public void resultsWhichCanChangeWithoutIndexNotificationAreAlwaysRevalidated() {
+    FacetResultsCache cache = new FacetResultsCache();
+    StubIndexChanges changes = new StubIndexChanges();
+    cache.observeIndexChanges("db", changes.proxy());
+    IndexQuery query = new IndexQuery("Name:Phone");
+
+    // facet setup document might be edited
+    String setupDocKey = FacetResultsCache.facetSetupDocKey("http://localhost:8080", "Products/ByName", query, 0, null, "facets/1");
+    cache.put(setupDocKey, "db", "Products/ByName", result(), ETAG, cache.getVersion("db", "Products/ByName"));
+    assertNotNull(cache.get(setupDocKey));
+    assertFalse(cache.isUpToDate(cache.get(setupDocKey)));
+
+    // index changes of secondary node aren't observed
+    String replicaKey = FacetResultsCache.facetsKey("http://replica:8080", "Products/ByName", query, 0, null, "[]");
+    cache.put(replicaKey, "db", "Products/ByName", result(), ETAG, cache.getVersion("db", "Products/ByName"), false);
+    assertFalse(cache.isUpToDate(cache.get(replicaKey)));
+  }
+
+  @Test
+  public void forgottenIndexChangeMakesResultsOfDatabaseStale() {
+    FacetResultsCache cache = new FacetResultsCache(2);
+    StubIndexChanges changes = new StubIndexChanges();
+    cache.observeIndexChanges("db", changes.proxy());
+
+    cache.put("facets", "db", "Products/ByName", result(), ETAG, cache.getVersion("db", "Products/ByName"));
+    assertTrue(cache.isUpToDate(cache.get("facets")));
+
+    for (int i = 0; i < 10; i++) {
+      changes.indexChanged("Index" + i);
+    }
+    assertFalse(cache.isUpToDate(cache.get("facets")));
+  }
+
+  private static RavenJObject result() {
+    RavenJObject result = new RavenJObject();
+    result.add("Results", new RavenJObject());
+    return result;
+  }
+
+  private static class StubIndexChanges {
+    private IObserver<IndexChangeNotification> observer;
+
+    public void indexChanged(String index) {
+      IndexChangeNotification notification = new IndexChangeNotification();
+      notification.setName(index);
+      notification.setType(IndexChangeTypes.MAP_COMPLETED);
+      observer.onNext(notification);
+    }
+
+    @SuppressWarnings("unchecked")
+    public IDatabaseChanges proxy() {
+      final IObservable<IndexChangeNotification> indexChanges = (IObservable<IndexChangeNotification>) Proxy.newProxyInstance(
+        getClass().getClassLoader(), new Class<?>[] { IObservable.class }, new InvocationHandler() {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+          if ("subscribe".equals(method.getName())) {
+            observer = (IObserver<IndexChangeNotification>) args[0];
+            return new CleanCloseable() {
+              @Override
+              public void close() {
+                observer = null;
+              }
+            };
+          }
+          return null;
+        }
+      });
+      return (IDatabaseChanges) Proxy.newProxyInstance(getClass().getClassLoader(),
+        new Class<?>[] { IDatabaseChanges.class }, new InvocationHandler() {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) {
+          if ("isConnected".equals(method.getName())) {
+            return Boolean.TRUE;
+          }
+          if ("forAllIndexes".equals(method.getName())) {
+            return indexChanges;
+          }
+          return null;
+        }
+      });
+    }
+  }
+}
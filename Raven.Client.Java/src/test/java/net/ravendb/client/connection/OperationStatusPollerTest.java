@@ -0,0 +1,168 @@
+package net.ravendb.client.connection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.ravendb.abstractions.closure.Function1;
+import net.ravendb.abstractions.json.linq.RavenJObject;
+import net.ravendb.abstractions.json.linq.RavenJToken;
+import net.ravendb.client.connection.OperationStatusPoller.OperationCompletion;
+import net.ravendb.client.utils.RavenFuture;
+
+import org.junit.Test;
+
+
+public class OperationStatusPollerTest {
+
+  @Test
+  public void tracksManyOperationsConcurrently() throws Exception {
+    final ConcurrentMap<Long, AtomicInteger> polls = new ConcurrentHashMap<>();
+    Function1<Long, RavenJToken> statusFetcher = new Function1<Long, RavenJToken>() {
+      @Override
+      public RavenJToken apply(Long id) {
+        polls.putIfAbsent(id, new AtomicInteger());
+        int poll = polls.get(id).incrementAndGet();
+        return status(poll > id % 3, false, "result of " + id);
+      }
+    };
+
+    try (OperationStatusPoller poller = new OperationStatusPoller()) {
+      List<RavenFuture<RavenJToken>> completions = new ArrayList<>();
+      for (long id = 0; id < 100; id++) {
+        completions.add(new Operation(statusFetcher, id, poller).waitForCompletionAsync());
+      }
+      for (int i = 0; i < completions.size(); i++) {
+        RavenJToken state = completions.get(i).get(10, TimeUnit.SECONDS);
+        assertEquals("result of " + i, state.value(String.class, "Message"));
+        assertEquals(i % 3 + 1, polls.get(Long.valueOf(i)).get());
+      }
+    }
+  }
+
+  @Test
+  public void reportsFaultedAndUnknownOperations() throws Exception {
+    Function1<Long, RavenJToken> statusFetcher = new Function1<Long, RavenJToken>() {
+      @Override
+      public RavenJToken apply(Long id) {
+        return id.longValue() == 1 ? status(true, true, "boom") : null;
+      }
+    };
+    try (OperationStatusPoller poller = new OperationStatusPoller()) {
+      try {
+        new Operation(statusFetcher, 1, poller).waitForCompletion();
+        fail();
+      } catch (IllegalStateException e) {
+        assertTrue(e.getMessage().contains("boom"));
+      }
+      assertNull(new Operation(statusFetcher, 2, poller).waitForCompletion());
+      assertNull(new Operation(statusFetcher, 2).waitForCompletion());
+    }
+  }
+
+  @Test
+  public void pollNowChecksStatusImmediately() throws Exception {
+    final AtomicInteger polls = new AtomicInteger();
+    try (OperationStatusPoller poller = new OperationStatusPoller()) {
+      OperationCompletion completion = poller.track(1, new Function1<Long, RavenJToken>() {
+        @Override
+        public RavenJToken apply(Long id) {
+          return status(polls.incrementAndGet() > 8, false, null);
+        }
+      });
+      Thread.sleep(200);
+      long start = System.nanoTime();
+      while (!completion.isDone()) {
+        completion.pollNow();
+        Thread.sleep(5);
+      }
+      assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) < OperationStatusPoller.MAX_DELAY);
+    }
+  }
+
+  @Test
+  public void slowStatusRequestDoesNotDelayOtherOperations() throws Exception {
+    final CountDownLatch release = new CountDownLatch(1);
+    try (OperationStatusPoller poller = new OperationStatusPoller()) {
+      OperationCompletion slow = poller.track(1, new Function1<Long, RavenJToken>() {
+        @Override
+        public RavenJToken apply(Long id) {
+          try {
+            release.await(10, TimeUnit.SECONDS);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          return status(true, false, null);
+        }
+      });
+      Thread.sleep(50);
+      OperationCompletion fast = poller.track(2, new Function1<Long, RavenJToken>() {
+        @Override
+        public RavenJToken apply(Long id) {
+          return status(true, false, null);
+        }
+      });
+      fast.get(5, TimeUnit.SECONDS);
+      assertFalse(slow.isDone());
+      release.countDown();
+      slow.get(5, TimeUnit.SECONDS);
+    }
+  }
+
+  @Test
+  public void closeFailsOutstandingOperations() throws Exception {
+    Function1<Long, RavenJToken> neverCompleted = new Function1<Long, RavenJToken>() {
+      @Override
+      public RavenJToken apply(Long id) {
+        return status(false, false, null);
+      }
+    };
+    OperationStatusPoller poller = new OperationStatusPoller();
+    final Operation operation = new Operation(neverCompleted, 1, poller);
+    final List<Exception> errors = new ArrayList<>();
+    Thread waiter = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          operation.waitForCompletion();
+        } catch (Exception e) {
+          errors.add(e);
+        }
+      }
+    });
+    waiter.start();
+    Thread.sleep(100);
+    poller.close();
+    waiter.join(TimeUnit.SECONDS.toMillis(10));
+
+    assertFalse(waiter.isAlive());
+    assertEquals(1, errors.size());
+    assertTrue(errors.get(0) instanceof IllegalStateException);
+    try {
+      poller.track(2, neverCompleted).join();
+      fail();
+    } catch (IllegalStateException e) {
+      // expected
+    }
+  }
+
+  private static RavenJToken status(boolean completed, boolean faulted, String message) {
+    RavenJObject state = new RavenJObject();
+    state.add(faulted ? "Error" : "Message", message);
+    RavenJObject status = new RavenJObject();
+    status.add("Completed", completed);
+    status.add("Faulted", faulted);
+    status.add("State", state);
+    return status;
+  }
+}
@@ -0,0 +1,146 @@
+package net.ravendb.client.connection.implementation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import net.ravendb.abstractions.data.HttpMethods;
+import net.ravendb.client.connection.CreateHttpJsonRequestParams;
+import net.ravendb.client.document.DocumentConvention;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+
+public class HttpJsonRequestFactoryTest {
+
+  private HttpServer server;
+  private String url;
+  private final CountDownLatch release = new CountDownLatch(1);
+
+  @Before
+  public void setUp() throws Exception {
+    server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.setExecutor(Executors.newCachedThreadPool());
+    server.createContext("/", new HttpHandler() {
+      @Override
+      public void handle(HttpExchange exchange) throws IOException {
+        try {
+          release.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        byte[] body = "{}".getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+          output.write(body);
+        }
+      }
+    });
+    server.start();
+    url = "http://127.0.0.1:" + server.getAddress().getPort();
+  }
+
+  @After
+  public void tearDown() {
+    release.countDown();
+    server.stop(0);
+  }
+
+  @Test
+  public void autoSizedRouteLimitGrowsUnderLoadAndShrinksAfterwards() throws Exception {
+    DocumentConvention convention = new DocumentConvention();
+    convention.setMaxConnectionsPerRoute(0);
+    convention.setMaxTotalConnections(20);
+    convention.setConnectionIdleTimeout(0);
+    final HttpJsonRequestFactory factory = new HttpJsonRequestFactory(0, convention);
+    final CreateHttpJsonRequestParams params = new CreateHttpJsonRequestParams(null, url + "/docs", HttpMethods.GET, null, null, convention);
+    try {
+      List<Thread> threads = new ArrayList<>();
+      for (int i = 0; i < 12; i++) {
+        Thread thread = new Thread(new Runnable() {
+          @Override
+          public void run() {
+            factory.createHttpJsonRequest(params).executeRequest();
+          }
+        });
+        thread.start();
+        threads.add(thread);
+      }
+      waitForPending(factory, 2);
+      assertEquals(10, getStats(factory).getMax());
+
+      factory.maintainConnectionPool(0);
+      assertEquals(12, getStats(factory).getMax());
+
+      release.countDown();
+      for (Thread thread : threads) {
+        thread.join();
+      }
+      factory.maintainConnectionPool(0);
+      assertEquals(10, getStats(factory).getMax());
+    } finally {
+      factory.close();
+    }
+  }
+
+  @Test
+  public void idleRoutesAreForgotten() {
+    HttpJsonRequestFactory factory = new HttpJsonRequestFactory(0, new DocumentConvention());
+    try {
+      factory.registerRoute("http://server1:8080/docs");
+      factory.maintainConnectionPool(0);
+      assertEquals(1, factory.getConnectionPoolStats().size());
+
+      factory.maintainConnectionPool(0, System.currentTimeMillis() + HttpJsonRequestFactory.ROUTE_IDLE_TIMEOUT + 1000);
+      assertTrue(factory.getConnectionPoolStats().isEmpty());
+    } finally {
+      factory.close();
+    }
+  }
+
+  @Test
+  public void numberOfTrackedRoutesIsLimited() {
+    HttpJsonRequestFactory factory = new HttpJsonRequestFactory(0, new DocumentConvention());
+    try {
+      for (int i = 0; i < HttpJsonRequestFactory.MAX_TRACKED_ROUTES + 10; i++) {
+        factory.registerRoute("http://server" + i + ":8080/docs");
+      }
+      assertEquals(HttpJsonRequestFactory.MAX_TRACKED_ROUTES, factory.getConnectionPoolStats().size());
+    } finally {
+      factory.close();
+    }
+  }
+
+  private ConnectionPoolStats getStats(HttpJsonRequestFactory factory) {
+    List<ConnectionPoolStats> stats = factory.getConnectionPoolStats();
+    assertEquals(1, stats.size());
+    return stats.get(0);
+  }
+
+  private void waitForPending(HttpJsonRequestFactory factory, int pending) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (System.currentTimeMillis() < deadline) {
+      if (getStats(factory).getPending() == pending) {
+        return;
+      }
+      Thread.sleep(20);
+    }
+    assertEquals(pending, getStats(factory).getPending());
+  }
+}
@@ -0,0 +1,141 @@
+package net.ravendb.client.document;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import net.ravendb.abstractions.basic.Reference;
+import net.ravendb.abstractions.commands.ICommandData;
+import net.ravendb.abstractions.commands.PutCommandData;
+import net.ravendb.abstractions.data.Etag;
+import net.ravendb.abstractions.data.JsonDocument;
+import net.ravendb.abstractions.data.MultiLoadResult;
+import net.ravendb.abstractions.json.linq.RavenJArray;
+import net.ravendb.abstractions.json.linq.RavenJObject;
+import net.ravendb.abstractions.json.linq.RavenJValue;
+import net.ravendb.client.connection.IDatabaseCommands;
+import net.ravendb.client.listeners.IDocumentConflictListener;
+
+import org.junit.Test;
+
+
+public class BulkConflictResolverTest {
+
+  private final Map<String, RavenJObject> documents = new HashMap<>();
+  private final List<String[]> loads = Collections.synchronizedList(new ArrayList<String[]>());
+  private final List<List<ICommandData>> batches = new ArrayList<>();
+
+  @Test
+  public void mergesVersionsAndWritesThemBackInBatches() {
+    addConflict("users/1", version("users/1/conflicts/a", "Name", "John"), version("users/1/conflicts/b", "Age", 42));
+    addConflict("users/2", version("users/2/conflicts/a", "Name", "John"), version("users/2/conflicts/b", "Name", "Jack"));
+    addConflict("users/3", version("users/3/conflicts/a", "Age", 1), version("users/3/conflicts/b", "Age", 1));
+    RavenJObject notConflicted = new RavenJObject();
+    notConflicted.add("@metadata", new RavenJObject());
+    documents.put("users/4", notConflicted);
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      BulkConflictResolver resolver = new BulkConflictResolver(createCommands(), Collections.<IDocumentConflictListener> emptyList());
+      resolver.setBatchSize(2);
+      resolver.setExecutor(executor);
+      BulkConflictResolver.Result result = resolver.resolve(Arrays.asList("users/1", "users/2", "users/3", "users/4", "users/1"));
+
+      assertEquals(Arrays.asList("users/1", "users/3"), result.getResolved());
+      assertEquals(Arrays.asList("users/2"), result.getUnresolved());
+      assertEquals(Collections.emptyList(), result.getModifiedConcurrently());
+    } finally {
+      executor.shutdown();
+    }
+
+    // 4 keys and 6 versions in batches of 2
+    assertEquals(5, loads.size());
+    assertEquals(1, batches.size());
+    PutCommandData put = (PutCommandData) batches.get(0).get(0);
+    assertEquals("users/1", put.getKey());
+    assertEquals(Etag.parse("01000000-0000-0001-0000-000000000001"), put.getEtag());
+    assertEquals("John", put.getDocument().value(String.class, "Name"));
+    assertEquals(Integer.valueOf(42), put.getDocument().value(Integer.class, "Age"));
+    assertFalse(put.getMetadata().containsKey("@id"));
+  }
+
+  @Test
+  public void usesConflictListenersBeforeMerging() {
+    addConflict("users/1", version("users/1/conflicts/a", "Name", "John"), version("users/1/conflicts/b", "Name", "Jack"));
+
+    IDocumentConflictListener listener = new IDocumentConflictListener() {
+      @Override
+      public boolean tryResolveConflict(String key, List<JsonDocument> conflictedDocs, Reference<JsonDocument> resolvedDocument) {
+        resolvedDocument.value = conflictedDocs.get(1);
+        return true;
+      }
+    };
+    BulkConflictResolver.Result result = new BulkConflictResolver(createCommands(), Arrays.asList(listener)).resolve(Arrays.asList("users/1"));
+
+    assertEquals(Arrays.asList("users/1"), result.getResolved());
+    assertEquals("Jack", ((PutCommandData) batches.get(0).get(0)).getDocument().value(String.class, "Name"));
+  }
+
+  private void addConflict(String key, RavenJObject... versions) {
+    RavenJObject metadata = new RavenJObject();
+    metadata.add("@id", new RavenJValue(key));
+    metadata.add("@etag", new RavenJValue("01000000-0000-0001-0000-00000000000" + (documents.size() + 1)));
+    metadata.add("@Http-Status-Code", new RavenJValue(409));
+    RavenJArray conflicts = new RavenJArray();
+    for (RavenJObject version : versions) {
+      String versionId = version.value(RavenJObject.class, "@metadata").value(String.class, "@id");
+      conflicts.add(new RavenJValue(versionId));
+      documents.put(versionId, version);
+    }
+    RavenJObject document = new RavenJObject();
+    document.add("Conflicts", conflicts);
+    document.add("@metadata", metadata);
+    documents.put(key, document);
+  }
+
+  private static RavenJObject version(String id, String property, Object value) {
+    RavenJObject metadata = new RavenJObject();
+    metadata.add("@id", new RavenJValue(id));
+    metadata.add("Raven-Entity-Name", new RavenJValue("Users"));
+    RavenJObject version = new RavenJObject();
+    version.add(property, new RavenJValue(value));
+    version.add("@metadata", metadata);
+    return version;
+  }
+
+  private IDatabaseCommands createCommands() {
+    return (IDatabaseCommands) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { IDatabaseCommands.class }, new InvocationHandler() {
+      @SuppressWarnings("unchecked")
+      @Override
+      public Object invoke(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+          case "getWithConflicts":
+            String[] ids = (String[]) args[0];
+            loads.add(ids);
+            MultiLoadResult result = new MultiLoadResult();
+            for (String id : ids) {
+              RavenJObject document = documents.get(id);
+              result.getResults().add(document == null ? null : document.cloneToken());
+            }
+            return result;
+          case "batch":
+            batches.add((List<ICommandData>) args[0]);
+            return null;
+          default:
+            throw new UnsupportedOperationException(method.getName());
+        }
+      }
+    });
+  }
+}
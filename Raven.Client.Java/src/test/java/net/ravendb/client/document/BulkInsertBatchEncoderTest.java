@@ -0,0 +1,52 @@
+package net.ravendb.client.document;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.util.zip.GZIPInputStream;
+
+import net.ravendb.abstractions.json.linq.RavenJObject;
+
+import org.codehaus.jackson.JsonParser;
+import org.junit.Test;
+
+import de.undercouch.bson4jackson.BsonFactory;
+import de.undercouch.bson4jackson.BsonParser;
+
+
+public class BulkInsertBatchEncoderTest {
+
+  @Test
+  public void encodesGzippedBsonPrefixedWithDocumentCount() throws IOException {
+    BulkInsertBatchEncoder encoder = new BulkInsertBatchEncoder();
+    // buffers are reused, previous batch must not leak to next one
+    encoder.startBatch();
+    encoder.write(document("Old"));
+    encoder.finishBatch();
+
+    encoder.startBatch();
+    encoder.write(document("John"));
+    encoder.write(document("Mary"));
+    assertEquals(2, encoder.getDocumentCount());
+    byte[] batch = encoder.finishBatch().toByteArray();
+
+    try (DataInputStream input = new DataInputStream(new GZIPInputStream(new ByteArrayInputStream(batch)))) {
+      assertEquals(2, Integer.reverseBytes(input.readInt()));
+      // documents are read one by one, as server does
+      BsonFactory bsonFactory = new BsonFactory();
+      bsonFactory.enable(BsonParser.Feature.HONOR_DOCUMENT_LENGTH);
+      bsonFactory.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+      assertEquals("John", RavenJObject.load(bsonFactory.createJsonParser(input)).value(String.class, "Name"));
+      assertEquals("Mary", RavenJObject.load(bsonFactory.createJsonParser(input)).value(String.class, "Name"));
+      assertEquals(-1, input.read());
+    }
+  }
+
+  private static RavenJObject document(String name) {
+    RavenJObject document = new RavenJObject();
+    document.add("Name", name);
+    return document;
+  }
+}
@@ -0,0 +1,65 @@
+package net.ravendb.client.document;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import net.ravendb.abstractions.data.BulkInsertOptions;
+
+import org.junit.Test;
+
+
+public class BulkInsertBatchSizerTest {
+
+  private static final long MAX = 4 * 1024 * 1024;
+
+  /**
+   * Simulates server with fixed cost per batch and throughput limit, so bigger batches are faster until saturation point.
+   */
+  private static long writeTime(long bytes, long saturationPoint) {
+    long perBatchOverhead = 2000000;
+    long bytesPerMilli = bytes <= saturationPoint ? 100 * 1024 : 100 * 1024 * saturationPoint / bytes;
+    return perBatchOverhead + bytes * 1000000 / bytesPerMilli;
+  }
+
+  @Test
+  public void growsUntilThroughputStopsImproving() {
+    BulkInsertBatchSizer sizer = new BulkInsertBatchSizer(MAX, 10000);
+    long saturationPoint = 1024 * 1024;
+    for (int i = 0; i < 50; i++) {
+      long size = sizer.getBatchSizeInBytes();
+      sizer.onBatchWritten(size, writeTime(size, saturationPoint), true);
+    }
+    long size = sizer.getBatchSizeInBytes();
+    assertTrue("size: " + size, size > saturationPoint / 4 && size < saturationPoint * 3);
+  }
+
+  @Test
+  public void shrinksWhenBatchIsTooSlow() {
+    BulkInsertBatchSizer sizer = new BulkInsertBatchSizer(MAX, 1000);
+    long initial = sizer.getBatchSizeInBytes();
+    sizer.onBatchWritten(initial, 5000 * 1000000L, false);
+    assertEquals(initial / 2, sizer.getBatchSizeInBytes());
+
+    for (int i = 0; i < 20; i++) {
+      sizer.onBatchWritten(sizer.getBatchSizeInBytes(), 5000 * 1000000L, true);
+    }
+    assertEquals(BulkInsertBatchSizer.MIN_BATCH_SIZE_IN_BYTES, sizer.getBatchSizeInBytes());
+  }
+
+  @Test
+  public void ignoresPartialBatches() {
+    BulkInsertBatchSizer sizer = new BulkInsertBatchSizer(MAX, 1000);
+    long initial = sizer.getBatchSizeInBytes();
+    for (int i = 0; i < 10; i++) {
+      sizer.onBatchWritten(100, 1000, false);
+    }
+    assertEquals(initial, sizer.getBatchSizeInBytes());
+  }
+
+  @Test
+  public void defaultDocumentCountLimitDoesNotCloseBatchesOfSmallDocuments() {
+    BulkInsertOptions options = new BulkInsertOptions();
+    // batches of 100 byte documents are closed by byte budget, so sizer gets samples
+    assertTrue(100L * options.getBatchSize() >= options.getMaxBatchSizeInBytes());
+  }
+}
@@ -1,5 +1,15 @@
 package net.ravendb.client.document;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+import net.ravendb.client.IDocumentStore;
+import net.ravendb.client.connection.IDatabaseCommands;
+import net.ravendb.client.connection.ServerClient;
+
+import org.junit.Test;
+
 public class DocumentStoreTest {
 
   public static class Animal {
@@ -25,4 +35,28 @@ public class DocumentStoreTest {
 
   }
 
+  @Test
+  public void sessionsDontShareDatabaseCommands() {
+    try (IDocumentStore store = new DocumentStore("http://localhost:1").initialize()) {
+      store.getSharedOperationsHeaders().put("Shared", "yes");
+
+      try (DocumentSession first = (DocumentSession) store.openSession("Northwind");
+        DocumentSession second = (DocumentSession) store.openSession("Northwind");
+        DocumentSession third = (DocumentSession) store.openSession()) {
+        IDatabaseCommands firstCommands = first.getDatabaseCommands();
+        firstCommands.getOperationsHeaders().put("Session", "first");
+
+        IDatabaseCommands secondCommands = second.getDatabaseCommands();
+        assertNotSame(firstCommands, secondCommands);
+        assertNotSame(firstCommands.getOperationsHeaders(), secondCommands.getOperationsHeaders());
+        assertEquals("http://localhost:1/databases/Northwind", ((ServerClient) secondCommands).getUrl());
+        assertEquals("yes", secondCommands.getOperationsHeaders().get("Shared"));
+        assertNull(secondCommands.getOperationsHeaders().get("Session"));
+
+        assertEquals("http://localhost:1", ((ServerClient) third.getDatabaseCommands()).getUrl());
+        assertNull(third.getDatabaseCommands().getOperationsHeaders().get("Session"));
+      }
+    }
+  }
+
 }
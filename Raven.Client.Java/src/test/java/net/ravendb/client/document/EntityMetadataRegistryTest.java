@@ -0,0 +1,111 @@
+package net.ravendb.client.document;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import net.ravendb.abstractions.basic.Reference;
+import net.ravendb.abstractions.closure.Function1;
+import net.ravendb.client.document.EntityMetadataRegistry.EntityMetadata;
+
+import org.junit.Test;
+
+
+public class EntityMetadataRegistryTest {
+
+  public static class User {
+    private String id;
+    private String name;
+
+    public String getId() {
+      return id;
+    }
+
+    public void setId(String id) {
+      this.id = id;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+  }
+
+  public static class Order {
+    private int id;
+
+    public int getId() {
+      return id;
+    }
+  }
+
+  public static class Address {
+    private String street;
+
+    public String getStreet() {
+      return street;
+    }
+  }
+
+  @Test
+  public void readsAndWritesIdentity() {
+    DocumentConvention conventions = new DocumentConvention();
+    GenerateEntityIdOnTheClient generateEntityId = new GenerateEntityIdOnTheClient(conventions, new Function1<Object, String>() {
+      @Override
+      public String apply(Object input) {
+        return null;
+      }
+    });
+
+    User user = new User();
+    generateEntityId.trySetIdentity(user, "users/1");
+    assertEquals("users/1", user.getId());
+    Reference<String> idHolder = new Reference<>();
+    assertTrue(generateEntityId.tryGetIdFromInstance(user, idHolder));
+    assertEquals("users/1", idHolder.value);
+
+    Order order = new Order();
+    generateEntityId.trySetIdentity(order, "orders/42");
+    assertEquals(42, order.getId());
+    idHolder = new Reference<>();
+    assertTrue(generateEntityId.tryGetIdFromInstance(order, idHolder));
+    assertEquals("orders/42", idHolder.value);
+  }
+
+  @Test
+  public void cachesMetadataPerClass() {
+    DocumentConvention conventions = new DocumentConvention();
+    EntityMetadataRegistry registry = conventions.getEntityMetadataRegistry();
+    EntityMetadata metadata = registry.get(User.class);
+
+    assertSame(metadata, registry.get(User.class));
+    assertEquals("Users", metadata.getTypeTagName());
+    assertEquals(User.class.getName(), metadata.getJavaClassName());
+    assertEquals(String.class, metadata.getIdentityType());
+    assertNull(registry.get(Address.class).getIdentityProperty());
+
+    conventions.setFindTypeTagName(new TypeTagNameFinder() {
+      @Override
+      public String find(Class< ? > clazz) {
+        return "People";
+      }
+    });
+    assertEquals("People", conventions.getDynamicTagName(new User()));
+  }
+
+  @Test
+  public void resolvesClassNames() throws Exception {
+    EntityMetadataRegistry registry = new DocumentConvention().getEntityMetadataRegistry();
+    assertSame(User.class, registry.resolveClass(User.class.getName()));
+    assertSame(User.class, registry.resolveClass(User.class.getName()));
+  }
+
+  @Test(expected = ClassNotFoundException.class)
+  public void throwsForUnknownClass() throws Exception {
+    new DocumentConvention().getEntityMetadataRegistry().resolveClass("net.ravendb.NoSuchEntity");
+  }
+}
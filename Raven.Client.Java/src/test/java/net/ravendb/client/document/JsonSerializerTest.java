@@ -0,0 +1,190 @@
+package net.ravendb.client.document;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.ravendb.abstractions.json.linq.RavenJArray;
+import net.ravendb.abstractions.json.linq.RavenJObject;
+import net.ravendb.abstractions.json.linq.RavenJToken;
+
+import org.junit.Test;
+
+
+public class JsonSerializerTest {
+
+  public static enum Status {
+    ACTIVE, DISABLED
+  }
+
+  public static class Line {
+    private String product;
+    private int quantity;
+
+    public String getProduct() {
+      return product;
+    }
+
+    public void setProduct(String product) {
+      this.product = product;
+    }
+
+    public int getQuantity() {
+      return quantity;
+    }
+
+    public void setQuantity(int quantity) {
+      this.quantity = quantity;
+    }
+  }
+
+  public static class Order {
+    private String id;
+    private long total;
+    private double discount;
+    private BigDecimal price;
+    private Date created;
+    private Status status;
+    private String note;
+    private byte[] signature;
+    private List<Line> lines;
+    private Map<String, Object> extra;
+
+    public String getId() {
+      return id;
+    }
+
+    public void setId(String id) {
+      this.id = id;
+    }
+
+    public long getTotal() {
+      return total;
+    }
+
+    public void setTotal(long total) {
+      this.total = total;
+    }
+
+    public double getDiscount() {
+      return discount;
+    }
+
+    public void setDiscount(double discount) {
+      this.discount = discount;
+    }
+
+    public BigDecimal getPrice() {
+      return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+      this.price = price;
+    }
+
+    public Date getCreated() {
+      return created;
+    }
+
+    public void setCreated(Date created) {
+      this.created = created;
+    }
+
+    public Status getStatus() {
+      return status;
+    }
+
+    public void setStatus(Status status) {
+      this.status = status;
+    }
+
+    public String getNote() {
+      return note;
+    }
+
+    public void setNote(String note) {
+      this.note = note;
+    }
+
+    public byte[] getSignature() {
+      return signature;
+    }
+
+    public void setSignature(byte[] signature) {
+      this.signature = signature;
+    }
+
+    public List<Line> getLines() {
+      return lines;
+    }
+
+    public void setLines(List<Line> lines) {
+      this.lines = lines;
+    }
+
+    public Map<String, Object> getExtra() {
+      return extra;
+    }
+
+    public void setExtra(Map<String, Object> extra) {
+      this.extra = extra;
+    }
+  }
+
+  @SuppressWarnings("boxing")
+  @Test
+  public void deserializesTokenTheSameWayAsText() {
+    JsonSerializer serializer = new DocumentConvention().createSerializer();
+
+    Order order = new Order();
+    order.setId("orders/1");
+    order.setTotal(Long.MAX_VALUE);
+    order.setDiscount(0.1);
+    order.setPrice(new BigDecimal("12.345"));
+    order.setCreated(new Date(1400000000123L));
+    order.setStatus(Status.DISABLED);
+    order.setSignature(new byte[] { 1, 2, 3 });
+    Line line = new Line();
+    line.setProduct("products/1");
+    line.setQuantity(3);
+    order.setLines(Arrays.asList(line, new Line()));
+    Map<String, Object> extra = new HashMap<>();
+    extra.put("Flag", true);
+    extra.put("Count", 7);
+    order.setExtra(extra);
+
+    RavenJObject json = RavenJObject.fromObject(order);
+    Order fromToken = serializer.deserialize(json, Order.class);
+    Order fromText = serializer.deserialize(json.toString(), Order.class);
+
+    assertEquals(serializer.serializeAsString(fromText), serializer.serializeAsString(fromToken));
+    assertEquals(Long.MAX_VALUE, fromToken.getTotal());
+    assertEquals(0.1, fromToken.getDiscount(), 0);
+    assertEquals(new Date(1400000000123L), fromToken.getCreated());
+    assertEquals(Status.DISABLED, fromToken.getStatus());
+    assertNull(fromToken.getNote());
+    assertArrayEquals(new byte[] { 1, 2, 3 }, fromToken.getSignature());
+    assertEquals("products/1", fromToken.getLines().get(0).getProduct());
+    assertEquals(7, fromToken.getExtra().get("Count"));
+  }
+
+  @Test
+  public void deserializesArraysAndValues() {
+    JsonSerializer serializer = new DocumentConvention().createSerializer();
+
+    RavenJToken array = RavenJToken.parse("[{\"Product\":\"products/1\",\"Quantity\":1},{\"Product\":\"products/2\",\"Quantity\":2}]");
+    Line[] lines = serializer.deserialize(array, Line[].class);
+    assertEquals(2, lines.length);
+    assertEquals("products/2", lines[1].getProduct());
+
+    assertEquals(0, serializer.deserialize(new RavenJArray(), Line[].class).length);
+    assertEquals(Status.ACTIVE, serializer.deserialize(RavenJToken.fromObject("ACTIVE"), Status.class));
+  }
+}
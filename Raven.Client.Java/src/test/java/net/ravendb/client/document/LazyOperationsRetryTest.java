@@ -0,0 +1,150 @@
+package net.ravendb.client.document;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import net.ravendb.abstractions.basic.CleanCloseable;
+import net.ravendb.abstractions.data.GetRequest;
+import net.ravendb.abstractions.data.GetResponse;
+import net.ravendb.abstractions.data.QueryResult;
+import net.ravendb.abstractions.json.linq.RavenJArray;
+import net.ravendb.abstractions.json.linq.RavenJObject;
+import net.ravendb.abstractions.json.linq.RavenJToken;
+import net.ravendb.client.IDocumentStore;
+import net.ravendb.client.document.batches.ILazyOperation;
+import net.ravendb.client.shard.ShardStrategy;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+
+public class LazyOperationsRetryTest {
+
+  /**
+   * Lazy operation which requires retry while server reports stale result.
+   */
+  private static class TestLazyOperation implements ILazyOperation {
+    private final String url;
+    private final List<Integer> statuses = new ArrayList<>();
+    private boolean requiresRetry;
+
+    public TestLazyOperation(String url) {
+      this.url = url;
+    }
+
+    @Override
+    public GetRequest createRequest() {
+      return new GetRequest(url);
+    }
+
+    @Override
+    public Object getResult() {
+      return statuses;
+    }
+
+    @Override
+    public QueryResult getQueryResult() {
+      return null;
+    }
+
+    @Override
+    public boolean isRequiresRetry() {
+      return requiresRetry;
+    }
+
+    @SuppressWarnings("boxing")
+    @Override
+    public void handleResponse(GetResponse response) {
+      statuses.add(response.getStatus());
+      RavenJToken result = response.getResult();
+      requiresRetry = result instanceof RavenJObject && ((RavenJObject) result).value(boolean.class, "IsStale");
+    }
+
+    @Override
+    public void handleResponses(GetResponse[] responses, ShardStrategy shardStrategy) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public CleanCloseable enterContext() {
+      return null;
+    }
+  }
+
+  @SuppressWarnings("boxing")
+  @Test
+  public void onlyStaleOperationIsRetried() throws Exception {
+    final List<List<String>> multiGets = Collections.synchronizedList(new ArrayList<List<String>>());
+
+    HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext("/", new HttpHandler() {
+      @Override
+      public void handle(HttpExchange exchange) throws IOException {
+        String body = "{}";
+        int status = 404;
+        if (exchange.getRequestURI().getPath().equals("/multi_get")) {
+          status = 200;
+          List<String> urls = new ArrayList<>();
+          try (InputStream input = "gzip".equals(exchange.getRequestHeaders().getFirst("Content-Encoding"))
+            ? new GZIPInputStream(exchange.getRequestBody()) : exchange.getRequestBody()) {
+            for (RavenJToken request : RavenJArray.parse(IOUtils.toString(input, StandardCharsets.UTF_8.name()))) {
+              urls.add(request.value(String.class, "Url"));
+            }
+          }
+          multiGets.add(urls);
+
+          List<String> responses = new ArrayList<>();
+          for (String url : urls) {
+            if (url.equals("/cached")) {
+              responses.add("{\"Status\":304,\"Headers\":{},\"Result\":null}");
+            } else {
+              // query is stale in first multi get
+              boolean stale = multiGets.size() == 1;
+              responses.add("{\"Status\":200,\"Headers\":{},\"Result\":{\"IsStale\":" + stale + "}}");
+            }
+          }
+          body = "[" + StringUtils.join(responses, ",") + "]";
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+          output.write(bytes);
+        }
+      }
+    });
+    server.start();
+
+    try (IDocumentStore store = new DocumentStore("http://127.0.0.1:" + server.getAddress().getPort()).initialize();
+      DocumentSession session = (DocumentSession) store.openSession()) {
+      TestLazyOperation cached = new TestLazyOperation("/cached");
+      TestLazyOperation stale = new TestLazyOperation("/stale");
+      session.addLazyOperation(cached, null);
+      session.addLazyOperation(stale, null);
+
+      session.executeAllPendingLazyOperations();
+
+      assertEquals(Arrays.asList(Arrays.asList("/cached", "/stale"), Arrays.asList("/stale")), multiGets);
+      assertEquals(Arrays.asList(304), cached.getResult());
+      assertEquals(Arrays.asList(200, 200), stale.getResult());
+    } finally {
+      server.stop(0);
+    }
+  }
+
+}
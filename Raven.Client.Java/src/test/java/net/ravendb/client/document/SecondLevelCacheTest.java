@@ -0,0 +1,135 @@
+package net.ravendb.client.document;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Date;
+
+import net.ravendb.abstractions.basic.CleanCloseable;
+import net.ravendb.abstractions.data.DocumentChangeNotification;
+import net.ravendb.abstractions.data.Etag;
+import net.ravendb.abstractions.data.JsonDocument;
+import net.ravendb.abstractions.json.linq.RavenJObject;
+import net.ravendb.client.changes.IDatabaseChanges;
+import net.ravendb.client.changes.IObservable;
+import net.ravendb.client.changes.IObserver;
+
+import org.junit.Test;
+
+
+public class SecondLevelCacheTest {
+
+  @Test
+  public void cachesOnlyObservedDatabases() {
+    SecondLevelCache cache = new SecondLevelCache();
+    cache.put("db", document("users/1", "John"), cache.getVersion("db"));
+    assertNull(cache.get("db", "users/1"));
+
+    StubChanges changes = new StubChanges();
+    CleanCloseable subscription = cache.observeDocumentChanges("db", changes.proxy());
+    try {
+      cache.put("db", document("users/1", "John"), cache.getVersion("db"));
+      JsonDocument cached = cache.get("db", "USERS/1");
+      assertNotNull(cached);
+      assertEquals("John", cached.getDataAsJson().value(String.class, "Name"));
+
+      // returned document is a copy
+      cached.getDataAsJson().add("Age", 30);
+      assertNull(cache.get("db", "users/1").getDataAsJson().get("Age"));
+    } finally {
+      subscription.close();
+    }
+    assertNull(cache.get("db", "users/1"));
+  }
+
+  @Test
+  public void changeNotificationRemovesDocument() {
+    SecondLevelCache cache = new SecondLevelCache();
+    StubChanges changes = new StubChanges();
+    cache.observeDocumentChanges("db", changes.proxy());
+
+    cache.put("db", document("users/1", "John"), cache.getVersion("db"));
+    cache.put("db", document("users/2", "Mary"), cache.getVersion("db"));
+
+    DocumentChangeNotification notification = new DocumentChangeNotification();
+    notification.setId("users/1");
+    changes.observer.onNext(notification);
+
+    assertNull(cache.get("db", "users/1"));
+    assertNotNull(cache.get("db", "users/2"));
+  }
+
+  @Test
+  public void documentLoadedBeforeChangeIsNotStored() {
+    SecondLevelCache cache = new SecondLevelCache();
+    StubChanges changes = new StubChanges();
+    cache.observeDocumentChanges("db", changes.proxy());
+
+    long version = cache.getVersion("db");
+    DocumentChangeNotification notification = new DocumentChangeNotification();
+    notification.setId("users/1");
+    changes.observer.onNext(notification);
+
+    cache.put("db", document("users/1", "John"), version);
+    assertNull(cache.get("db", "users/1"));
+  }
+
+  @Test
+  public void changeOfOtherDocumentDoesNotPreventCaching() {
+    SecondLevelCache cache = new SecondLevelCache();
+    StubChanges changes = new StubChanges();
+    cache.observeDocumentChanges("db", changes.proxy());
+
+    long version = cache.getVersion("db");
+    DocumentChangeNotification notification = new DocumentChangeNotification();
+    notification.setId("orders/1");
+    changes.observer.onNext(notification);
+
+    cache.put("db", document("users/1", "John"), version);
+    assertNotNull(cache.get("db", "users/1"));
+  }
+
+  private static JsonDocument document(String key, String name) {
+    RavenJObject data = new RavenJObject();
+    data.add("Name", name);
+    return new JsonDocument(data, new RavenJObject(), key, null, Etag.empty(), new Date());
+  }
+
+  private static class StubChanges {
+    private IObserver<DocumentChangeNotification> observer;
+
+    @SuppressWarnings("unchecked")
+    public IDatabaseChanges proxy() {
+      final IObservable<DocumentChangeNotification> observable = (IObservable<DocumentChangeNotification>) Proxy.newProxyInstance(
+        getClass().getClassLoader(), new Class<?>[] { IObservable.class }, new InvocationHandler() {
+          @Override
+          public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            observer = (IObserver<DocumentChangeNotification>) args[0];
+            return new CleanCloseable() {
+              @Override
+              public void close() {
+                observer = null;
+              }
+            };
+          }
+        });
+      return (IDatabaseChanges) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { IDatabaseChanges.class }, new InvocationHandler() {
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+          switch (method.getName()) {
+            case "isConnected":
+              return Boolean.TRUE;
+            case "forAllDocuments":
+              return observable;
+            default:
+              return null;
+          }
+        }
+      });
+    }
+  }
+}
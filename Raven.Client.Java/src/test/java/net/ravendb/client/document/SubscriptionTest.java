@@ -0,0 +1,193 @@
+package net.ravendb.client.document;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.ravendb.abstractions.basic.CleanCloseable;
+import net.ravendb.abstractions.closure.Action0;
+import net.ravendb.abstractions.data.SubscriptionConnectionOptions;
+import net.ravendb.client.IDocumentStore;
+import net.ravendb.client.changes.IDatabaseChanges;
+import net.ravendb.client.changes.IObservable;
+import net.ravendb.client.changes.ObserverAdapter;
+
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+
+public class SubscriptionTest {
+
+  private static final String LAST_ETAG = "01000000-0000-0001-0000-000000000028";
+
+  public static class User {
+    private String id;
+    private int version;
+
+    public String getId() {
+      return id;
+    }
+
+    public void setId(String id) {
+      this.id = id;
+    }
+
+    public int getVersion() {
+      return version;
+    }
+
+    public void setVersion(int version) {
+      this.version = version;
+    }
+  }
+
+  @SuppressWarnings("boxing")
+  @Test
+  public void processesDocumentsConcurrentlyPreservingOrderOfSameDocument() throws Exception {
+    StringBuilder results = new StringBuilder();
+    for (int version = 0; version < 4; version++) {
+      for (int user = 0; user < 10; user++) {
+        if (results.length() > 0) {
+          results.append(',');
+        }
+        results.append("{\"Version\":").append(version).append(",\"@metadata\":{\"@id\":\"users/").append(user).append("\"}}");
+      }
+    }
+    final String batch = "{\"Results\":[" + results + "],\"LastProcessedEtag\":\"" + LAST_ETAG + "\"}";
+    final String emptyBatch = "{\"Results\":[],\"LastProcessedEtag\":\"" + LAST_ETAG + "\"}";
+    final AtomicInteger pulls = new AtomicInteger();
+    final CountDownLatch acknowledged = new CountDownLatch(1);
+
+    HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext("/", new HttpHandler() {
+      @Override
+      public void handle(HttpExchange exchange) throws IOException {
+        String path = exchange.getRequestURI().getPath();
+        String body = "{}";
+        int status = 200;
+        if (path.equals("/subscriptions/pull")) {
+          body = pulls.getAndIncrement() == 0 ? batch : emptyBatch;
+        } else if (path.equals("/subscriptions/acknowledgeBatch")) {
+          acknowledged.countDown();
+        } else if (!path.startsWith("/subscriptions/")) {
+          status = 404;
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+          output.write(bytes);
+        }
+      }
+    });
+    server.start();
+
+    try (IDocumentStore store = new DocumentStore("http://127.0.0.1:" + server.getAddress().getPort()).initialize()) {
+      SubscriptionConnectionOptions options = new SubscriptionConnectionOptions();
+      options.setProcessingThreads(4);
+
+      final Map<String, List<Integer>> versions = new ConcurrentHashMap<>();
+      final Set<String> threads = Collections.newSetFromMap(new ConcurrentHashMap<String, Boolean>());
+      final AtomicInteger active = new AtomicInteger();
+      final AtomicInteger maxActive = new AtomicInteger();
+      final CountDownLatch processed = new CountDownLatch(40);
+
+      Subscription<User> subscription = new Subscription<>(User.class, 1, null, options, store.getDatabaseCommands(),
+        createChanges(), store.getConventions(), true, new Action0() {
+          @Override
+          public void apply() {
+            // subscription is open
+          }
+        });
+      try {
+        subscription.subscribe(new ObserverAdapter<User>() {
+          @Override
+          public void onNext(User user) {
+            int current = active.incrementAndGet();
+            while (true) {
+              int max = maxActive.get();
+              if (current <= max || maxActive.compareAndSet(max, current)) {
+                break;
+              }
+            }
+            threads.add(Thread.currentThread().getName());
+            List<Integer> userVersions = versions.get(user.getId());
+            if (userVersions == null) {
+              versions.put(user.getId(), userVersions = Collections.synchronizedList(new ArrayList<Integer>()));
+            }
+            userVersions.add(user.getVersion());
+            try {
+              Thread.sleep(5);
+            } catch (InterruptedException e) {
+              throw new RuntimeException(e);
+            }
+            active.decrementAndGet();
+            processed.countDown();
+          }
+        });
+
+        assertTrue(processed.await(30, TimeUnit.SECONDS));
+        assertTrue(acknowledged.await(30, TimeUnit.SECONDS));
+      } finally {
+        subscription.close();
+      }
+
+      assertEquals(10, versions.size());
+      for (List<Integer> userVersions : versions.values()) {
+        assertEquals(Arrays.asList(0, 1, 2, 3), userVersions);
+      }
+      assertTrue("threads: " + threads, threads.size() > 1);
+      assertTrue(maxActive.get() > 1);
+    } finally {
+      server.stop(0);
+    }
+  }
+
+  private static IDatabaseChanges createChanges() {
+    final IObservable<?> observable = (IObservable<?>) Proxy.newProxyInstance(SubscriptionTest.class.getClassLoader(),
+      new Class<?>[] { IObservable.class }, new InvocationHandler() {
+      @Override
+      public Object invoke(Object proxy, Method method, Object[] args) {
+        return new CleanCloseable() {
+          @Override
+          public void close() {
+            // nothing to close
+          }
+        };
+      }
+    });
+    return (IDatabaseChanges) Proxy.newProxyInstance(SubscriptionTest.class.getClassLoader(),
+      new Class<?>[] { IDatabaseChanges.class }, new InvocationHandler() {
+      @Override
+      public Object invoke(Object proxy, Method method, Object[] args) {
+        if (IObservable.class.equals(method.getReturnType())) {
+          return observable;
+        }
+        if (boolean.class.equals(method.getReturnType())) {
+          return Boolean.TRUE;
+        }
+        return null;
+      }
+    });
+  }
+}
@@ -0,0 +1,181 @@
+package net.ravendb.client.indexes;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.io.File;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+import net.ravendb.abstractions.data.DatabaseStatistics;
+import net.ravendb.abstractions.data.IndexStats;
+import net.ravendb.abstractions.data.IndexToAdd;
+import net.ravendb.abstractions.indexing.IndexDefinition;
+import net.ravendb.abstractions.indexing.TransformerDefinition;
+import net.ravendb.client.connection.IDatabaseCommands;
+import net.ravendb.client.document.DocumentConvention;
+
+import org.junit.Test;
+
+
+public class IndexDeploymentTest {
+
+  public static class Users_ByName extends AbstractIndexCreationTask {
+    public Users_ByName() {
+      map = "from user in docs.Users select new { user.Name }";
+    }
+  }
+
+  public static class Users_ByAge extends AbstractIndexCreationTask {
+    public Users_ByAge() {
+      map = "from user in docs.Users select new { user.Age }";
+    }
+  }
+
+  public static class UserNames extends AbstractTransformerCreationTask {
+    public UserNames() {
+      transformResults = "from user in results select new { user.Name }";
+    }
+  }
+
+  @Test
+  public void fingerprintIgnoresServerSideProperties() {
+    IndexDefinition definition = new IndexDefinition();
+    definition.setMaps(new LinkedHashSet<>(Arrays.asList("from a in docs select new { a.Name }", "from b in docs select new { b.Name }")));
+
+    IndexDefinition serverDefinition = new IndexDefinition();
+    serverDefinition.setMaps(new LinkedHashSet<>(Arrays.asList("from b in docs select new { b.Name }", "from a in docs select new { a.Name }")));
+    serverDefinition.setName("Users/ByName");
+    serverDefinition.setIndexId(42);
+
+    assertEquals(IndexDeployment.fingerprint(definition), IndexDeployment.fingerprint(serverDefinition));
+
+    serverDefinition.setReduce("from r in results select r");
+    assertNotEquals(IndexDeployment.fingerprint(definition), IndexDeployment.fingerprint(serverDefinition));
+  }
+
+  @Test
+  public void sendsOnlyChangedDefinitionsInSingleBatch() throws Exception {
+    DocumentConvention conventions = new DocumentConvention();
+    Users_ByName byName = new Users_ByName();
+    byName.setConventions(conventions);
+    final IndexDefinition deployedByName = byName.createIndexDefinition();
+    deployedByName.setName(byName.getIndexName());
+
+    final List<String> calls = new ArrayList<>();
+    IDatabaseCommands commands = (IDatabaseCommands) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { IDatabaseCommands.class }, new InvocationHandler() {
+      @Override
+      public Object invoke(Object proxy, Method method, Object[] args) {
+        calls.add(method.getName());
+        switch (method.getName()) {
+          case "getStatistics":
+            IndexStats stats = new IndexStats();
+            stats.setName("Users/ByName");
+            stats.setPriority(IndexStats.IndexingPriority.NORMAL);
+            DatabaseStatistics statistics = new DatabaseStatistics();
+            statistics.setIndexes(new IndexStats[] { stats });
+            return statistics;
+          case "getIndexes":
+            return Collections.singletonList(deployedByName);
+          case "getTransformers":
+            return Collections.<TransformerDefinition> emptyList();
+          case "putIndexes":
+            IndexToAdd[] indexes = (IndexToAdd[]) args[0];
+            assertEquals(1, indexes.length);
+            assertEquals("Users/ByAge", indexes[0].getName());
+            return new String[] { indexes[0].getName() };
+          default:
+            return null;
+        }
+      }
+    });
+
+    File fingerprintFile = File.createTempFile("fingerprints", ".properties");
+    fingerprintFile.delete();
+    try {
+      IndexDeployment deployment = new IndexDeployment(commands, conventions);
+      deployment.setFingerprintFile(fingerprintFile);
+      IndexDeployment.Result result = deployment.deploy(Arrays.<AbstractIndexCreationTask> asList(new Users_ByName(), new Users_ByAge()),
+        Arrays.<AbstractTransformerCreationTask> asList(new UserNames()));
+
+      assertEquals(Arrays.asList("Users/ByAge"), result.getDeployedIndexes());
+      assertEquals(Arrays.asList("Users/ByName"), result.getSkippedIndexes());
+      assertEquals(Arrays.asList("UserNames"), result.getDeployedTransformers());
+      // priorities are not set explicitly, so statistics are not needed
+      assertEquals(Arrays.asList("getIndexes", "getTransformers", "putIndexes", "putTransformer"), sorted(calls));
+
+      // second deployment uses fingerprint file only
+      calls.clear();
+      deployment = new IndexDeployment(commands, conventions);
+      deployment.setFingerprintFile(fingerprintFile);
+      result = deployment.deploy(Arrays.<AbstractIndexCreationTask> asList(new Users_ByName(), new Users_ByAge()),
+        Arrays.<AbstractTransformerCreationTask> asList(new UserNames()));
+      assertEquals(2, result.getSkippedIndexes().size());
+      assertEquals(1, result.getSkippedTransformers().size());
+      assertEquals(Collections.emptyList(), calls);
+    } finally {
+      fingerprintFile.delete();
+    }
+  }
+
+  @Test
+  public void priorityIsComparedOnlyWhenSetExplicitly() {
+    DocumentConvention conventions = new DocumentConvention();
+    Users_ByName byName = new Users_ByName();
+    byName.setConventions(conventions);
+    final IndexDefinition deployedByName = byName.createIndexDefinition();
+    deployedByName.setName(byName.getIndexName());
+
+    final List<String> putIndexes = new ArrayList<>();
+    IDatabaseCommands commands = (IDatabaseCommands) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { IDatabaseCommands.class }, new InvocationHandler() {
+      @Override
+      public Object invoke(Object proxy, Method method, Object[] args) {
+        switch (method.getName()) {
+          case "getStatistics":
+            // server demoted index to idle
+            IndexStats stats = new IndexStats();
+            stats.setName("Users/ByName");
+            stats.setPriority(IndexStats.IndexingPriority.IDLE);
+            DatabaseStatistics statistics = new DatabaseStatistics();
+            statistics.setIndexes(new IndexStats[] { stats });
+            return statistics;
+          case "getIndexes":
+            return Collections.singletonList(deployedByName);
+          case "getTransformers":
+            return Collections.<TransformerDefinition> emptyList();
+          case "putIndexes":
+            for (IndexToAdd indexToAdd : (IndexToAdd[]) args[0]) {
+              putIndexes.add(indexToAdd.getName());
+            }
+            return null;
+          default:
+            return null;
+        }
+      }
+    });
+
+    IndexDeployment.Result result = new IndexDeployment(commands, conventions).deploy(
+      Arrays.<AbstractIndexCreationTask> asList(new Users_ByName()), Collections.<AbstractTransformerCreationTask> emptyList());
+    assertEquals(Arrays.asList("Users/ByName"), result.getSkippedIndexes());
+    assertEquals(Collections.emptyList(), putIndexes);
+
+    Users_ByName normalPriority = new Users_ByName();
+    normalPriority.setPriority(IndexStats.IndexingPriority.NORMAL);
+    result = new IndexDeployment(commands, conventions).deploy(
+      Arrays.<AbstractIndexCreationTask> asList(normalPriority), Collections.<AbstractTransformerCreationTask> emptyList());
+    assertEquals(Arrays.asList("Users/ByName"), result.getDeployedIndexes());
+    assertEquals(Arrays.asList("Users/ByName"), putIndexes);
+  }
+
+  private static List<String> sorted(List<String> calls) {
+    List<String> result = new ArrayList<>(calls);
+    Collections.sort(result.subList(2, result.size()));
+    return result;
+  }
+}
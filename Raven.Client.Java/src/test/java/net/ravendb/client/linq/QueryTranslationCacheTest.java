@@ -0,0 +1,46 @@
+package net.ravendb.client.linq;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import net.ravendb.client.delegates.PropertyNameFinder;
+import net.ravendb.client.document.DocumentConvention;
+
+import org.junit.Test;
+
+import com.mysema.query.types.path.PathBuilder;
+
+
+public class QueryTranslationCacheTest {
+
+  @Test
+  public void structurallyEqualMembersShareTranslation() {
+    QueryTranslationCache cache = new QueryTranslationCache();
+    ExpressionInfo info = new ExpressionInfo("Address_City", String.class, true);
+
+    cache.putMember(Object.class, "Companies/ByCity", "", new PathBuilder<>(Object.class, "x").get("address").get("city"), info);
+
+    assertSame(info, cache.getMember(Object.class, "Companies/ByCity", "", new PathBuilder<>(Object.class, "x").get("address").get("city")));
+    assertNull(cache.getMember(Object.class, "Companies/ByName", "", new PathBuilder<>(Object.class, "x").get("address").get("city")));
+    assertNull(cache.getMember(Object.class, "Companies/ByCity", "Lines,", new PathBuilder<>(Object.class, "x").get("address").get("city")));
+    assertNull(cache.getMember(Object.class, "Companies/ByCity", "", new PathBuilder<>(Object.class, "x").get("address").get("street")));
+  }
+
+  @Test
+  public void changingConventionsClearsCache() {
+    DocumentConvention conventions = new DocumentConvention();
+    conventions.getQueryTranslationCache().putMember(Object.class, null, "", new PathBuilder<>(Object.class, "x").get("name"),
+      new ExpressionInfo("Name", String.class, false));
+    assertEquals(1, conventions.getQueryTranslationCache().size());
+
+    conventions.setFindPropertyNameForDynamicIndex(new PropertyNameFinder() {
+      @Override
+      public String find(Class< ? > indexedType, String indexedName, String path, String prop) {
+        return prop;
+      }
+    });
+    assertEquals(0, conventions.getQueryTranslationCache().size());
+  }
+
+}
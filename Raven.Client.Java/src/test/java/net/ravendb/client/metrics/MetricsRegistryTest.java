@@ -0,0 +1,93 @@
+package net.ravendb.client.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.ObjectName;
+
+import net.ravendb.abstractions.basic.CleanCloseable;
+import net.ravendb.abstractions.data.HttpMethods;
+import net.ravendb.client.connection.profiling.RequestResultArgs;
+import net.ravendb.client.connection.profiling.RequestStatus;
+
+import org.junit.Test;
+
+
+public class MetricsRegistryTest {
+
+  @Test
+  public void histogramPercentilesHaveBoundedError() {
+    Histogram histogram = new Histogram();
+    for (int i = 1; i <= 10000; i++) {
+      histogram.record(i);
+    }
+    assertEquals(10000, histogram.getCount());
+    assertEquals(10000, histogram.getMax());
+    assertEquals(5000.5, histogram.getMean(), 0.001);
+    assertEquals(5000, histogram.getPercentile(50), 5000 / 16);
+    assertEquals(9900, histogram.getPercentile(99), 9900 / 16);
+    assertEquals(10000, histogram.getPercentile(100));
+
+    for (long value : new long[] { 0, 1, 31, 32, 33, 1000, 123456789, Long.MAX_VALUE }) {
+      int index = Histogram.bucketIndex(value);
+      assertTrue(value <= Histogram.bucketUpperBound(index));
+      assertTrue(index == 0 || value > Histogram.bucketUpperBound(index - 1));
+    }
+  }
+
+  @Test
+  public void operationTypeIgnoresDatabaseAndQuery() {
+    assertEquals("GET /docs", MetricsRegistry.operationType(HttpMethods.GET, "http://localhost:8080/databases/Northwind/docs?id=users/1"));
+    assertEquals("POST /bulk_docs", MetricsRegistry.operationType(HttpMethods.POST, "http://localhost:8080/bulk_docs"));
+    assertEquals("GET /indexes", MetricsRegistry.operationType(HttpMethods.GET, "http://localhost:8080/databases/db/indexes/Orders/Totals?query="));
+    assertEquals("GET /", MetricsRegistry.operationType(HttpMethods.GET, "http://localhost:8080"));
+    assertEquals("http://localhost:8080", MetricsRegistry.node("http://localhost:8080/databases/db/docs"));
+  }
+
+  @Test
+  public void countsRequestsAndCacheHits() throws Exception {
+    MetricsRegistry metrics = new MetricsRegistry();
+    metrics.requestCompleted(request(RequestStatus.SEND_TO_SERVER, 200, 10));
+    metrics.requestCompleted(request(RequestStatus.CACHED, 304, 5));
+    metrics.cacheHit();
+    metrics.requestCompleted(request(RequestStatus.AGGRESSIVELY_CACHED, 0, 0));
+    metrics.cacheHit();
+    metrics.requestCompleted(request(RequestStatus.ERROR_ON_SERVER, 500, 20));
+
+    assertEquals(4, metrics.getRequests());
+    assertEquals(3, metrics.getSentRequests());
+    assertEquals(1, metrics.getNotModifiedResponses());
+    assertEquals(1, metrics.getErrorResponses());
+    assertEquals(0.5, metrics.getCacheHitRatio(), 0.001);
+    assertEquals(1 / 3.0, metrics.getNotModifiedRatio(), 0.001);
+    assertEquals(20, metrics.getRequestLatencyMaxMillis());
+    assertEquals(Long.valueOf(20), metrics.getOperationLatency99thPercentilesMillis().get("GET /docs"));
+    assertEquals(Long.valueOf(20), metrics.getNodeLatency99thPercentilesMillis().get("http://localhost:8080"));
+
+    ObjectName name = new ObjectName("net.ravendb.client:type=DocumentStore,name=MetricsRegistryTest");
+    CleanCloseable registration = metrics.registerMBean(name);
+    try {
+      assertEquals(Long.valueOf(4), ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Requests"));
+    } finally {
+      registration.close();
+    }
+    assertFalse(ManagementFactory.getPlatformMBeanServer().isRegistered(name));
+
+    metrics.reset();
+    assertEquals(0, metrics.getRequests());
+    assertTrue(metrics.getOperationLatencies().isEmpty());
+  }
+
+  private static RequestResultArgs request(RequestStatus status, int httpResult, double duration) {
+    RequestResultArgs args = new RequestResultArgs();
+    args.setStatus(status);
+    args.setHttpResult(httpResult);
+    args.setDurationMilliseconds(duration);
+    args.setMethod(HttpMethods.GET);
+    args.setUrl("http://localhost:8080/databases/db/docs?id=users/1");
+    return args;
+  }
+}
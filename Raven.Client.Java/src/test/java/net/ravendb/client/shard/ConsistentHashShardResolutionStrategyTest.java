@@ -0,0 +1,106 @@
+package net.ravendb.client.shard;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import net.ravendb.abstractions.data.IndexQuery;
+import net.ravendb.client.IDocumentStore;
+import net.ravendb.client.document.DocumentStore;
+
+import org.junit.Test;
+
+
+public class ConsistentHashShardResolutionStrategyTest {
+
+  private static ShardStrategy createShardStrategy(int shards) {
+    Map<String, IDocumentStore> stores = new LinkedHashMap<>();
+    for (int i = 0; i < shards; i++) {
+      stores.put("shard" + i, new DocumentStore("http://localhost:8080"));
+    }
+    return new ShardStrategy(stores);
+  }
+
+  private static String shardFor(ConsistentHashShardResolutionStrategy strategy, String key) {
+    List<String> shards = strategy.potentialShardsFor(new ShardRequestData(Arrays.asList(key), Object.class));
+    assertEquals(1, shards.size());
+    return shards.get(0);
+  }
+
+  @Test
+  public void keysAreSpreadOverAllShards() {
+    ShardStrategy shardStrategy = createShardStrategy(16);
+    ConsistentHashShardResolutionStrategy strategy = new ConsistentHashShardResolutionStrategy(shardStrategy.getShards().keySet(), shardStrategy);
+
+    Map<String, Integer> counts = new HashMap<>();
+    for (int i = 0; i < 16000; i++) {
+      String shardId = shardFor(strategy, "companies/" + i);
+      Integer count = counts.get(shardId);
+      counts.put(shardId, count == null ? 1 : count + 1);
+    }
+    assertEquals(16, counts.size());
+    for (Integer count : counts.values()) {
+      assertTrue("unbalanced shard: " + counts, count > 500 && count < 1500);
+    }
+  }
+
+  @Test
+  public void addingShardMovesOnlyItsShareOfKeys() {
+    ShardStrategy shardStrategy = createShardStrategy(16);
+    ConsistentHashShardResolutionStrategy strategy = new ConsistentHashShardResolutionStrategy(shardStrategy.getShards().keySet(), shardStrategy);
+
+    int keys = 10000;
+    String[] before = new String[keys];
+    for (int i = 0; i < keys; i++) {
+      before[i] = shardFor(strategy, "companies/" + i);
+    }
+
+    strategy.addShard("shard16");
+
+    int moved = 0;
+    for (int i = 0; i < keys; i++) {
+      String after = shardFor(strategy, "companies/" + i);
+      if (!after.equals(before[i])) {
+        assertEquals("keys can move only to new shard", "shard16", after);
+        moved++;
+      }
+    }
+    assertTrue("moved " + moved, moved > keys / 17 / 2 && moved < keys / 17 * 2);
+  }
+
+  @Test
+  public void keysArePrefixedWithShardIdOrCaseInsensitive() {
+    ShardStrategy shardStrategy = createShardStrategy(4);
+    ConsistentHashShardResolutionStrategy strategy = new ConsistentHashShardResolutionStrategy(shardStrategy.getShards().keySet(), shardStrategy);
+
+    assertEquals("shard3", shardFor(strategy, "shard3/companies/1"));
+    assertEquals(shardFor(strategy, "companies/1"), shardFor(strategy, "COMPANIES/1"));
+
+    ShardRequestData queryRequest = new ShardRequestData();
+    queryRequest.setQuery(new IndexQuery("Name:test"));
+    assertNull(strategy.potentialShardsFor(queryRequest));
+  }
+
+  @Test
+  public void routingCacheIsCaseInsensitive() {
+    ShardRoutingCache cache = new ShardRoutingCache(10);
+    cache.setShardId("companies/1", "shard1");
+    cache.setShardId("companies/2", "shard2");
+
+    assertEquals("shard1", cache.getShardId("Companies/1"));
+    assertEquals(Arrays.asList("shard1", "shard2"), cache.getShardIds(Arrays.asList("companies/1", "COMPANIES/2", "companies/1")));
+    assertNull(cache.getShardIds(Arrays.asList("companies/1", "companies/3")));
+
+    assertTrue(cache.invalidate("COMPANIES/1"));
+    assertNull(cache.getShardId("companies/1"));
+    assertFalse(cache.invalidate("companies/1"));
+  }
+
+}
@@ -0,0 +1,177 @@
+package net.ravendb.client.shard;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+
+import net.ravendb.abstractions.json.linq.RavenJArray;
+import net.ravendb.abstractions.json.linq.RavenJToken;
+import net.ravendb.client.IDocumentSession;
+import net.ravendb.client.IDocumentStore;
+import net.ravendb.client.document.DocumentStore;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang.StringUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+
+public class ShardedDocumentSessionTest {
+
+  public static class Company {
+    private String id;
+    private String region;
+
+    public Company() {
+      super();
+    }
+
+    public Company(String region) {
+      this.region = region;
+    }
+
+    public String getId() {
+      return id;
+    }
+
+    public void setId(String id) {
+      this.id = id;
+    }
+
+    public String getRegion() {
+      return region;
+    }
+
+    public void setRegion(String region) {
+      this.region = region;
+    }
+  }
+
+  private final List<HttpServer> servers = new ArrayList<>();
+  private final Map<String, List<Integer>> batchSizes = new LinkedHashMap<>();
+  private final CyclicBarrier firstBatches = new CyclicBarrier(2);
+  private final AtomicBoolean batchesOverlapped = new AtomicBoolean(true);
+
+  @Before
+  public void setUp() throws Exception {
+    for (String shardId : Arrays.asList("europe", "asia")) {
+      servers.add(startShard(shardId));
+    }
+  }
+
+  @After
+  public void tearDown() {
+    for (HttpServer server : servers) {
+      server.stop(0);
+    }
+  }
+
+  private HttpServer startShard(String shardId) throws IOException {
+    final List<Integer> sizes = Collections.synchronizedList(new ArrayList<Integer>());
+    batchSizes.put(shardId, sizes);
+
+    HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+    server.createContext("/", new HttpHandler() {
+      @SuppressWarnings("boxing")
+      @Override
+      public void handle(HttpExchange exchange) throws IOException {
+        String body = "{}";
+        int status = 404;
+        if (exchange.getRequestURI().getPath().equals("/bulk_docs")) {
+          status = 200;
+          List<String> results = new ArrayList<>();
+          try (InputStream input = "gzip".equals(exchange.getRequestHeaders().getFirst("Content-Encoding"))
+            ? new GZIPInputStream(exchange.getRequestBody()) : exchange.getRequestBody()) {
+            for (RavenJToken command : RavenJArray.parse(IOUtils.toString(input, StandardCharsets.UTF_8.name()))) {
+              results.add("{\"Key\":\"" + command.value(String.class, "Key") + "\",\"Method\":\"PUT\","
+                + "\"Etag\":\"01000000-0000-0001-0000-000000000001\",\"Metadata\":{}}");
+            }
+          }
+          sizes.add(results.size());
+          if (sizes.size() == 1) {
+            // first batch of each shard has to be in progress at the same time
+            try {
+              firstBatches.await(5, TimeUnit.SECONDS);
+            } catch (Exception e) {
+              batchesOverlapped.set(false);
+            }
+          }
+          body = "[" + StringUtils.join(results, ",") + "]";
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+          output.write(bytes);
+        }
+      }
+    });
+    server.start();
+    return server;
+  }
+
+  @SuppressWarnings("boxing")
+  @Test
+  public void shardBatchesAreSplitAndExecutedInParallel() {
+    Map<String, IDocumentStore> shards = new LinkedHashMap<>();
+    shards.put("europe", new DocumentStore("http://127.0.0.1:" + servers.get(0).getAddress().getPort()));
+    shards.put("asia", new DocumentStore("http://127.0.0.1:" + servers.get(1).getAddress().getPort()));
+
+    ShardStrategy shardStrategy = new ShardStrategy(shards);
+    ParallelShardAccessStrategy accessStrategy = new ParallelShardAccessStrategy();
+    shardStrategy.setShardAccessStrategy(accessStrategy);
+    shardStrategy.setShardResolutionStrategy(new IShardResolutionStrategy() {
+      @Override
+      public String generateShardIdFor(Object entity, Object owner) {
+        return ((Company) entity).getRegion();
+      }
+
+      @Override
+      public String metadataShardIdFor(Object entity) {
+        return "europe";
+      }
+
+      @Override
+      public List<String> potentialShardsFor(ShardRequestData requestData) {
+        return null;
+      }
+    });
+    shardStrategy.getConventions().setMaxNumberOfCommandsPerShardBatch(2);
+
+    try (IDocumentStore store = new ShardedDocumentStore(shardStrategy).initialize();
+      IDocumentSession session = store.openSession()) {
+      for (int i = 0; i < 3; i++) {
+        session.store(new Company("europe"), "companies/" + i);
+        session.store(new Company("asia"), "companies/" + (i + 10));
+      }
+      session.saveChanges();
+    } finally {
+      accessStrategy.close();
+    }
+
+    assertEquals(Arrays.asList(2, 1), batchSizes.get("europe"));
+    assertEquals(Arrays.asList(2, 1), batchSizes.get("asia"));
+    assertTrue("shards were not called in parallel", batchesOverlapped.get());
+  }
+
+}
@@ -0,0 +1,152 @@
+package net.ravendb.client.streaming;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import net.ravendb.abstractions.basic.CloseableIterator;
+import net.ravendb.abstractions.closure.Function1;
+import net.ravendb.abstractions.data.Etag;
+import net.ravendb.abstractions.data.StreamResult;
+import net.ravendb.abstractions.data.UuidType;
+import net.ravendb.abstractions.json.linq.RavenJObject;
+
+import org.junit.After;
+import org.junit.Test;
+
+
+public class PartitionedStreamIteratorTest {
+
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  @After
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void etagRangeIsSplitIntoAdjacentPartitions() {
+    Etag from = new Etag(UuidType.DOCUMENTS, 1, 0);
+    Etag to = new Etag(UuidType.DOCUMENTS, 1, 100);
+    List<StreamPartition> partitions = StreamPartition.splitByEtagRange(from, to, 3);
+
+    assertEquals(3, partitions.size());
+    assertEquals(from, partitions.get(0).getFromEtag());
+    assertEquals(partitions.get(0).getToEtag(), partitions.get(1).getFromEtag());
+    assertEquals(partitions.get(1).getToEtag(), partitions.get(2).getFromEtag());
+    assertEquals(to, partitions.get(2).getToEtag());
+    assertEquals(33, partitions.get(0).getMaxDocuments());
+  }
+
+  @Test
+  public void orderedDeliveryReturnsPartitionsInOrder() {
+    StreamingOptions options = new StreamingOptions();
+    options.setBufferSize(3);
+    options.setMaxConcurrentPartitions(2);
+
+    List<String> keys = new ArrayList<>();
+    try (PartitionedStreamIterator<RavenJObject> iterator = new PartitionedStreamIterator<>(
+      StreamPartition.splitByKeyPrefix("companies/", "1", "2", "3"), new KeySource(10), new Converter(), executor, options)) {
+      while (iterator.hasNext()) {
+        keys.add(iterator.next().getKey());
+      }
+      assertTrue(iterator.getCheckpoints().isEmpty());
+    }
+
+    assertEquals(30, keys.size());
+    assertEquals("companies/10", keys.get(0));
+    assertEquals("companies/19", keys.get(9));
+    assertEquals("companies/20", keys.get(10));
+    assertEquals("companies/39", keys.get(29));
+  }
+
+  @Test
+  public void unorderedDeliveryReturnsAllDocumentsAndCheckpointsResumeStream() {
+    StreamingOptions options = new StreamingOptions();
+    options.setOrderedDelivery(false);
+    options.setBufferSize(4);
+
+    Set<String> keys = new HashSet<>();
+    List<StreamPartition> checkpoints;
+    try (PartitionedStreamIterator<RavenJObject> iterator = new PartitionedStreamIterator<>(
+      StreamPartition.splitByKeyPrefix("companies/", "1", "2", "3"), new KeySource(10), new Converter(), executor, options)) {
+      for (int i = 0; i < 12; i++) {
+        keys.add(iterator.next().getKey());
+      }
+      checkpoints = iterator.getCheckpoints();
+    }
+    assertFalse(checkpoints.isEmpty());
+
+    try (PartitionedStreamIterator<RavenJObject> iterator = new PartitionedStreamIterator<>(
+      checkpoints, new KeySource(10), new Converter(), executor, options)) {
+      while (iterator.hasNext()) {
+        assertTrue(keys.add(iterator.next().getKey()));
+      }
+    }
+    assertEquals(30, keys.size());
+  }
+
+  private static class KeySource implements Function1<StreamPartition, CloseableIterator<RavenJObject>> {
+    private final int perPartition;
+
+    public KeySource(int perPartition) {
+      this.perPartition = perPartition;
+    }
+
+    @Override
+    public CloseableIterator<RavenJObject> apply(StreamPartition partition) {
+      List<RavenJObject> docs = new ArrayList<>();
+      for (int i = 0; i < perPartition; i++) {
+        String key = partition.getStartsWith() + i;
+        if (partition.getSkipAfter() != null && key.compareTo(partition.getSkipAfter()) <= 0) {
+          continue;
+        }
+        RavenJObject doc = new RavenJObject();
+        doc.add("Key", key);
+        docs.add(doc);
+      }
+      final Iterator<RavenJObject> inner = docs.iterator();
+      return new CloseableIterator<RavenJObject>() {
+        @Override
+        public boolean hasNext() {
+          return inner.hasNext();
+        }
+
+        @Override
+        public RavenJObject next() {
+          return inner.next();
+        }
+
+        @Override
+        public void remove() {
+          throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+          // nothing to release
+        }
+      };
+    }
+  }
+
+  private static class Converter implements Function1<RavenJObject, StreamResult<RavenJObject>> {
+    @Override
+    public StreamResult<RavenJObject> apply(RavenJObject input) {
+      StreamResult<RavenJObject> result = new StreamResult<>();
+      result.setKey(input.value(String.class, "Key"));
+      result.setDocument(input);
+      return result;
+    }
+  }
+
+}
@@ -0,0 +1,173 @@
+package net.ravendb.client.streaming;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import net.ravendb.abstractions.basic.CloseableIterator;
+import net.ravendb.abstractions.closure.Function0;
+import net.ravendb.abstractions.closure.Function1;
+
+import org.junit.After;
+import org.junit.Test;
+
+
+public class ReadAheadPublisherTest {
+
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  @After
+  public void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  public void deliversConvertedItemsInOrder() throws Exception {
+    CountingSource source = new CountingSource(1000);
+    StreamingOptions options = new StreamingOptions();
+    options.setBatchSize(7);
+    options.setParallelism(4);
+
+    CollectingSubscriber subscriber = new CollectingSubscriber(Long.MAX_VALUE);
+    new ReadAheadPublisher<>(source, new Function1<Integer, String>() {
+      @Override
+      public String apply(Integer input) {
+        return "item/" + input;
+      }
+    }, executor, options).subscribe(subscriber);
+
+    assertTrue(subscriber.done.await(10, TimeUnit.SECONDS));
+    assertNull(subscriber.error);
+    assertEquals(1000, subscriber.items.size());
+    for (int i = 0; i < 1000; i++) {
+      assertEquals("item/" + i, subscriber.items.get(i));
+    }
+    assertTrue(source.closed.get());
+  }
+
+  @Test
+  public void readingIsBoundedByBufferAndCancelClosesSource() throws Exception {
+    CountingSource source = new CountingSource(100000);
+    StreamingOptions options = new StreamingOptions();
+    options.setBatchSize(10);
+    options.setBufferSize(100);
+
+    CollectingSubscriber subscriber = new CollectingSubscriber(5);
+    new ReadAheadPublisher<>(source, new Function1<Integer, Integer>() {
+      @Override
+      public Integer apply(Integer input) {
+        return input;
+      }
+    }, executor, options).subscribe(subscriber);
+
+    Thread.sleep(500);
+    assertEquals(5, subscriber.items.size());
+    // delivered batch + buffered batches + batch waiting for free buffer slot
+    assertTrue("Read " + source.read.get(), source.read.get() <= 130);
+
+    subscriber.subscription.cancel();
+    long deadline = System.currentTimeMillis() + 5000;
+    while (!source.closed.get() && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertTrue(source.closed.get());
+    assertEquals(5, subscriber.items.size());
+  }
+
+  @Test
+  public void conversionErrorIsSignalled() throws Exception {
+    CollectingSubscriber subscriber = new CollectingSubscriber(Long.MAX_VALUE);
+    new ReadAheadPublisher<>(new CountingSource(100), new Function1<Integer, Integer>() {
+      @Override
+      public Integer apply(Integer input) {
+        if (input == 42) {
+          throw new IllegalStateException("broken document");
+        }
+        return input;
+      }
+    }, executor, null).subscribe(subscriber);
+
+    assertTrue(subscriber.done.await(10, TimeUnit.SECONDS));
+    assertTrue(subscriber.error instanceof IllegalStateException);
+  }
+
+  private static class CountingSource implements Function0<CloseableIterator<Integer>> {
+    private final int count;
+    private final AtomicInteger read = new AtomicInteger();
+    private final AtomicBoolean closed = new AtomicBoolean();
+
+    public CountingSource(int count) {
+      this.count = count;
+    }
+
+    @Override
+    public CloseableIterator<Integer> apply() {
+      return new CloseableIterator<Integer>() {
+        @Override
+        public boolean hasNext() {
+          return read.get() < count;
+        }
+
+        @Override
+        public Integer next() {
+          return read.getAndIncrement();
+        }
+
+        @Override
+        public void remove() {
+          throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void close() {
+          closed.set(true);
+        }
+      };
+    }
+  }
+
+  private static class CollectingSubscriber implements Subscriber<Object> {
+    private final long initialRequest;
+    private final List<Object> items = Collections.synchronizedList(new ArrayList<>());
+    private final CountDownLatch done = new CountDownLatch(1);
+    private volatile Subscription subscription;
+    private volatile Throwable error;
+
+    public CollectingSubscriber(long initialRequest) {
+      this.initialRequest = initialRequest;
+    }
+
+    @Override
+    public void onSubscribe(Subscription s) {
+      subscription = s;
+      s.request(initialRequest);
+    }
+
+    @Override
+    public void onNext(Object item) {
+      items.add(item);
+    }
+
+    @Override
+    public void onError(Throwable t) {
+      error = t;
+      done.countDown();
+    }
+
+    @Override
+    public void onComplete() {
+      done.countDown();
+    }
+  }
+
+}
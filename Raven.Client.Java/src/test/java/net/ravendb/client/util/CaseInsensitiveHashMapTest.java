@@ -0,0 +1,90 @@
+package net.ravendb.client.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import org.junit.Test;
+
+
+public class CaseInsensitiveHashMapTest {
+
+  @Test
+  public void keysAreCaseInsensitive() {
+    CaseInsensitiveHashMap<Integer> map = new CaseInsensitiveHashMap<>();
+    map.put("users/1", 1);
+    assertEquals(Integer.valueOf(1), map.getOrNull("USERS/1"));
+    assertTrue(map.containsKey("Users/1"));
+
+    assertEquals(Integer.valueOf(1), map.put("USERS/1", 2));
+    assertEquals(1, map.size());
+    assertEquals("users/1", map.keySet().iterator().next());
+
+    assertEquals(Integer.valueOf(2), map.remove("uSeRs/1"));
+    assertNull(map.getOrNull("users/1"));
+    assertTrue(map.isEmpty());
+  }
+
+  @Test
+  public void emptyMapAllocatesOnFirstPut() {
+    CaseInsensitiveHashMap<Integer> map = new CaseInsensitiveHashMap<>();
+    assertNull(map.getOrNull("users/1"));
+    assertFalse(map.containsKey("users/1"));
+    assertNull(map.remove("users/1"));
+    assertFalse(map.entrySet().iterator().hasNext());
+    map.clear();
+
+    map.put("users/1", 1);
+    map.remove("users/1");
+    assertNull(map.getOrNull("USERS/1"));
+    map.put("users/2", 2);
+    assertEquals(Integer.valueOf(2), map.getOrNull("USERS/2"));
+  }
+
+  @Test
+  public void behavesLikeCaseInsensitiveTreeMap() {
+    Random random = new Random(1);
+    Map<String, Integer> expected = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+    CaseInsensitiveHashMap<Integer> actual = new CaseInsensitiveHashMap<>();
+
+    for (int i = 0; i < 100000; i++) {
+      String key = (random.nextBoolean() ? "users/" : "USERS/") + random.nextInt(2000);
+      switch (random.nextInt(3)) {
+        case 0:
+          assertEquals(expected.put(key, i), actual.put(key, i));
+          break;
+        case 1:
+          assertEquals(expected.remove(key), actual.remove(key));
+          break;
+        default:
+          assertEquals(expected.get(key), actual.getOrNull(key));
+      }
+      assertEquals(expected.size(), actual.size());
+    }
+
+    assertEquals(expected, new TreeMap<String, Integer>(actual));
+  }
+
+  @Test
+  public void iteratorRemovesEntries() {
+    CaseInsensitiveHashMap<Integer> map = new CaseInsensitiveHashMap<>();
+    for (int i = 0; i < 100; i++) {
+      map.put("items/" + i, i);
+    }
+    Iterator<Map.Entry<String, Integer>> iterator = map.entrySet().iterator();
+    while (iterator.hasNext()) {
+      if (iterator.next().getValue() % 2 == 0) {
+        iterator.remove();
+      }
+    }
+    assertEquals(50, map.size());
+    assertFalse(map.containsKey("items/2"));
+    assertTrue(map.containsKey("ITEMS/3"));
+  }
+}
@@ -0,0 +1,118 @@
+package net.ravendb.client.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import net.ravendb.abstractions.closure.Function0;
+import net.ravendb.abstractions.closure.Function1;
+
+import org.junit.Test;
+
+
+public class RavenFutureTest {
+
+  @Test
+  public void completesWithValueAndAppliesContinuation() throws Exception {
+    RavenFuture<Integer> future = new RavenFuture<>();
+    RavenFuture<String> mapped = future.thenApply(new Function1<Integer, String>() {
+      @Override
+      public String apply(Integer input) {
+        return "value: " + input;
+      }
+    });
+    assertFalse(mapped.isDone());
+    assertTrue(future.complete(5));
+    assertFalse(future.complete(6));
+    assertEquals(Integer.valueOf(5), future.get());
+    assertEquals("value: 5", mapped.get());
+  }
+
+  @Test
+  public void propagatesErrors() throws Exception {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      RavenFuture<String> future = RavenFuture.supplyAsync(new Function0<String>() {
+        @Override
+        public String apply() {
+          throw new IllegalStateException("failed");
+        }
+      }, executor);
+      try {
+        future.get(10, TimeUnit.SECONDS);
+        fail();
+      } catch (ExecutionException e) {
+        assertTrue(e.getCause() instanceof IllegalStateException);
+      }
+      try {
+        future.join();
+        fail();
+      } catch (IllegalStateException e) {
+        assertEquals("failed", e.getMessage());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void cancelInterruptsRunningFunction() throws Exception {
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      final CountDownLatch started = new CountDownLatch(1);
+      final CountDownLatch interrupted = new CountDownLatch(1);
+      RavenFuture<String> future = RavenFuture.supplyAsync(new Function0<String>() {
+        @Override
+        public String apply() {
+          started.countDown();
+          try {
+            Thread.sleep(TimeUnit.MINUTES.toMillis(1));
+          } catch (InterruptedException e) {
+            interrupted.countDown();
+          }
+          return "done";
+        }
+      }, executor);
+      assertTrue(started.await(10, TimeUnit.SECONDS));
+      assertTrue(future.cancel(true));
+      assertTrue(future.isCancelled());
+      assertTrue(interrupted.await(10, TimeUnit.SECONDS));
+
+      // interrupt isn't leaked to next task of the same thread
+      RavenFuture<Boolean> next = RavenFuture.supplyAsync(new Function0<Boolean>() {
+        @Override
+        public Boolean apply() {
+          return Thread.currentThread().isInterrupted();
+        }
+      }, executor);
+      assertFalse(next.get(10, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  public void joinKeepsInterruptStatus() {
+    Thread.currentThread().interrupt();
+    try {
+      new RavenFuture<String>().join();
+      fail();
+    } catch (RuntimeException e) {
+      assertTrue(e.getCause() instanceof InterruptedException);
+      assertTrue(Thread.interrupted());
+    }
+  }
+
+  @Test(expected = TimeoutException.class)
+  public void timesOut() throws Exception {
+    new RavenFuture<String>().get(10, TimeUnit.MILLISECONDS);
+  }
+}
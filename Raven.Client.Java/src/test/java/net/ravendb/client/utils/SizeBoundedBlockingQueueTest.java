@@ -0,0 +1,58 @@
+package net.ravendb.client.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+
+public class SizeBoundedBlockingQueueTest {
+
+  @Test
+  public void boundsBySizeAndAcceptsOversizedItemWhenEmpty() throws Exception {
+    SizeBoundedBlockingQueue<String> queue = new SizeBoundedBlockingQueue<>(10, 100);
+    assertTrue(queue.offer("big", 500, 0, TimeUnit.MILLISECONDS));
+    assertFalse(queue.offer("small", 1, 0, TimeUnit.MILLISECONDS));
+
+    assertEquals("big", queue.poll());
+    assertTrue(queue.offer("a", 60, 0, TimeUnit.MILLISECONDS));
+    assertFalse(queue.offer("b", 60, 0, TimeUnit.MILLISECONDS));
+    queue.add("marker");
+    assertEquals(2, queue.size());
+
+    assertEquals("a", queue.poll(0, TimeUnit.MILLISECONDS));
+    assertEquals("marker", queue.poll(0, TimeUnit.MILLISECONDS));
+    assertNull(queue.poll(1, TimeUnit.MILLISECONDS));
+  }
+
+  @Test
+  public void signalsWaitingProducer() throws Exception {
+    final SizeBoundedBlockingQueue<String> queue = new SizeBoundedBlockingQueue<>(1, 100);
+    queue.add("first");
+    final CountDownLatch offered = new CountDownLatch(1);
+    Thread producer = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          if (queue.offer("second", 1, 10, TimeUnit.SECONDS)) {
+            offered.countDown();
+          }
+        } catch (InterruptedException e) {
+          // test fails on timeout
+        }
+      }
+    });
+    producer.start();
+
+    assertFalse(offered.await(50, TimeUnit.MILLISECONDS));
+    assertEquals("first", queue.poll(1, TimeUnit.SECONDS));
+    assertTrue(offered.await(5, TimeUnit.SECONDS));
+    assertEquals("second", queue.poll(1, TimeUnit.SECONDS));
+    producer.join();
+  }
+}
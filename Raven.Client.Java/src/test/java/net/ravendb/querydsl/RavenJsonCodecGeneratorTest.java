@@ -0,0 +1,201 @@
+package net.ravendb.querydsl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.ServiceLoader;
+
+import javax.tools.JavaCompiler;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+
+import net.ravendb.abstractions.extensions.JsonExtensions;
+import net.ravendb.abstractions.json.JsonCodec;
+
+import org.apache.commons.io.FileUtils;
+import org.codehaus.jackson.JsonNode;
+import org.codehaus.jackson.map.ObjectMapper;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+
+public class RavenJsonCodecGeneratorTest {
+
+  private File workDir;
+
+  @Before
+  public void setUp() throws Exception {
+    workDir = File.createTempFile("codecs", "");
+    workDir.delete();
+    workDir.mkdirs();
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    FileUtils.deleteDirectory(workDir);
+  }
+
+  @Test
+  public void generatedCodecWritesTheSameJsonAsJackson() throws Exception {
+    writeSource("codectest/Address.java",
+      "package codectest;",
+      "public class Address {",
+      "  private String city;",
+      "  public String getCity() { return city; }",
+      "  public void setCity(String city) { this.city = city; }",
+      "}");
+    writeSource("codectest/Person.java",
+      "package codectest;",
+      "import java.util.List;",
+      "import com.mysema.query.annotations.QueryEntity;",
+      "@QueryEntity",
+      "public class Person {",
+      "  private String id;",
+      "  private String name;",
+      "  private int age;",
+      "  private Long score;",
+      "  private boolean active;",
+      "  private List<String> tags;",
+      "  private Address address;",
+      "  public String getId() { return id; }",
+      "  public void setId(String id) { this.id = id; }",
+      "  public String getName() { return name; }",
+      "  public void setName(String name) { this.name = name; }",
+      "  public int getAge() { return age; }",
+      "  public void setAge(int age) { this.age = age; }",
+      "  public Long getScore() { return score; }",
+      "  public void setScore(Long score) { this.score = score; }",
+      "  public boolean isActive() { return active; }",
+      "  public void setActive(boolean active) { this.active = active; }",
+      "  public List<String> getTags() { return tags; }",
+      "  public void setTags(List<String> tags) { this.tags = tags; }",
+      "  public Address getAddress() { return address; }",
+      "  public void setAddress(Address address) { this.address = address; }",
+      "}");
+    writeSource("codectest/Ignored.java",
+      "package codectest;",
+      "import com.mysema.query.annotations.QueryEntity;",
+      "import org.codehaus.jackson.annotate.JsonIgnore;",
+      "@QueryEntity",
+      "public class Ignored {",
+      "  private String name;",
+      "  @JsonIgnore",
+      "  public String getName() { return name; }",
+      "  public void setName(String name) { this.name = name; }",
+      "}");
+
+    File classes = compile("codectest/Address.java", "codectest/Person.java", "codectest/Ignored.java");
+
+    assertTrue(new File(workDir, "generated/codectest/PersonJsonCodec.java").exists());
+    assertFalse(new File(workDir, "generated/codectest/IgnoredJsonCodec.java").exists());
+    assertEquals("codectest.PersonJsonCodec",
+      FileUtils.readFileToString(new File(classes, "META-INF/services/" + JsonCodec.class.getName())).trim());
+
+    String json = "{\"Name\":\"John\",\"Age\":\"42\",\"Score\":null,\"Active\":true,\"Tags\":[\"a\",\"b\"],"
+      + "\"Address\":{\"City\":\"Springfield\"},\"Unknown\":{\"Nested\":[1,2]}}";
+
+    ClassLoader previous = Thread.currentThread().getContextClassLoader();
+    try (URLClassLoader classLoader = new URLClassLoader(new URL[] { classes.toURI().toURL() }, getClass().getClassLoader())) {
+      Class<?> personClass = classLoader.loadClass("codectest.Person");
+
+      Thread.currentThread().setContextClassLoader(new URLClassLoader(new URL[0], null));
+      ObjectMapper jacksonMapper = JsonExtensions.createDefaultJsonSerializer();
+
+      Thread.currentThread().setContextClassLoader(classLoader);
+      List<String> codecs = new ArrayList<>();
+      for (JsonCodec<?> codec : ServiceLoader.load(JsonCodec.class, classLoader)) {
+        codecs.add(codec.getType().getName());
+      }
+      assertEquals(Arrays.asList("codectest.Person"), codecs);
+      ObjectMapper codecMapper = JsonExtensions.createDefaultJsonSerializer();
+
+      Object expected = jacksonMapper.readValue(json, personClass);
+      Object actual = codecMapper.readValue(json, personClass);
+
+      JsonNode expectedJson = jacksonMapper.readTree(jacksonMapper.writeValueAsString(expected));
+      JsonNode actualJson = codecMapper.readTree(codecMapper.writeValueAsString(actual));
+      assertEquals(expectedJson, actualJson);
+      assertEquals(42, actualJson.get("Age").getIntValue());
+      assertEquals("Springfield", actualJson.get("Address").get("City").getTextValue());
+    } finally {
+      Thread.currentThread().setContextClassLoader(previous);
+    }
+  }
+
+  @Test
+  public void subclassOfEntityWithCodecIsSerializedByJackson() throws Exception {
+    writeSource("codectest/Animal.java",
+      "package codectest;",
+      "import com.mysema.query.annotations.QueryEntity;",
+      "@QueryEntity",
+      "public class Animal {",
+      "  private String name;",
+      "  public String getName() { return name; }",
+      "  public void setName(String name) { this.name = name; }",
+      "}");
+    writeSource("codectest/Dog.java",
+      "package codectest;",
+      "public class Dog extends Animal {",
+      "  private boolean bark;",
+      "  public boolean isBark() { return bark; }",
+      "  public void setBark(boolean bark) { this.bark = bark; }",
+      "}");
+
+    File classes = compile("codectest/Animal.java", "codectest/Dog.java");
+    assertTrue(new File(workDir, "generated/codectest/AnimalJsonCodec.java").exists());
+
+    ClassLoader previous = Thread.currentThread().getContextClassLoader();
+    try (URLClassLoader classLoader = new URLClassLoader(new URL[] { classes.toURI().toURL() }, getClass().getClassLoader())) {
+      Thread.currentThread().setContextClassLoader(classLoader);
+      // second mapper uses codecs cached for class loader
+      JsonExtensions.createDefaultJsonSerializer();
+      ObjectMapper mapper = JsonExtensions.createDefaultJsonSerializer();
+
+      Object animal = mapper.readValue("{\"Name\":\"generic\"}", classLoader.loadClass("codectest.Animal"));
+      assertEquals("{\"Name\":\"generic\"}", mapper.writeValueAsString(animal));
+
+      Object dog = mapper.readValue("{\"Name\":\"rex\",\"Bark\":true}", classLoader.loadClass("codectest.Dog"));
+      JsonNode dogJson = mapper.readTree(mapper.writeValueAsString(dog));
+      assertEquals("rex", dogJson.get("Name").getTextValue());
+      assertTrue(dogJson.get("Bark").getBooleanValue());
+    } finally {
+      Thread.currentThread().setContextClassLoader(previous);
+    }
+  }
+
+  private void writeSource(String path, String... lines) throws Exception {
+    File file = new File(workDir, "src/" + path);
+    file.getParentFile().mkdirs();
+    FileUtils.writeLines(file, StandardCharsets.UTF_8.name(), Arrays.asList(lines));
+  }
+
+  private File compile(String... paths) throws Exception {
+    File classes = new File(workDir, "classes");
+    File generated = new File(workDir, "generated");
+    classes.mkdirs();
+    generated.mkdirs();
+
+    JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    try (StandardJavaFileManager fileManager = compiler.getStandardFileManager(null, null, StandardCharsets.UTF_8)) {
+      List<File> files = new ArrayList<>();
+      for (String path : paths) {
+        files.add(new File(workDir, "src/" + path));
+      }
+      List<String> options = Arrays.asList("-classpath", System.getProperty("java.class.path"),
+        "-d", classes.getPath(), "-s", generated.getPath(),
+        "-processor", RavenDBAnnotationProcessor.class.getName(), "-A" + RavenJsonCodecGenerator.OPTION + "=true");
+      boolean success = compiler.getTask(null, fileManager, null, options, null, fileManager.getJavaFileObjectsFromFiles(files)).call();
+      assertTrue("Compilation failed", success);
+    }
+    return classes;
+  }
+}